@@ -61,4 +61,14 @@ public interface BatchScanner extends ScannerBase {
    */
   @Override
   void setTimeout(long timeout, TimeUnit timeUnit);
+  
+  /**
+   * Scans the ranges and passes each key value pair found to the visitor, as an alternative to {@link #iterator()} that does not create an entry for each
+   * pair. Results are decoded as the visitor consumes them, and the tablet servers are only asked for more once the visitor has caught up with what was read.
+   * 
+   * @param visitor
+   *          receives each key value pair, until it returns false
+   * @since 1.7.0
+   */
+  void visit(ScanVisitor visitor);
 }
@@ -140,6 +140,8 @@ public class ClientSideIteratorScanner extends ScannerOptions implements Scanner
     this.size = scanner.getBatchSize();
     this.timeOut = scanner.getTimeout(TimeUnit.MILLISECONDS);
     this.readaheadThreshold = scanner.getReadaheadThreshold();
+    this.cacheBlocks = scanner.getCacheBlocks();
+    this.executionHints = scanner.getExecutionHints();
   }
   
   /**
@@ -154,6 +156,8 @@ public class ClientSideIteratorScanner extends ScannerOptions implements Scanner
     smi.scanner.setBatchSize(size);
     smi.scanner.setTimeout(timeOut, TimeUnit.MILLISECONDS);
     smi.scanner.setReadaheadThreshold(readaheadThreshold);
+    smi.scanner.setCacheBlocks(cacheBlocks);
+    smi.scanner.setExecutionHints(executionHints);
     if (isolated)
       smi.scanner.enableIsolation();
     else
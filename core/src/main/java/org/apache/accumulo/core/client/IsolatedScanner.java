@@ -227,6 +227,8 @@ public class IsolatedScanner extends ScannerOptions implements Scanner {
     this.timeOut = scanner.getTimeout(TimeUnit.MILLISECONDS);
     this.batchSize = scanner.getBatchSize();
     this.readaheadThreshold = scanner.getReadaheadThreshold();
+    this.cacheBlocks = scanner.getCacheBlocks();
+    this.executionHints = scanner.getExecutionHints();
     this.bufferFactory = bufferFactory;
   }
   
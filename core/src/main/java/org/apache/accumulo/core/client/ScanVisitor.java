@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * Receives the key value pairs found by a {@link BatchScanner}, see {@link BatchScanner#visit(ScanVisitor)}.
+ * 
+ * @since 1.7.0
+ */
+public interface ScanVisitor {
+  
+  /**
+   * Called for each key value pair, on the thread that called {@link BatchScanner#visit(ScanVisitor)}.
+   * 
+   * @return true to continue the scan, false to stop it
+   */
+  boolean visit(Key key, Value value);
+}
@@ -64,6 +64,10 @@ public interface Scanner extends ScannerBase {
   /**
    * Sets the number of Key/Value pairs that will be fetched at a time from a tablet server.
    * 
+   * <p>
+   * If not set, the scanner starts with a default size and adapts it as it runs, fetching more at a time while the caller is waiting on tablet servers and
+   * less while the caller is slow to read what was fetched.
+   * 
    * @param size
    *          the number of Key/Value pairs to fetch per call to Accumulo
    */
@@ -94,7 +98,8 @@ public interface Scanner extends ScannerBase {
   long getReadaheadThreshold();
   
   /**
-   * Sets the number of batches of Key/Value pairs returned before the {@link Scanner} will begin to prefetch the next batch
+   * Sets the number of batches of Key/Value pairs returned before the {@link Scanner} will begin to prefetch the next batch. If not set, the scanner also
+   * begins to prefetch as soon as the caller is waiting on tablet servers.
    * @param batches Non-negative number of batches
    * @since 1.6.0
    */
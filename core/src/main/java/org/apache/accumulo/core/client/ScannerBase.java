@@ -17,6 +17,7 @@
 package org.apache.accumulo.core.client;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
@@ -120,6 +121,46 @@ public interface ScannerBase extends Iterable<Entry<Key,Value>> {
    * @since 1.5.0
    */
   long getTimeout(TimeUnit timeUnit);
+  
+  /**
+   * Controls whether tablet servers add the file blocks they read for this scan to their data block cache. Blocks that are already cached are used either
+   * way. Turning this off for large one time scans keeps them from evicting the blocks other scans are using. By default blocks are cached.
+   * 
+   * @param cacheBlocks
+   *          false to keep blocks read by this scan out of the data block cache
+   * @since 1.7.0
+   */
+  void setCacheBlocks(boolean cacheBlocks);
+  
+  /**
+   * Returns whether tablet servers will add the file blocks read for this scan to their data block cache.
+   * 
+   * @return true if blocks read by this scan are cached
+   * @since 1.7.0
+   */
+  boolean getCacheBlocks();
+  
+  /**
+   * Sets hints that tablet servers use to decide how to run this scan, so that scans a user is waiting on can be kept apart from large background scans. A
+   * tablet server ignores hints it does not know, and passes all of them to the prioritizer of its scan executor. The hints it knows are
+   * <ul>
+   * <li><tt>executor</tt> the name of the tablet server scan executor to run the scan in, instead of the one set by table.scan.executor
+   * <li><tt>cache</tt> set to false to keep the blocks read by the scan out of the data block cache, as {@link #setCacheBlocks(boolean)} does
+   * </ul>
+   * 
+   * @param hints
+   *          replaces any hints set before
+   * @since 1.7.0
+   */
+  void setExecutionHints(Map<String,String> hints);
+  
+  /**
+   * Returns the hints tablet servers use to decide how to run this scan.
+   * 
+   * @return the hints set for this scan, empty if there are none
+   * @since 1.7.0
+   */
+  Map<String,String> getExecutionHints();
 
   /**
    * Closes any underlying connections on the scanner
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Mutations for one tablet packed into a single buffer, so they cross the wire as one binary field instead of a Thrift struct each. The buffer starts with a
+ * flags byte saying whether the rest is deflated. The rest is the number of mutations followed by each mutation as {@link Mutation#write(java.io.DataOutput)}
+ * writes it.
+ */
+public class MutationBatch {
+
+  private static final byte DEFLATED = 0x01;
+
+  public static ByteBuffer encode(List<Mutation> mutations, boolean compress) throws IOException {
+    DataOutputBuffer buffer = new DataOutputBuffer();
+    buffer.writeByte(compress ? DEFLATED : 0);
+    Deflater deflater = null;
+    DataOutputStream out = buffer;
+    if (compress) {
+      deflater = new Deflater(Deflater.BEST_SPEED);
+      out = new DataOutputStream(new DeflaterOutputStream(buffer, deflater));
+    }
+    try {
+      WritableUtils.writeVInt(out, mutations.size());
+      for (Mutation mutation : mutations)
+        mutation.write(out);
+      out.close();
+    } finally {
+      if (deflater != null)
+        deflater.end();
+    }
+    return ByteBuffer.wrap(buffer.getData(), 0, buffer.getLength());
+  }
+
+  /**
+   * Reads the mutations of a batch in order. The receiver reads each one from the input {@link #next()} returns, as whatever kind of mutation it wants.
+   */
+  public static class Reader implements Closeable {
+    private final DataInputStream in;
+    private int remaining;
+
+    public Reader(ByteBuffer batch) throws IOException {
+      int offset = batch.arrayOffset() + batch.position();
+      InputStream bytes = new ByteArrayInputStream(batch.array(), offset + 1, batch.remaining() - 1);
+      if ((batch.get(batch.position()) & DEFLATED) != 0)
+        bytes = new InflaterInputStream(bytes);
+      in = new DataInputStream(bytes);
+      remaining = WritableUtils.readVInt(in);
+    }
+
+    public boolean hasNext() {
+      return remaining > 0;
+    }
+
+    /**
+     * @return the input to read the next mutation from
+     */
+    public DataInput next() {
+      if (remaining <= 0)
+        throw new NoSuchElementException();
+      remaining--;
+      return in;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
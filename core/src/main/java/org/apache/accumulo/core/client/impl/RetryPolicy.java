@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.client.Instance;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * How the clients of an instance wait before retrying an operation on a tablet that failed. Each wait is twice as long as the one before, with random jitter
+ * so that clients that failed together do not retry together. A wait ends early when a tablet locator of the instance learns a new location for the table the
+ * retry is waiting on, since that is usually what the retry is waiting for. Retries are counted by cause.
+ */
+public class RetryPolicy {
+
+  private static final Logger log = Logger.getLogger(RetryPolicy.class);
+
+  public static enum Cause {
+    /** the location of a tablet was not known */
+    LOCATE_FAILED,
+    /** a tablet server was not serving the tablet */
+    NOT_SERVING_TABLET,
+    /** a tablet had too many files to be read */
+    TOO_MANY_FILES,
+    /** a tablet server could not be reached, or failed the request */
+    SERVER_ERROR
+  }
+
+  static final long INITIAL_WAIT = 100;
+  static final long MAX_WAIT = 5000;
+  private static final long STATS_LOG_INTERVAL = 60 * 1000;
+
+  // a policy is dropped once no locator, scanner or writer of its instance holds it
+  private static final ConcurrentMap<String,RetryPolicy> policies = new MapMaker().weakValues().makeMap();
+
+  /**
+   * @return the policy shared by the clients of an instance
+   */
+  public static RetryPolicy get(Instance instance) {
+    String instanceId = instance.getInstanceID();
+    RetryPolicy policy = policies.get(instanceId);
+    if (policy == null) {
+      policy = new RetryPolicy();
+      RetryPolicy existing = policies.putIfAbsent(instanceId, policy);
+      if (existing != null)
+        policy = existing;
+    }
+    return policy;
+  }
+
+  /**
+   * Counts the locations learned for a table. The retries waiting on the table wait on it.
+   */
+  public static class TableLocations {
+
+    private final AtomicLong learned = new AtomicLong(0);
+    // waiters are only notified when there are some
+    private final AtomicInteger waiters = new AtomicInteger(0);
+
+    /**
+     * @return a number that changes each time a location of the table is learned, for callers that wait some other way
+     */
+    public long getLearned() {
+      return learned.get();
+    }
+
+    private void learned() {
+      learned.incrementAndGet();
+      if (waiters.get() > 0) {
+        synchronized (this) {
+          notifyAll();
+        }
+      }
+    }
+  }
+
+  private final Map<Cause,AtomicLong> retries = new EnumMap<Cause,AtomicLong>(Cause.class);
+  private final AtomicLong lastStatsLog = new AtomicLong(System.currentTimeMillis());
+  private final Random random = new Random();
+
+  // a table is dropped once no retry or writer holds it, so a location learned for it has nobody to wake
+  private final ConcurrentMap<String,TableLocations> tables = new MapMaker().weakValues().makeMap();
+
+  RetryPolicy() {
+    for (Cause cause : Cause.values())
+      retries.put(cause, new AtomicLong(0));
+  }
+
+  private void countRetry(Cause cause) {
+    retries.get(cause).incrementAndGet();
+
+    // retries come in bursts when tablets move, so log the counts then, at most once a minute
+    long now = System.currentTimeMillis();
+    long last = lastStatsLog.get();
+    if (now - last >= STATS_LOG_INTERVAL && lastStatsLog.compareAndSet(last, now) && log.isDebugEnabled())
+      log.debug("Retries: " + retries);
+  }
+
+  /**
+   * @return the number of retries for the cause since the policy was created
+   */
+  public long getRetries(Cause cause) {
+    return retries.get(cause).get();
+  }
+
+  /**
+   * @return the locations learned for a table, hold on to it to see the locations learned from now on
+   */
+  public TableLocations getLocations(String tableId) {
+    TableLocations locations = tables.get(tableId);
+    if (locations == null) {
+      locations = new TableLocations();
+      TableLocations existing = tables.putIfAbsent(tableId, locations);
+      if (existing != null)
+        locations = existing;
+    }
+    return locations;
+  }
+
+  /**
+   * Wake the retries that are waiting on the table, a tablet locator learned a new location for it.
+   */
+  public void locationLearned(String tableId) {
+    TableLocations locations = tables.get(tableId);
+    if (locations != null)
+      locations.learned();
+  }
+
+  /**
+   * @return a sequence of retries of one operation on a table, whose waits end early when a location of the table is learned
+   */
+  public Retry newRetry(String tableId) {
+    return new Retry(tableId, getLocations(tableId));
+  }
+
+  /**
+   * @return a sequence of retries of one operation, whose waits only end when the backoff is over
+   */
+  public Retry newRetry() {
+    return new Retry(null, new TableLocations());
+  }
+
+  public class Retry {
+
+    private final String tableId;
+    private final TableLocations locations;
+    private int attempts = 0;
+
+    private Retry(String tableId, TableLocations locations) {
+      this.tableId = tableId;
+      this.locations = locations;
+    }
+
+    /**
+     * @return the time to wait before the next retry, between half and all of the backoff for the number of retries so far
+     */
+    public long nextWait() {
+      long backoff = INITIAL_WAIT << Math.min(attempts, 20);
+      backoff = Math.min(backoff, MAX_WAIT);
+      long half = backoff / 2;
+      synchronized (random) {
+        return half + (long) (random.nextDouble() * (backoff - half));
+      }
+    }
+
+    /**
+     * Count a retry for the cause, for callers that wait some other way.
+     *
+     * @return the time to wait before the retry
+     */
+    public long startRetry(Cause cause) {
+      long wait = nextWait();
+      attempts++;
+      countRetry(cause);
+      if (log.isTraceEnabled())
+        log.trace("Retry " + attempts + " of " + cause + (tableId == null ? "" : " for table " + tableId) + " in " + wait + "ms");
+      return wait;
+    }
+
+    /**
+     * Count a retry for the cause, then wait before it.
+     *
+     * @throws RuntimeException
+     *           caused by an InterruptedException if the thread is interrupted before or while waiting, so the caller stops retrying. The thread is left
+     *           interrupted.
+     */
+    public void waitForRetry(Cause cause) {
+      if (Thread.currentThread().isInterrupted())
+        throw new RuntimeException(new InterruptedException());
+      long wait = startRetry(cause);
+
+      long learned = locations.getLearned();
+      long deadline = System.currentTimeMillis() + wait;
+      locations.waiters.incrementAndGet();
+      try {
+        synchronized (locations) {
+          while (locations.getLearned() == learned) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0)
+              break;
+            locations.wait(remaining);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } finally {
+        locations.waiters.decrementAndGet();
+      }
+    }
+
+    /**
+     * Start the backoff over, the operation succeeded.
+     */
+    public void reset() {
+      attempts = 0;
+    }
+
+    public int getAttempts() {
+      return attempts;
+    }
+  }
+}
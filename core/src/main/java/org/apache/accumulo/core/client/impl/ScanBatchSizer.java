@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+/**
+ * Chooses how many entries a scanner asks a tablet server for at a time, by comparing how long each batch took to fetch with how long the consumer took to
+ * read it. When the consumer is waiting on the tablet server, as in a long sequential scan, the batch size doubles so fewer round trips are needed. When the
+ * consumer takes much longer to read a batch than it took to fetch, as in an interactive scan, the batch size halves so less is read that may never be used.
+ * The batch size stays between an eighth and sixteen times the initial size, and is limited so a batch of entries of the average size seen fits in maxBytes.
+ */
+class ScanBatchSizer {
+
+  static final int MIN_DIVISOR = 8;
+  static final int MAX_MULTIPLIER = 16;
+  // the consumer is considered slow when it takes this many times longer to read a batch than the batch took to fetch
+  static final int SLOW_CONSUMER_FACTOR = 8;
+
+  private final boolean adaptive;
+  private final int minSize;
+  private final int maxSize;
+  private final long maxBytes;
+
+  private int size;
+  private long lastFetchNanos = 0;
+  private boolean consumerWaiting = false;
+
+  // metrics
+  private long batches = 0;
+  private long entries = 0;
+  private long bytes = 0;
+  private long fetchNanos = 0;
+
+  /**
+   * @param adaptive
+   *          false to always use the initial size, the sizer then only keeps metrics
+   */
+  ScanBatchSizer(int initialSize, long maxBytes, boolean adaptive) {
+    this.adaptive = adaptive;
+    this.size = initialSize;
+    this.minSize = Math.max(1, initialSize / MIN_DIVISOR);
+    this.maxSize = (int) Math.min(Integer.MAX_VALUE, (long) initialSize * MAX_MULTIPLIER);
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Note a batch fetched from a tablet server.
+   */
+  synchronized void fetched(int batchEntries, long batchBytes, long nanos) {
+    batches++;
+    entries += batchEntries;
+    bytes += batchBytes;
+    fetchNanos += nanos;
+    lastFetchNanos = nanos;
+  }
+
+  /**
+   * Note how long the consumer took to read the last batch fetched, and adjust the batch size for the next fetch.
+   */
+  synchronized void consumed(long nanos) {
+    consumerWaiting = nanos < lastFetchNanos;
+    if (!adaptive)
+      return;
+
+    if (consumerWaiting) {
+      long limit = maxSize;
+      long averageSize = getAverageEntrySize();
+      if (averageSize > 0)
+        limit = Math.min(limit, Math.max(minSize, maxBytes / averageSize));
+      size = (int) Math.max(size, Math.min(limit, (long) size * 2));
+    } else if (nanos > lastFetchNanos * SLOW_CONSUMER_FACTOR) {
+      size = Math.max(minSize, size / 2);
+    }
+  }
+
+  /**
+   * @return true if the consumer finished the last batch before the one after it could have been fetched, so reading ahead would help it
+   */
+  synchronized boolean isConsumerWaiting() {
+    return consumerWaiting;
+  }
+
+  synchronized int getBatchSize() {
+    return size;
+  }
+
+  synchronized long getBatches() {
+    return batches;
+  }
+
+  synchronized long getEntries() {
+    return entries;
+  }
+
+  synchronized long getBytes() {
+    return bytes;
+  }
+
+  synchronized long getFetchNanos() {
+    return fetchNanos;
+  }
+
+  synchronized long getAverageEntrySize() {
+    return entries == 0 ? 0 : bytes / entries;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return batches + " batches, " + entries + " entries, " + bytes + " bytes, " + (fetchNanos / 1000000) + "ms fetching, batch size " + size
+        + (adaptive ? " (adaptive)" : "");
+  }
+}
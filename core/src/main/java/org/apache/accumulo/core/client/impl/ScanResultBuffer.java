@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.accumulo.core.data.thrift.TKeyValue;
+
+/**
+ * Holds the results that the query threads of a batch scanner have received and its consumer has not read yet. The results are kept as they came from the
+ * tablet server and the buffer is bounded by their size in bytes, so a query thread that would overfill it waits before asking its tablet server for more.
+ * There is a single consumer. The bytes of a batch are counted until the consumer takes the next one.
+ */
+class ScanResultBuffer {
+
+  // approximate memory used by a key value pair beyond its data
+  static final int ENTRY_OVERHEAD = 64;
+
+  private final long maxBytes;
+  private final ArrayDeque<List<TKeyValue>> batches = new ArrayDeque<List<TKeyValue>>();
+  private final ArrayDeque<Long> batchSizes = new ArrayDeque<Long>();
+  private long bufferedBytes = 0;
+  private long takenBytes = 0;
+  private boolean finished = false;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notFull = lock.newCondition();
+  private final Condition notEmpty = lock.newCondition();
+
+  ScanResultBuffer(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  static long size(List<TKeyValue> batch) {
+    long size = 0;
+    for (TKeyValue kv : batch) {
+      size += ENTRY_OVERHEAD + kv.key.bufferForRow().remaining() + kv.key.bufferForColFamily().remaining() + kv.key.bufferForColQualifier().remaining()
+          + kv.key.bufferForColVisibility().remaining() + kv.bufferForValue().remaining();
+    }
+    return size;
+  }
+
+  /**
+   * Add a batch, waiting while the buffer is full. A batch is always accepted when nothing is buffered, however large it is.
+   * 
+   * @return false if the buffer was finished, and the batch dropped
+   */
+  boolean put(List<TKeyValue> batch) throws InterruptedException {
+    long size = size(batch);
+    lock.lockInterruptibly();
+    try {
+      while (!finished && bufferedBytes + takenBytes > 0 && bufferedBytes + takenBytes + size > maxBytes)
+        notFull.await();
+      if (finished)
+        return false;
+      batches.addLast(batch);
+      batchSizes.addLast(size);
+      bufferedBytes += size;
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Mark the end of the results. The consumer still takes the batches already buffered, batches added after this are dropped.
+   */
+  void finish() {
+    lock.lock();
+    try {
+      finished = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the next batch, or null if the buffer is finished and empty, or if none arrived in time
+   */
+  List<TKeyValue> take(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      if (takenBytes > 0) {
+        takenBytes = 0;
+        notFull.signalAll();
+      }
+      while (batches.isEmpty()) {
+        if (finished || nanos <= 0)
+          return null;
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      takenBytes = batchSizes.removeFirst();
+      bufferedBytes -= takenBytes;
+      return batches.removeFirst();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return true if the buffer is finished, so that it takes no more batches
+   */
+  boolean isFinished() {
+    lock.lock();
+    try {
+      return finished;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return true if the buffer is finished and the consumer has taken every batch
+   */
+  boolean isDone() {
+    lock.lock();
+    try {
+      return finished && batches.isEmpty();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
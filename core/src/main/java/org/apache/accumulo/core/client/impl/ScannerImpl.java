@@ -22,14 +22,19 @@ import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.Constants;
+import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.Credentials;
 import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
 
 /**
  * provides scanner functionality
@@ -41,6 +46,8 @@ import org.apache.hadoop.io.Text;
  */
 public class ScannerImpl extends ScannerOptions implements Scanner {
   
+  private static final Logger log = Logger.getLogger(ScannerImpl.class);
+  
   // keep a list of columns over which to scan
   // keep track of the last thing read
   // hopefully, we can track all the state in the scanner on the client
@@ -52,10 +59,15 @@ public class ScannerImpl extends ScannerOptions implements Scanner {
   private Text table;
   
   private int size;
+  // the batch size and read-ahead adapt to how fast results are consumed, unless they were set
+  private boolean batchSizeSet = false;
+  // the table's table.scan.max.memory, which limits adapted batches, read once when first needed
+  private long maxBatchBytes = -1;
   
   private Range range;
   private boolean isolated = false;
   private long readaheadThreshold = Constants.SCANNER_DEFAULT_READAHEAD_THRESHOLD;
+  private boolean readaheadThresholdSet = false;
   
   public ScannerImpl(Instance instance, Credentials credentials, String table, Authorizations authorizations) {
     checkArgument(instance != null, "instance is null");
@@ -84,9 +96,10 @@ public class ScannerImpl extends ScannerOptions implements Scanner {
   
   @Override
   public synchronized void setBatchSize(int size) {
-    if (size > 0)
+    if (size > 0) {
       this.size = size;
-    else
+      batchSizeSet = true;
+    } else
       throw new IllegalArgumentException("size must be greater than zero");
   }
   
@@ -101,7 +114,27 @@ public class ScannerImpl extends ScannerOptions implements Scanner {
    */
   @Override
   public synchronized Iterator<Entry<Key,Value>> iterator() {
-    return new ScannerIterator(instance, credentials, table, authorizations, range, size, getTimeOut(), this, isolated, readaheadThreshold);
+    return new ScannerIterator(instance, credentials, table, authorizations, range, size, getTimeOut(), this, isolated, readaheadThreshold, !batchSizeSet,
+        batchSizeSet ? 0 : getMaxBatchBytes(), !readaheadThresholdSet);
+  }
+  
+  private long getMaxBatchBytes() {
+    if (maxBatchBytes < 0) {
+      // the table may set more or less memory than the client's configuration
+      maxBatchBytes = ServerConfigurationUtil.getConfiguration(instance).getMemoryInBytes(Property.TABLE_SCAN_MAXMEM);
+      try {
+        String tableName = Tables.getTableName(instance, table.toString());
+        for (Entry<String,String> property : new TableOperationsImpl(instance, credentials).getProperties(tableName)) {
+          if (property.getKey().equals(Property.TABLE_SCAN_MAXMEM.getKey()))
+            maxBatchBytes = AccumuloConfiguration.getMemoryInBytes(property.getValue());
+        }
+      } catch (TableNotFoundException e) {
+        log.debug("Unable to read " + Property.TABLE_SCAN_MAXMEM.getKey() + " of table " + table + ", using the client's " + maxBatchBytes, e);
+      } catch (AccumuloException e) {
+        log.debug("Unable to read " + Property.TABLE_SCAN_MAXMEM.getKey() + " of table " + table + ", using the client's " + maxBatchBytes, e);
+      }
+    }
+    return maxBatchBytes;
   }
   
   @Override
@@ -139,6 +172,7 @@ public class ScannerImpl extends ScannerOptions implements Scanner {
     }
     
     readaheadThreshold = batches;
+    readaheadThresholdSet = true;
   }
   
   @Override
@@ -35,6 +35,7 @@ import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.TableOfflineException;
 import org.apache.accumulo.core.client.impl.ThriftScanner.ScanState;
 import org.apache.accumulo.core.client.impl.ThriftScanner.ScanTimedOutException;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.KeyValue;
 import org.apache.accumulo.core.data.Range;
@@ -68,6 +69,11 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
   private boolean readaheadInProgress = false;
   private long batchCount = 0;
   private long readaheadThreshold;
+  private final boolean adaptiveReadahead;
+  
+  private final ScanBatchSizer sizer;
+  // when the consumer was handed the current batch
+  private long batchStartTime = 0;
   
   private static final List<KeyValue> EMPTY_LIST = Collections.emptyList();
   
@@ -81,6 +87,7 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
       
       try {
         while (true) {
+          long start = System.nanoTime();
           List<KeyValue> currentBatch = ThriftScanner.scan(instance, credentials, scanState, timeOut, ServerConfigurationUtil.getConfiguration(instance));
           
           if (currentBatch == null) {
@@ -88,6 +95,8 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
             return;
           }
           
+          sizer.fetched(currentBatch.size(), sizeOf(currentBatch), System.nanoTime() - start);
+          
           if (currentBatch.size() == 0)
             continue;
           
@@ -125,16 +134,27 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
   
   ScannerIterator(Instance instance, Credentials credentials, Text table, Authorizations authorizations, Range range, int size, int timeOut,
       ScannerOptions options, boolean isolated) {
-    this(instance, credentials, table, authorizations, range, size, timeOut, options, isolated, Constants.SCANNER_DEFAULT_READAHEAD_THRESHOLD);
+    this(instance, credentials, table, authorizations, range, size, timeOut, options, isolated, Constants.SCANNER_DEFAULT_READAHEAD_THRESHOLD, false,
+        ServerConfigurationUtil.getConfiguration(instance).getMemoryInBytes(Property.TABLE_SCAN_MAXMEM), false);
   }
   
+  /**
+   * @param adaptiveSize
+   *          true to adapt the batch size to how fast the results are consumed, starting from size
+   * @param maxBatchBytes
+   *          the memory an adapted batch may use, the table's table.scan.max.memory
+   * @param adaptiveReadahead
+   *          true to also start reading ahead before readaheadThreshold batches when the consumer is waiting on the tablet server
+   */
   ScannerIterator(Instance instance, Credentials credentials, Text table, Authorizations authorizations, Range range, int size, int timeOut,
-      ScannerOptions options, boolean isolated, long readaheadThreshold) {
+      ScannerOptions options, boolean isolated, long readaheadThreshold, boolean adaptiveSize, long maxBatchBytes, boolean adaptiveReadahead) {
     this.instance = instance;
     this.tableId = new Text(table);
     this.timeOut = timeOut;
     this.credentials = credentials;
     this.readaheadThreshold = readaheadThreshold;
+    this.adaptiveReadahead = adaptiveReadahead;
+    this.sizer = new ScanBatchSizer(size, maxBatchBytes, adaptiveSize);
     
     this.options = new ScannerOptions(options);
     
@@ -146,6 +166,8 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
     
     scanState = new ScanState(instance, credentials, tableId, authorizations, new Range(range), options.fetchedColumns, size, options.serverSideIteratorList,
         options.serverSideIteratorOptions, isolated, readaheadThreshold);
+    scanState.cacheBlocks = options.cacheBlocks;
+    scanState.executionHints = options.executionHints;
     
     // If we want to start readahead immediately, don't wait for hasNext to be called
     if (0l == readaheadThreshold) {
@@ -154,8 +176,16 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
     iter = null;
   }
   
+  private static long sizeOf(List<KeyValue> batch) {
+    long size = 0;
+    for (KeyValue kv : batch)
+      size += kv.getKey().getSize() + kv.getValue().getSize();
+    return size;
+  }
+  
   private void initiateReadAhead() {
     readaheadInProgress = true;
+    scanState.size = sizer.getBatchSize();
     readaheadPool.execute(new Reader());
   }
   
@@ -171,9 +201,17 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
     
     // this is done in order to find see if there is another batch to get
     
+    if (batchStartTime != 0) {
+      int oldSize = sizer.getBatchSize();
+      sizer.consumed(System.nanoTime() - batchStartTime);
+      if (log.isDebugEnabled() && sizer.getBatchSize() != oldSize)
+        log.debug("Scan of table " + tableId + " changed batch size from " + oldSize + " to " + sizer.getBatchSize());
+    }
+    
     try {
       if (!readaheadInProgress) {
         // no read ahead run, fetch the next batch right now
+        scanState.size = sizer.getBatchSize();
         new Reader().run();
       }
       
@@ -192,12 +230,15 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
       if (currentBatch.size() == 0) {
         currentBatch = null;
         finished = true;
+        if (log.isDebugEnabled())
+          log.debug("Finished scan of table " + tableId + ", " + sizer);
         return false;
       }
       iter = currentBatch.iterator();
       batchCount++;
+      batchStartTime = System.nanoTime();
       
-      if (batchCount > readaheadThreshold) {
+      if (batchCount > readaheadThreshold || (adaptiveReadahead && sizer.isConsumerWaiting())) {
         // start a thread to read the next batch
         initiateReadAhead();
       }
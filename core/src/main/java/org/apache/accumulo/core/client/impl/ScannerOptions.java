@@ -47,6 +47,10 @@ public class ScannerOptions implements ScannerBase {
   
   protected long timeOut = Long.MAX_VALUE;
   
+  protected boolean cacheBlocks = true;
+  
+  protected Map<String,String> executionHints = Collections.emptyMap();
+  
   private String regexIterName = null;
   
   protected ScannerOptions() {}
@@ -172,6 +176,8 @@ public class ScannerOptions implements ScannerBase {
     synchronized (dst) {
       synchronized (src) {
         dst.regexIterName = src.regexIterName;
+        dst.cacheBlocks = src.cacheBlocks;
+        dst.executionHints = src.executionHints;
         dst.fetchedColumns = new TreeSet<Column>(src.fetchedColumns);
         dst.serverSideIteratorList = new ArrayList<IterInfo>(src.serverSideIteratorList);
         
@@ -205,6 +211,27 @@ public class ScannerOptions implements ScannerBase {
     return timeunit.convert(timeOut, TimeUnit.MILLISECONDS);
   }
   
+  @Override
+  public synchronized void setCacheBlocks(boolean cacheBlocks) {
+    this.cacheBlocks = cacheBlocks;
+  }
+  
+  @Override
+  public synchronized boolean getCacheBlocks() {
+    return cacheBlocks;
+  }
+  
+  @Override
+  public synchronized void setExecutionHints(Map<String,String> hints) {
+    checkArgument(hints != null, "hints is null");
+    this.executionHints = Collections.unmodifiableMap(new HashMap<String,String>(hints));
+  }
+  
+  @Override
+  public synchronized Map<String,String> getExecutionHints() {
+    return executionHints;
+  }
+  
   @Override
   public void close() {
     // Nothing needs to be closed
@@ -102,9 +102,11 @@ public abstract class TabletLocator {
       if (tableId.toString().equals(RootTable.ID)) {
         tl = new RootTabletLocator(instance, new ZookeeperLockChecker(instance));
       } else if (tableId.toString().equals(MetadataTable.ID)) {
-        tl = new TabletLocatorImpl(new Text(MetadataTable.ID), getLocator(instance, new Text(RootTable.ID)), mlo, new ZookeeperLockChecker(instance));
+        tl = new TabletLocatorImpl(new Text(MetadataTable.ID), getLocator(instance, new Text(RootTable.ID)), mlo, new ZookeeperLockChecker(instance),
+            RetryPolicy.get(instance));
       } else {
-        tl = new TabletLocatorImpl(tableId, getLocator(instance, new Text(MetadataTable.ID)), mlo, new ZookeeperLockChecker(instance));
+        tl = new TabletLocatorImpl(tableId, getLocator(instance, new Text(MetadataTable.ID)), mlo, new ZookeeperLockChecker(instance),
+            RetryPolicy.get(instance));
       }
       locators.put(key, tl);
     }
@@ -112,6 +114,13 @@ public abstract class TabletLocator {
     return tl;
   }
   
+  /**
+   * Use a locator for a table instead of finding its tablets in the metadata table. For tests that run without a metadata table.
+   */
+  static synchronized void setLocator(Instance instance, Text tableId, TabletLocator locator) {
+    locators.put(new LocatorKey(instance.getInstanceID(), tableId), locator);
+  }
+  
   public static class TabletLocations {
     
     private final List<TabletLocation> locations;
@@ -27,11 +27,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
 import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -45,12 +47,16 @@ import org.apache.accumulo.core.security.Credentials;
 import org.apache.accumulo.core.util.OpTimer;
 import org.apache.accumulo.core.util.Pair;
 import org.apache.accumulo.core.util.TextUtil;
-import org.apache.accumulo.core.util.UtilWaitThread;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableComparator;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
+/**
+ * Caches the locations of a table's tablets. Reads of the cache take no lock, so any number of threads can bin mutations and ranges at once. Invalidating
+ * entries takes no lock either, the invalidated extents are looked up again by the next thread that uses the cache. Only threads that read the metadata
+ * table and update the cache take a lock, so that the same locations are not looked up by many threads at once.
+ */
 public class TabletLocatorImpl extends TabletLocator {
   
   private static final Logger log = Logger.getLogger(TabletLocatorImpl.class);
@@ -88,15 +94,22 @@ public class TabletLocatorImpl extends TabletLocator {
   
   protected Text tableId;
   protected TabletLocator parent;
-  protected TreeMap<Text,TabletLocation> metaCache = new TreeMap<Text,TabletLocation>(endRowComparator);
+  protected NavigableMap<Text,TabletLocation> metaCache = new ConcurrentSkipListMap<Text,TabletLocation>(endRowComparator);
   protected TabletLocationObtainer locationObtainer;
   private TabletServerLockChecker lockChecker;
   protected Text lastTabletRow;
   
-  private TreeSet<KeyExtent> badExtents = new TreeSet<KeyExtent>();
-  private ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-  private final Lock rLock = rwLock.readLock();
-  private final Lock wLock = rwLock.writeLock();
+  private ConcurrentSkipListSet<KeyExtent> badExtents = new ConcurrentSkipListSet<KeyExtent>();
+  // held while reading the metadata table and updating the cache
+  private final Lock updateLock = new ReentrantLock();
+  
+  private final AtomicLong cacheHits = new AtomicLong(0);
+  private final AtomicLong cacheMisses = new AtomicLong(0);
+  private final AtomicLong metadataLookups = new AtomicLong(0);
+  private final AtomicLong lastStatsLog = new AtomicLong(System.currentTimeMillis());
+  private static final long STATS_LOG_INTERVAL = 60 * 1000;
+  
+  private final RetryPolicy retryPolicy;
 
   
   public interface TabletLocationObtainer {
@@ -152,10 +165,19 @@ public class TabletLocatorImpl extends TabletLocator {
   }
 
   public TabletLocatorImpl(Text table, TabletLocator parent, TabletLocationObtainer tlo, TabletServerLockChecker tslc) {
+    this(table, parent, tlo, tslc, new RetryPolicy());
+  }
+  
+  /**
+   * @param retryPolicy
+   *          how to wait to retry locating a tablet, it is told of each location learned
+   */
+  public TabletLocatorImpl(Text table, TabletLocator parent, TabletLocationObtainer tlo, TabletServerLockChecker tslc, RetryPolicy retryPolicy) {
     this.tableId = table;
     this.parent = parent;
     this.locationObtainer = tlo;
     this.lockChecker = tslc;
+    this.retryPolicy = retryPolicy;
     
     this.lastTabletRow = new Text(tableId);
     lastTabletRow.append(new byte[] {'<'}, 0, 1);
@@ -174,25 +196,21 @@ public class TabletLocatorImpl extends TabletLocator {
     
     LockCheckerSession lcSession = new LockCheckerSession();
 
-    rLock.lock();
-    try {
-      processInvalidated(credentials, lcSession);
-      
-      // for this to be efficient rows need to be in sorted order, but always sorting is slow... therefore only sort the
-      // stuff not in the cache.... it is most efficient to pass _locateTablet rows in sorted order
-      
-      // For this to be efficient, need to avoid fine grained synchronization and fine grained logging.
-      // Therefore methods called by this are not synchronized and should not log.
-      
-      for (T mutation : mutations) {
-        row.set(mutation.getRow());
-        TabletLocation tl = locateTabletInCache(row);
-        if (tl == null || !addMutation(binnedMutations, mutation, tl, lcSession))
-          notInCache.add(mutation);
-      }
-    } finally {
-      rLock.unlock();
+    processInvalidated(credentials, lcSession);
+    
+    // for this to be efficient rows need to be in sorted order, but always sorting is slow... therefore only sort the
+    // stuff not in the cache.... it is most efficient to pass _locateTablet rows in sorted order
+    
+    // For this to be efficient, need to avoid fine grained synchronization and fine grained logging.
+    // Therefore methods called by this are not synchronized and should not log.
+    
+    for (T mutation : mutations) {
+      row.set(mutation.getRow());
+      TabletLocation tl = locateTabletInCache(row);
+      if (tl == null || !addMutation(binnedMutations, mutation, tl, lcSession))
+        notInCache.add(mutation);
     }
+    cacheHits.addAndGet(mutations.size() - notInCache.size());
     
     if (notInCache.size() > 0) {
       Collections.sort(notInCache, new Comparator<Mutation>() {
@@ -202,7 +220,7 @@ public class TabletLocatorImpl extends TabletLocator {
         }
       });
       
-      wLock.lock();
+      updateLock.lock();
       try {
         boolean failed = false;
         for (T mutation : notInCache) {
@@ -223,7 +241,7 @@ public class TabletLocatorImpl extends TabletLocator {
           }
         }
       } finally {
-        wLock.unlock();
+        updateLock.unlock();
       }
     }
 
@@ -331,31 +349,26 @@ public class TabletLocatorImpl extends TabletLocator {
     
     LockCheckerSession lcSession = new LockCheckerSession();
 
-    List<Range> failures;
-    rLock.lock();
-    try {
-      processInvalidated(credentials, lcSession);
-      
-      // for this to be optimal, need to look ranges up in sorted order when
-      // ranges are not present in cache... however do not want to always
-      // sort ranges... therefore try binning ranges using only the cache
-      // and sort whatever fails and retry
-      
-      failures = binRanges(credentials, ranges, binnedRanges, true, lcSession);
-    } finally {
-      rLock.unlock();
-    }
+    processInvalidated(credentials, lcSession);
+    
+    // for this to be optimal, need to look ranges up in sorted order when
+    // ranges are not present in cache... however do not want to always
+    // sort ranges... therefore try binning ranges using only the cache
+    // and sort whatever fails and retry
+    
+    List<Range> failures = binRanges(credentials, ranges, binnedRanges, true, lcSession);
+    cacheHits.addAndGet(ranges.size() - failures.size());
     
     if (failures.size() > 0) {
       // sort failures by range start key
       Collections.sort(failures);
       
       // try lookups again
-      wLock.lock();
+      updateLock.lock();
       try {
         failures = binRanges(credentials, failures, binnedRanges, false, lcSession);
       } finally {
-        wLock.unlock();
+        updateLock.unlock();
       }
     }
     
@@ -367,24 +380,14 @@ public class TabletLocatorImpl extends TabletLocator {
   
   @Override
   public void invalidateCache(KeyExtent failedExtent) {
-    wLock.lock();
-    try {
-      badExtents.add(failedExtent);
-    } finally {
-      wLock.unlock();
-    }
+    badExtents.add(failedExtent);
     if (log.isTraceEnabled())
       log.trace("Invalidated extent=" + failedExtent);
   }
   
   @Override
   public void invalidateCache(Collection<KeyExtent> keySet) {
-    wLock.lock();
-    try {
-      badExtents.addAll(keySet);
-    } finally {
-      wLock.unlock();
-    }
+    badExtents.addAll(keySet);
     if (log.isTraceEnabled())
       log.trace("Invalidated " + keySet.size() + " cache entries for table " + tableId);
   }
@@ -393,16 +396,11 @@ public class TabletLocatorImpl extends TabletLocator {
   public void invalidateCache(String server) {
     int invalidatedCount = 0;
     
-    wLock.lock();
-    try {
-      for (TabletLocation cacheEntry : metaCache.values())
-        if (cacheEntry.tablet_location.equals(server)) {
-          badExtents.add(cacheEntry.tablet_extent);
-          invalidatedCount++;
-        }
-    } finally {
-      wLock.unlock();
-    }
+    for (TabletLocation cacheEntry : metaCache.values())
+      if (cacheEntry.tablet_location.equals(server)) {
+        badExtents.add(cacheEntry.tablet_extent);
+        invalidatedCount++;
+      }
     
     lockChecker.invalidateCache(server);
 
@@ -414,12 +412,12 @@ public class TabletLocatorImpl extends TabletLocator {
   @Override
   public void invalidateCache() {
     int invalidatedCount;
-    wLock.lock();
+    updateLock.lock();
     try {
       invalidatedCount = metaCache.size();
       metaCache.clear();
     } finally {
-      wLock.unlock();
+      updateLock.unlock();
     }
     if (log.isTraceEnabled())
       log.trace("invalidated all " + invalidatedCount + " cache entries for table=" + tableId);
@@ -434,13 +432,15 @@ public class TabletLocatorImpl extends TabletLocator {
       opTimer = new OpTimer(log, Level.TRACE).start("Locating tablet  table=" + tableId + " row=" + TextUtil.truncate(row) + "  skipRow=" + skipRow + " retry="
           + retry);
     
+    RetryPolicy.Retry locateRetry = retryPolicy.newRetry(tableId.toString());
+    
     while (true) {
       
       LockCheckerSession lcSession = new LockCheckerSession();
       TabletLocation tl = _locateTablet(credentials, row, skipRow, retry, true, lcSession);
 
       if (retry && tl == null) {
-        UtilWaitThread.sleep(100);
+        locateRetry.waitForRetry(RetryPolicy.Cause.LOCATE_FAILED);
         if (log.isTraceEnabled())
           log.trace("Failed to locate tablet containing row " + TextUtil.truncate(row) + " in table " + tableId + ", will retry...");
         continue;
@@ -462,6 +462,8 @@ public class TabletLocatorImpl extends TabletLocator {
     TabletLocation ptl = parent.locateTablet(credentials, metadataRow, false, retry);
     
     if (ptl != null) {
+      // this reads the locations of the tablets following row too, so they are cached before they are needed
+      countMetadataLookup();
       TabletLocations locations = locationObtainer.lookupTablet(credentials, ptl, metadataRow, lastTabletRow, parent);
       while (locations != null && locations.getLocations().isEmpty() && locations.getLocationless().isEmpty()) {
         // try the next tablet, the current tablet does not have any tablets that overlap the row
@@ -469,8 +471,10 @@ public class TabletLocatorImpl extends TabletLocator {
         if (er != null && er.compareTo(lastTabletRow) < 0) {
           // System.out.println("er "+er+"  ltr "+lastTabletRow);
           ptl = parent.locateTablet(credentials, er, true, retry);
-          if (ptl != null)
+          if (ptl != null) {
+            countMetadataLookup();
             locations = locationObtainer.lookupTablet(credentials, ptl, metadataRow, lastTabletRow, parent);
+          }
           else
             break;
         } else {
@@ -535,12 +539,10 @@ public class TabletLocatorImpl extends TabletLocator {
     if (er == null)
       er = MAX_TEXT;
     metaCache.put(er, tabletLocation);
-    
-    if (badExtents.size() > 0)
-      removeOverlapping(badExtents, tabletLocation.tablet_extent);
+    retryPolicy.locationLearned(tableId.toString());
   }
   
-  static void removeOverlapping(TreeMap<Text,TabletLocation> metaCache, KeyExtent nke) {
+  static void removeOverlapping(NavigableMap<Text,TabletLocation> metaCache, KeyExtent nke) {
     Iterator<Entry<Text,TabletLocation>> iter = null;
     
     if (nke.getPrevEndRow() == null) {
@@ -574,12 +576,6 @@ public class TabletLocatorImpl extends TabletLocator {
     return row;
   }
   
-  static void removeOverlapping(TreeSet<KeyExtent> extents, KeyExtent nke) {
-    for (KeyExtent overlapping : KeyExtent.findOverlapping(nke, extents)) {
-      extents.remove(overlapping);
-    }
-  }
-
   private TabletLocation locateTabletInCache(Text row) {
     
     Entry<Text,TabletLocation> entry = metaCache.ceilingEntry(row);
@@ -602,57 +598,56 @@ public class TabletLocatorImpl extends TabletLocator {
       row.append(new byte[] {0}, 0, 1);
     }
     
-    TabletLocation tl;
-    
-    if (lock)
-      rLock.lock();
-    try {
-      processInvalidated(credentials, lcSession);
-      tl = lcSession.checkLock(locateTabletInCache(row));
-    } finally {
-      if (lock)
-        rLock.unlock();
-    }
+    processInvalidated(credentials, lcSession);
+    TabletLocation tl = lcSession.checkLock(locateTabletInCache(row));
     
     if (tl == null) {
       if (lock)
-        wLock.lock();
+        updateLock.lock();
       try {
-        // not in cache, so obtain info
-        lookupTabletLocation(credentials, row, retry, lcSession);
+        // another thread may have looked it up while this one waited for the lock
+        if (lock)
+          tl = lcSession.checkLock(locateTabletInCache(row));
         
-        tl = lcSession.checkLock(locateTabletInCache(row));
+        if (tl == null) {
+          // not in cache, so obtain info
+          cacheMisses.incrementAndGet();
+          lookupTabletLocation(credentials, row, retry, lcSession);
+          
+          return lcSession.checkLock(locateTabletInCache(row));
+        }
       } finally {
         if (lock)
-          wLock.unlock();
+          updateLock.unlock();
       }
     }
     
+    // found in the cache without reading the metadata table
+    cacheHits.incrementAndGet();
+    
     return tl;
   }
   
   private void processInvalidated(Credentials credentials, LockCheckerSession lcSession) throws AccumuloSecurityException, AccumuloException,
       TableNotFoundException {
     
-    if (badExtents.size() == 0)
+    if (badExtents.isEmpty())
       return;
     
-    final boolean writeLockHeld = rwLock.isWriteLockedByCurrentThread();
+    updateLock.lock();
     try {
-      if (!writeLockHeld) {
-        rLock.unlock();
-        wLock.lock();
-        if (badExtents.size() == 0)
-          return;
-      }
-      
-      List<Range> lookups = new ArrayList<Range>(badExtents.size());
+      List<Range> lookups = new ArrayList<Range>();
       
-      for (KeyExtent be : badExtents) {
+      // take each extent out of the set before reading its location, so one invalidated while the metadata table is read is looked up again
+      KeyExtent be;
+      while ((be = badExtents.pollFirst()) != null) {
         lookups.add(be.toMetadataRange());
         removeOverlapping(metaCache, be);
       }
       
+      if (lookups.isEmpty())
+        return;
+      
       lookups = Range.mergeOverlapping(lookups);
       
       Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<String,Map<KeyExtent,List<Range>>>();
@@ -664,6 +659,7 @@ public class TabletLocatorImpl extends TabletLocator {
       Collections.shuffle(tabletServers);
       
       for (String tserver : tabletServers) {
+        countMetadataLookup();
         List<TabletLocation> locations = locationObtainer.lookupTablets(credentials, tserver, binnedRanges.get(tserver), parent);
         
         for (TabletLocation tabletLocation : locations) {
@@ -671,13 +667,42 @@ public class TabletLocatorImpl extends TabletLocator {
         }
       }
     } finally {
-      if (!writeLockHeld) {
-        rLock.lock();
-        wLock.unlock();
-      }
+      updateLock.unlock();
     }
   }
   
+  private void countMetadataLookup() {
+    metadataLookups.incrementAndGet();
+    
+    // the counts only change much while the cache is filling, so log them then, at most once a minute
+    long now = System.currentTimeMillis();
+    long last = lastStatsLog.get();
+    if (now - last >= STATS_LOG_INTERVAL && lastStatsLog.compareAndSet(last, now) && log.isDebugEnabled())
+      log.debug("Locations of table " + tableId + ": " + getCacheHits() + " cache hits, " + getCacheMisses() + " cache misses, " + getMetadataLookups()
+          + " metadata lookups");
+  }
+  
+  /**
+   * @return the number of locations found in the cache
+   */
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+  
+  /**
+   * @return the number of locations that had to be read from the metadata table
+   */
+  public long getCacheMisses() {
+    return cacheMisses.get();
+  }
+  
+  /**
+   * @return the number of reads of the metadata table, each can return the locations of many tablets
+   */
+  public long getMetadataLookups() {
+    return metadataLookups.get();
+  }
+  
   protected static void addRange(Map<String,Map<KeyExtent,List<Range>>> binnedRanges, String location, KeyExtent ke, Range range) {
     Map<KeyExtent,List<Range>> tablets = binnedRanges.get(location);
     if (tablets == null) {
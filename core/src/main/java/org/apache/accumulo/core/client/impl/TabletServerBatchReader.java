@@ -25,6 +25,7 @@ import java.util.concurrent.ExecutorService;
 
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.Instance;
+import org.apache.accumulo.core.client.ScanVisitor;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
@@ -104,6 +105,10 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
   
   @Override
   public Iterator<Entry<Key,Value>> iterator() {
+    return newIterator();
+  }
+  
+  private TabletServerBatchReaderIterator newIterator() {
     if (ranges == null) {
       throw new IllegalStateException("ranges not set");
     }
@@ -114,4 +119,9 @@ public class TabletServerBatchReader extends ScannerOptions implements BatchScan
     
     return new TabletServerBatchReaderIterator(instance, credentials, table, authorizations, ranges, numThreads, queryThreadPool, this, timeOut);
   }
+  
+  @Override
+  public void visit(ScanVisitor visitor) {
+    newIterator().visit(visitor);
+  }
 }
@@ -30,7 +30,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -38,6 +37,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.Instance;
+import org.apache.accumulo.core.client.ScanVisitor;
 import org.apache.accumulo.core.client.TableDeletedException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.TableOfflineException;
@@ -85,13 +85,17 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
   private final ExecutorService queryThreadPool;
   private final ScannerOptions options;
   
-  private ArrayBlockingQueue<List<Entry<Key,Value>>> resultsQueue;
-  private Iterator<Entry<Key,Value>> batchIterator;
-  private List<Entry<Key,Value>> batch;
-  private static final List<Entry<Key,Value>> LAST_BATCH = new ArrayList<Map.Entry<Key,Value>>();
+  private final ScanResultBuffer results;
+  private List<TKeyValue> batch;
+  private int batchIndex;
+  private boolean done = false;
   private final Object nextLock = new Object();
   
-  private long failSleepTime = 100;
+  private final RetryPolicy retryPolicy;
+  // waits between rounds of retrying failed tablets
+  private final RetryPolicy.Retry failureRetry;
+  // set when a tablet server could not be reached, as opposed to not serving a tablet
+  private volatile boolean serverErrors = false;
   
   private volatile Throwable fatalException = null;
   
@@ -105,6 +109,16 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     void receive(List<Entry<Key,Value>> entries);
   }
   
+  /**
+   * Receives results as the tablet server sent them, leaving them to be decoded by whatever consumes them.
+   */
+  interface KeyValueReceiver {
+    /**
+     * @return false once no more results are wanted, so the lookup stops
+     */
+    boolean receive(List<TKeyValue> results);
+  }
+  
   public TabletServerBatchReaderIterator(Instance instance, Credentials credentials, String table, Authorizations authorizations, ArrayList<Range> ranges,
       int numThreads, ExecutorService queryThreadPool, ScannerOptions scannerOptions, long timeout) {
     
@@ -115,7 +129,11 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     this.numThreads = numThreads;
     this.queryThreadPool = queryThreadPool;
     this.options = new ScannerOptions(scannerOptions);
-    resultsQueue = new ArrayBlockingQueue<List<Entry<Key,Value>>>(numThreads);
+    this.retryPolicy = RetryPolicy.get(instance);
+    this.failureRetry = retryPolicy.newRetry(table);
+    // each query thread needs room for its results, so the buffer grows with the number of threads
+    results = new ScanResultBuffer(ServerConfigurationUtil.getConfiguration(instance).getMemoryInBytes(Property.GENERAL_BATCH_SCANNER_BUFFER_SIZE)
+        * Math.max(1, numThreads));
     
     this.locator = new TimeoutTabletLocator(TabletLocator.getLocator(instance, new Text(table)), timeout);
     
@@ -132,12 +150,12 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
       ranges = ranges2;
     }
     
-    ResultReceiver rr = new ResultReceiver() {
+    KeyValueReceiver rr = new KeyValueReceiver() {
       
       @Override
-      public void receive(List<Entry<Key,Value>> entries) {
+      public boolean receive(List<TKeyValue> batch) {
         try {
-          resultsQueue.put(entries);
+          return results.put(batch);
         } catch (InterruptedException e) {
           if (TabletServerBatchReaderIterator.this.queryThreadPool.isShutdown())
             log.debug("Failed to add Batch Scan result", e);
@@ -163,32 +181,45 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
   @Override
   public boolean hasNext() {
     synchronized (nextLock) {
-      if (batch == LAST_BATCH)
-        return false;
-      
-      if (batch != null && batchIterator.hasNext())
+      if (batch != null && batchIndex < batch.size())
         return true;
       
-      // don't have one cached, try to cache one and return success
-      try {
-        batch = null;
-        while (batch == null && fatalException == null && !queryThreadPool.isShutdown())
-          batch = resultsQueue.poll(1, TimeUnit.SECONDS);
-        
-        if (fatalException != null)
-          if (fatalException instanceof RuntimeException)
-            throw (RuntimeException) fatalException;
-          else
-            throw new RuntimeException(fatalException);
-        
-        if (queryThreadPool.isShutdown())
-          throw new RuntimeException("scanner closed");
-        
-        batchIterator = batch.iterator();
-        return batch != LAST_BATCH;
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
+      batch = nextBatch();
+      batchIndex = 0;
+      return batch != null;
+    }
+  }
+  
+  /**
+   * Wait for the query threads to produce more results.
+   * 
+   * @return the next batch of results, null when there are no more
+   */
+  private List<TKeyValue> nextBatch() {
+    if (done)
+      return null;
+    
+    try {
+      List<TKeyValue> next = null;
+      while (next == null && fatalException == null && !queryThreadPool.isShutdown() && !results.isDone())
+        next = results.take(1, TimeUnit.SECONDS);
+      
+      if (fatalException != null)
+        if (fatalException instanceof RuntimeException)
+          throw (RuntimeException) fatalException;
+        else
+          throw new RuntimeException(fatalException);
+      
+      if (next != null)
+        return next;
+      
+      if (queryThreadPool.isShutdown())
+        throw new RuntimeException("scanner closed");
+      
+      done = true;
+      return null;
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
     }
   }
   
@@ -196,19 +227,46 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
   public Entry<Key,Value> next() {
     // if there's one waiting, or hasNext() can get one, return it
     synchronized (nextLock) {
-      if (hasNext())
-        return batchIterator.next();
-      else
+      if (hasNext()) {
+        TKeyValue kv = batch.get(batchIndex++);
+        return new SimpleImmutableEntry<Key,Value>(new Key(kv.key), new Value(kv.value));
+      } else
         throw new NoSuchElementException();
     }
   }
   
+  /**
+   * Pass the remaining results to the visitor, until it returns false.
+   */
+  public void visit(ScanVisitor visitor) {
+    synchronized (nextLock) {
+      while (hasNext()) {
+        while (batchIndex < batch.size()) {
+          TKeyValue kv = batch.get(batchIndex++);
+          if (!visitor.visit(new Key(kv.key), new Value(kv.value))) {
+            cancel();
+            return;
+          }
+        }
+      }
+    }
+  }
+  
+  /**
+   * End the scan early. Query threads drop what they receive from now on and stop asking tablet servers for more.
+   */
+  private void cancel() {
+    done = true;
+    batch = null;
+    results.finish();
+  }
+  
   @Override
   public void remove() {
     throw new UnsupportedOperationException();
   }
   
-  private synchronized void lookup(List<Range> ranges, ResultReceiver receiver) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+  private synchronized void lookup(List<Range> ranges, KeyValueReceiver receiver) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
     List<Column> columns = new ArrayList<Column>(options.fetchedColumns);
     ranges = Range.mergeOverlapping(ranges);
     
@@ -223,6 +281,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
       AccumuloSecurityException, TableNotFoundException {
     
     int lastFailureSize = Integer.MAX_VALUE;
+    RetryPolicy.Retry retry = retryPolicy.newRetry(table);
     
     while (true) {
       
@@ -243,12 +302,8 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
         lastFailureSize = failures.size();
         
         if (log.isTraceEnabled())
-          log.trace("Failed to bin " + failures.size() + " ranges, tablet locations were null, retrying in 100ms");
-        try {
-          Thread.sleep(100);
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
-        }
+          log.trace("Failed to bin " + failures.size() + " ranges, tablet locations were null, retrying");
+        retry.waitForRetry(RetryPolicy.Cause.LOCATE_FAILED);
       } else {
         break;
       }
@@ -274,22 +329,21 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     binnedRanges.putAll(binnedRanges2);
   }
   
-  private void processFailures(Map<KeyExtent,List<Range>> failures, ResultReceiver receiver, List<Column> columns) throws AccumuloException,
+  private void processFailures(Map<KeyExtent,List<Range>> failures, KeyValueReceiver receiver, List<Column> columns) throws AccumuloException,
       AccumuloSecurityException, TableNotFoundException {
     if (log.isTraceEnabled())
       log.trace("Failed to execute multiscans against " + failures.size() + " tablets, retrying...");
     
     try {
-      Thread.sleep(failSleepTime);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      
+      failureRetry.waitForRetry(serverErrors ? RetryPolicy.Cause.SERVER_ERROR : RetryPolicy.Cause.NOT_SERVING_TABLET);
+    } catch (RuntimeException e) {
+      if (!Thread.currentThread().isInterrupted())
+        throw e;
       // We were interrupted (close called on batchscanner) just exit
       log.debug("Exiting failure processing on interrupt");
       return;
     }
-
-    failSleepTime = Math.min(5000, failSleepTime * 2);
+    serverErrors = false;
     
     Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<String,Map<KeyExtent,List<Range>>>();
     List<Range> allRanges = new ArrayList<Range>();
@@ -312,13 +366,13 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     
     private String tsLocation;
     private Map<KeyExtent,List<Range>> tabletsRanges;
-    private ResultReceiver receiver;
+    private KeyValueReceiver receiver;
     private Semaphore semaphore = null;
     private final Map<KeyExtent,List<Range>> failures;
     private List<Column> columns;
     private int semaphoreSize;
     
-    QueryTask(String tsLocation, Map<KeyExtent,List<Range>> tabletsRanges, Map<KeyExtent,List<Range>> failures, ResultReceiver receiver, List<Column> columns) {
+    QueryTask(String tsLocation, Map<KeyExtent,List<Range>> tabletsRanges, Map<KeyExtent,List<Range>> failures, KeyValueReceiver receiver, List<Column> columns) {
       this.tsLocation = tsLocation;
       this.tabletsRanges = tabletsRanges;
       this.receiver = receiver;
@@ -343,8 +397,10 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
           timeoutTracker = new TimeoutTracker(tsLocation, timedoutServers, timeout);
           timeoutTrackers.put(tsLocation, timeoutTracker);
         }
-        doLookup(instance, credentials, tsLocation, tabletsRanges, tsFailures, unscanned, receiver, columns, options, authorizations,
-            ServerConfigurationUtil.getConfiguration(instance), timeoutTracker);
+        // the scan may have ended before this task ran
+        if (!results.isFinished())
+          doLookup(instance, credentials, tsLocation, tabletsRanges, tsFailures, unscanned, receiver, columns, options, authorizations,
+              ServerConfigurationUtil.getConfiguration(instance), timeoutTracker);
         if (tsFailures.size() > 0) {
           locator.invalidateCache(tsFailures.keySet());
           synchronized (failures) {
@@ -359,6 +415,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
         }
         
         locator.invalidateCache(tsLocation);
+        serverErrors = true;
         log.debug(e.getMessage(), e);
       } catch (AccumuloSecurityException e) {
         e.setTableInfo(getTableInfo());
@@ -380,7 +437,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
         Thread.currentThread().setName(threadName);
         if (semaphore.tryAcquire(semaphoreSize)) {
           // finished processing all queries
-          if (fatalException == null && failures.size() > 0) {
+          if (fatalException == null && failures.size() > 0 && !results.isFinished()) {
             // there were some failures
             try {
               processFailures(failures, receiver, columns);
@@ -401,26 +458,11 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
             
             if (fatalException != null) {
               // we are finished with this batch query
-              if (!resultsQueue.offer(LAST_BATCH)) {
-                log.debug("Could not add to result queue after seeing fatalException in processFailures", fatalException);
-              }
+              results.finish();
             }
           } else {
             // we are finished with this batch query
-            if (fatalException != null) {
-              if (!resultsQueue.offer(LAST_BATCH)) {
-                log.debug("Could not add to result queue after seeing fatalException", fatalException);
-              }
-            } else {
-              try {
-                resultsQueue.put(LAST_BATCH);
-              } catch (InterruptedException e) {
-                fatalException = e;
-                if (!resultsQueue.offer(LAST_BATCH)) {
-                  log.debug("Could not add to result queue after seeing fatalException", fatalException);
-                }
-              }
-            }
+            results.finish();
           }
         }
       }
@@ -428,7 +470,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
     
   }
   
-  private void doLookups(Map<String,Map<KeyExtent,List<Range>>> binnedRanges, final ResultReceiver receiver, List<Column> columns) {
+  private void doLookups(Map<String,Map<KeyExtent,List<Range>>> binnedRanges, final KeyValueReceiver receiver, List<Column> columns) {
     
     if (timedoutServers.containsAll(binnedRanges.keySet())) {
       // all servers have timed out
@@ -589,12 +631,24 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
   public static void doLookup(Instance instance, Credentials credentials, String server, Map<KeyExtent,List<Range>> requested,
       Map<KeyExtent,List<Range>> failures, Map<KeyExtent,List<Range>> unscanned, ResultReceiver receiver, List<Column> columns, ScannerOptions options,
       Authorizations authorizations, AccumuloConfiguration conf) throws IOException, AccumuloSecurityException, AccumuloServerException {
-    doLookup(instance, credentials, server, requested, failures, unscanned, receiver, columns, options, authorizations, conf,
+    final ResultReceiver entryReceiver = receiver;
+    KeyValueReceiver kvReceiver = new KeyValueReceiver() {
+      @Override
+      public boolean receive(List<TKeyValue> results) {
+        ArrayList<Entry<Key,Value>> entries = new ArrayList<Map.Entry<Key,Value>>(results.size());
+        for (TKeyValue kv : results) {
+          entries.add(new SimpleImmutableEntry<Key,Value>(new Key(kv.key), new Value(kv.value)));
+        }
+        entryReceiver.receive(entries);
+        return true;
+      }
+    };
+    doLookup(instance, credentials, server, requested, failures, unscanned, kvReceiver, columns, options, authorizations, conf,
         new TimeoutTracker(Long.MAX_VALUE));
   }
   
   static void doLookup(Instance instance, Credentials credentials, String server, Map<KeyExtent,List<Range>> requested, Map<KeyExtent,List<Range>> failures,
-      Map<KeyExtent,List<Range>> unscanned, ResultReceiver receiver, List<Column> columns, ScannerOptions options, Authorizations authorizations,
+      Map<KeyExtent,List<Range>> unscanned, KeyValueReceiver receiver, List<Column> columns, ScannerOptions options, Authorizations authorizations,
       AccumuloConfiguration conf, TimeoutTracker timeoutTracker) throws IOException, AccumuloSecurityException, AccumuloServerException {
     
     if (requested.size() == 0) {
@@ -631,7 +685,7 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
             Translators.RT));
         InitialMultiScan imsr = client.startMultiScan(Tracer.traceInfo(), credentials.toThrift(instance), thriftTabletRanges,
             Translator.translate(columns, Translators.CT), options.serverSideIteratorList, options.serverSideIteratorOptions,
-            ByteBufferUtil.toByteBuffers(authorizations.getAuthorizations()), waitForWrites);
+            ByteBufferUtil.toByteBuffers(authorizations.getAuthorizations()), waitForWrites, options.cacheBlocks, options.executionHints);
         if (waitForWrites)
           ThriftScanner.serversWaitedForWrites.get(ttype).add(server);
         
@@ -640,20 +694,14 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
         opTimer.stop("Got 1st multi scan results, #results=" + scanResult.results.size() + (scanResult.more ? "  scanID=" + imsr.scanID : "")
             + " in %DURATION%");
         
-        ArrayList<Entry<Key,Value>> entries = new ArrayList<Map.Entry<Key,Value>>(scanResult.results.size());
-        for (TKeyValue kv : scanResult.results) {
-          entries.add(new SimpleImmutableEntry<Key,Value>(new Key(kv.key), new Value(kv.value)));
-        }
-        
-        if (entries.size() > 0)
-          receiver.receive(entries);
+        boolean wanted = scanResult.results.size() == 0 || receiver.receive(scanResult.results);
         
-        if (entries.size() > 0 || scanResult.fullScans.size() > 0)
+        if (scanResult.results.size() > 0 || scanResult.fullScans.size() > 0)
           timeoutTracker.madeProgress();
         
         trackScanning(failures, unscanned, scanResult);
         
-        while (scanResult.more) {
+        while (scanResult.more && wanted) {
           
           timeoutTracker.check();
           
@@ -662,15 +710,10 @@ public class TabletServerBatchReaderIterator implements Iterator<Entry<Key,Value
           opTimer.stop("Got more multi scan results, #results=" + scanResult.results.size() + (scanResult.more ? "  scanID=" + imsr.scanID : "")
               + " in %DURATION%");
           
-          entries = new ArrayList<Map.Entry<Key,Value>>(scanResult.results.size());
-          for (TKeyValue kv : scanResult.results) {
-            entries.add(new SimpleImmutableEntry<Key,Value>(new Key(kv.key), new Value(kv.value)));
-          }
-          
-          if (entries.size() > 0)
-            receiver.receive(entries);
+          if (scanResult.results.size() > 0)
+            wanted = receiver.receive(scanResult.results);
           
-          if (entries.size() > 0 || scanResult.fullScans.size() > 0)
+          if (scanResult.results.size() > 0 || scanResult.fullScans.size() > 0)
             timeoutTracker.madeProgress();
           
           trackScanning(failures, unscanned, scanResult);
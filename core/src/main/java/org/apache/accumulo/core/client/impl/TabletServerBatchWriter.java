@@ -31,6 +31,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -81,14 +82,19 @@ import org.apache.thrift.transport.TTransportException;
  *   + Once the queue of unprocessed mutations reaches 50% it is always pushed to the background threads, 
  *      even if they are currently processing... new mutations are merged with mutations currently 
  *      processing in the background
- *   + Failed mutations are held for 1000ms and then re-added to the unprocessed queue
+ *   + Failed mutations are held for a backoff that grows while failures continue, or until a tablet location 
+ *      is learned, and then re-added to the unprocessed queue
  *   + Flush holds adding of new mutations so it does not wait indefinitely
+ *   + Mutations are binned to tablet servers by a background thread, so threads adding mutations only 
+ *      hold the queue lock long enough to append to the queue of unprocessed mutations, and only wait on
+ *      the writer's monitor while memory is full or a flush is running
+ *   + Several threads may send to one tablet server at once, each with mutations for different tablets
  * 
  * Considerations
  *   + All background threads must catch and note Throwable
- *   + mutations for a single tablet server are only processed by one thread concurrently (if new mutations 
- *      come in for a tablet server while one thread is processing mutations for it, no other thread should 
- *      start processing those mutations)
+ *   + mutations for a single tablet are only processed by one thread concurrently (if new mutations 
+ *      come in for a tablet while one thread is sending mutations for it, no other thread should 
+ *      start sending those mutations), so the mutations for a row are applied in the order they were added
  *   
  * Memory accounting
  *   + when a mutation enters the system memory is incremented
@@ -102,11 +108,13 @@ public class TabletServerBatchWriter {
   
   private static final Logger log = Logger.getLogger(TabletServerBatchWriter.class);
   
-  private long totalMemUsed = 0;
+  private final AtomicLong totalMemUsed = new AtomicLong(0);
   private long maxMem;
+  // guards the queue of unprocessed mutations, so adding mutations does not contend with the send threads for the writer's monitor
+  private final Object queueLock = new Object();
   private MutationSet mutations;
-  private boolean flushing;
-  private boolean closed;
+  private volatile boolean flushing;
+  private volatile boolean closed;
   private MutationWriter writer;
   private FailedMutations failedMutations;
   
@@ -117,7 +125,7 @@ public class TabletServerBatchWriter {
   private Map<KeyExtent,Set<SecurityErrorCode>> authorizationFailures;
   private HashSet<String> serverSideErrors;
   private int unknownErrors = 0;
-  private boolean somethingFailed = false;
+  private volatile boolean somethingFailed = false;
   
   private Timer jtimer;
   
@@ -147,7 +155,11 @@ public class TabletServerBatchWriter {
   
   private Throwable lastUnknownError = null;
   
-  private Map<String,TimeoutTracker> timeoutTrackers;
+  private ConcurrentHashMap<String,TimeoutTracker> timeoutTrackers;
+  
+  private final boolean compressMutations;
+  // tablet servers that predate applyUpdateBatches, which are sent TMutations instead
+  private final Set<String> serversWithoutBatches = Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
   
   private static class TimeoutTracker {
     
@@ -161,16 +173,17 @@ public class TabletServerBatchWriter {
       this.server = server;
     }
     
-    void startingWrite() {
+    // several threads may send to a server at once, and share its tracker
+    synchronized void startingWrite() {
       activityTime = System.currentTimeMillis();
     }
     
-    void madeProgress() {
+    synchronized void madeProgress() {
       activityTime = System.currentTimeMillis();
       firstErrorTime = null;
     }
     
-    void wroteNothing() {
+    synchronized void wroteNothing() {
       if (firstErrorTime == null) {
         firstErrorTime = activityTime;
       } else if (System.currentTimeMillis() - firstErrorTime > timeOut) {
@@ -178,7 +191,7 @@ public class TabletServerBatchWriter {
       }
     }
     
-    void errorOccured(Exception e) {
+    synchronized void errorOccured(Exception e) {
       wroteNothing();
     }
     
@@ -193,6 +206,7 @@ public class TabletServerBatchWriter {
     this.maxLatency = config.getMaxLatency(TimeUnit.MILLISECONDS) <= 0 ? Long.MAX_VALUE : config.getMaxLatency(TimeUnit.MILLISECONDS);
     this.credentials = credentials;
     this.timeout = config.getTimeout(TimeUnit.MILLISECONDS);
+    this.compressMutations = ServerConfigurationUtil.getConfiguration(instance).getBoolean(Property.GENERAL_RPC_COMPRESS_MUTATIONS);
     mutations = new MutationSet();
     
     violations = new Violations();
@@ -204,17 +218,18 @@ public class TabletServerBatchWriter {
     
     jtimer = new Timer("BatchWriterLatencyTimer", true);
     
-    writer = new MutationWriter(config.getMaxWriteThreads());
+    writer = new MutationWriter(config.getMaxWriteThreads(), ServerConfigurationUtil.getConfiguration(instance).getCount(
+        Property.GENERAL_BATCH_WRITER_SERVER_SENDS_MAX));
     failedMutations = new FailedMutations();
     
-    timeoutTrackers = Collections.synchronizedMap(new HashMap<String,TabletServerBatchWriter.TimeoutTracker>());
+    timeoutTrackers = new ConcurrentHashMap<String,TabletServerBatchWriter.TimeoutTracker>();
     
     if (this.maxLatency != Long.MAX_VALUE) {
       jtimer.schedule(new TimerTask() {
         @Override
         public void run() {
           try {
-            synchronized (TabletServerBatchWriter.this) {
+            synchronized (queueLock) {
               if ((System.currentTimeMillis() - lastProcessingStartTime) > TabletServerBatchWriter.this.maxLatency)
                 startProcessing();
             }
@@ -226,68 +241,88 @@ public class TabletServerBatchWriter {
     }
   }
   
-  private synchronized void startProcessing() {
-    if (mutations.getMemoryUsed() == 0)
-      return;
-    lastProcessingStartTime = System.currentTimeMillis();
-    writer.addMutations(mutations);
-    mutations = new MutationSet();
+  private void startProcessing() {
+    synchronized (queueLock) {
+      if (mutations.getMemoryUsed() == 0)
+        return;
+      lastProcessingStartTime = System.currentTimeMillis();
+      writer.queueMutations(mutations);
+      mutations = new MutationSet();
+    }
   }
   
-  private synchronized void decrementMemUsed(long amount) {
-    totalMemUsed -= amount;
-    this.notifyAll();
+  private void decrementMemUsed(long amount) {
+    totalMemUsed.addAndGet(-amount);
+    // threads waiting for memory check it while holding the monitor, so they can not miss this
+    synchronized (this) {
+      this.notifyAll();
+    }
   }
   
-  public synchronized void addMutation(String table, Mutation m) throws MutationsRejectedException {
+  public void addMutation(String table, Mutation m) throws MutationsRejectedException {
     
-    if (closed)
-      throw new IllegalStateException("Closed");
     if (m.size() == 0)
       throw new IllegalArgumentException("Can not add empty mutations");
     
-    checkForFailures();
-    
-    while ((totalMemUsed > maxMem || flushing) && !somethingFailed) {
-      waitRTE();
-    }
+    // create a copy of mutation so that after this method returns the user
+    // is free to reuse the mutation object, like calling readFields... this
+    // is important for the case where a mutation is passed from map to reduce
+    // to batch writer... the map reduce code will keep passing the same mutation
+    // object into the reduce method. Copying does not need the lock, so other
+    // threads can add mutations meanwhile.
+    m = new Mutation(m);
     
-    // do checks again since things could have changed while waiting and not holding lock
-    if (closed)
-      throw new IllegalStateException("Closed");
-    checkForFailures();
+    addCopiedMutation(table, m);
+  }
+  
+  private void addCopiedMutation(String table, Mutation m) throws MutationsRejectedException {
     
-    if (startTime == 0) {
-      startTime = System.currentTimeMillis();
+    while (true) {
+      checkForFailures();
       
-      List<GarbageCollectorMXBean> gcmBeans = ManagementFactory.getGarbageCollectorMXBeans();
-      for (GarbageCollectorMXBean garbageCollectorMXBean : gcmBeans) {
-        initialGCTimes += garbageCollectorMXBean.getCollectionTime();
+      synchronized (queueLock) {
+        if (closed)
+          throw new IllegalStateException("Closed");
+        
+        if (totalMemUsed.get() <= maxMem && !flushing) {
+          if (startTime == 0)
+            initStats();
+          
+          totalMemUsed.addAndGet(m.estimatedMemoryUsed());
+          mutations.addMutation(table, m);
+          totalAdded++;
+          
+          if (mutations.getMemoryUsed() >= maxMem / 2)
+            startProcessing();
+          break;
+        }
       }
       
-      CompilationMXBean compMxBean = ManagementFactory.getCompilationMXBean();
-      if (compMxBean.isCompilationTimeMonitoringSupported()) {
-        initialCompileTimes = compMxBean.getTotalCompilationTime();
+      synchronized (this) {
+        // check again while holding the monitor, which is held to notify of freed memory and finished flushes
+        while ((totalMemUsed.get() > maxMem || flushing) && !somethingFailed) {
+          waitRTE();
+        }
       }
-      
-      initialSystemLoad = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
     }
     
-    // create a copy of mutation so that after this method returns the user
-    // is free to reuse the mutation object, like calling readFields... this
-    // is important for the case where a mutation is passed from map to reduce
-    // to batch writer... the map reduce code will keep passing the same mutation
-    // object into the reduce method
-    m = new Mutation(m);
+    checkForFailures();
+  }
+  
+  private void initStats() {
+    startTime = System.currentTimeMillis();
     
-    totalMemUsed += m.estimatedMemoryUsed();
-    mutations.addMutation(table, m);
-    totalAdded++;
+    List<GarbageCollectorMXBean> gcmBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    for (GarbageCollectorMXBean garbageCollectorMXBean : gcmBeans) {
+      initialGCTimes += garbageCollectorMXBean.getCollectionTime();
+    }
     
-    if (mutations.getMemoryUsed() >= maxMem / 2) {
-      startProcessing();
-      checkForFailures();
+    CompilationMXBean compMxBean = ManagementFactory.getCompilationMXBean();
+    if (compMxBean.isCompilationTimeMonitoringSupported()) {
+      initialCompileTimes = compMxBean.getTotalCompilationTime();
     }
+    
+    initialSystemLoad = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
   }
   
   public void addMutation(String table, Iterator<Mutation> iterator) throws MutationsRejectedException {
@@ -316,12 +351,14 @@ public class TabletServerBatchWriter {
         return;
       }
       
-      flushing = true;
-      
-      startProcessing();
+      synchronized (queueLock) {
+        // set while holding the queue lock, so no mutation is added after the queue is processed
+        flushing = true;
+        startProcessing();
+      }
       checkForFailures();
       
-      while (totalMemUsed > 0 && !somethingFailed) {
+      while (totalMemUsed.get() > 0 && !somethingFailed) {
         waitRTE();
       }
       
@@ -341,11 +378,12 @@ public class TabletServerBatchWriter {
     
     Span span = Trace.start("close");
     try {
-      closed = true;
-      
-      startProcessing();
+      synchronized (queueLock) {
+        closed = true;
+        startProcessing();
+      }
       
-      while (totalMemUsed > 0 && !somethingFailed) {
+      while (totalMemUsed.get() > 0 && !somethingFailed) {
         waitRTE();
       }
       
@@ -354,6 +392,7 @@ public class TabletServerBatchWriter {
       checkForFailures();
     } finally {
       // make a best effort to release these resources
+      writer.binThreadPool.shutdownNow();
       writer.sendThreadPool.shutdownNow();
       jtimer.cancel();
       span.stop();
@@ -522,19 +561,22 @@ public class TabletServerBatchWriter {
   
   private void checkForFailures() throws MutationsRejectedException {
     if (somethingFailed) {
-      List<ConstraintViolationSummary> cvsList = violations.asList();
-      HashMap<KeyExtent,Set<org.apache.accumulo.core.client.security.SecurityErrorCode>> af = new HashMap<KeyExtent,Set<org.apache.accumulo.core.client.security.SecurityErrorCode>>();
-      for (Entry<KeyExtent,Set<SecurityErrorCode>> entry : authorizationFailures.entrySet()) {
-        HashSet<org.apache.accumulo.core.client.security.SecurityErrorCode> codes = new HashSet<org.apache.accumulo.core.client.security.SecurityErrorCode>();
-        
-        for (SecurityErrorCode sce : entry.getValue()) {
-          codes.add(org.apache.accumulo.core.client.security.SecurityErrorCode.valueOf(sce.name()));
+      // failures are recorded while holding the monitor
+      synchronized (this) {
+        List<ConstraintViolationSummary> cvsList = violations.asList();
+        HashMap<KeyExtent,Set<org.apache.accumulo.core.client.security.SecurityErrorCode>> af = new HashMap<KeyExtent,Set<org.apache.accumulo.core.client.security.SecurityErrorCode>>();
+        for (Entry<KeyExtent,Set<SecurityErrorCode>> entry : authorizationFailures.entrySet()) {
+          HashSet<org.apache.accumulo.core.client.security.SecurityErrorCode> codes = new HashSet<org.apache.accumulo.core.client.security.SecurityErrorCode>();
+          
+          for (SecurityErrorCode sce : entry.getValue()) {
+            codes.add(org.apache.accumulo.core.client.security.SecurityErrorCode.valueOf(sce.name()));
+          }
+          
+          af.put(entry.getKey(), codes);
         }
         
-        af.put(entry.getKey(), codes);
+        throw new MutationsRejectedException(instance, cvsList, af, serverSideErrors, unknownErrors, lastUnknownError);
       }
-      
-      throw new MutationsRejectedException(instance, cvsList, af, serverSideErrors, unknownErrors, lastUnknownError);
     }
   }
   
@@ -545,42 +587,69 @@ public class TabletServerBatchWriter {
   /**
    * Add mutations that previously failed back into the mix
    */
-  private synchronized void addFailedMutations(MutationSet failedMutations) throws Exception {
-    mutations.addAll(failedMutations);
-    if (mutations.getMemoryUsed() >= maxMem / 2 || closed || flushing) {
-      startProcessing();
+  private void addFailedMutations(MutationSet failedMutations) throws Exception {
+    synchronized (queueLock) {
+      mutations.addAll(failedMutations);
+      if (mutations.getMemoryUsed() >= maxMem / 2 || closed || flushing) {
+        startProcessing();
+      }
     }
   }
   
   private class FailedMutations extends TimerTask {
     
+    private final RetryPolicy retryPolicy = RetryPolicy.get(instance);
+    private final RetryPolicy.Retry retry = retryPolicy.newRetry();
+    
     private MutationSet recentFailures = null;
     private long initTime;
+    private long holdTime;
+    // the locations learned for the tables of the failures, when they failed
+    private Map<RetryPolicy.TableLocations,Long> failedTables = new HashMap<RetryPolicy.TableLocations,Long>();
+    private long lastRequeueTime = 0;
     
     FailedMutations() {
-      jtimer.schedule(this, 0, 500);
+      jtimer.schedule(this, 0, 50);
     }
     
-    private MutationSet init() {
+    private MutationSet init(RetryPolicy.Cause cause) {
       if (recentFailures == null) {
         recentFailures = new MutationSet();
         initTime = System.currentTimeMillis();
+        holdTime = retry.startRetry(cause);
       }
       return recentFailures;
     }
     
+    private void watch(String table) {
+      RetryPolicy.TableLocations locations = retryPolicy.getLocations(table);
+      if (!failedTables.containsKey(locations))
+        failedTables.put(locations, locations.getLearned());
+    }
+    
+    private boolean locationLearned() {
+      for (Entry<RetryPolicy.TableLocations,Long> entry : failedTables.entrySet())
+        if (entry.getKey().getLearned() != entry.getValue())
+          return true;
+      return false;
+    }
+    
     synchronized void add(String table, ArrayList<Mutation> tableFailures) {
-      init().addAll(table, tableFailures);
+      init(RetryPolicy.Cause.LOCATE_FAILED).addAll(table, tableFailures);
+      watch(table);
     }
     
-    synchronized void add(MutationSet failures) {
-      init().addAll(failures);
+    synchronized void add(MutationSet failures, RetryPolicy.Cause cause) {
+      init(cause).addAll(failures);
+      for (String table : failures.getMutations().keySet())
+        watch(table);
     }
     
     synchronized void add(String location, TabletServerMutations<Mutation> tsm) {
-      init();
+      init(RetryPolicy.Cause.SERVER_ERROR);
       for (Entry<KeyExtent,List<Mutation>> entry : tsm.getMutations().entrySet()) {
         recentFailures.addAll(entry.getKey().getTableId().toString(), entry.getValue());
+        watch(entry.getKey().getTableId().toString());
       }
       
     }
@@ -591,9 +660,17 @@ public class TabletServerBatchWriter {
         MutationSet rf = null;
         
         synchronized (this) {
-          if (recentFailures != null && System.currentTimeMillis() - initTime > 1000) {
-            rf = recentFailures;
-            recentFailures = null;
+          long now = System.currentTimeMillis();
+          if (recentFailures != null) {
+            if (now - initTime > holdTime || locationLearned()) {
+              rf = recentFailures;
+              recentFailures = null;
+              failedTables.clear();
+              lastRequeueTime = now;
+            }
+          } else if (retry.getAttempts() > 0 && now - lastRequeueTime > 2 * holdTime) {
+            // nothing has failed since the last requeue
+            retry.reset();
           }
         }
         
@@ -616,14 +693,23 @@ public class TabletServerBatchWriter {
   private class MutationWriter {
     
     private static final int MUTATION_BATCH_SIZE = 1 << 17;
+    // the most threads that send to one tablet server at once
+    private final int maxSendsPerServer;
+    private ExecutorService binThreadPool;
     private ExecutorService sendThreadPool;
+    private MutationSet unbinned = null;
     private Map<String,TabletServerMutations<Mutation>> serversMutations;
-    private Set<String> queued;
+    // the tablets of each server that a thread is sending mutations to
+    private Map<String,Set<KeyExtent>> sendingTablets;
+    private Map<String,Integer> sendTasks;
     private Map<String,TabletLocator> locators;
     
-    public MutationWriter(int numSendThreads) {
+    public MutationWriter(int numSendThreads, int maxSendsPerServer) {
+      this.maxSendsPerServer = maxSendsPerServer;
       serversMutations = new HashMap<String,TabletServerMutations<Mutation>>();
-      queued = new HashSet<String>();
+      sendingTablets = new HashMap<String,Set<KeyExtent>>();
+      sendTasks = new HashMap<String,Integer>();
+      binThreadPool = new SimpleThreadPool(1, "BinMutations");
       sendThreadPool = new SimpleThreadPool(numSendThreads, this.getClass().getName());
       locators = new HashMap<String,TabletLocator>();
     }
@@ -669,7 +755,7 @@ public class TabletServerBatchWriter {
         updateServerErrors(ase.getServer(), ase);
       } catch (AccumuloException ae) {
         // assume an IOError communicating with metadata tablet
-        failedMutations.add(mutationsToProcess);
+        failedMutations.add(mutationsToProcess, RetryPolicy.Cause.SERVER_ERROR);
       } catch (AccumuloSecurityException e) {
         updateAuthorizationFailures(Collections.singletonMap(new KeyExtent(new Text(MetadataTable.ID), null, null),
             SecurityErrorCode.valueOf(e.getSecurityErrorCode().name())));
@@ -686,6 +772,38 @@ public class TabletServerBatchWriter {
       
     }
     
+    /**
+     * Queue mutations to be binned and sent by the background threads. Mutations queued before the binning thread gets to earlier ones are binned
+     * together with them.
+     */
+    synchronized void queueMutations(MutationSet mutationsToSend) {
+      if (unbinned != null) {
+        unbinned.addAll(mutationsToSend);
+        return;
+      }
+      unbinned = mutationsToSend;
+      binThreadPool.submit(Trace.wrap(new BinTask()));
+    }
+    
+    private synchronized MutationSet getMutationsToBin() {
+      MutationSet result = unbinned;
+      unbinned = null;
+      return result;
+    }
+    
+    class BinTask implements Runnable {
+      @Override
+      public void run() {
+        try {
+          MutationSet mutationsToBin = getMutationsToBin();
+          if (mutationsToBin != null)
+            addMutations(mutationsToBin);
+        } catch (Throwable t) {
+          updateUnknownErrors("Failed to bin mutations : " + t.getMessage(), t);
+        }
+      }
+    }
+    
     void addMutations(MutationSet mutationsToSend) {
       Map<String,TabletServerMutations<Mutation>> binnedMutations = new HashMap<String,TabletServerMutations<Mutation>>();
       Span span = Trace.start("binMutations");
@@ -733,21 +851,85 @@ public class TabletServerBatchWriter {
       ArrayList<String> servers = new ArrayList<String>(binnedMutations.keySet());
       Collections.shuffle(servers);
       
-      for (String server : servers)
-        if (!queued.contains(server)) {
+      for (String server : servers) {
+        Integer tasks = sendTasks.get(server);
+        int numTasks = tasks == null ? 0 : tasks;
+        if (numTasks < maxSendsPerServer && hasTabletsToSend(server)) {
           sendThreadPool.submit(Trace.wrap(new SendTask(server)));
-          queued.add(server);
+          sendTasks.put(server, numTasks + 1);
         }
+      }
+    }
+    
+    private Set<KeyExtent> getSendingTablets(String server) {
+      Set<KeyExtent> tablets = sendingTablets.get(server);
+      if (tablets == null) {
+        tablets = new HashSet<KeyExtent>();
+        sendingTablets.put(server, tablets);
+      }
+      return tablets;
+    }
+    
+    private boolean hasTabletsToSend(String server) {
+      TabletServerMutations<Mutation> pending = serversMutations.get(server);
+      if (pending == null)
+        return false;
+      return !getSendingTablets(server).containsAll(pending.getMutations().keySet());
     }
     
-    private synchronized TabletServerMutations<Mutation> getMutationsToSend(String server) {
-      TabletServerMutations<Mutation> tsmuts = serversMutations.remove(server);
+    /**
+     * Take the queued mutations for a server's tablets that no other thread is sending to.
+     * 
+     * @param sent
+     *          the mutations the calling thread finished sending, whose tablets it no longer holds
+     * @return null when there is nothing the calling thread can send, in which case it should stop
+     */
+    private synchronized TabletServerMutations<Mutation> getMutationsToSend(String server, TabletServerMutations<Mutation> sent) {
+      Set<KeyExtent> tablets = getSendingTablets(server);
+      if (sent != null)
+        tablets.removeAll(sent.getMutations().keySet());
+      
+      TabletServerMutations<Mutation> tsmuts = null;
+      TabletServerMutations<Mutation> pending = serversMutations.get(server);
+      if (pending != null) {
+        Iterator<Entry<KeyExtent,List<Mutation>>> iter = pending.getMutations().entrySet().iterator();
+        while (iter.hasNext()) {
+          Entry<KeyExtent,List<Mutation>> entry = iter.next();
+          if (tablets.add(entry.getKey())) {
+            if (tsmuts == null)
+              tsmuts = new TabletServerMutations<Mutation>(pending.getSession());
+            tsmuts.getMutations().put(entry.getKey(), entry.getValue());
+            iter.remove();
+          }
+        }
+        if (pending.getMutations().isEmpty())
+          serversMutations.remove(server);
+      }
+      
       if (tsmuts == null)
-        queued.remove(server);
+        sendFinished(server);
       
       return tsmuts;
     }
     
+    /**
+     * Release the tablets of a thread that failed to send its mutations, and end its send task.
+     */
+    private synchronized void sendFailed(String server, TabletServerMutations<Mutation> sending) {
+      getSendingTablets(server).removeAll(sending.getMutations().keySet());
+      sendFinished(server);
+    }
+    
+    private void sendFinished(String server) {
+      int numTasks = sendTasks.get(server) - 1;
+      if (numTasks == 0) {
+        sendTasks.remove(server);
+        sendingTablets.remove(server);
+      } else {
+        sendTasks.put(server, numTasks);
+      }
+    }
+    
     class SendTask implements Runnable {
       
       private String location;
@@ -758,17 +940,22 @@ public class TabletServerBatchWriter {
       
       @Override
       public void run() {
+        TabletServerMutations<Mutation> tsmuts = null;
         try {
-          TabletServerMutations<Mutation> tsmuts = getMutationsToSend(location);
+          tsmuts = getMutationsToSend(location, null);
           
           while (tsmuts != null) {
             send(tsmuts);
-            tsmuts = getMutationsToSend(location);
+            tsmuts = getMutationsToSend(location, tsmuts);
           }
           
           return;
         } catch (Throwable t) {
           updateUnknownErrors("Failed to send tablet server " + location + " its batch : " + t.getMessage(), t);
+        } finally {
+          // the task ended without being released by getMutationsToSend
+          if (tsmuts != null)
+            sendFailed(location, tsmuts);
         }
       }
       
@@ -794,7 +981,9 @@ public class TabletServerBatchWriter {
             TimeoutTracker timeoutTracker = timeoutTrackers.get(location);
             if (timeoutTracker == null) {
               timeoutTracker = new TimeoutTracker(location, timeout);
-              timeoutTrackers.put(location, timeoutTracker);
+              TimeoutTracker existing = timeoutTrackers.putIfAbsent(location, timeoutTracker);
+              if (existing != null)
+                timeoutTracker = existing;
             }
             
             long st1 = System.currentTimeMillis();
@@ -812,7 +1001,7 @@ public class TabletServerBatchWriter {
             }
             
             if (failures.size() > 0) {
-              failedMutations.add(failures);
+              failedMutations.add(failures, RetryPolicy.Cause.NOT_SERVING_TABLET);
               successBytes -= failures.getMemoryUsed();
             }
             
@@ -853,7 +1042,7 @@ public class TabletServerBatchWriter {
       timeoutTracker.startingWrite();
       
       try {
-        TabletClientService.Iface client;
+        TabletClientService.Client client;
         
         if (timeoutTracker.getTimeOut() < ServerConfigurationUtil.getConfiguration(instance).getTimeInMillis(Property.GENERAL_RPC_TIMEOUT))
           client = ThriftUtil.getTServerClient(location, ServerConfigurationUtil.getConfiguration(instance), timeoutTracker.getTimeOut());
@@ -878,26 +1067,24 @@ public class TabletServerBatchWriter {
           } else {
             
             long usid = client.startUpdate(tinfo, credentials.toThrift(instance));
+            boolean packed = !serversWithoutBatches.contains(location);
+            int calls = applyUpdates(client, tinfo, usid, tabMuts, packed);
             
-            List<TMutation> updates = new ArrayList<TMutation>();
-            for (Entry<KeyExtent,List<Mutation>> entry : tabMuts.entrySet()) {
-              long size = 0;
-              Iterator<Mutation> iter = entry.getValue().iterator();
-              while (iter.hasNext()) {
-                while (size < MUTATION_BATCH_SIZE && iter.hasNext()) {
-                  Mutation mutation = iter.next();
-                  updates.add(mutation.toThrift());
-                  size += mutation.numBytes();
-                }
-                
-                client.applyUpdates(tinfo, usid, entry.getKey().toThrift(), updates);
-                updates.clear();
-                size = 0;
-              }
+            UpdateErrors updateErrors;
+            try {
+              updateErrors = client.closeUpdate(tinfo, usid);
+            } catch (TApplicationException tae) {
+              if (!packed || tae.getType() != TApplicationException.UNKNOWN_METHOD)
+                throw tae;
+              // an older tablet server drops the calls it does not know, so nothing was written... send everything again as TMutations
+              log.warn("Tablet server " + location + " does not support applyUpdateBatches, sending it TMutations instead");
+              serversWithoutBatches.add(location);
+              readUnknownMethodReplies(client, calls);
+              usid = client.startUpdate(tinfo, credentials.toThrift(instance));
+              applyUpdates(client, tinfo, usid, tabMuts, false);
+              updateErrors = client.closeUpdate(tinfo, usid);
             }
             
-            UpdateErrors updateErrors = client.closeUpdate(tinfo, usid);
-            
             Map<KeyExtent,Long> failures = Translator.translate(updateErrors.failedExtents, Translators.TKET);
             updatedConstraintViolations(Translator.translate(updateErrors.violationSummaries, Translators.TCVST));
             updateAuthorizationFailures(Translator.translate(updateErrors.authorizationFailures, Translators.TKET));
@@ -946,6 +1133,59 @@ public class TabletServerBatchWriter {
         ThriftTransportPool.getInstance().returnTransport(transport);
       }
     }
+    
+    /**
+     * Send each tablet's mutations in calls of about {@link #MUTATION_BATCH_SIZE} bytes.
+     * 
+     * @param packed
+     *          send the mutations packed in one buffer per call with applyUpdateBatches, rather than as a TMutation each with applyUpdates
+     * @return the number of calls made
+     */
+    private int applyUpdates(TabletClientService.Iface client, TInfo tinfo, long usid, Map<KeyExtent,List<Mutation>> tabMuts, boolean packed)
+        throws IOException, TException {
+      int calls = 0;
+      List<Mutation> updates = new ArrayList<Mutation>();
+      for (Entry<KeyExtent,List<Mutation>> entry : tabMuts.entrySet()) {
+        long size = 0;
+        Iterator<Mutation> iter = entry.getValue().iterator();
+        while (iter.hasNext()) {
+          while (size < MUTATION_BATCH_SIZE && iter.hasNext()) {
+            Mutation mutation = iter.next();
+            updates.add(mutation);
+            size += mutation.numBytes();
+          }
+          
+          if (packed) {
+            client.applyUpdateBatches(tinfo, usid, entry.getKey().toThrift(), Collections.singletonList(MutationBatch.encode(updates, compressMutations)));
+          } else {
+            List<TMutation> tmutations = new ArrayList<TMutation>(updates.size());
+            for (Mutation mutation : updates)
+              tmutations.add(mutation.toThrift());
+            client.applyUpdates(tinfo, usid, entry.getKey().toThrift(), tmutations);
+          }
+          calls++;
+          updates.clear();
+          size = 0;
+        }
+      }
+      return calls;
+    }
+    
+    /**
+     * A tablet server answers each oneway call it does not know with an error. The first of those was read in place of the reply to closeUpdate, so read the
+     * rest of them and that reply to leave the connection usable.
+     */
+    private void readUnknownMethodReplies(TabletClientService.Client client, int calls) throws NoSuchScanIDException, TException {
+      for (int i = 0; i < calls; i++) {
+        try {
+          client.recv_closeUpdate();
+          return;
+        } catch (TApplicationException tae) {
+          if (tae.getType() != TApplicationException.UNKNOWN_METHOD)
+            throw tae;
+        }
+      }
+    }
   }
   
   // END code for sending mutations to tablet servers using background threads
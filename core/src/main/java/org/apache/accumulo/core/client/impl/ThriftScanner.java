@@ -34,6 +34,7 @@ import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.client.TableDeletedException;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.TableOfflineException;
+import org.apache.accumulo.core.client.impl.RetryPolicy.Cause;
 import org.apache.accumulo.core.client.impl.TabletLocator.TabletLocation;
 import org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
@@ -57,7 +58,6 @@ import org.apache.accumulo.core.tabletserver.thrift.TabletClientService;
 import org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException;
 import org.apache.accumulo.core.util.OpTimer;
 import org.apache.accumulo.core.util.ThriftUtil;
-import org.apache.accumulo.core.util.UtilWaitThread;
 import org.apache.accumulo.trace.instrument.Span;
 import org.apache.accumulo.trace.instrument.Trace;
 import org.apache.accumulo.trace.instrument.Tracer;
@@ -98,7 +98,8 @@ public class ThriftScanner {
         boolean waitForWrites = !serversWaitedForWrites.get(ttype).contains(server);
         InitialScan isr = client.startScan(tinfo, scanState.credentials.toThrift(instance), extent.toThrift(), scanState.range.toThrift(),
             Translator.translate(scanState.columns, Translators.CT), scanState.size, scanState.serverSideIteratorList, scanState.serverSideIteratorOptions,
-            scanState.authorizations.getAuthorizationsBB(), waitForWrites, scanState.isolated, scanState.readaheadThreshold);
+            scanState.authorizations.getAuthorizationsBB(), waitForWrites, scanState.isolated, scanState.readaheadThreshold,
+            scanState.cacheBlocks, scanState.executionHints);
         if (waitForWrites)
           serversWaitedForWrites.get(ttype).add(server);
         
@@ -134,6 +135,8 @@ public class ThriftScanner {
     Text startRow;
     boolean skipStartRow;
     long readaheadThreshold;
+    boolean cacheBlocks = true;
+    Map<String,String> executionHints = Collections.emptyMap();
     
     Range range;
     
@@ -206,6 +209,7 @@ public class ThriftScanner {
     String lastError = null;
     String error = null;
     int tooManyFilesCount = 0;
+    RetryPolicy.Retry retry = RetryPolicy.get(instance).newRetry(scanState.tableId.toString());
     
     List<KeyValue> results = null;
     
@@ -237,7 +241,7 @@ public class ThriftScanner {
               else if (log.isTraceEnabled())
                 log.trace(error);
               lastError = error;
-              UtilWaitThread.sleep(100);
+              retry.waitForRetry(Cause.LOCATE_FAILED);
             } else {
               // when a tablet splits we do want to continue scanning the low child
               // of the split if we are already passed it
@@ -265,7 +269,7 @@ public class ThriftScanner {
               log.trace(error);
             
             lastError = error;
-            UtilWaitThread.sleep(100);
+            retry.waitForRetry(Cause.LOCATE_FAILED);
           } finally {
             locateSpan.stop();
           }
@@ -300,7 +304,7 @@ public class ThriftScanner {
           if (scanState.isolated)
             throw new IsolationException();
           
-          UtilWaitThread.sleep(100);
+          retry.waitForRetry(Cause.NOT_SERVING_TABLET);
         } catch (NoSuchScanIDException e) {
           error = "Scan failed, no such scan id " + scanState.scanID + " " + loc;
           if (!error.equals(lastError))
@@ -335,7 +339,7 @@ public class ThriftScanner {
           if (scanState.isolated)
             throw new IsolationException();
           
-          UtilWaitThread.sleep(100);
+          retry.waitForRetry(Cause.TOO_MANY_FILES);
         } catch (TException e) {
           TabletLocator.getLocator(instance, scanState.tableId).invalidateCache(loc.tablet_location);
           error = "Scan failed, thrift error " + e.getClass().getName() + "  " + e.getMessage() + " " + loc;
@@ -353,7 +357,7 @@ public class ThriftScanner {
           if (scanState.isolated)
             throw new IsolationException();
           
-          UtilWaitThread.sleep(100);
+          retry.waitForRetry(Cause.SERVER_ERROR);
         } finally {
           scanLocation.stop();
         }
@@ -398,7 +402,8 @@ public class ThriftScanner {
         boolean waitForWrites = !serversWaitedForWrites.get(ttype).contains(loc.tablet_location);
         InitialScan is = client.startScan(tinfo, scanState.credentials.toThrift(scanState.instance), loc.tablet_extent.toThrift(), scanState.range.toThrift(),
             Translator.translate(scanState.columns, Translators.CT), scanState.size, scanState.serverSideIteratorList, scanState.serverSideIteratorOptions,
-            scanState.authorizations.getAuthorizationsBB(), waitForWrites, scanState.isolated, scanState.readaheadThreshold);
+            scanState.authorizations.getAuthorizationsBB(), waitForWrites, scanState.isolated, scanState.readaheadThreshold,
+            scanState.cacheBlocks, scanState.executionHints);
         if (waitForWrites)
           serversWaitedForWrites.get(ttype).add(loc.tablet_location);
         
@@ -415,7 +420,7 @@ public class ThriftScanner {
         Thread.currentThread().setName(msg);
         opTimer.start(msg);
         
-        sr = client.continueScan(tinfo, scanState.scanID);
+        sr = client.continueScan(tinfo, scanState.scanID, scanState.size);
         if (!sr.more) {
           client.closeScan(tinfo, scanState.scanID);
           scanState.scanID = null;
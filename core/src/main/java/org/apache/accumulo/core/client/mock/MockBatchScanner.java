@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map.Entry;
 
 import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.ScanVisitor;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
@@ -70,6 +71,16 @@ public class MockBatchScanner extends MockScannerBase implements BatchScanner {
     return chain;
   }
   
+  @Override
+  public void visit(ScanVisitor visitor) {
+    Iterator<Entry<Key,Value>> iter = iterator();
+    while (iter.hasNext()) {
+      Entry<Key,Value> entry = iter.next();
+      if (!visitor.visit(entry.getKey(), entry.getValue()))
+        break;
+    }
+  }
+  
   @Override
   public void close() {}
 }
@@ -149,6 +149,14 @@ public enum Property {
   GENERAL_DYNAMIC_CLASSPATHS(AccumuloVFSClassLoader.DYNAMIC_CLASSPATH_PROPERTY_NAME, AccumuloVFSClassLoader.DEFAULT_DYNAMIC_CLASSPATH_VALUE,
       PropertyType.STRING, "A list of all of the places where changes in jars or classes will force a reload of the classloader."),
   GENERAL_RPC_TIMEOUT("general.rpc.timeout", "120s", PropertyType.TIMEDURATION, "Time to wait on I/O for simple, short RPC calls"),
+  GENERAL_RPC_COMPRESS_MUTATIONS("general.rpc.mutations.compress", "false", PropertyType.BOOLEAN,
+      "Compress the batches of mutations that batch writers send to tablet servers. This trades client and tablet server CPU for network bandwidth."),
+  GENERAL_BATCH_WRITER_SERVER_SENDS_MAX("general.batchwriter.server.sends.max", "4", PropertyType.COUNT,
+      "The most threads of a batch writer that send mutations to one tablet server at once. Each thread sends the mutations of different tablets."),
+  GENERAL_BATCH_SCANNER_BUFFER_SIZE("general.batchscanner.buffer.size", "1M", PropertyType.MEMORY,
+      "The most data a batch scanner holds, for each of its query threads, that has been read from tablet servers but not yet consumed. Its query threads "
+          + "wait to ask tablet servers for more results while it is full. The default holds two batches of the default table.scan.max.memory, so each "
+          + "thread can fetch a batch while its last one is consumed."),
   GENERAL_KERBEROS_KEYTAB("general.kerberos.keytab", "", PropertyType.PATH, "Path to the kerberos keytab to use. Leave blank if not using kerberoized hdfs"),
   GENERAL_KERBEROS_PRINCIPAL("general.kerberos.principal", "", PropertyType.STRING, "Name of the kerberos principal to use. _HOST will automatically be "
       + "replaced by the machines hostname in the hostname portion of the principal. Leave blank if not using kerberoized hdfs"),
@@ -186,6 +194,29 @@ public enum Property {
   TSERV_DEFAULT_BLOCKSIZE("tserver.default.blocksize", "1M", PropertyType.MEMORY, "Specifies a default blocksize for the tserver caches"),
   TSERV_DATACACHE_SIZE("tserver.cache.data.size", "128M", PropertyType.MEMORY, "Specifies the size of the cache for file data blocks."),
   TSERV_INDEXCACHE_SIZE("tserver.cache.index.size", "512M", PropertyType.MEMORY, "Specifies the size of the cache for file indices."),
+  TSERV_DATACACHE_TYPE("tserver.cache.data.type", "lru", PropertyType.STRING,
+      "The implementation of the cache for file data blocks. Use lru to keep blocks on the java heap or offheap to keep blocks in direct memory. An offheap"
+          + " cache is not counted against the java heap, but the JVM must be allowed enough direct memory (-XX:MaxDirectMemorySize) to hold it. Use tinylfu"
+          + " for an on heap cache that, once full, only admits blocks requested more often than the blocks it would evict."),
+  TSERV_INDEXCACHE_TYPE("tserver.cache.index.type", "lru", PropertyType.STRING,
+      "The implementation of the cache for file indices. Accepts the same values as tserver.cache.data.type."),
+  TSERV_CACHE_L2_DIR("tserver.cache.l2.dir", "", PropertyType.PATH,
+      "A directory on local disk, ideally an SSD, that holds blocks evicted from the data and index caches. A block found there is read from local disk instead"
+          + " of from HDFS, and the blocks survive a restart of the tablet server. The directory must not be shared with another tablet server. Leave blank to"
+          + " disable."),
+  TSERV_CACHE_L2_SIZE("tserver.cache.l2.size", "10G", PropertyType.MEMORY, "The amount of local disk to use for tserver.cache.l2.dir."),
+  TSERV_CACHE_L2_CHECKPOINT_INTERVAL("tserver.cache.l2.checkpoint.interval", "5m", PropertyType.TIMEDURATION,
+      "How often the index of the blocks in tserver.cache.l2.dir is written to disk. Only blocks in the last index written can be found after a restart."),
+  TSERV_VISIBILITY_CACHE_AUTHORIZATIONS("tserver.visibility.cache.authorizations.max", "100", PropertyType.COUNT,
+      "The most sets of authorizations that keep a cache of which column visibilities they can see. Scans with equal authorizations share one cache."),
+  TSERV_VISIBILITY_CACHE_SIZE("tserver.visibility.cache.size", "1M", PropertyType.MEMORY,
+      "The memory used by the column visibilities cached for each set of authorizations, and separately by the compiled visibilities they share."),
+  TSERV_FILE_READ_POSITIONAL("tserver.file.read.positional", "false", PropertyType.BOOLEAN,
+      "Read the blocks of a file with positional reads instead of seeking the one stream open on the file, so concurrent scans of the file do not wait on"
+          + " each other."),
+  TSERV_FILE_READ_MMAP_LOCAL("tserver.file.read.mmap.local", "false", PropertyType.BOOLEAN,
+      "Memory map files on local (file://) volumes instead of reading them through the local file system. Reads from a mapped file never wait on each other."
+          + " The checksums kept by the local file system are not verified."),
   TSERV_PORTSEARCH("tserver.port.search", "false", PropertyType.BOOLEAN, "if the ports above are in use, search higher ports until one is available"),
   TSERV_CLIENTPORT("tserver.port.client", "9997", PropertyType.PORT, "The port used for handling client connections on the tablet servers"),
   TSERV_MUTATION_QUEUE_MAX("tserver.mutation.queue.max", "1M", PropertyType.MEMORY,
@@ -209,6 +240,9 @@ public enum Property {
       + "This setting determines how much time an unused file should be kept open until it is closed."),
   TSERV_NATIVEMAP_ENABLED("tserver.memory.maps.native.enabled", "true", PropertyType.BOOLEAN,
       "An in-memory data store for accumulo implemented in c++ that increases the amount of data accumulo can hold in memory and avoids Java GC pauses."),
+  TSERV_ARENAMAP_ENABLED("tserver.memory.maps.arena.enabled", "false", PropertyType.BOOLEAN,
+      "When the native map is disabled or can not be loaded, pack in-memory data into large byte arrays instead of keeping several Java objects per key value."
+          + " This lowers the heap used per entry and the work for the Java GC."),
   TSERV_MAXMEM("tserver.memory.maps.max", "1G", PropertyType.MEMORY,
       "Maximum amount of memory that can be used to buffer data written to a tablet server. There are two other properties that can effectively limit memory"
           + " usage table.compaction.minor.logs.threshold and tserver.walog.max.size. Ensure that table.compaction.minor.logs.threshold *"
@@ -221,6 +255,11 @@ public enum Property {
           + " limits the number of long running scans that can run concurrently per tserver."),
   TSERV_METADATA_READ_AHEAD_MAXCONCURRENT("tserver.metadata.readahead.concurrent.max", "8", PropertyType.COUNT,
       "The maximum number of concurrent metadata read ahead that will execute."),
+  TSERV_SCAN_EXECUTORS_PREFIX("tserver.scan.executors.", null, PropertyType.PREFIX,
+      "Properties in this category define named scan executors that tables can be assigned to with table.scan.executor. An executor is defined by setting"
+          + " tserver.scan.executors.<name>.threads, and may set tserver.scan.executors.<name>.prioritizer to the class name of a ScanPrioritizer, which is"
+          + " configured with the options under tserver.scan.executors.<name>.prioritizer.opts. The executor named default has "
+          + "tserver.readahead.concurrent.max threads. Executors are created when the tablet server starts."),
   TSERV_MIGRATE_MAXCONCURRENT("tserver.migrations.concurrent.max", "1", PropertyType.COUNT,
       "The maximum number of concurrent tablet migrations for a tablet server"),
   TSERV_MAJC_MAXCONCURRENT("tserver.compaction.major.concurrent.max", "3", PropertyType.COUNT,
@@ -231,7 +270,7 @@ public enum Property {
       "When a compaction has not made progress for this time period, a warning will be logged"),
   TSERV_BLOOM_LOAD_MAXCONCURRENT("tserver.bloom.load.concurrent.max", "4", PropertyType.COUNT,
       "The number of concurrent threads that will load bloom filters in the background. "
-          + "Setting this to zero will make bloom filters load in the foreground."),
+          + "Setting this to zero will make bloom filters load in the foreground. RFile bloom filters are always loaded with the file's index."),
   TSERV_MONITOR_FS("tserver.monitor.fs", "true", PropertyType.BOOLEAN,
       "When enabled the tserver will monitor file systems and kill itself when one switches from rw to ro. This is usually and indication that Linux has"
           + " detected a bad disk."),
@@ -259,14 +298,23 @@ public enum Property {
           + " block)"),
   TSERV_WAL_REPLICATION("tserver.wal.replication", "0", PropertyType.COUNT,
       "The replication to use when writing the Write-Ahead log to HDFS. If zero, it will use the HDFS default replication setting."),
+  TSERV_WAL_COUNT("tserver.wal.count", "1", PropertyType.COUNT,
+      "The number of Write-Ahead logs a tablet server writes to at once. Each tablet writes to one of them, so updates to different tablets are written"
+          + " through separate HDFS pipelines and a slow datanode only holds up the tablets using its log. The whole set is rolled once any of its logs"
+          + " reaches tserver.walog.max.size."),
   TSERV_RECOVERY_MAX_CONCURRENT("tserver.recovery.concurrent.max", "2", PropertyType.COUNT, "The maximum number of threads to use to sort logs during"
       + " recovery"),
-  TSERV_SORT_BUFFER_SIZE("tserver.sort.buffer.size", "200M", PropertyType.MEMORY, "The amount of memory to use when sorting logs during recovery."),
+  TSERV_SORT_BUFFER_SIZE("tserver.sort.buffer.size", "200M", PropertyType.MEMORY,
+      "The amount of memory to use when sorting a log during recovery. It is shared by the thread reading the log and the threads sorting its parts."),
+  TSERV_SORT_THREADS("tserver.sort.threads", "2", PropertyType.COUNT,
+      "The number of threads that sort and write the parts of each log sorted during recovery, while another thread keeps reading the log."),
   TSERV_ARCHIVE_WALOGS("tserver.archive.walogs", "false", PropertyType.BOOLEAN, "Keep copies of the WALOGs for debugging purposes"),
   TSERV_WORKQ_THREADS("tserver.workq.threads", "2", PropertyType.COUNT,
       "The number of threads for the distributed work queue. These threads are used for copying failed bulk files."),
   TSERV_WAL_SYNC("tserver.wal.sync", "true", PropertyType.BOOLEAN,
       "Use the SYNC_BLOCK create flag to sync WAL writes to disk. Prevents problems recovering from sudden system resets."),
+  TSERV_WAL_QUEUE_MAX("tserver.wal.queue.max.size", "64M", PropertyType.MEMORY,
+      "The maximum size of the updates waiting to be written to each Write-Ahead log. Writers block once it is reached, until the log catches up."),
 
   // properties that are specific to logger server behavior
   LOGGER_PREFIX("logger.", null, PropertyType.PREFIX, "Properties in this category affect the behavior of the write-ahead logger servers"),
@@ -343,6 +391,9 @@ public enum Property {
   TABLE_SCAN_MAXMEM("table.scan.max.memory", "512K", PropertyType.MEMORY,
       "The maximum amount of memory that will be used to cache results of a client query/scan. "
           + "Once this limit is reached, the buffered data is sent to the client."),
+  TABLE_SCAN_EXECUTOR("table.scan.executor", "default", PropertyType.STRING,
+      "The name of the scan executor, defined with tserver.scan.executors., that runs scans of this table. Scans of an executor that is not defined run in the"
+          + " default executor."),
   TABLE_FILE_TYPE("table.file.type", RFile.EXTENSION, PropertyType.STRING, "Change the type of file a table writes"),
   TABLE_LOAD_BALANCER("table.balancer", "org.apache.accumulo.server.master.balancer.DefaultLoadBalancer", PropertyType.STRING,
       "This property can be set to allow the LoadBalanceByTable load balancer to change the called Load Balancer for this table"),
@@ -362,10 +413,14 @@ public enum Property {
           + " table.compaction.major.ratio also. Setting this property to 0 will make it default to tserver.scan.files.open.max-1, this will prevent a"
           + " tablet from having more files than can be opened. Setting this property low may throttle ingest and increase query performance."),
   TABLE_WALOG_ENABLED("table.walog.enabled", "true", PropertyType.BOOLEAN, "Use the write-ahead log to prevent the loss of data."),
+  TABLE_DURABILITY("table.durability", "hsync", PropertyType.STRING,
+      "How far writes to the write-ahead log must get before an update to this table succeeds: none, flush, hflush or hsync. With none the update does not"
+          + " wait for the log at all, flush waits until the tablet server has written it, hflush until it reached the datanodes and hsync until the"
+          + " datanodes wrote it to disk. When an update covers tables with different settings, the most durable one is used."),
   TABLE_BLOOM_ENABLED("table.bloom.enabled", "false", PropertyType.BOOLEAN, "Use bloom filters on this table."),
   TABLE_BLOOM_LOAD_THRESHOLD("table.bloom.load.threshold", "1", PropertyType.COUNT,
       "This number of seeks that would actually use a bloom filter must occur before a file's bloom filter is loaded."
-          + " Set this to zero to initiate loading of bloom filters when a file is opened."),
+          + " Set this to zero to initiate loading of bloom filters when a file is opened. RFile bloom filters are always loaded when the file is opened."),
   TABLE_BLOOM_SIZE("table.bloom.size", "1048576", PropertyType.COUNT, "Bloom filter size, as number of keys."),
   TABLE_BLOOM_ERRORRATE("table.bloom.error.rate", "0.5%", PropertyType.FRACTION, "Bloom filter error rate."),
   TABLE_BLOOM_KEY_FUNCTOR("table.bloom.key.functor", "org.apache.accumulo.core.file.keyfunctor.RowFunctor", PropertyType.CLASSNAME,
@@ -45,7 +45,11 @@ import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.ABlockReader;
+import org.apache.accumulo.core.file.keyfunctor.ColumnFamilyFunctor;
+import org.apache.accumulo.core.file.keyfunctor.ColumnQualifierFunctor;
 import org.apache.accumulo.core.file.keyfunctor.KeyFunctor;
+import org.apache.accumulo.core.file.keyfunctor.RowFunctor;
 import org.apache.accumulo.core.file.rfile.RFile;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
@@ -170,15 +174,54 @@ public class BloomFilterLayer {
     }
   }
   
+  /**
+   * A bloom filter along with the functor that transforms keys for it, as read from the meta block written by {@link Writer}. RFile keeps one of these with
+   * its cached meta block, so files opened later do not decode the filter again.
+   */
+  public static class LoadedFilter {
+
+    private DynamicBloomFilter bloomFilter;
+    private KeyFunctor transformer;
+    // the part of a key the functor keeps, or null if the functor is not one of the known ones
+    private PartialKey depth;
+
+    synchronized void load(DataInputStream in) throws IOException, ReflectiveOperationException {
+      if (bloomFilter != null)
+        return;
+
+      /**
+       * Load classname for keyFunctor
+       */
+      String className = in.readUTF();
+      Class<? extends KeyFunctor> clazz = AccumuloVFSClassLoader.loadClass(className, KeyFunctor.class);
+      KeyFunctor tmpTransformer = clazz.newInstance();
+
+      /**
+       * read in bloom filter
+       */
+      DynamicBloomFilter tmpBloomFilter = new DynamicBloomFilter();
+      tmpBloomFilter.readFields(in);
+
+      transformer = tmpTransformer;
+      bloomFilter = tmpBloomFilter;
+      if (tmpTransformer instanceof RowFunctor)
+        depth = PartialKey.ROW;
+      else if (tmpTransformer instanceof ColumnFamilyFunctor)
+        depth = PartialKey.ROW_COLFAM;
+      else if (tmpTransformer instanceof ColumnQualifierFunctor)
+        depth = PartialKey.ROW_COLFAM_COLQUAL;
+    }
+  }
+
   static class BloomFilterLoader {
     
-    private volatile DynamicBloomFilter bloomFilter;
+    private volatile LoadedFilter filter;
     private int loadRequest = 0;
     private int loadThreshold = 1;
     private int maxLoadThreads;
     private Runnable loadTask;
-    private volatile KeyFunctor transformer = null;
     private volatile boolean closed = false;
+    private volatile BloomFilterStats stats = new BloomFilterStats();
     
     BloomFilterLoader(final FileSKVIterator reader, AccumuloConfiguration acuconf) {
       
@@ -186,6 +229,12 @@ public class BloomFilterLayer {
       
       loadThreshold = acuconf.getCount(Property.TABLE_BLOOM_LOAD_THRESHOLD);
       
+      if (reader instanceof RFile.Reader) {
+        // the filter is a meta block read through the index cache, so it is loaded along with the rest of the file's index
+        loadFromIndex((RFile.Reader) reader);
+        return;
+      }
+      
       loadTask = new Runnable() {
         @Override
         public void run() {
@@ -193,32 +242,19 @@ public class BloomFilterLayer {
           // no need to load the bloom filter if the map file is closed
           if (closed)
             return;
-          String ClassName = null;
           DataInputStream in = null;
           
           try {
             in = reader.getMetaStore(BLOOM_FILE_NAME);
-            DynamicBloomFilter tmpBloomFilter = new DynamicBloomFilter();
+            LoadedFilter tmpFilter = new LoadedFilter();
             
             // check for closed again after open but before reading the bloom filter in
             if (closed)
               return;
             
-            /**
-             * Load classname for keyFunctor
-             */
-            ClassName = in.readUTF();
-            
-            Class<? extends KeyFunctor> clazz = AccumuloVFSClassLoader.loadClass(ClassName, KeyFunctor.class);
-            transformer = clazz.newInstance();
-            
-            /**
-             * read in bloom filter
-             */
-            
-            tmpBloomFilter.readFields(in);
+            tmpFilter.load(in);
             // only set the bloom filter after it is fully constructed
-            bloomFilter = tmpBloomFilter;
+            filter = tmpFilter;
           } catch (NoSuchMetaStoreException nsme) {
             // file does not have a bloom filter, ignore it
           } catch (IOException ioe) {
@@ -227,16 +263,10 @@ public class BloomFilterLayer {
             else
               LOG.debug("Can't open BloomFilter, file closed : " + ioe.getMessage());
             
-            bloomFilter = null;
-          } catch (ClassNotFoundException e) {
-            LOG.error("Failed to find KeyFunctor in config: " + ClassName, e);
-            bloomFilter = null;
-          } catch (InstantiationException e) {
-            LOG.error("Could not instantiate KeyFunctor: " + ClassName, e);
-            bloomFilter = null;
-          } catch (IllegalAccessException e) {
-            LOG.error("Illegal acess exception", e);
-            bloomFilter = null;
+            filter = null;
+          } catch (ReflectiveOperationException e) {
+            LOG.error("Failed to load KeyFunctor", e);
+            filter = null;
           } catch (RuntimeException rte) {
             if (!closed)
               throw rte;
@@ -258,6 +288,34 @@ public class BloomFilterLayer {
       
     }
     
+    private void loadFromIndex(RFile.Reader reader) {
+      ABlockReader block = null;
+      try {
+        block = reader.getMetaBlock(BLOOM_FILE_NAME);
+        // a cached block keeps the decoded filter, so only the first reader of the block decodes it
+        LoadedFilter tmpFilter = block.isIndexable() ? block.getIndex(LoadedFilter.class) : new LoadedFilter();
+        tmpFilter.load(block.getStream());
+        // the decoded filter takes about as much memory as its serialized bits, count it in the cache that holds it
+        if (block.isIndexable())
+          block.setIndexSize(block.getRawSize());
+        filter = tmpFilter;
+      } catch (NoSuchMetaStoreException nsme) {
+        // file does not have a bloom filter, ignore it
+      } catch (IOException ioe) {
+        LOG.warn("Can't open BloomFilter", ioe);
+      } catch (ReflectiveOperationException e) {
+        LOG.error("Failed to load KeyFunctor", e);
+      } finally {
+        if (block != null) {
+          try {
+            block.close();
+          } catch (IOException e) {
+            LOG.warn("Failed to close ", e);
+          }
+        }
+      }
+    }
+    
     private synchronized void initiateLoad(int maxLoadThreads) {
       // ensure only one thread initiates loading of bloom filter by
       // only taking action when loadTask != null
@@ -282,26 +340,54 @@ public class BloomFilterLayer {
     
     /**
      * Checks if this {@link RFile} contains keys from this range. The membership test is performed using a Bloom filter, so the result has always non-zero
-     * probability of false positives.
+     * probability of false positives. Every test performed is counted in the stats.
      * 
      * @param range
      *          range of keys to check
-     * @return false iff key doesn't exist, true if key probably exists.
-     * @throws IOException
+     * @return false iff key doesn't exist, true if key probably exists, null if the filter is not loaded or can not be used for the range
      */
-    boolean probablyHasKey(Range range) throws IOException {
-      if (bloomFilter == null) {
+    Boolean test(Range range) {
+      LoadedFilter filter = this.filter;
+      if (filter == null) {
         initiateLoad(maxLoadThreads);
-        if (bloomFilter == null)
-          return true;
+        filter = this.filter;
+        if (filter == null)
+          return null;
       }
       
-      Key bloomKey = transformer.transform(range);
+      Key bloomKey = filter.transformer.transform(range);
       
       if (bloomKey == null || bloomKey.getBytes().length == 0)
-        return true;
+        return null;
       
-      return bloomFilter.membershipTest(bloomKey);
+      boolean member = filter.bloomFilter.membershipTest(bloomKey);
+      stats.check(!member);
+      return member;
+    }
+    
+    /**
+     * Checks if a range holds every key that transforms to its bloom key, and nothing else. Only then does finding nothing in the range show that the filter
+     * gave a false positive.
+     */
+    boolean coversBloomKey(Range range) {
+      LoadedFilter filter = this.filter;
+      if (filter == null || filter.depth == null || range.getStartKey() == null)
+        return false;
+      
+      org.apache.accumulo.core.data.Key start = range.getStartKey();
+      Range exact;
+      switch (filter.depth) {
+        case ROW:
+          exact = Range.exact(start.getRow());
+          break;
+        case ROW_COLFAM:
+          exact = Range.exact(start.getRow(), start.getColumnFamily());
+          break;
+        default:
+          exact = Range.exact(start.getRow(), start.getColumnFamily(), start.getColumnQualifier());
+          break;
+      }
+      return exact.equals(range);
     }
     
     public void close() {
@@ -326,6 +412,17 @@ public class BloomFilterLayer {
     
     private boolean checkSuper = true;
     
+    /**
+     * Count the checks of this file's bloom filter, and of its deep copies, in the given stats instead of in stats private to the file.
+     */
+    public void setStats(BloomFilterStats stats) {
+      bfl.stats = stats;
+    }
+    
+    public BloomFilterStats getStats() {
+      return bfl.stats;
+    }
+    
     @Override
     public boolean hasTop() {
       return checkSuper ? reader.hasTop() : false;
@@ -334,11 +431,16 @@ public class BloomFilterLayer {
     @Override
     public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
       
-      if (!bfl.probablyHasKey(range)) {
+      Boolean member = bfl.test(range);
+      if (member == Boolean.FALSE) {
         checkSuper = false;
       } else {
         reader.seek(range, columnFamilies, inclusive);
         checkSuper = true;
+        
+        // with no column family filter and a range of exactly the filter's key, every key the filter matched is within the range
+        if (member == Boolean.TRUE && !reader.hasTop() && columnFamilies.isEmpty() && !inclusive && bfl.coversBloomKey(range))
+          bfl.stats.falsePositive();
       }
     }
     
@@ -395,6 +497,11 @@ public class BloomFilterLayer {
       reader.closeDeepCopies();
     }
     
+    @Override
+    public void setCacheBlocks(boolean cacheBlocks) {
+      reader.setCacheBlocks(cacheBlocks);
+    }
+    
     @Override
     public void setInterruptFlag(AtomicBoolean flag) {
       reader.setInterruptFlag(flag);
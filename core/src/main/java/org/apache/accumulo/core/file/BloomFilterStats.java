@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how well the bloom filters of a set of files, usually the files of one table, answer seeks.
+ * <p>
+ *
+ * A check is a seek whose range the filter could be consulted for. A negative is a check the filter ruled out, so the file was not read. A false positive is
+ * a check the filter passed that found nothing in the file. Only seeks that do not filter column families can be recognized as false positives.
+ */
+public class BloomFilterStats {
+
+  private final AtomicLong checks = new AtomicLong(0);
+  private final AtomicLong negatives = new AtomicLong(0);
+  private final AtomicLong falsePositives = new AtomicLong(0);
+
+  void check(boolean negative) {
+    checks.incrementAndGet();
+    if (negative)
+      negatives.incrementAndGet();
+  }
+
+  void falsePositive() {
+    falsePositives.incrementAndGet();
+  }
+
+  public long getCheckCount() {
+    return checks.get();
+  }
+
+  public long getNegativeCount() {
+    return negatives.get();
+  }
+
+  public long getFalsePositiveCount() {
+    return falsePositives.get();
+  }
+
+  /**
+   * The fraction of checks for keys that were not in the file which the filter failed to rule out.
+   */
+  public double getFalsePositiveRate() {
+    long fp = falsePositives.get();
+    long absent = fp + negatives.get();
+    return absent == 0 ? 0.0 : fp / (double) absent;
+  }
+}
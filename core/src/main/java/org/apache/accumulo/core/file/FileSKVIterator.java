@@ -31,5 +31,11 @@ public interface FileSKVIterator extends InterruptibleIterator {
   
   void closeDeepCopies() throws IOException;
   
+  /**
+   * Controls whether data blocks read from disk are added to the block cache. Blocks that are already cached are used either way. This lets large one time
+   * scans avoid evicting the working set of other scans.
+   */
+  void setCacheBlocks(boolean cacheBlocks);
+  
   void close() throws IOException;
 }
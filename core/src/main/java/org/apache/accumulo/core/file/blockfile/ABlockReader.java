@@ -50,4 +50,9 @@ public interface ABlockReader extends DataInput {
   int getPosition();
 
   <T> T getIndex(Class<T> clazz);
+
+  /**
+   * Record the memory held by the index of an indexable block, so that the cache holding the block can count it.
+   */
+  void setIndexSize(long indexSize);
 }
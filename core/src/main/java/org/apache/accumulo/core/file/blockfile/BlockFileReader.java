@@ -38,4 +38,9 @@ public interface BlockFileReader {
   
   ABlockReader getDataBlock(long offset, long compressedSize, long rawSize) throws IOException;
   
+  /**
+   * When false, data blocks that are not already cached are read without being added to the cache. Meta blocks are always cached.
+   */
+  void setCacheBlocks(boolean cacheBlocks);
+  
 }
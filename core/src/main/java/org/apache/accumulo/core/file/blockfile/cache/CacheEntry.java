@@ -23,4 +23,9 @@ public interface CacheEntry {
   
   void setIndex(Object idx);
   
+  /**
+   * Record the memory held by the index of this entry, so that a cache bounded by size can count it.
+   */
+  void setIndexSize(long indexSize);
+  
 }
@@ -19,6 +19,7 @@
  */
 package org.apache.accumulo.core.file.blockfile.cache;
 
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents an entry in the {@link LruBlockCache}.
@@ -53,16 +54,33 @@ public class CachedBlock implements HeapSize, Comparable<CachedBlock>, CacheEntr
   private long size;
   private BlockPriority priority;
   private Object index;
+  private long indexSize;
+  // the size of the cache this block is counted in, null when it is not in a cache
+  private AtomicLong cacheSize;
   
   public CachedBlock(String blockName, byte buf[], long accessTime) {
     this(blockName, buf, accessTime, false);
   }
   
   public CachedBlock(String blockName, byte buf[], long accessTime, boolean inMemory) {
+    this(blockName, buf, buf.length, accessTime, inMemory);
+  }
+  
+  /**
+   * Constructor for blocks whose contents are not held in a java byte array.
+   * 
+   * @param bufferSize
+   *          number of bytes the block occupies in the cache
+   */
+  protected CachedBlock(String blockName, long bufferSize, long accessTime, boolean inMemory) {
+    this(blockName, null, bufferSize, accessTime, inMemory);
+  }
+  
+  private CachedBlock(String blockName, byte buf[], long bufferSize, long accessTime, boolean inMemory) {
     this.blockName = blockName;
     this.buf = buf;
     this.accessTime = accessTime;
-    this.size = ClassSize.align(blockName.length()) + ClassSize.align(buf.length) + PER_BLOCK_OVERHEAD;
+    this.size = ClassSize.align(blockName.length()) + ClassSize.align(bufferSize) + PER_BLOCK_OVERHEAD;
     if (inMemory) {
       this.priority = BlockPriority.MEMORY;
     } else {
@@ -80,8 +98,36 @@ public class CachedBlock implements HeapSize, Comparable<CachedBlock>, CacheEntr
     }
   }
   
-  public long heapSize() {
-    return size;
+  long getAccessTime() {
+    return accessTime;
+  }
+  
+  public synchronized long heapSize() {
+    return size + indexSize;
+  }
+  
+  /**
+   * Count this block, and any index it is given later, in the size of a cache.
+   * 
+   * @return the new size of the cache
+   */
+  synchronized long addTo(AtomicLong cacheSize) {
+    this.cacheSize = cacheSize;
+    return cacheSize.addAndGet(heapSize());
+  }
+  
+  /**
+   * Stop counting this block in the size of its cache.
+   * 
+   * @return the size of the block
+   */
+  synchronized long removeFromCache() {
+    long heapSize = heapSize();
+    if (cacheSize != null) {
+      cacheSize.addAndGet(-heapSize);
+      cacheSize = null;
+    }
+    return heapSize;
   }
   
   public int compareTo(CachedBlock that) {
@@ -112,4 +158,11 @@ public class CachedBlock implements HeapSize, Comparable<CachedBlock>, CacheEntr
   public void setIndex(Object idx) {
     this.index = idx;
   }
+  
+  @Override
+  public synchronized void setIndexSize(long indexSize) {
+    if (cacheSize != null)
+      cacheSize.addAndGet(indexSize - this.indexSize);
+    this.indexSize = indexSize;
+  }
 }
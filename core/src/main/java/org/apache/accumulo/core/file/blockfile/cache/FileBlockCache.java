@@ -0,0 +1,336 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * An {@link OffHeapBlockCache} whose pages are memory mapped from a file on local disk, meant to sit beneath the data and index caches as their victim cache
+ * (see {@link LruBlockCache#setVictimCache(BlockCache)}). Blocks evicted from memory are copied here, and a later miss is served from local disk instead of
+ * from HDFS.
+ * <p>
+ *
+ * Only the pages live in the file. The index of which pages hold which block is kept on the heap and written next to the pages by {@link #checkpoint()} and
+ * {@link #shutdown()}. When a cache is created over a directory that already holds a checkpoint for a file of the same size and page size, written by a
+ * cache of the same instance, the blocks in it are cached again. A checkpoint of another instance, such as one that was there before a re-init, is ignored
+ * because the names of its blocks may refer to different files. Blocks cached or evicted after the last checkpoint may have overwritten pages the checkpoint refers to, so every block is checked against
+ * the checksum taken when it was cached each time it is read; a block that does not match is evicted and reported as a miss.
+ * <p>
+ *
+ * A directory must only be used by one cache at a time.
+ */
+public class FileBlockCache extends OffHeapBlockCache {
+
+  static final String DATA_FILE = "blocks.dat";
+  static final String INDEX_FILE = "blocks.idx";
+
+  /** written at the start of the index file */
+  private static final int MAGIC = 0x4c32424b;
+  private static final int VERSION = 2;
+
+  private final File dir;
+  private final String instanceId;
+  private final long capacity;
+  private final AtomicLong corrupt = new AtomicLong(0);
+
+  /**
+   * @param dir
+   *          local directory holding the cache, created if needed
+   * @param instanceId
+   *          the instance whose files are cached, blocks checkpointed by another instance are not restored
+   * @param maxSize
+   *          amount of local disk to use for the cache, in bytes
+   * @param blockSize
+   *          approximate size of each block, in bytes
+   */
+  public FileBlockCache(File dir, String instanceId, long maxSize, long blockSize) throws IOException {
+    this(dir, instanceId, maxSize, blockSize, true, DEFAULT_PAGE_SIZE);
+  }
+
+  FileBlockCache(File dir, String instanceId, long maxSize, long blockSize, boolean evictionThread, int pageSize) throws IOException {
+    super(maxSize, blockSize, evictionThread, new OffHeapArena(map(dir, maxSize, pageSize), pageSize));
+    this.dir = dir;
+    this.instanceId = instanceId;
+    this.capacity = (long) getArena().getPageCount() * pageSize;
+    restore();
+  }
+
+  private static ByteBuffer[] map(File dir, long maxSize, int pageSize) throws IOException {
+    if (!dir.isDirectory() && !dir.mkdirs())
+      throw new IOException("Unable to create block cache directory " + dir);
+
+    int[] sizes = OffHeapArena.slabSizes(maxSize, pageSize);
+    long length = 0;
+    for (int size : sizes)
+      length += size;
+
+    ByteBuffer[] slabs = new ByteBuffer[sizes.length];
+    RandomAccessFile raf = new RandomAccessFile(new File(dir, DATA_FILE), "rw");
+    try {
+      raf.setLength(length);
+      FileChannel channel = raf.getChannel();
+      long offset = 0;
+      for (int i = 0; i < sizes.length; i++) {
+        // the mapping remains valid after the file is closed
+        slabs[i] = channel.map(MapMode.READ_WRITE, offset, sizes[i]);
+        offset += sizes[i];
+      }
+    } finally {
+      raf.close();
+    }
+    return slabs;
+  }
+
+  @Override
+  protected CachedBlock createBlock(String blockName, byte[] buf, long accessTime, boolean inMemory) {
+    int[] pages = getArena().store(buf);
+    if (pages == null)
+      return null;
+    return new FileCachedBlock(blockName, pages, buf.length, checksum(buf), accessTime, inMemory);
+  }
+
+  @Override
+  protected CacheEntry entryFor(CachedBlock block, byte[] buf) {
+    if (buf == null) {
+      FileCachedBlock fcb = (FileCachedBlock) block;
+      buf = fcb.load();
+      if (buf == null)
+        return null;
+      if (checksum(buf) != fcb.checksum) {
+        LruBlockCache.LOG.warn("Evicting block " + block.getName() + " from " + dir + ", its pages were overwritten");
+        corrupt.incrementAndGet();
+        evictBlock(block);
+        return null;
+      }
+    }
+    return super.entryFor(block, buf);
+  }
+
+  private static int checksum(byte[] buf) {
+    CRC32 crc = new CRC32();
+    crc.update(buf, 0, buf.length);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Write the index of cached blocks to disk, so they can be found again by a cache created over the same directory.
+   */
+  public synchronized void checkpoint() throws IOException {
+    // copy the access times first, they change while the blocks are sorted
+    List<IndexEntry> entries = new ArrayList<IndexEntry>();
+    for (CachedBlock cb : getBlocks()) {
+      FileCachedBlock fcb = (FileCachedBlock) cb;
+      IndexEntry entry = new IndexEntry();
+      entry.name = fcb.getName();
+      entry.priority = fcb.getPriority();
+      entry.length = fcb.getLength();
+      entry.checksum = fcb.checksum;
+      entry.pages = fcb.getPages();
+      entry.accessTime = fcb.getAccessTime();
+      entries.add(entry);
+    }
+    // most recently used first
+    Collections.sort(entries);
+
+    getArena().force();
+
+    File tmp = new File(dir, INDEX_FILE + ".tmp");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeUTF(instanceId);
+      out.writeLong(capacity);
+      out.writeInt(getArena().getPageSize());
+      out.writeInt(entries.size());
+      for (IndexEntry entry : entries) {
+        out.writeUTF(entry.name);
+        out.writeByte(entry.priority.ordinal());
+        out.writeInt(entry.length);
+        out.writeInt(entry.checksum);
+        out.writeInt(entry.pages.length);
+        for (int page : entry.pages)
+          out.writeInt(page);
+      }
+    } finally {
+      out.close();
+    }
+
+    if (!tmp.renameTo(new File(dir, INDEX_FILE)))
+      throw new IOException("Unable to rename " + tmp + " to " + INDEX_FILE);
+  }
+
+  /**
+   * Cache the blocks listed in the last checkpoint.
+   */
+  private void restore() {
+    File indexFile = new File(dir, INDEX_FILE);
+    List<IndexEntry> restored = new ArrayList<IndexEntry>();
+    BitSet used = new BitSet(getArena().getPageCount());
+
+    DataInputStream in;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+    } catch (FileNotFoundException e) {
+      return;
+    }
+
+    try {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        LruBlockCache.LOG.info("Ignoring block cache index " + indexFile + ", it was written for a different cache");
+        return;
+      }
+      String checkpointInstance = in.readUTF();
+      if (!checkpointInstance.equals(instanceId)) {
+        LruBlockCache.LOG.info("Ignoring block cache index " + indexFile + ", it was written by instance " + checkpointInstance);
+        return;
+      }
+      if (in.readLong() != capacity || in.readInt() != getArena().getPageSize()) {
+        LruBlockCache.LOG.info("Ignoring block cache index " + indexFile + ", it was written for a different cache");
+        return;
+      }
+
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        IndexEntry entry = new IndexEntry();
+        entry.name = in.readUTF();
+        entry.priority = CachedBlock.BlockPriority.values()[in.readByte()];
+        entry.length = in.readInt();
+        entry.checksum = in.readInt();
+        int pageCount = in.readInt();
+        if (pageCount < 0 || pageCount > getArena().getPageCount())
+          throw new IOException("Block " + entry.name + " claims " + pageCount + " pages");
+        entry.pages = new int[pageCount];
+        boolean valid = getArena().pagesNeeded(entry.length) == entry.pages.length;
+        for (int j = 0; j < entry.pages.length; j++) {
+          int page = in.readInt();
+          valid &= page >= 0 && page < getArena().getPageCount() && !used.get(page);
+          entry.pages[j] = page;
+        }
+
+        // a page claimed by two blocks was reused after the first one was evicted, so keep only the more recently used block
+        if (valid) {
+          for (int page : entry.pages)
+            used.set(page);
+          restored.add(entry);
+        }
+      }
+    } catch (IOException e) {
+      discard(indexFile, e);
+      return;
+    } catch (RuntimeException e) {
+      // a corrupt index can hold values that are out of range anywhere, it must not keep the tablet server from starting
+      discard(indexFile, e);
+      return;
+    } finally {
+      try {
+        in.close();
+      } catch (IOException e) {
+        LruBlockCache.LOG.warn("Failed to close " + indexFile, e);
+      }
+    }
+
+    getArena().reserve(used);
+    // least recently used first, so the access order survives the restart
+    for (int i = restored.size() - 1; i >= 0; i--) {
+      IndexEntry entry = restored.get(i);
+      FileCachedBlock fcb = new FileCachedBlock(entry.name, entry.pages, entry.length, entry.checksum, nextAccessTime(),
+          entry.priority == CachedBlock.BlockPriority.MEMORY);
+      if (entry.priority == CachedBlock.BlockPriority.MULTI)
+        fcb.access(nextAccessTime());
+      addBlock(fcb);
+    }
+    LruBlockCache.LOG.info("Restored " + restored.size() + " blocks from " + dir);
+  }
+
+  private static void discard(File indexFile, Exception e) {
+    LruBlockCache.LOG.warn("Unable to read block cache index " + indexFile + ", starting with an empty cache", e);
+    if (!indexFile.delete())
+      LruBlockCache.LOG.warn("Unable to delete block cache index " + indexFile);
+  }
+
+  /**
+   * Get the number of blocks that failed their checksum when read.
+   */
+  public long getCorruptCount() {
+    return corrupt.get();
+  }
+
+  /**
+   * Checkpoint the index and stop the cache.
+   */
+  @Override
+  public void shutdown() {
+    try {
+      checkpoint();
+    } catch (IOException e) {
+      LruBlockCache.LOG.warn("Unable to checkpoint block cache " + dir, e);
+    }
+    super.shutdown();
+  }
+
+  @Override
+  public void logStats() {
+    super.logStats();
+    LruBlockCache.LOG.debug("Cache Stats: Local Disk: Dir=" + dir + ", Corrupt=" + getCorruptCount());
+  }
+
+  /**
+   * A block as it is recorded in the index file.
+   */
+  private static class IndexEntry implements Comparable<IndexEntry> {
+    String name;
+    CachedBlock.BlockPriority priority;
+    int length;
+    int checksum;
+    int[] pages;
+    long accessTime;
+
+    @Override
+    public int compareTo(IndexEntry that) {
+      return Long.compare(that.accessTime, this.accessTime);
+    }
+  }
+
+  private class FileCachedBlock extends OffHeapCachedBlock {
+
+    private final int checksum;
+
+    FileCachedBlock(String blockName, int[] pages, int length, int checksum, long accessTime, boolean inMemory) {
+      super(blockName, pages, length, accessTime, inMemory);
+      this.checksum = checksum;
+    }
+  }
+}
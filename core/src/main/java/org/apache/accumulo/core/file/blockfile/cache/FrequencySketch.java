@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A count-min sketch estimating how often a block has been requested recently. Each block hashes to four 4 bit counters, so an estimate never exceeds 15.
+ * <p>
+ *
+ * Once the number of increments reaches ten times the expected number of blocks every counter is halved. This ages out blocks that were popular a long time
+ * ago and keeps the sketch small no matter how many distinct blocks pass through it.
+ * <p>
+ *
+ * Counters are updated with compare and set, so concurrent readers never block. Updates that race with an aging pass may be lost, which only makes the
+ * estimates slightly less accurate.
+ */
+class FrequencySketch {
+
+  private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+  /** clears the high bit of every counter after the counters are shifted right */
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  static final int MAX_FREQUENCY = 15;
+
+  private final AtomicLongArray table;
+  private final int tableMask;
+  private final int sampleSize;
+  private final AtomicInteger additions = new AtomicInteger(0);
+  private volatile int resets = 0;
+
+  /**
+   * @param expectedEntries
+   *          the number of blocks the cache is expected to hold
+   */
+  FrequencySketch(long expectedEntries) {
+    int entries = (int) Math.max(16, Math.min(expectedEntries, 1 << 28));
+    int tableSize = Integer.highestOneBit(entries - 1) << 1;
+    this.table = new AtomicLongArray(tableSize);
+    this.tableMask = tableSize - 1;
+    this.sampleSize = 10 * entries;
+  }
+
+  /**
+   * @return the estimated number of times the item was recorded, at most {@value #MAX_FREQUENCY}
+   */
+  int frequency(Object item) {
+    int hash = spread(item.hashCode());
+    int frequency = MAX_FREQUENCY;
+    for (int i = 0; i < SEEDS.length; i++) {
+      long h = rehash(hash, i);
+      frequency = Math.min(frequency, (int) ((table.get(index(h)) >>> shift(h)) & 0xfL));
+    }
+    return frequency;
+  }
+
+  /**
+   * Records an access to the item.
+   */
+  void increment(Object item) {
+    int hash = spread(item.hashCode());
+    boolean added = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      long h = rehash(hash, i);
+      added |= incrementAt(index(h), shift(h));
+    }
+
+    if (added && additions.incrementAndGet() == sampleSize)
+      reset();
+  }
+
+  private boolean incrementAt(int index, int shift) {
+    long mask = 0xfL << shift;
+    while (true) {
+      long current = table.get(index);
+      if ((current & mask) == mask)
+        return false;
+      if (table.compareAndSet(index, current, current + (1L << shift)))
+        return true;
+    }
+  }
+
+  /**
+   * Halve every counter.
+   */
+  private void reset() {
+    for (int i = 0; i < table.length(); i++) {
+      while (true) {
+        long current = table.get(i);
+        if (table.compareAndSet(i, current, (current >>> 1) & RESET_MASK))
+          break;
+      }
+    }
+    additions.addAndGet(-sampleSize / 2);
+    // only the thread that reached the sample size gets here
+    resets++;
+  }
+
+  /**
+   * @return the number of times the counters have been halved
+   */
+  int getResetCount() {
+    return resets;
+  }
+
+  private int index(long h) {
+    return (int) (h >>> 32) & tableMask;
+  }
+
+  private static int shift(long h) {
+    // which of the 16 counters in the long
+    return ((int) h & 0xf) << 2;
+  }
+
+  private static long rehash(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    return h + (h >>> 29);
+  }
+
+  private static int spread(int h) {
+    h ^= (h >>> 17);
+    h *= 0xed5ad4bb;
+    h ^= (h >>> 11);
+    h *= 0xac4c1b51;
+    h ^= (h >>> 15);
+    return h;
+  }
+}
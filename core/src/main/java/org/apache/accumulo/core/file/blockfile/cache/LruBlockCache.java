@@ -20,6 +20,7 @@
 package org.apache.accumulo.core.file.blockfile.cache;
 
 import java.lang.ref.WeakReference;
+import java.util.Collection;
 import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
@@ -135,6 +136,9 @@ public class LruBlockCache implements BlockCache, HeapSize {
   /** Overhead of the structure itself */
   private long overhead;
   
+  /** Cache that receives evicted blocks and is checked before reporting a miss */
+  private volatile BlockCache victimCache = null;
+  
   /**
    * Default constructor. Specify maximum size and expected average block size (approximation is fine).
    * 
@@ -249,21 +253,34 @@ public class LruBlockCache implements BlockCache, HeapSize {
    */
   public CacheEntry cacheBlock(String blockName, byte buf[], boolean inMemory) {
     CachedBlock cb = map.get(blockName);
-    if (cb != null) {
-      stats.duplicateReads();
-      cb.access(count.incrementAndGet());
+    if (cb == null) {
+      cb = createBlock(blockName, buf, count.incrementAndGet(), inMemory);
+      if (cb == null) {
+        // the implementation could not store the block, so try to make room for the next one
+        if (!evictionInProgress) {
+          runEviction();
+        }
+        return null;
+      }
       
-    } else {
-      cb = new CachedBlock(blockName, buf, count.incrementAndGet(), inMemory);
-      long newSize = size.addAndGet(cb.heapSize());
-      map.put(blockName, cb);
-      elements.incrementAndGet();
-      if (newSize > acceptableSize() && !evictionInProgress) {
-        runEviction();
+      CachedBlock existing = map.putIfAbsent(blockName, cb);
+      if (existing == null) {
+        long newSize = cb.addTo(size);
+        elements.incrementAndGet();
+        if (newSize > acceptableSize() && !evictionInProgress) {
+          runEviction();
+        }
+        return entryFor(cb, buf);
       }
+      
+      // another thread cached the same block first
+      freeBlock(cb);
+      cb = existing;
     }
     
-    return cb;
+    stats.duplicateReads();
+    cb.access(count.incrementAndGet());
+    return entryFor(cb, buf);
   }
   
   /**
@@ -289,25 +306,115 @@ public class LruBlockCache implements BlockCache, HeapSize {
    * @return buffer of specified block name, or null if not in cache
    */
   
-  public CachedBlock getBlock(String blockName) {
+  public CacheEntry getBlock(String blockName) {
     CachedBlock cb = map.get(blockName);
-    if (cb == null) {
+    CacheEntry ce = cb == null ? null : entryFor(cb, null);
+    if (ce == null) {
       stats.miss();
-      return null;
+      return getVictimBlock(blockName);
     }
     stats.hit();
     cb.access(count.incrementAndGet());
-    return cb;
+    return ce;
   }
   
   protected long evictBlock(CachedBlock block) {
-    map.remove(block.getName());
-    size.addAndGet(-1 * block.heapSize());
+    if (!map.remove(block.getName(), block)) {
+      // already evicted by another thread
+      return 0;
+    }
+    long freed = block.removeFromCache();
     elements.decrementAndGet();
     stats.evicted();
-    return block.heapSize();
+    
+    BlockCache victims = victimCache;
+    if (victims != null) {
+      byte[] buf = block.getBuffer();
+      if (buf != null)
+        victims.cacheBlock(block.getName(), buf, block.getPriority() == CachedBlock.BlockPriority.MEMORY);
+    }
+    
+    freeBlock(block);
+    return freed;
   }
   
+  /**
+   * Look for a block that was evicted from this cache in the victim cache. A block found there is cached here again.
+   */
+  private CacheEntry getVictimBlock(String blockName) {
+    BlockCache victims = victimCache;
+    if (victims == null)
+      return null;
+    
+    CacheEntry ce = victims.getBlock(blockName);
+    if (ce == null)
+      return null;
+    
+    stats.victimHit();
+    CacheEntry promoted = cacheBlock(blockName, ce.getBuffer());
+    return promoted == null ? ce : promoted;
+  }
+  
+  /**
+   * Set a second level cache that receives blocks evicted from this cache. On a miss the victim cache is checked before the caller reads the block from the
+   * file. A victim cache may be shared by several caches.
+   * 
+   * @param victimCache
+   *          the cache to use, or null to stop using one
+   */
+  public void setVictimCache(BlockCache victimCache) {
+    this.victimCache = victimCache;
+  }
+  
+  /**
+   * Add a block that was created outside of {@link #cacheBlock(String, byte[], boolean)}, such as one recovered from a previous run of the cache.
+   * 
+   * @return false if a block with the same name is already cached
+   */
+  boolean addBlock(CachedBlock cb) {
+    if (map.putIfAbsent(cb.getName(), cb) != null)
+      return false;
+    cb.addTo(size);
+    elements.incrementAndGet();
+    return true;
+  }
+  
+  /**
+   * @return the next value of the sequence used to order block accesses
+   */
+  long nextAccessTime() {
+    return count.incrementAndGet();
+  }
+  
+  Collection<CachedBlock> getBlocks() {
+    return map.values();
+  }
+  
+  /**
+   * Create the cache's representation of a block. Subclasses may store the buffer somewhere other than the java heap.
+   * 
+   * @return the new block, or null if the block could not be stored
+   */
+  protected CachedBlock createBlock(String blockName, byte buf[], long accessTime, boolean inMemory) {
+    return new CachedBlock(blockName, buf, accessTime, inMemory);
+  }
+  
+  /**
+   * Get the entry handed to callers for a cached block.
+   * 
+   * @param buf
+   *          the buffer the caller just cached, or null when the block is being fetched
+   * @return the entry, or null if the contents of the block are no longer available
+   */
+  protected CacheEntry entryFor(CachedBlock block, byte buf[]) {
+    return block;
+  }
+  
+  /**
+   * Called once a block is no longer referenced by the cache, either because it was evicted or because it lost a race to be cached.
+   */
+  protected void freeBlock(CachedBlock block) {}
+  
   /**
    * Multi-threaded call to run the eviction process.
    */
@@ -572,7 +679,7 @@ public class LruBlockCache implements BlockCache, HeapSize {
         + maxMB + "MB (" + maxSize + ")" + ", Counts: " + "Blocks=" + size() + ", " + "Access=" + stats.getRequestCount() + ", " + "Hit=" + stats.getHitCount()
         + ", " + "Miss=" + stats.getMissCount() + ", " + "Evictions=" + stats.getEvictionCount() + ", " + "Evicted=" + stats.getEvictedCount() + ", Ratios: "
         + "Hit Ratio=" + stats.getHitRatio() * 100 + "%, " + "Miss Ratio=" + stats.getMissRatio() * 100 + "%, " + "Evicted/Run=" + stats.evictedPerEviction()
-        + ", " + "Duplicate Reads=" + stats.getDuplicateReads());
+        + ", " + "Duplicate Reads=" + stats.getDuplicateReads() + ", " + "Victim Hits=" + stats.getVictimHitCount());
   }
   
   /**
@@ -592,6 +699,7 @@ public class LruBlockCache implements BlockCache, HeapSize {
     private final AtomicLong evictionCount = new AtomicLong(0);
     private final AtomicLong evictedCount = new AtomicLong(0);
     private final AtomicLong duplicateReads = new AtomicLong(0);
+    private final AtomicLong victimHitCount = new AtomicLong(0);
     
     public void miss() {
       missCount.incrementAndGet();
@@ -615,6 +723,10 @@ public class LruBlockCache implements BlockCache, HeapSize {
       evictedCount.incrementAndGet();
     }
     
+    public void victimHit() {
+      victimHitCount.incrementAndGet();
+    }
+    
     public long getRequestCount() {
       return accessCount.get();
     }
@@ -639,6 +751,13 @@ public class LruBlockCache implements BlockCache, HeapSize {
       return evictedCount.get();
     }
     
+    /**
+     * @return the number of misses that were found in the victim cache
+     */
+    public long getVictimHitCount() {
+      return victimHitCount.get();
+    }
+    
     public double getHitRatio() {
       return ((float) getHitCount() / (float) getRequestCount());
     }
@@ -667,7 +786,7 @@ public class LruBlockCache implements BlockCache, HeapSize {
   
   // Simple calculators of sizes given factors and maxSize
   
-  private long acceptableSize() {
+  protected long acceptableSize() {
     return (long) Math.floor(this.maxSize * this.acceptableFactor);
   }
   
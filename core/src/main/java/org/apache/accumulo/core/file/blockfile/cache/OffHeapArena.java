@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.BitSet;
+
+/**
+ * A fixed amount of direct memory carved into equally sized pages. The memory is allocated once, up front, so cached blocks never create garbage for the java
+ * heap to collect. A block is stored in as many pages as it needs; the pages do not have to be contiguous.
+ * <p>
+ *
+ * The memory is either allocated directly or memory mapped from a local file, see {@link FileBlockCache}.
+ */
+class OffHeapArena {
+
+  /** largest slab handed to {@link ByteBuffer#allocateDirect(int)} or mapped from a file */
+  private static final int MAX_SLAB_SIZE = 1 << 30;
+
+  private final int pageSize;
+  private final int pagesPerSlab;
+  private final ByteBuffer[] slabs;
+
+  /** stack of free page numbers */
+  private final int[] freePages;
+  private int freeCount;
+
+  OffHeapArena(long capacity, int pageSize) {
+    this(allocateSlabs(capacity, pageSize), pageSize);
+  }
+
+  /**
+   * Create an arena over memory allocated by the caller, for example memory mapped from a local file.
+   *
+   * @param slabs
+   *          buffers with the sizes returned by {@link #slabSizes(long, int)}
+   */
+  OffHeapArena(ByteBuffer[] slabs, int pageSize) {
+    this.pageSize = pageSize;
+    this.pagesPerSlab = MAX_SLAB_SIZE / pageSize;
+    this.slabs = slabs;
+
+    long numPages = 0;
+    for (ByteBuffer slab : slabs)
+      numPages += slab.capacity() / pageSize;
+    this.freePages = new int[(int) numPages];
+
+    // hand out low page numbers first
+    for (int i = 0; i < freePages.length; i++)
+      freePages[i] = freePages.length - 1 - i;
+    freeCount = freePages.length;
+  }
+
+  /**
+   * @return the size of each slab needed to divide capacity into pages
+   */
+  static int[] slabSizes(long capacity, int pageSize) {
+    if (pageSize <= 0 || pageSize > MAX_SLAB_SIZE)
+      throw new IllegalArgumentException("Invalid page size " + pageSize);
+
+    long numPages = capacity / pageSize;
+    if (numPages <= 0 || numPages > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Can not divide " + capacity + " bytes into pages of size " + pageSize);
+
+    int pagesPerSlab = MAX_SLAB_SIZE / pageSize;
+    int numSlabs = (int) ((numPages + pagesPerSlab - 1) / pagesPerSlab);
+    int[] sizes = new int[numSlabs];
+    long remaining = numPages;
+    for (int i = 0; i < numSlabs; i++) {
+      int slabPages = (int) Math.min(remaining, pagesPerSlab);
+      sizes[i] = slabPages * pageSize;
+      remaining -= slabPages;
+    }
+    return sizes;
+  }
+
+  private static ByteBuffer[] allocateSlabs(long capacity, int pageSize) {
+    int[] sizes = slabSizes(capacity, pageSize);
+    ByteBuffer[] slabs = new ByteBuffer[sizes.length];
+    for (int i = 0; i < sizes.length; i++)
+      slabs[i] = ByteBuffer.allocateDirect(sizes[i]);
+    return slabs;
+  }
+
+  int getPageSize() {
+    return pageSize;
+  }
+
+  long getCapacity() {
+    return (long) freePages.length * pageSize;
+  }
+
+  synchronized long getFreeBytes() {
+    return (long) freeCount * pageSize;
+  }
+
+  int pagesNeeded(int length) {
+    return (length + pageSize - 1) / pageSize;
+  }
+
+  /**
+   * @return the page numbers holding a copy of buf, or null if there is not enough free memory
+   */
+  int[] store(byte buf[]) {
+    int[] pages = allocate(pagesNeeded(buf.length));
+    if (pages == null)
+      return null;
+
+    int offset = 0;
+    for (int page : pages) {
+      int len = Math.min(pageSize, buf.length - offset);
+      if (len <= 0)
+        break;
+      pageBuffer(page).put(buf, offset, len);
+      offset += len;
+    }
+    return pages;
+  }
+
+  /**
+   * Copy length bytes stored in pages back onto the java heap.
+   */
+  byte[] load(int[] pages, int length) {
+    byte[] buf = new byte[length];
+    int offset = 0;
+    for (int page : pages) {
+      int len = Math.min(pageSize, length - offset);
+      if (len <= 0)
+        break;
+      pageBuffer(page).get(buf, offset, len);
+      offset += len;
+    }
+    return buf;
+  }
+
+  int getPageCount() {
+    return freePages.length;
+  }
+
+  /**
+   * Mark pages as holding blocks that were stored before the arena was created. Must be called before anything is stored in the arena.
+   */
+  synchronized void reserve(BitSet used) {
+    freeCount = 0;
+    for (int page = freePages.length - 1; page >= 0; page--)
+      if (!used.get(page))
+        freePages[freeCount++] = page;
+  }
+
+  /**
+   * Write any changes to memory mapped slabs out to the underlying file.
+   */
+  void force() {
+    for (ByteBuffer slab : slabs)
+      if (slab instanceof MappedByteBuffer)
+        ((MappedByteBuffer) slab).force();
+  }
+
+  synchronized void free(int[] pages) {
+    for (int page : pages)
+      freePages[freeCount++] = page;
+  }
+
+  private synchronized int[] allocate(int numPages) {
+    if (numPages > freeCount)
+      return null;
+
+    int[] pages = new int[numPages];
+    for (int i = 0; i < numPages; i++)
+      pages[i] = freePages[--freeCount];
+    return pages;
+  }
+
+  /**
+   * @return a buffer positioned at the start of the page, with its own position so concurrent readers do not interfere
+   */
+  private ByteBuffer pageBuffer(int page) {
+    ByteBuffer bb = slabs[page / pagesPerSlab].duplicate();
+    bb.position((page % pagesPerSlab) * pageSize);
+    return bb;
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link LruBlockCache} that keeps block contents in direct memory instead of on the java heap.
+ * <p>
+ *
+ * Block contents are copied into a fixed size {@link OffHeapArena} allocated when the cache is created, so large caches do not add long lived byte arrays to
+ * the tenured generation. Eviction, the single/multi/in-memory priorities and {@link LruBlockCache.CacheStats} behave exactly as they do for the on heap cache.
+ * <p>
+ *
+ * A cache hit copies the block back onto the heap. The copy is short lived and is normally collected in the young generation.
+ */
+public class OffHeapBlockCache extends LruBlockCache {
+
+  static final int DEFAULT_PAGE_SIZE = 8 * 1024;
+
+  private final OffHeapArena arena;
+
+  /**
+   * @param maxSize
+   *          amount of direct memory to allocate for the cache, in bytes
+   * @param blockSize
+   *          approximate size of each block, in bytes
+   */
+  public OffHeapBlockCache(long maxSize, long blockSize) {
+    this(maxSize, blockSize, true);
+  }
+
+  /**
+   * Constructor used for testing. Allows disabling of the eviction thread.
+   */
+  public OffHeapBlockCache(long maxSize, long blockSize, boolean evictionThread) {
+    this(maxSize, blockSize, evictionThread, DEFAULT_PAGE_SIZE);
+  }
+
+  OffHeapBlockCache(long maxSize, long blockSize, boolean evictionThread, int pageSize) {
+    this(maxSize, blockSize, evictionThread, new OffHeapArena(maxSize, pageSize));
+  }
+
+  OffHeapBlockCache(long maxSize, long blockSize, boolean evictionThread, OffHeapArena arena) {
+    super(maxSize, blockSize, evictionThread);
+    this.arena = arena;
+  }
+
+  OffHeapArena getArena() {
+    return arena;
+  }
+
+  @Override
+  protected CachedBlock createBlock(String blockName, byte[] buf, long accessTime, boolean inMemory) {
+    int[] pages = arena.store(buf);
+    if (pages == null)
+      return null;
+    return new OffHeapCachedBlock(blockName, pages, buf.length, accessTime, inMemory);
+  }
+
+  @Override
+  protected CacheEntry entryFor(CachedBlock block, byte[] buf) {
+    OffHeapCachedBlock ohcb = (OffHeapCachedBlock) block;
+    if (buf == null) {
+      buf = ohcb.load();
+      if (buf == null)
+        return null;
+    }
+    return new OnHeapCopy(ohcb, buf);
+  }
+
+  @Override
+  protected void freeBlock(CachedBlock block) {
+    ((OffHeapCachedBlock) block).release();
+  }
+
+  /**
+   * Get the amount of direct memory that is not holding a block.
+   *
+   * @return free direct memory in bytes
+   */
+  public long getFreeOffHeapSize() {
+    return arena.getFreeBytes();
+  }
+
+  class OffHeapCachedBlock extends CachedBlock {
+
+    private final int[] pages;
+    private final int length;
+
+    /** one reference is held by the cache, the rest by threads copying the block out */
+    private final AtomicInteger refs = new AtomicInteger(1);
+
+    OffHeapCachedBlock(String blockName, int[] pages, int length, long accessTime, boolean inMemory) {
+      super(blockName, (long) pages.length * arena.getPageSize(), accessTime, inMemory);
+      this.pages = pages;
+      this.length = length;
+    }
+
+    int[] getPages() {
+      return pages;
+    }
+
+    int getLength() {
+      return length;
+    }
+
+    /**
+     * @return a copy of the block, or null if the block was freed
+     */
+    byte[] load() {
+      while (true) {
+        int r = refs.get();
+        if (r == 0)
+          return null;
+        if (refs.compareAndSet(r, r + 1))
+          break;
+      }
+
+      try {
+        return arena.load(pages, length);
+      } finally {
+        release();
+      }
+    }
+
+    void release() {
+      if (refs.decrementAndGet() == 0)
+        arena.free(pages);
+    }
+
+    @Override
+    public byte[] getBuffer() {
+      return load();
+    }
+  }
+
+  /**
+   * The entry handed to readers. The buffer lives on the heap, while the index is shared with every other reader of the block.
+   */
+  private static class OnHeapCopy implements CacheEntry {
+
+    private final CachedBlock block;
+    private final byte[] buf;
+
+    OnHeapCopy(CachedBlock block, byte[] buf) {
+      this.block = block;
+      this.buf = buf;
+    }
+
+    @Override
+    public byte[] getBuffer() {
+      return buf;
+    }
+
+    @Override
+    public Object getIndex() {
+      return block.getIndex();
+    }
+
+    @Override
+    public void setIndex(Object idx) {
+      block.setIndex(idx);
+    }
+
+    @Override
+    public void setIndexSize(long indexSize) {
+      block.setIndexSize(indexSize);
+    }
+  }
+}
@@ -52,6 +52,11 @@ public class SimpleBlockCache implements BlockCache {
       this.index = idx;
     }
     
+    @Override
+    public void setIndexSize(long indexSize) {
+      // entries are only softly referenced, so their size is not tracked
+    }
+    
   }
   
   private static class Ref extends SoftReference<SimpleCacheEntry> {
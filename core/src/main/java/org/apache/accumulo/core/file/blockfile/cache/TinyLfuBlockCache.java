@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link LruBlockCache} that only admits a new block when it is likely to be used more than the blocks it would push out.
+ * <p>
+ *
+ * Every request for a block, hit or miss, is recorded in a {@link FrequencySketch}. While the cache is below its acceptable size every block is admitted. Once
+ * it is full, a block is only admitted if it has been requested more often than the blocks recently evicted. A large scan that reads each block once therefore
+ * can not flush a working set that is read over and over. Rejected blocks are still returned to the reader, they are just not kept.
+ * <p>
+ *
+ * In-memory blocks are always admitted, they are protected by their own priority bucket.
+ */
+public class TinyLfuBlockCache extends LruBlockCache {
+
+  private final FrequencySketch sketch;
+
+  /** moving average of the frequency of evicted blocks, only updated by the eviction process */
+  private volatile double victimFrequency = 0;
+
+  /** sketch reset count when victimFrequency was last updated */
+  private volatile int victimResets = 0;
+
+  private final AtomicLong rejected = new AtomicLong(0);
+
+  /**
+   * @param maxSize
+   *          maximum size of cache, in bytes
+   * @param blockSize
+   *          approximate size of each block, in bytes
+   */
+  public TinyLfuBlockCache(long maxSize, long blockSize) {
+    this(maxSize, blockSize, true);
+  }
+
+  /**
+   * Constructor used for testing. Allows disabling of the eviction thread.
+   */
+  public TinyLfuBlockCache(long maxSize, long blockSize, boolean evictionThread) {
+    super(maxSize, blockSize, evictionThread);
+    this.sketch = new FrequencySketch(maxSize / Math.max(1, blockSize));
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    sketch.increment(blockName);
+    return super.getBlock(blockName);
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf, boolean inMemory) {
+    if (!inMemory && getCurrentSize() + buf.length > acceptableSize() && sketch.frequency(blockName) <= Math.round(getVictimFrequency())) {
+      rejected.incrementAndGet();
+      return null;
+    }
+    return super.cacheBlock(blockName, buf, inMemory);
+  }
+
+  @Override
+  protected long evictBlock(CachedBlock block) {
+    double current = getVictimFrequency();
+    victimResets = sketch.getResetCount();
+    victimFrequency = (current * 7 + sketch.frequency(block.getName())) / 8;
+    return super.evictBlock(block);
+  }
+
+  /**
+   * The average frequency of evicted blocks, aged along with the sketch. Without aging a cache that stopped evicting would never admit anything new.
+   */
+  private double getVictimFrequency() {
+    int age = Math.min(30, sketch.getResetCount() - victimResets);
+    return victimFrequency / (1 << age);
+  }
+
+  /**
+   * Get the number of blocks that were not admitted because they were requested less often than the blocks they would have replaced.
+   */
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  @Override
+  public void logStats() {
+    super.logStats();
+    LruBlockCache.LOG.debug("Cache Stats: Admission: Rejected=" + getRejectedCount() + ", Victim Frequency=" + getVictimFrequency());
+  }
+}
@@ -19,11 +19,15 @@ package org.apache.accumulo.core.file.blockfile.impl;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.ref.SoftReference;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.file.blockfile.ABlockReader;
 import org.apache.accumulo.core.file.blockfile.ABlockWriter;
 import org.apache.accumulo.core.file.blockfile.BlockFileReader;
@@ -33,9 +37,11 @@ import org.apache.accumulo.core.file.blockfile.cache.CacheEntry;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile.Reader.BlockReader;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile.Writer.BlockAppender;
+import org.apache.accumulo.core.file.rfile.bcfile.MappedFileInputStream;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.log4j.Logger;
@@ -51,6 +57,16 @@ public class CachableBlockFile {
   
   private static final Logger log = Logger.getLogger(CachableBlockFile.class);
   
+  private static final AtomicLong reusedBlocks = new AtomicLong(0);
+  
+  /**
+   * Get the number of cached blocks read by readers that had not opened their file yet. These blocks were cached by some other reader of the same file, for
+   * example one opened for the tablet before it was split or for a tablet that previously referenced the file.
+   */
+  public static long getReusedBlockCount() {
+    return reusedBlocks.get();
+  }
+  
   public static class Writer implements BlockFileWriter {
     private BCFile.Writer _bc;
     private BlockWrite _bw;
@@ -144,6 +160,9 @@ public class CachableBlockFile {
   public static class Reader implements BlockFileReader {
     private BCFile.Reader _bc;
     private String fileName = "not_available";
+    private String cacheId = fileName;
+    private long fileLength = -1;
+    private volatile boolean opened = false;
     private BlockCache _dCache = null;
     private BlockCache _iCache = null;
     private FSDataInputStream fin = null;
@@ -151,6 +170,7 @@ public class CachableBlockFile {
     private Configuration conf;
     private boolean closed = false;
     private AccumuloConfiguration accumuloConfiguration = null;
+    private volatile boolean cacheDataBlocks = true;
     
     private interface BlockLoader {
       BlockReader get() throws IOException;
@@ -234,6 +254,15 @@ public class CachableBlockFile {
       this.fs = fs;
       this.conf = conf;
       this.accumuloConfiguration = accumuloConfiguration;
+      
+      if (data != null || index != null) {
+        // Key cached blocks by the file's identity instead of by the name this reader was given, so readers that reach the same file through a different name
+        // share its blocks, and blocks of another file that was at the same path, as after a re-init or a restore from backup, are never returned. The
+        // length is reused when the file is opened, so this is the only call to the namenode for the status of the file.
+        FileStatus status = fs.getFileStatus(dataFile);
+        fileLength = status.getLen();
+        cacheId = status.getPath() + ";" + status.getLen() + ";" + status.getModificationTime() + ";";
+      }
     }
     
     public Reader(FSDataInputStream fsin, long len, Configuration conf, BlockCache data, BlockCache index, AccumuloConfiguration accumuloConfiguration) throws IOException {
@@ -248,7 +277,13 @@ public class CachableBlockFile {
     }
     
     private void init(FSDataInputStream fsin, long len, Configuration conf, AccumuloConfiguration accumuloConfiguration) throws IOException {
-      this._bc = new BCFile.Reader(this, fsin, len, conf, accumuloConfiguration);
+      init(fsin, len, conf, accumuloConfiguration, false);
+    }
+    
+    private void init(FSDataInputStream fsin, long len, Configuration conf, AccumuloConfiguration accumuloConfiguration, boolean positionalReads)
+        throws IOException {
+      this._bc = new BCFile.Reader(this, fsin, len, conf, accumuloConfiguration, positionalReads);
+      opened = true;
     }
     
     private synchronized BCFile.Reader getBCFile(AccumuloConfiguration accumuloConfiguration) throws IOException {
@@ -258,15 +293,34 @@ public class CachableBlockFile {
       if (_bc == null) {
         // lazily open file if needed
         Path path = new Path(fileName);
-        fin = fs.open(path);
-        init(fin, fs.getFileStatus(path).getLen(), conf, accumuloConfiguration);
+        boolean positionalReads = accumuloConfiguration != null && accumuloConfiguration.getBoolean(Property.TSERV_FILE_READ_POSITIONAL);
+        File localFile = null;
+        if (accumuloConfiguration != null && accumuloConfiguration.getBoolean(Property.TSERV_FILE_READ_MMAP_LOCAL))
+          localFile = getLocalFile(path);
+        
+        if (localFile != null) {
+          fin = new FSDataInputStream(new MappedFileInputStream(localFile));
+          positionalReads = true;
+        } else {
+          fin = fs.open(path);
+        }
+        init(fin, fileLength >= 0 ? fileLength : fs.getFileStatus(path).getLen(), conf, accumuloConfiguration, positionalReads);
       }
       
       return _bc;
     }
     
-    public BlockRead getCachedMetaBlock(String blockName) throws IOException {
-      String _lookup = fileName + "M" + blockName;
+    /**
+     * @return the file behind path when it is on a local volume, otherwise null
+     */
+    private File getLocalFile(Path path) {
+      if (!"file".equals(fs.getUri().getScheme()))
+        return null;
+      return new File(fs.makeQualified(path).toUri().getPath());
+    }
+    
+    public ABlockReader getCachedMetaBlock(String blockName) throws IOException {
+      String _lookup = cacheId + "M" + blockName;
       
       if (_iCache != null) {
         CacheEntry cacheEntry = _iCache.getBlock(_lookup);
@@ -280,8 +334,8 @@ public class CachableBlockFile {
       return null;
     }
     
-    public BlockRead cacheMetaBlock(String blockName, BlockReader _currBlock) throws IOException {
-      String _lookup = fileName + "M" + blockName;
+    public ABlockReader cacheMetaBlock(String blockName, BlockReader _currBlock) throws IOException {
+      String _lookup = cacheId + "M" + blockName;
       return cacheBlock(_lookup, _iCache, _currBlock, blockName);
     }
     
@@ -290,7 +344,7 @@ public class CachableBlockFile {
       if (_iCache == null)
         return;
       
-      String _lookup = fileName + "M" + blockName;
+      String _lookup = cacheId + "M" + blockName;
       try {
         _iCache.cacheBlock(_lookup, b);
       } catch (Exception e) {
@@ -298,7 +352,7 @@ public class CachableBlockFile {
       }
     }
     
-    private BlockRead getBlock(String _lookup, BlockCache cache, BlockLoader loader) throws IOException {
+    private ABlockReader getBlock(String _lookup, BlockCache cache, BlockLoader loader, boolean cacheOnMiss) throws IOException {
       
       BlockReader _currBlock;
       
@@ -307,6 +361,8 @@ public class CachableBlockFile {
         cb = cache.getBlock(_lookup);
         
         if (cb != null) {
+          if (!opened)
+            reusedBlocks.incrementAndGet();
           return new CachedBlockRead(cb, cb.getBuffer());
         }
         
@@ -320,11 +376,11 @@ public class CachableBlockFile {
       /**
        * If the block is bigger than the cache just return the stream
        */
-      return cacheBlock(_lookup, cache, _currBlock, loader.getInfo());
+      return cacheBlock(_lookup, cacheOnMiss ? cache : null, _currBlock, loader.getInfo());
       
     }
     
-    private BlockRead cacheBlock(String _lookup, BlockCache cache, BlockReader _currBlock, String block) throws IOException {
+    private ABlockReader cacheBlock(String _lookup, BlockCache cache, BlockReader _currBlock, String block) throws IOException {
       
       if ((cache == null) || (_currBlock.getRawSize() > cache.getMaxSize())) {
         return new BlockRead(_currBlock, _currBlock.getRawSize());
@@ -367,15 +423,15 @@ public class CachableBlockFile {
      * NOTE: In the case of multi-read threads: This method can do redundant work where an entry is read from disk and other threads check the cache before it
      * has been inserted.
      */
-    public BlockRead getMetaBlock(String blockName) throws IOException {
-      String _lookup = this.fileName + "M" + blockName;
-      return getBlock(_lookup, _iCache, new MetaBlockLoader(blockName, accumuloConfiguration));
+    public ABlockReader getMetaBlock(String blockName) throws IOException {
+      String _lookup = this.cacheId + "M" + blockName;
+      return getBlock(_lookup, _iCache, new MetaBlockLoader(blockName, accumuloConfiguration), true);
     }
     
     @Override
     public ABlockReader getMetaBlock(long offset, long compressedSize, long rawSize) throws IOException {
-      String _lookup = this.fileName + "R" + offset;
-      return getBlock(_lookup, _iCache, new RawBlockLoader(offset, compressedSize, rawSize));
+      String _lookup = this.cacheId + "R" + offset;
+      return getBlock(_lookup, _iCache, new RawBlockLoader(offset, compressedSize, rawSize), true);
     }
     
     /**
@@ -386,16 +442,21 @@ public class CachableBlockFile {
      * has been inserted.
      */
     
-    public BlockRead getDataBlock(int blockIndex) throws IOException {
-      String _lookup = this.fileName + "O" + blockIndex;
-      return getBlock(_lookup, _dCache, new OffsetBlockLoader(blockIndex));
+    public ABlockReader getDataBlock(int blockIndex) throws IOException {
+      String _lookup = this.cacheId + "O" + blockIndex;
+      return getBlock(_lookup, _dCache, new OffsetBlockLoader(blockIndex), cacheDataBlocks);
       
     }
     
     @Override
     public ABlockReader getDataBlock(long offset, long compressedSize, long rawSize) throws IOException {
-      String _lookup = this.fileName + "R" + offset;
-      return getBlock(_lookup, _dCache, new RawBlockLoader(offset, compressedSize, rawSize));
+      String _lookup = this.cacheId + "R" + offset;
+      return getBlock(_lookup, _dCache, new RawBlockLoader(offset, compressedSize, rawSize), cacheDataBlocks);
+    }
+    
+    @Override
+    public void setCacheBlocks(boolean cacheBlocks) {
+      this.cacheDataBlocks = cacheBlocks;
     }
     
     public synchronized void close() throws IOException {
@@ -414,52 +475,158 @@ public class CachableBlockFile {
     
   }
   
-  static class SeekableByteArrayInputStream extends ByteArrayInputStream {
+  /**
+   * Reads a block that is held in the cache directly out of the cached byte array. Unlike {@link BlockRead}, there is no stream underneath, so reading a key
+   * or value from a cached block does not go through synchronized stream methods or allocate buffers.
+   */
+  public static class CachedBlockRead implements ABlockReader {
+    private final CacheEntry cb;
+    private final byte[] buf;
+    private int pos = 0;
     
-    public SeekableByteArrayInputStream(byte[] buf) {
-      super(buf);
+    public CachedBlockRead(CacheEntry cb, byte buf[]) {
+      this.cb = cb;
+      this.buf = buf;
     }
     
-    public SeekableByteArrayInputStream(byte buf[], int offset, int length) {
-      super(buf, offset, length);
-      throw new UnsupportedOperationException("Seek code assumes offset is zero"); // do not need this constructor, documenting that seek will not work
-                                                                                  // unless offset it kept track of
+    private void checkAvailable(int len) throws EOFException {
+      if (len > buf.length - pos)
+        throw new EOFException("Attempted to read " + len + " bytes at position " + pos + " of block of size " + buf.length);
     }
     
-    public void seek(int position) {
-      if (pos < 0 || pos >= buf.length)
-        throw new IllegalArgumentException("pos = " + pos + " buf.lenght = " + buf.length);
-      this.pos = position;
+    @Override
+    public void readFully(byte[] b) throws IOException {
+      readFully(b, 0, b.length);
     }
     
-    public int getPosition() {
-      return this.pos;
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+      checkAvailable(len);
+      System.arraycopy(buf, pos, b, off, len);
+      pos += len;
     }
     
-  }
-
-  public static class CachedBlockRead extends BlockRead {
-    private SeekableByteArrayInputStream seekableInput;
-    private final CacheEntry cb;
+    @Override
+    public int skipBytes(int n) {
+      int skipped = Math.max(0, Math.min(n, buf.length - pos));
+      pos += skipped;
+      return skipped;
+    }
     
-    public CachedBlockRead(CacheEntry cb, byte buf[]) {
-      this(new SeekableByteArrayInputStream(buf), buf.length, cb);
+    @Override
+    public boolean readBoolean() throws IOException {
+      return readByte() != 0;
+    }
+    
+    @Override
+    public byte readByte() throws IOException {
+      checkAvailable(1);
+      return buf[pos++];
+    }
+    
+    @Override
+    public int readUnsignedByte() throws IOException {
+      return readByte() & 0xff;
+    }
+    
+    @Override
+    public short readShort() throws IOException {
+      return (short) readUnsignedShort();
+    }
+    
+    @Override
+    public int readUnsignedShort() throws IOException {
+      checkAvailable(2);
+      int v = ((buf[pos] & 0xff) << 8) | (buf[pos + 1] & 0xff);
+      pos += 2;
+      return v;
+    }
+    
+    @Override
+    public char readChar() throws IOException {
+      return (char) readUnsignedShort();
+    }
+    
+    @Override
+    public int readInt() throws IOException {
+      checkAvailable(4);
+      int v = ((buf[pos] & 0xff) << 24) | ((buf[pos + 1] & 0xff) << 16) | ((buf[pos + 2] & 0xff) << 8) | (buf[pos + 3] & 0xff);
+      pos += 4;
+      return v;
+    }
+    
+    @Override
+    public long readLong() throws IOException {
+      return ((long) readInt() << 32) | (readInt() & 0xffffffffL);
+    }
+    
+    @Override
+    public float readFloat() throws IOException {
+      return Float.intBitsToFloat(readInt());
+    }
+    
+    @Override
+    public double readDouble() throws IOException {
+      return Double.longBitsToDouble(readLong());
+    }
+    
+    @Override
+    @Deprecated
+    public String readLine() throws IOException {
+      return getStream().readLine();
+    }
+    
+    @Override
+    public String readUTF() throws IOException {
+      return DataInputStream.readUTF(this);
     }
     
-    private CachedBlockRead(SeekableByteArrayInputStream seekableInput, long size, CacheEntry cb) {
-        super(seekableInput, size);
-        this.seekableInput = seekableInput;
-        this.cb = cb;
-      }
-
+    @Override
+    public long getRawSize() {
+      return buf.length;
+    }
+    
+    /**
+     * Returns a stream over the rest of the block. Reading from the stream advances this reader.
+     */
+    @Override
+    public DataInputStream getStream() throws IOException {
+      return new DataInputStream(new InputStream() {
+        @Override
+        public int read() {
+          return pos < buf.length ? buf[pos++] & 0xff : -1;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) {
+          if (pos >= buf.length)
+            return -1;
+          len = Math.min(len, buf.length - pos);
+          System.arraycopy(buf, pos, b, off, len);
+          pos += len;
+          return len;
+        }
+        
+        @Override
+        public int available() {
+          return buf.length - pos;
+        }
+      });
+    }
+    
+    @Override
+    public void close() {}
+    
     @Override
     public void seek(int position) {
-      seekableInput.seek(position);
+      if (position < 0 || position > buf.length)
+        throw new IllegalArgumentException("pos = " + position + " buf.length = " + buf.length);
+      this.pos = position;
     }
     
     @Override
     public int getPosition() {
-      return seekableInput.getPosition();
+      return pos;
     }
     
     @Override
@@ -488,6 +655,11 @@ public class CachableBlockFile {
       
       return bi;
     }
+    
+    @Override
+    public void setIndexSize(long indexSize) {
+      cb.setIndexSize(indexSize);
+    }
   }
 
   /**
@@ -541,5 +713,10 @@ public class CachableBlockFile {
       throw new UnsupportedOperationException();
     }
     
+    @Override
+    public void setIndexSize(long indexSize) {
+      throw new UnsupportedOperationException();
+    }
+    
   }
 }
@@ -128,6 +128,11 @@ public class MapFileOperations extends FileOperations {
       ((FileSKVIterator) reader).closeDeepCopies();
     }
     
+    @Override
+    public void setCacheBlocks(boolean cacheBlocks) {
+      ((FileSKVIterator) reader).setCacheBlocks(cacheBlocks);
+    }
+    
     @Override
     public void setInterruptFlag(AtomicBoolean flag) {
       ((FileSKVIterator) reader).setInterruptFlag(flag);
@@ -73,6 +73,11 @@ class MultiIndexIterator extends HeapIterator implements FileSKVIterator {
     throw new UnsupportedOperationException();
   }
   
+  @Override
+  public void setCacheBlocks(boolean cacheBlocks) {
+    // only reads index blocks, which are always cached
+  }
+  
   @Override
   public Key getFirstKey() throws IOException {
     throw new UnsupportedOperationException();
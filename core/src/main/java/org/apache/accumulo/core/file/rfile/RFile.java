@@ -76,6 +76,7 @@ public class RFile {
   private RFile() {}
   
   private static final int RINDEX_MAGIC = 0x20637474;
+  static final int RINDEX_VER_8 = 8;
   static final int RINDEX_VER_7 = 7;
   static final int RINDEX_VER_6 = 6;
   // static final int RINDEX_VER_5 = 5; // unreleased
@@ -282,6 +283,9 @@ public class RFile {
     
     public static final int MAX_CF_IN_DLG = 1000;
     
+    /** number of entries between restart points in a data block */
+    static final int RESTART_INTERVAL = 32;
+    
     private BlockFileWriter fileWriter;
     private ABlockWriter blockWriter;
     
@@ -296,6 +300,9 @@ public class RFile {
     
     private Key lastKeyInBlock = null;
     
+    // offsets of the keys in the current block that are not relative to the previous key, see RestartIndex
+    private ArrayList<Integer> restarts = new ArrayList<Integer>();
+    
     private boolean dataClosed = false;
     private boolean closed = false;
     private Key prevKey = new Key();
@@ -327,7 +334,7 @@ public class RFile {
       ABlockWriter mba = fileWriter.prepareMetaBlock("RFile.index");
       
       mba.writeInt(RINDEX_MAGIC);
-      mba.writeInt(RINDEX_VER_7);
+      mba.writeInt(RINDEX_VER_8);
       
       if (currentLocalityGroup != null)
         localityGroups.add(currentLocalityGroup);
@@ -382,7 +389,13 @@ public class RFile {
         blockWriter = fileWriter.prepareDataBlock();
       }
       
-      RelativeKey rk = new RelativeKey(lastKeyInBlock, key);
+      RelativeKey rk;
+      if (entries > 0 && entries % RESTART_INTERVAL == 0) {
+        restarts.add((int) blockWriter.getRawSize());
+        rk = new RelativeKey(null, key);
+      } else {
+        rk = new RelativeKey(lastKeyInBlock, key);
+      }
       
       rk.write(blockWriter);
       value.write(blockWriter);
@@ -394,6 +407,12 @@ public class RFile {
     }
     
     private void closeBlock(Key key, boolean lastBlock) throws IOException {
+      for (Integer offset : restarts)
+        blockWriter.writeInt(offset);
+      blockWriter.writeInt(RESTART_INTERVAL);
+      blockWriter.writeInt(restarts.size());
+      restarts.clear();
+      
       blockWriter.close();
       
       if (lastBlock)
@@ -665,14 +684,25 @@ public class RFile {
         if (startKey.compareTo(getTopKey()) >= 0 && startKey.compareTo(iiter.peekPrevious().getKey()) <= 0) {
           // start key is within the unconsumed portion of the current block
           
-          // this code intentionally does not use the index associated with a cached block
+          // this code intentionally does not use the BlockIndex associated with a cached block
           // because if only forward seeks are being done, then there is no benefit to building
           // and index for the block... could consider using the index if it exist but not
           // causing the build of an index... doing this could slow down some use cases and
           // and speed up others.
 
+          Key currKey = getTopKey();
+          if (currBlock.isIndexable() && version >= RINDEX_VER_8) {
+            // restart points cost nothing to use, so jump ahead if one is closer to the start key
+            int numEntries = iiter.peekPrevious().getNumEntries();
+            int restart = RestartIndex.getIndex(currBlock).seekBlock(startKey, currBlock, numEntries - entriesLeft);
+            if (restart > 0) {
+              entriesLeft = numEntries - restart;
+              currKey = null;
+            }
+          }
+
           MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
-          SkippR skippr = RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, getTopKey());
+          SkippR skippr = RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, currKey);
           if (skippr.skipped > 0) {
             entriesLeft -= skippr.skipped;
             val = new Value(valbs.toArray());
@@ -722,7 +752,10 @@ public class RFile {
 
           Key currKey = null;
 
-          if (currBlock.isIndexable()) {
+          if (currBlock.isIndexable() && version >= RINDEX_VER_8) {
+            // binary search the restart points, unlike the BlockIndex this needs no scan of the block to build
+            entriesLeft -= RestartIndex.getIndex(currBlock).seekBlock(startKey, currBlock, 0);
+          } else if (currBlock.isIndexable()) {
             BlockIndex blockIndex = BlockIndex.getIndex(currBlock, indexEntry);
             if (blockIndex != null) {
               BlockIndexEntry bie = blockIndex.seekBlock(startKey, currBlock);
@@ -784,6 +817,11 @@ public class RFile {
       throw new UnsupportedOperationException();
     }
     
+    @Override
+    public void setCacheBlocks(boolean cacheBlocks) {
+      reader.setCacheBlocks(cacheBlocks);
+    }
+    
     @Override
     public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
       throw new UnsupportedOperationException();
@@ -829,7 +867,7 @@ public class RFile {
       
       if (magic != RINDEX_MAGIC)
         throw new IOException("Did not see expected magic number, saw " + magic);
-      if (ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4 && ver != RINDEX_VER_3)
+      if (ver != RINDEX_VER_8 && ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4 && ver != RINDEX_VER_3)
         throw new IOException("Did not see expected version, saw " + ver);
       
       int size = mb.readInt();
@@ -890,6 +928,12 @@ public class RFile {
       deepCopies.clear();
     }
     
+    @Override
+    public void setCacheBlocks(boolean cacheBlocks) {
+      // deep copies share the block file reader
+      reader.setCacheBlocks(cacheBlocks);
+    }
+    
     @Override
     public void close() throws IOException {
       if (deepCopy)
@@ -957,7 +1001,19 @@ public class RFile {
         throw new NoSuchMetaStoreException("name = " + name, e);
       }
     }
-    
+
+    /**
+     * Read a meta block through the index cache. Unlike {@link #getMetaStore(String)}, a cached block can keep a decoded form of itself, see
+     * {@link ABlockReader#getIndex(Class)}.
+     */
+    public ABlockReader getMetaBlock(String name) throws IOException, NoSuchMetaStoreException {
+      try {
+        return this.reader.getMetaBlock(name);
+      } catch (MetaBlockDoesNotExist e) {
+        throw new NoSuchMetaStoreException("name = " + name, e);
+      }
+    }
+
     @Override
     public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
       Reader copy = new Reader(this);
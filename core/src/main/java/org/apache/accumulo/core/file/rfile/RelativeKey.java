@@ -175,7 +175,7 @@ public class RelativeKey implements Writable {
     long ts;
     
     if ((fieldsSame & ROW_SAME) == ROW_SAME) {
-      row = prevKey.getRowData().toArray();
+      row = sameAs(prevKey.getRowData());
     } else if ((fieldsPrefixed & ROW_COMMON_PREFIX) == ROW_COMMON_PREFIX) {
       row = readPrefix(in, prevKey.getRowData());
     } else {
@@ -183,7 +183,7 @@ public class RelativeKey implements Writable {
     }
     
     if ((fieldsSame & CF_SAME) == CF_SAME) {
-      cf = prevKey.getColumnFamilyData().toArray();
+      cf = sameAs(prevKey.getColumnFamilyData());
     } else if ((fieldsPrefixed & CF_COMMON_PREFIX) == CF_COMMON_PREFIX) {
       cf = readPrefix(in, prevKey.getColumnFamilyData());
     } else {
@@ -191,7 +191,7 @@ public class RelativeKey implements Writable {
     }
     
     if ((fieldsSame & CQ_SAME) == CQ_SAME) {
-      cq = prevKey.getColumnQualifierData().toArray();
+      cq = sameAs(prevKey.getColumnQualifierData());
     } else if ((fieldsPrefixed & CQ_COMMON_PREFIX) == CQ_COMMON_PREFIX) {
       cq = readPrefix(in, prevKey.getColumnQualifierData());
     } else {
@@ -199,7 +199,7 @@ public class RelativeKey implements Writable {
     }
     
     if ((fieldsSame & CV_SAME) == CV_SAME) {
-      cv = prevKey.getColumnVisibilityData().toArray();
+      cv = sameAs(prevKey.getColumnVisibilityData());
     } else if ((fieldsPrefixed & CV_COMMON_PREFIX) == CV_COMMON_PREFIX) {
       cv = readPrefix(in, prevKey.getColumnVisibilityData());
     } else {
@@ -490,6 +490,16 @@ public class RelativeKey implements Writable {
     dest.setLength(len);
   }
   
+  /**
+   * Key does not modify the arrays it is built from, so a field that is the same as the previous key's can share the previous key's array instead of copying
+   * it. This avoids allocating a row for every key when reading many columns in the same row.
+   */
+  private static byte[] sameAs(ByteSequence prev) {
+    if (prev.isBackedByArray() && prev.offset() == 0 && prev.length() == prev.getBackingArray().length)
+      return prev.getBackingArray();
+    return prev.toArray();
+  }
+  
   private static byte[] read(DataInput in) throws IOException {
     int len = WritableUtils.readVInt(in);
     byte[] data = new byte[len];
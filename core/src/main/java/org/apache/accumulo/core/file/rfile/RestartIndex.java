@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import java.io.IOException;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.file.blockfile.ABlockReader;
+
+/**
+ * The restart points of a data block written by RFile version 8 or later.
+ * <p>
+ *
+ * Every {@code interval} entries the writer stores a key in full instead of relative to the previous key, so reading can start there without decoding the
+ * entries before it. The offsets of these restart points follow the last entry in the block:
+ *
+ * <pre>
+ * entries... | offset[0] ... offset[n-1] | interval | n
+ * </pre>
+ *
+ * Restart point i is entry {@code (i + 1) * interval} of the block. The keys at the restart points are decoded once per cached block, after which a seek can
+ * binary search them instead of scanning the block from its first entry.
+ */
+public class RestartIndex {
+
+  public static RestartIndex getIndex(ABlockReader cacheBlock) throws IOException {
+    RestartIndex restartIndex = cacheBlock.getIndex(RestartIndex.class);
+    restartIndex.load(cacheBlock);
+    return restartIndex;
+  }
+
+  // keys is written last, so a reader that sees it also sees the other fields
+  private volatile Key[] keys = null;
+  private int[] offsets;
+  private int interval;
+
+  private synchronized void load(ABlockReader cacheBlock) throws IOException {
+    if (keys != null)
+      return;
+
+    int pos = cacheBlock.getPosition();
+    int end = (int) cacheBlock.getRawSize();
+
+    cacheBlock.seek(end - 8);
+    int interval = cacheBlock.readInt();
+    int count = cacheBlock.readInt();
+
+    int[] offsets = new int[count];
+    cacheBlock.seek(end - 8 - 4 * count);
+    for (int i = 0; i < count; i++)
+      offsets[i] = cacheBlock.readInt();
+
+    Key[] keys = new Key[count];
+    RelativeKey rk = new RelativeKey();
+    for (int i = 0; i < count; i++) {
+      // keys at restart points do not refer to a previous key
+      cacheBlock.seek(offsets[i]);
+      rk.readFields(cacheBlock);
+      keys[i] = rk.getKey();
+    }
+
+    cacheBlock.seek(pos);
+
+    this.interval = interval;
+    this.offsets = offsets;
+    this.keys = keys;
+  }
+
+  /**
+   * Position the block at the last restart point whose key is less than startKey. Every entry before that point is less than startKey.
+   *
+   * @param consumed
+   *          the number of entries of the block already read, the block is only moved forward
+   * @return the number of entries in the block before the new position, or 0 if the block was not moved
+   */
+  public int seekBlock(Key startKey, ABlockReader cacheBlock, int consumed) {
+    Key[] keys = this.keys;
+
+    // find the first restart key that is not less than startKey
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid].compareTo(startKey) < 0)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+
+    int restart = low - 1;
+    if (restart < 0)
+      return 0;
+
+    int entry = (restart + 1) * interval;
+    if (entry <= consumed)
+      return 0;
+
+    cacheBlock.seek(offsets[restart]);
+    return entry;
+  }
+
+  int size() {
+    return keys == null ? 0 : keys.length;
+  }
+}
@@ -34,8 +34,8 @@ import java.util.TreeMap;
 
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.file.blockfile.ABlockReader;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
-import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.BlockRead;
 import org.apache.accumulo.core.file.rfile.bcfile.CompareUtils.Scalar;
 import org.apache.accumulo.core.file.rfile.bcfile.CompareUtils.ScalarComparator;
 import org.apache.accumulo.core.file.rfile.bcfile.CompareUtils.ScalarLong;
@@ -573,6 +573,8 @@ public final class BCFile {
     private static final String META_NAME = "BCFile.metaindex";
     private static final String CRYPTO_BLOCK_NAME = "BCFile.cryptoparams";
     private final FSDataInputStream in;
+    // when true blocks are read with positional reads, which do not lock the stream
+    private final boolean positionalReads;
     private final Configuration conf;
     final DataIndex dataIndex;
     // Index for meta blocks
@@ -591,14 +593,14 @@ public final class BCFile {
       private final BlockRegion region;
       private final InputStream in;
 
-      public RBlockState(Algorithm compressionAlgo, FSDataInputStream fsin, BlockRegion region, Configuration conf, CryptoModule cryptoModule,
-          Version bcFileVersion, CryptoModuleParameters cryptoParams) throws IOException {
+      public RBlockState(Algorithm compressionAlgo, FSDataInputStream fsin, boolean positionalReads, BlockRegion region, Configuration conf,
+          CryptoModule cryptoModule, Version bcFileVersion, CryptoModuleParameters cryptoParams) throws IOException {
         this.compressAlgo = compressionAlgo;
         this.region = region;
         this.decompressor = compressionAlgo.getDecompressor();
 
         BoundedRangeFileInputStream boundedRangeFileInputStream = new BoundedRangeFileInputStream(fsin, this.region.getOffset(),
-            this.region.getCompressedSize());
+            this.region.getCompressedSize(), positionalReads);
         InputStream inputStreamToBeCompressed = boundedRangeFileInputStream;
 
         if (cryptoParams != null && cryptoModule != null) {
@@ -733,6 +735,7 @@ public final class BCFile {
     public Reader(FSDataInputStream fin, long fileLength, Configuration conf, AccumuloConfiguration accumuloConfiguration) throws IOException {
 
       this.in = fin;
+      this.positionalReads = false;
       this.conf = conf;
 
       // Move the cursor to grab the version and the magic first
@@ -811,12 +814,23 @@ public final class BCFile {
     }
 
     public Reader(CachableBlockFile.Reader cache, FSDataInputStream fin, long fileLength, Configuration conf, AccumuloConfiguration accumuloConfiguration) throws IOException {
+      this(cache, fin, fileLength, conf, accumuloConfiguration, false);
+    }
+
+    /**
+     * @param positionalReads
+     *          read blocks with {@link FSDataInputStream#read(long, byte[], int, int)} instead of seeking the shared stream, so concurrent reads of different
+     *          blocks do not wait on each other
+     */
+    public Reader(CachableBlockFile.Reader cache, FSDataInputStream fin, long fileLength, Configuration conf, AccumuloConfiguration accumuloConfiguration,
+        boolean positionalReads) throws IOException {
       this.in = fin;
+      this.positionalReads = positionalReads;
       this.conf = conf;
 
-      BlockRead cachedMetaIndex = cache.getCachedMetaBlock(META_NAME);
-      BlockRead cachedDataIndex = cache.getCachedMetaBlock(DataIndex.BLOCK_NAME);
-      BlockRead cachedCryptoParams = cache.getCachedMetaBlock(CRYPTO_BLOCK_NAME);
+      ABlockReader cachedMetaIndex = cache.getCachedMetaBlock(META_NAME);
+      ABlockReader cachedDataIndex = cache.getCachedMetaBlock(DataIndex.BLOCK_NAME);
+      ABlockReader cachedCryptoParams = cache.getCachedMetaBlock(CRYPTO_BLOCK_NAME);
 
       if (cachedMetaIndex == null || cachedDataIndex == null || cachedCryptoParams == null) {
         // move the cursor to the beginning of the tail, containing: offset to the
@@ -1029,7 +1043,7 @@ public final class BCFile {
     }
 
     private BlockReader createReader(Algorithm compressAlgo, BlockRegion region) throws IOException {
-      RBlockState rbs = new RBlockState(compressAlgo, in, region, conf, cryptoModule, version, cryptoParams);
+      RBlockState rbs = new RBlockState(compressAlgo, in, positionalReads, region, conf, cryptoModule, version, cryptoParams);
       return new BlockReader(rbs);
     }
 
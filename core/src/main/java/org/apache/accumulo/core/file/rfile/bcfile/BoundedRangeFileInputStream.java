@@ -32,6 +32,7 @@ import org.apache.hadoop.fs.FSDataInputStream;
 class BoundedRangeFileInputStream extends InputStream {
   
   private FSDataInputStream in;
+  private final boolean positional;
   private long pos;
   private long end;
   private long mark;
@@ -50,11 +51,20 @@ class BoundedRangeFileInputStream extends InputStream {
    *          The actual length of the region may be smaller if (off_begin + length) goes beyond the end of FS input stream.
    */
   public BoundedRangeFileInputStream(FSDataInputStream in, long offset, long length) {
+    this(in, offset, length, false);
+  }
+  
+  /**
+   * @param positional
+   *          read the region with positional reads, which leave the position of the FS input stream alone and so need not hold its lock
+   */
+  public BoundedRangeFileInputStream(FSDataInputStream in, long offset, long length, boolean positional) {
     if (offset < 0 || length < 0) {
       throw new IndexOutOfBoundsException("Invalid offset/length: " + offset + "/" + length);
     }
     
     this.in = in;
+    this.positional = positional;
     this.pos = offset;
     this.end = offset + length;
     this.mark = -1;
@@ -94,20 +104,34 @@ class BoundedRangeFileInputStream extends InputStream {
       return -1;
     Integer ret = 0;
     final FSDataInputStream inLocal = in;
-    synchronized (inLocal) {
-    	inLocal.seek(pos);
+    if (positional) {
+      final long position = pos;
       try {
         ret = AccessController.doPrivileged(new PrivilegedExceptionAction<Integer>() {
           @Override
           public Integer run() throws IOException {
-            int ret = 0;
-            ret = inLocal.read(b, off, n);
-            return ret;
+            return inLocal.read(position, b, off, n);
           }
         });
       } catch (PrivilegedActionException e) {
         throw (IOException) e.getException();
       }
+    } else {
+      synchronized (inLocal) {
+        inLocal.seek(pos);
+        try {
+          ret = AccessController.doPrivileged(new PrivilegedExceptionAction<Integer>() {
+            @Override
+            public Integer run() throws IOException {
+              int ret = 0;
+              ret = inLocal.read(b, off, n);
+              return ret;
+            }
+          });
+        } catch (PrivilegedActionException e) {
+          throw (IOException) e.getException();
+        }
+      }
     }
     if (ret < 0) {
       end = pos;
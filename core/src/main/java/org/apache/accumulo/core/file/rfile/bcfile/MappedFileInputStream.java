@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.fs.Seekable;
+
+/**
+ * An input stream over a local file that is memory mapped, to be wrapped in an {@link FSDataInputStream}. Positional reads copy straight out of the mapping
+ * and share no state, so any number of threads can read the file at once without locking. Only the stream position is guarded.
+ * <p>
+ *
+ * The file is mapped in chunks, as one mapping can not be larger than 2GB. The mapping is released when the stream is garbage collected, not when it is
+ * closed.
+ */
+public class MappedFileInputStream extends InputStream implements Seekable, PositionedReadable {
+
+  private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+  // never repositioned, reads use duplicates
+  private final ByteBuffer[] chunks;
+  private final int chunkSize;
+  private final long length;
+  private long pos = 0;
+
+  public MappedFileInputStream(File file) throws IOException {
+    this(file, DEFAULT_CHUNK_SIZE);
+  }
+
+  MappedFileInputStream(File file, int chunkSize) throws IOException {
+    this.chunkSize = chunkSize;
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      length = channel.size();
+      chunks = new ByteBuffer[(int) ((length + chunkSize - 1) / chunkSize)];
+      for (int i = 0; i < chunks.length; i++) {
+        long offset = (long) i * chunkSize;
+        // the mapping remains valid after the file is closed
+        chunks[i] = channel.map(MapMode.READ_ONLY, offset, Math.min(chunkSize, length - offset));
+      }
+    } finally {
+      raf.close();
+    }
+  }
+
+  @Override
+  public int read(long position, byte[] buffer, int offset, int len) throws IOException {
+    if (position < 0)
+      throw new IOException("Negative position " + position);
+    if (len == 0)
+      return 0;
+    if (position >= length)
+      return -1;
+
+    int n = (int) Math.min(len, length - position);
+    int done = 0;
+    while (done < n) {
+      long p = position + done;
+      ByteBuffer chunk = chunks[(int) (p / chunkSize)].duplicate();
+      chunk.position((int) (p % chunkSize));
+      int count = Math.min(n - done, chunk.remaining());
+      chunk.get(buffer, offset + done, count);
+      done += count;
+    }
+    return n;
+  }
+
+  @Override
+  public void readFully(long position, byte[] buffer, int offset, int len) throws IOException {
+    if (len > 0 && read(position, buffer, offset, len) < len)
+      throw new EOFException("Read past the end of the file at " + position);
+  }
+
+  @Override
+  public void readFully(long position, byte[] buffer) throws IOException {
+    readFully(position, buffer, 0, buffer.length);
+  }
+
+  @Override
+  public synchronized int read(byte[] b, int off, int len) throws IOException {
+    int n = read(pos, b, off, len);
+    if (n > 0)
+      pos += n;
+    return n;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    return read(b, 0, 1) == 1 ? b[0] & 0xff : -1;
+  }
+
+  @Override
+  public synchronized long skip(long n) {
+    long skipped = Math.max(0, Math.min(n, length - pos));
+    pos += skipped;
+    return skipped;
+  }
+
+  @Override
+  public synchronized int available() {
+    return (int) Math.min(Integer.MAX_VALUE, length - pos);
+  }
+
+  @Override
+  public synchronized void seek(long position) throws IOException {
+    if (position < 0 || position > length)
+      throw new EOFException("Can not seek to " + position + " in a file of length " + length);
+    pos = position;
+  }
+
+  @Override
+  public synchronized long getPos() {
+    return pos;
+  }
+
+  @Override
+  public boolean seekToNewSource(long targetPos) {
+    return false;
+  }
+}
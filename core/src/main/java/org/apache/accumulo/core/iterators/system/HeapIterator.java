@@ -17,99 +17,207 @@
 package org.apache.accumulo.core.iterators.system;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
-import org.apache.commons.collections.buffer.PriorityBuffer;
 
+/**
+ * Merges sorted sources with a loser tree. Each internal node of the tree holds the source that lost the comparison there, so when the source on top moves
+ * only the nodes on its path are compared again, against top keys cached when the sources last moved. The smallest of the losers on the path of the source on
+ * top is the runner up, while the source on top stays below it next() compares one key and leaves the tree alone. Each node also keeps the runner up of its
+ * subtree, so replaying a path finds the new runner up along the way.
+ */
 public abstract class HeapIterator implements SortedKeyValueIterator<Key,Value> {
-  private PriorityBuffer heap;
+  private SortedKeyValueIterator<Key,Value>[] sources;
+  // the top key of each source, null once the source has no top
+  private Key[] keys;
+  private int size;
+  // tree[0] is the source on top, tree[n] the loser at node n, the leaf of source i is node size + i
+  private int[] tree;
+  private int[] winners;
+  // runners[n] is the runner up of the subtree at node n, -1 if it has only one source
+  private int[] runners;
+  private int runnerUp = -1;
+  // sources are added before the tree is built, it is built when first used
+  private boolean built = true;
   private SortedKeyValueIterator<Key,Value> currentIter;
   
-  private static class Index implements Comparable<Index> {
-    SortedKeyValueIterator<Key,Value> iter;
-    
-    public Index(SortedKeyValueIterator<Key,Value> iter) {
-      this.iter = iter;
-    }
-    
-    public int compareTo(Index o) {
-      return iter.getTopKey().compareTo(o.iter.getTopKey());
-    }
-  }
-  
   protected HeapIterator() {
-    heap = null;
+    sources = null;
   }
   
   protected HeapIterator(int maxSize) {
     createHeap(maxSize);
   }
   
+  @SuppressWarnings("unchecked")
   protected void createHeap(int maxSize) {
-    if (heap != null)
+    if (sources != null)
       throw new IllegalStateException("heap already exist");
     
-    heap = new PriorityBuffer(maxSize == 0 ? 1 : maxSize);
+    int capacity = maxSize == 0 ? 1 : maxSize;
+    sources = new SortedKeyValueIterator[capacity];
+    keys = new Key[capacity];
+    tree = new int[capacity];
+    winners = new int[2 * capacity];
+    runners = new int[capacity];
   }
   
   @Override
   final public Key getTopKey() {
+    if (!built)
+      build();
     return currentIter.getTopKey();
   }
   
   @Override
   final public Value getTopValue() {
+    if (!built)
+      build();
     return currentIter.getTopValue();
   }
   
   @Override
   final public boolean hasTop() {
-    return heap.size() > 0;
+    if (!built)
+      build();
+    return currentIter != null;
   }
   
   @Override
   final public void next() throws IOException {
-    switch (heap.size()) {
-      case 0:
-        throw new IllegalStateException("Called next() when there is no top");
-      case 1:
-        // optimization for case when heap contains one entry,
-        // avoids remove and add
-        currentIter.next();
-        if (!currentIter.hasTop()) {
-          heap.remove();
-          currentIter = null;
-        }
-        break;
-      default:
-        Index idx = (Index) heap.remove();
-        idx.iter.next();
-        if (idx.iter.hasTop()) {
-          heap.add(idx);
-        }
-        // to get to the default case heap has at least
-        // two entries, therefore there must be at least
-        // one entry when get() is called below
-        currentIter = ((Index) heap.get()).iter;
+    if (!built)
+      build();
+    if (currentIter == null)
+      throw new IllegalStateException("Called next() when there is no top");
+    
+    int top = tree[0];
+    currentIter.next();
+    keys[top] = currentIter.hasTop() ? currentIter.getTopKey() : null;
+    
+    if (runnerUp < 0) {
+      // the only source
+      if (keys[top] == null)
+        currentIter = null;
+    } else if (keys[top] == null || !less(top, runnerUp)) {
+      replay(top);
+    }
+  }
+  
+  /**
+   * @return true if source a comes before source b, sources without a top come last and equal keys come in the order the sources were added
+   */
+  private boolean less(int a, int b) {
+    Key ka = keys[a];
+    Key kb = keys[b];
+    if (ka == null)
+      return false;
+    if (kb == null)
+      return true;
+    int cmp = ka.compareTo(kb);
+    return cmp < 0 || (cmp == 0 && a < b);
+  }
+  
+  /**
+   * @return the source that comes first, either may be -1 for none
+   */
+  private int first(int a, int b) {
+    if (a < 0)
+      return b;
+    if (b < 0)
+      return a;
+    return less(a, b) ? a : b;
+  }
+  
+  private int runnerOf(int node) {
+    return node < size ? runners[node] : -1;
+  }
+  
+  /**
+   * Play the matches on the path of a source that moved.
+   */
+  private void replay(int source) {
+    int winner = source;
+    int runner = -1;
+    int child = size + source;
+    for (int node = child >>> 1; node > 0; child = node, node >>>= 1) {
+      int other = tree[node];
+      if (less(other, winner)) {
+        // the subtree of the other source was not touched, so its runner up still holds
+        runner = first(runnerOf(child ^ 1), winner);
+        tree[node] = winner;
+        winner = other;
+      } else {
+        runner = first(runner, other);
+      }
+      runners[node] = runner;
     }
+    setWinner(winner, runner);
+  }
+  
+  private void setWinner(int winner, int runner) {
+    tree[0] = winner;
+    runnerUp = runner;
+    currentIter = keys[winner] == null ? null : sources[winner];
+  }
+  
+  private void build() {
+    built = true;
+    if (size == 0) {
+      runnerUp = -1;
+      currentIter = null;
+      return;
+    }
+    
+    for (int i = 0; i < size; i++)
+      winners[size + i] = i;
+    for (int node = size - 1; node > 0; node--) {
+      int a = winners[2 * node];
+      int b = winners[2 * node + 1];
+      if (less(a, b)) {
+        winners[node] = a;
+        tree[node] = b;
+        runners[node] = first(runnerOf(2 * node), b);
+      } else {
+        winners[node] = b;
+        tree[node] = a;
+        runners[node] = first(runnerOf(2 * node + 1), a);
+      }
+    }
+    if (size == 1)
+      setWinner(0, -1);
+    else
+      setWinner(winners[1], runners[1]);
   }
   
   final protected void clear() {
-    heap.clear();
+    Arrays.fill(sources, 0, size, null);
+    Arrays.fill(keys, 0, size, null);
+    size = 0;
+    built = true;
+    runnerUp = -1;
     currentIter = null;
   }
   
   final protected void addSource(SortedKeyValueIterator<Key,Value> source) {
     
-    if (source.hasTop())
-      heap.add(new Index(source));
+    if (source.hasTop()) {
+      if (size == sources.length) {
+        int capacity = 2 * size;
+        sources = Arrays.copyOf(sources, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        tree = new int[capacity];
+        winners = new int[2 * capacity];
+        runners = new int[capacity];
+      }
+      sources[size] = source;
+      keys[size] = source.getTopKey();
+      size++;
+    }
     
-    if (heap.size() > 0)
-      currentIter = ((Index) heap.get()).iter;
-    else
-      currentIter = null;
+    built = false;
   }
   
 }
@@ -149,6 +149,11 @@ public class MapFileIterator implements FileSKVIterator {
     // nothing to do, deep copies are externally managed/closed
   }
   
+  @Override
+  public void setCacheBlocks(boolean cacheBlocks) {
+    // map files do not use the block cache
+  }
+  
   @Override
   public void close() throws IOException {
     reader.close();
@@ -48,6 +48,11 @@ public class SequenceFileIterator implements FileSKVIterator {
     throw new UnsupportedOperationException();
   }
   
+  @Override
+  public void setCacheBlocks(boolean cacheBlocks) {
+    // sequence files do not use the block cache
+  }
+  
   public SequenceFileIterator(SequenceFile.Reader reader, boolean readValue) throws IOException {
     this.reader = reader;
     this.readValue = readValue;
@@ -16,26 +16,24 @@
  */
 package org.apache.accumulo.core.iterators.system;
 
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.Filter;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.security.Authorizations;
-import org.apache.accumulo.core.security.ColumnVisibility;
-import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.security.VisibilityCache;
 import org.apache.accumulo.core.security.VisibilityParseException;
 import org.apache.accumulo.core.util.BadArgumentException;
 import org.apache.accumulo.core.util.TextUtil;
-import org.apache.commons.collections.map.LRUMap;
 import org.apache.hadoop.io.Text;
 import org.apache.log4j.Logger;
 
 public class VisibilityFilter extends Filter {
-  protected VisibilityEvaluator ve;
+  protected VisibilityCache visibilityCache;
   protected Text defaultVisibility;
-  protected LRUMap cache;
-  protected Text tmpVis;
   protected Authorizations authorizations;
   
   private static final Logger log = Logger.getLogger(VisibilityFilter.class);
@@ -44,11 +42,9 @@ public class VisibilityFilter extends Filter {
   
   public VisibilityFilter(SortedKeyValueIterator<Key,Value> iterator, Authorizations authorizations, byte[] defaultVisibility) {
     setSource(iterator);
-    this.ve = new VisibilityEvaluator(authorizations);
+    this.visibilityCache = VisibilityCache.forAuthorizations(authorizations);
     this.authorizations = authorizations;
     this.defaultVisibility = new Text(defaultVisibility);
-    this.cache = new LRUMap(1000);
-    this.tmpVis = new Text();
   }
   
   @Override
@@ -58,21 +54,15 @@ public class VisibilityFilter extends Filter {
   
   @Override
   public boolean accept(Key k, Value v) {
-    Text testVis = k.getColumnVisibility(tmpVis);
+    ByteSequence testVis = k.getColumnVisibilityData();
     
-    if (testVis.getLength() == 0 && defaultVisibility.getLength() == 0)
+    if (testVis.length() == 0 && defaultVisibility.getLength() == 0)
       return true;
-    else if (testVis.getLength() == 0)
-      testVis = defaultVisibility;
-    
-    Boolean b = (Boolean) cache.get(testVis);
-    if (b != null)
-      return b;
+    else if (testVis.length() == 0)
+      testVis = new ArrayByteSequence(defaultVisibility.getBytes(), 0, defaultVisibility.getLength());
     
     try {
-      Boolean bb = ve.evaluate(new ColumnVisibility(testVis));
-      cache.put(new Text(testVis), bb);
-      return bb;
+      return visibilityCache.evaluate(testVis);
     } catch (VisibilityParseException e) {
       log.error("Parse Error", e);
       return false;
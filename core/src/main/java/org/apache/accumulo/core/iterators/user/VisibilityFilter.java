@@ -28,7 +28,7 @@ import org.apache.accumulo.core.iterators.OptionDescriber;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
-import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.security.VisibilityCache;
 import org.apache.accumulo.core.util.BadArgumentException;
 import org.apache.commons.collections.map.LRUMap;
 import org.apache.hadoop.io.Text;
@@ -42,6 +42,8 @@ public class VisibilityFilter extends org.apache.accumulo.core.iterators.system.
   private static final String FILTER_INVALID_ONLY = "filterInvalid";
   
   private boolean filterInvalid;
+  private LRUMap cache;
+  private Text tmpVis;
   
   /**
    * 
@@ -59,7 +61,7 @@ public class VisibilityFilter extends org.apache.accumulo.core.iterators.system.
     if (!filterInvalid) {
       String auths = options.get(AUTHS);
       Authorizations authObj = auths == null || auths.isEmpty() ? new Authorizations() : new Authorizations(auths.getBytes(StandardCharsets.UTF_8));
-      this.ve = new VisibilityEvaluator(authObj);
+      this.visibilityCache = VisibilityCache.forAuthorizations(authObj);
       this.defaultVisibility = new Text();
     }
     this.cache = new LRUMap(1000);
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.security.ColumnVisibility.Node;
+
+/**
+ * A column visibility compiled to checks of the bits of a set of authorizations. Every authorization is given a bit once for the whole process, so the terms
+ * of an AND or OR of terms become a mask that is checked a word at a time, rather than each term being looked up in the authorizations.
+ * <p>
+ * Only authorizations are given bits, so the number of bits is bounded by the authorizations in use rather than by the terms seen in visibilities. A term
+ * that is no authorization when the visibility is compiled can not be satisfied, unless it later becomes one. Authorizations given bits after a visibility was
+ * compiled, or that got no bit because {@value #MAX_TERMS} authorizations already have one, are checked by evaluating the parse tree.
+ */
+public class CompiledVisibility {
+
+  static final int MAX_TERMS = 1 << 16;
+
+  // the number of authorizations that may be given bits, only lowered by tests
+  static int maxTerms = MAX_TERMS;
+
+  private static final ConcurrentHashMap<ByteSequence,Integer> termBits = new ConcurrentHashMap<ByteSequence,Integer>();
+
+  // the number of bits given out, each term is put in termBits before this is raised past its bit
+  private static volatile int assigned = 0;
+
+  /**
+   * Give the authorization a bit if it has none.
+   *
+   * @return the bit of the authorization, or -1 if there are too many to give it one
+   */
+  static int intern(ByteSequence auth) {
+    Integer bit = termBits.get(auth);
+    if (bit == null) {
+      synchronized (termBits) {
+        bit = termBits.get(auth);
+        if (bit == null) {
+          if (assigned >= maxTerms)
+            return -1;
+          bit = assigned;
+          termBits.put(new ArrayByteSequence(auth.toArray().clone()), bit);
+          assigned = bit + 1;
+        }
+      }
+    }
+    return bit;
+  }
+
+  /**
+   * @return the bit of the term, or -1 if it is no authorization
+   */
+  static int bit(ByteSequence term) {
+    Integer bit = termBits.get(term);
+    return bit == null ? -1 : bit;
+  }
+
+  /**
+   * The bits of a set of authorizations, to evaluate compiled visibilities against.
+   */
+  public static class AuthorizationBits {
+    private final long[] words;
+    private final VisibilityEvaluator evaluator;
+    // one past the highest bit of these authorizations, or Integer.MAX_VALUE if one of them has no bit
+    private final int end;
+
+    public AuthorizationBits(Authorizations authorizations) {
+      this.evaluator = new VisibilityEvaluator(authorizations);
+
+      // terms in expressions are compared escaped, as the evaluator does
+      List<Integer> bits = new ArrayList<Integer>();
+      int max = -1;
+      boolean complete = true;
+      for (byte[] auth : authorizations.getAuthorizations()) {
+        int bit = intern(new ArrayByteSequence(VisibilityEvaluator.escape(auth, false)));
+        if (bit >= 0) {
+          bits.add(bit);
+          max = Math.max(max, bit);
+        } else {
+          complete = false;
+        }
+      }
+      end = complete ? max + 1 : Integer.MAX_VALUE;
+      words = new long[max / 64 + 1];
+      for (int bit : bits)
+        words[bit >>> 6] |= 1L << bit;
+    }
+
+    long word(int index) {
+      return index < words.length ? words[index] : 0;
+    }
+  }
+
+  private static abstract class Check {
+    abstract boolean test(AuthorizationBits auths) throws VisibilityParseException;
+  }
+
+  /**
+   * The bits of a set of terms, keeping only the words that have some set.
+   */
+  private static abstract class MaskCheck extends Check {
+    final int[] indexes;
+    final long[] masks;
+
+    MaskCheck(List<Integer> bits) {
+      TreeMap<Integer,Long> words = new TreeMap<Integer,Long>();
+      for (int bit : bits) {
+        Long word = words.get(bit >>> 6);
+        words.put(bit >>> 6, (word == null ? 0 : word) | 1L << bit);
+      }
+      indexes = new int[words.size()];
+      masks = new long[words.size()];
+      int i = 0;
+      for (Map.Entry<Integer,Long> entry : words.entrySet()) {
+        indexes[i] = entry.getKey();
+        masks[i++] = entry.getValue();
+      }
+    }
+  }
+
+  private static class AllOf extends MaskCheck {
+    AllOf(List<Integer> bits) {
+      super(bits);
+    }
+
+    @Override
+    boolean test(AuthorizationBits auths) {
+      for (int i = 0; i < indexes.length; i++)
+        if ((auths.word(indexes[i]) & masks[i]) != masks[i])
+          return false;
+      return true;
+    }
+  }
+
+  private static class AnyOf extends MaskCheck {
+    AnyOf(List<Integer> bits) {
+      super(bits);
+    }
+
+    @Override
+    boolean test(AuthorizationBits auths) {
+      for (int i = 0; i < indexes.length; i++)
+        if ((auths.word(indexes[i]) & masks[i]) != 0)
+          return true;
+      return false;
+    }
+  }
+
+  private static class And extends Check {
+    final Check[] checks;
+
+    And(List<Check> checks) {
+      this.checks = checks.toArray(new Check[checks.size()]);
+    }
+
+    @Override
+    boolean test(AuthorizationBits auths) throws VisibilityParseException {
+      for (Check check : checks)
+        if (!check.test(auths))
+          return false;
+      return true;
+    }
+  }
+
+  private static class Or extends Check {
+    final Check[] checks;
+
+    Or(List<Check> checks) {
+      this.checks = checks.toArray(new Check[checks.size()]);
+    }
+
+    @Override
+    boolean test(AuthorizationBits auths) throws VisibilityParseException {
+      for (Check check : checks)
+        if (check.test(auths))
+          return true;
+      return false;
+    }
+  }
+
+  private static class Always extends Check {
+    @Override
+    boolean test(AuthorizationBits auths) {
+      return true;
+    }
+  }
+
+  private static class Never extends Check {
+    @Override
+    boolean test(AuthorizationBits auths) {
+      return false;
+    }
+  }
+
+  private final Check check;
+  // the parse tree, kept only if some term had no bit when compiled
+  private final ColumnVisibility unknownTerms;
+  private final int known;
+
+  /**
+   * @throws VisibilityParseException
+   *           if the parse tree of the visibility is not valid
+   */
+  public CompiledVisibility(ColumnVisibility visibility) throws VisibilityParseException {
+    // read before looking up terms, so a term with no bit now can only get one at or past it
+    known = assigned;
+    byte[] expression = visibility.getExpression();
+    if (expression.length == 0) {
+      check = new Always();
+      unknownTerms = null;
+    } else {
+      boolean[] unknown = new boolean[1];
+      check = compile(expression, visibility.getParseTree(), unknown);
+      unknownTerms = unknown[0] ? visibility : null;
+    }
+  }
+
+  /**
+   * @return the check for the node, where terms with no bit are never satisfied
+   */
+  private static Check compile(byte[] expression, Node node, boolean[] unknown) throws VisibilityParseException {
+    switch (node.getType()) {
+      case TERM: {
+        int bit = bit(node.getTerm(expression));
+        if (bit < 0) {
+          unknown[0] = true;
+          return new Never();
+        }
+        List<Integer> bits = new ArrayList<Integer>(1);
+        bits.add(bit);
+        return new AllOf(bits);
+      }
+      case AND:
+      case OR: {
+        if (node.getChildren() == null || node.getChildren().size() < 2)
+          throw new VisibilityParseException(node.getType() + " has less than 2 children", expression, node.getTermStart());
+
+        // the terms of the node are checked together with one mask, the other children one at a time
+        List<Integer> bits = new ArrayList<Integer>();
+        List<Check> checks = new ArrayList<Check>();
+        for (Node child : node.getChildren()) {
+          if (child.getType() == ColumnVisibility.NodeType.TERM) {
+            int bit = bit(child.getTerm(expression));
+            if (bit >= 0) {
+              bits.add(bit);
+              continue;
+            }
+          }
+          checks.add(compile(expression, child, unknown));
+        }
+
+        boolean and = node.getType() == ColumnVisibility.NodeType.AND;
+        if (!bits.isEmpty())
+          checks.add(0, and ? new AllOf(bits) : new AnyOf(bits));
+        if (checks.size() == 1)
+          return checks.get(0);
+        return and ? new And(checks) : new Or(checks);
+      }
+      default:
+        throw new VisibilityParseException("No such node type", expression, node.getTermStart());
+    }
+  }
+
+  /**
+   * @return true if the visibility is visible with the authorizations
+   */
+  public boolean evaluate(AuthorizationBits auths) throws VisibilityParseException {
+    // an authorization without a bit when this was compiled may be one of the terms compiled as never satisfied
+    if (unknownTerms != null && auths.end > known)
+      return auths.evaluator.evaluate(unknownTerms);
+    return check.test(auths);
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.security;
+
+import java.util.Arrays;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.util.BadArgumentException;
+import org.apache.log4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+
+/**
+ * Caches whether column visibilities are visible with a set of authorizations. One cache is shared by every scan in the process with equal authorizations, so
+ * a visibility is evaluated once for them rather than once per scan. Visibilities are looked up with the bytes of the key as they are, and only copied when
+ * they are added. Visibilities are compiled, see {@link CompiledVisibility}, and the compiled visibilities are cached separately and shared by all the
+ * authorizations. Visibilities that can not be parsed are cached too, so a bad visibility is not parsed again for every key that has it.
+ * <p>
+ * The caches are sized by {@link Property#TSERV_VISIBILITY_CACHE_AUTHORIZATIONS} and {@link Property#TSERV_VISIBILITY_CACHE_SIZE}, see
+ * {@link #configure(AccumuloConfiguration)}.
+ */
+public class VisibilityCache {
+
+  private static final Logger log = Logger.getLogger(VisibilityCache.class);
+
+  // approximate memory used by a cached visibility beyond its bytes
+  static final int ENTRY_OVERHEAD = 64;
+
+  private static final Weigher<ByteSequence,Object> BYTES = new Weigher<ByteSequence,Object>() {
+    @Override
+    public int weigh(ByteSequence visibility, Object value) {
+      return visibility.length() + ENTRY_OVERHEAD;
+    }
+  };
+
+  private static volatile long maxBytes;
+  private static volatile Cache<ByteSequence,CompiledVisibility> compiled;
+  // the exceptions thrown parsing visibilities, so they are thrown again without parsing
+  private static volatile Cache<ByteSequence,Exception> invalid;
+  private static volatile LoadingCache<Authorizations,VisibilityCache> caches;
+
+  static {
+    configure(AccumuloConfiguration.getDefaultConfiguration());
+  }
+
+  /**
+   * Size the caches from the configuration. This drops everything cached so far.
+   */
+  public static synchronized void configure(AccumuloConfiguration conf) {
+    maxBytes = conf.getMemoryInBytes(Property.TSERV_VISIBILITY_CACHE_SIZE);
+    compiled = CacheBuilder.newBuilder().maximumWeight(maxBytes).weigher(BYTES).recordStats().build();
+    invalid = CacheBuilder.newBuilder().maximumWeight(maxBytes).weigher(BYTES).build();
+    caches = CacheBuilder.newBuilder().maximumSize(conf.getCount(Property.TSERV_VISIBILITY_CACHE_AUTHORIZATIONS))
+        .build(new CacheLoader<Authorizations,VisibilityCache>() {
+          @Override
+          public VisibilityCache load(Authorizations authorizations) {
+            return new VisibilityCache(authorizations);
+          }
+        });
+  }
+
+  /**
+   * @return the cache shared by the scans with these authorizations
+   */
+  public static VisibilityCache forAuthorizations(Authorizations authorizations) {
+    return caches.getUnchecked(authorizations);
+  }
+
+  private final CompiledVisibility.AuthorizationBits authorizationBits;
+  private final Cache<ByteSequence,Boolean> results = CacheBuilder.newBuilder().maximumWeight(maxBytes).weigher(BYTES).recordStats().build();
+
+  VisibilityCache(Authorizations authorizations) {
+    this.authorizationBits = new CompiledVisibility.AuthorizationBits(authorizations);
+  }
+
+  /**
+   * @param visibility
+   *          the expression to evaluate, it is not kept so the caller may reuse its bytes
+   * @return true if the visibility is visible with the authorizations of this cache
+   * @throws BadArgumentException
+   *           if the visibility can not be parsed
+   * @throws VisibilityParseException
+   *           if the visibility can not be evaluated
+   */
+  public boolean evaluate(ByteSequence visibility) throws VisibilityParseException {
+    Boolean visible = results.getIfPresent(visibility);
+    if (visible != null)
+      return visible;
+
+    byte[] bytes;
+    if (visibility.isBackedByArray())
+      bytes = Arrays.copyOfRange(visibility.getBackingArray(), visibility.offset(), visibility.offset() + visibility.length());
+    else
+      bytes = visibility.toArray();
+    ByteSequence copy = new ArrayByteSequence(bytes);
+    visible = compile(copy).evaluate(authorizationBits);
+    results.put(copy, visible);
+    return visible;
+  }
+
+  private static CompiledVisibility compile(ByteSequence visibility) throws VisibilityParseException {
+    CompiledVisibility cv = compiled.getIfPresent(visibility);
+    if (cv == null) {
+      Exception failure = invalid.getIfPresent(visibility);
+      if (failure == null) {
+        try {
+          cv = new CompiledVisibility(new ColumnVisibility(visibility.getBackingArray()));
+          compiled.put(visibility, cv);
+          return cv;
+        } catch (BadArgumentException e) {
+          failure = e;
+        } catch (VisibilityParseException e) {
+          failure = e;
+        }
+        invalid.put(visibility, failure);
+      }
+      if (failure instanceof VisibilityParseException)
+        throw (VisibilityParseException) failure;
+      throw (BadArgumentException) failure;
+    }
+    return cv;
+  }
+
+  /**
+   * @return the hits and misses of this cache
+   */
+  public CacheStats getStats() {
+    return results.stats();
+  }
+
+  /**
+   * @return the hits and misses of the caches of all the authorizations
+   */
+  public static CacheStats getTotalStats() {
+    CacheStats total = new CacheStats(0, 0, 0, 0, 0, 0);
+    for (VisibilityCache cache : caches.asMap().values())
+      total = total.plus(cache.getStats());
+    return total;
+  }
+
+  /**
+   * @return the hits and misses of the compiled visibilities shared by all the authorizations
+   */
+  public static CacheStats getCompileStats() {
+    return compiled.stats();
+  }
+
+  public static void logStats() {
+    CacheStats total = getTotalStats();
+    CacheStats compile = getCompileStats();
+    log.debug(String.format("Visibility cache stats: authorizations=%d, requests=%d, hit ratio=%.2f%%, compile requests=%d, compile hit ratio=%.2f%%",
+        caches.size(), total.requestCount(), total.hitRate() * 100, compile.requestCount(), compile.hitRate() * 100));
+  }
+}
@@ -50,13 +50,13 @@ import org.slf4j.LoggerFactory;
 
   public interface Iface extends org.apache.accumulo.core.client.impl.thrift.ClientService.Iface {
 
-    public org.apache.accumulo.core.data.thrift.InitialScan startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, NotServingTabletException, TooManyFilesException, org.apache.thrift.TException;
+    public org.apache.accumulo.core.data.thrift.InitialScan startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, boolean cacheBlocks, Map<String,String> executionHints) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, NotServingTabletException, TooManyFilesException, org.apache.thrift.TException;
 
-    public org.apache.accumulo.core.data.thrift.ScanResult continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID) throws NoSuchScanIDException, NotServingTabletException, TooManyFilesException, org.apache.thrift.TException;
+    public org.apache.accumulo.core.data.thrift.ScanResult continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, int batchSize) throws NoSuchScanIDException, NotServingTabletException, TooManyFilesException, org.apache.thrift.TException;
 
     public void closeScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID) throws org.apache.thrift.TException;
 
-    public org.apache.accumulo.core.data.thrift.InitialMultiScan startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, org.apache.thrift.TException;
+    public org.apache.accumulo.core.data.thrift.InitialMultiScan startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean cacheBlocks, Map<String,String> executionHints) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, org.apache.thrift.TException;
 
     public org.apache.accumulo.core.data.thrift.MultiScanResult continueMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID) throws NoSuchScanIDException, org.apache.thrift.TException;
 
@@ -66,6 +66,8 @@ import org.slf4j.LoggerFactory;
 
     public void applyUpdates(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, List<org.apache.accumulo.core.data.thrift.TMutation> mutations) throws org.apache.thrift.TException;
 
+    public void applyUpdateBatches(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, List<ByteBuffer> batches) throws org.apache.thrift.TException;
+
     public org.apache.accumulo.core.data.thrift.UpdateErrors closeUpdate(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID) throws NoSuchScanIDException, org.apache.thrift.TException;
 
     public void update(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, org.apache.accumulo.core.data.thrift.TMutation mutation) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, NotServingTabletException, ConstraintViolationException, org.apache.thrift.TException;
@@ -114,13 +116,13 @@ import org.slf4j.LoggerFactory;
 
   public interface AsyncIface extends org.apache.accumulo.core.client.impl.thrift.ClientService .AsyncIface {
 
-    public void startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.startScan_call> resultHandler) throws org.apache.thrift.TException;
+    public void startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, boolean cacheBlocks, Map<String,String> executionHints, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.startScan_call> resultHandler) throws org.apache.thrift.TException;
 
-    public void continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.continueScan_call> resultHandler) throws org.apache.thrift.TException;
+    public void continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, int batchSize, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.continueScan_call> resultHandler) throws org.apache.thrift.TException;
 
     public void closeScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.closeScan_call> resultHandler) throws org.apache.thrift.TException;
 
-    public void startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.startMultiScan_call> resultHandler) throws org.apache.thrift.TException;
+    public void startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean cacheBlocks, Map<String,String> executionHints, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.startMultiScan_call> resultHandler) throws org.apache.thrift.TException;
 
     public void continueMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.continueMultiScan_call> resultHandler) throws org.apache.thrift.TException;
 
@@ -130,6 +132,8 @@ import org.slf4j.LoggerFactory;
 
     public void applyUpdates(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, List<org.apache.accumulo.core.data.thrift.TMutation> mutations, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.applyUpdates_call> resultHandler) throws org.apache.thrift.TException;
 
+    public void applyUpdateBatches(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, List<ByteBuffer> batches, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.applyUpdateBatches_call> resultHandler) throws org.apache.thrift.TException;
+
     public void closeUpdate(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.closeUpdate_call> resultHandler) throws org.apache.thrift.TException;
 
     public void update(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, org.apache.accumulo.core.data.thrift.TMutation mutation, org.apache.thrift.async.AsyncMethodCallback<AsyncClient.update_call> resultHandler) throws org.apache.thrift.TException;
@@ -196,13 +200,13 @@ import org.slf4j.LoggerFactory;
       super(iprot, oprot);
     }
 
-    public org.apache.accumulo.core.data.thrift.InitialScan startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, NotServingTabletException, TooManyFilesException, org.apache.thrift.TException
+    public org.apache.accumulo.core.data.thrift.InitialScan startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, boolean cacheBlocks, Map<String,String> executionHints) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, NotServingTabletException, TooManyFilesException, org.apache.thrift.TException
     {
-      send_startScan(tinfo, credentials, extent, range, columns, batchSize, ssiList, ssio, authorizations, waitForWrites, isolated, readaheadThreshold);
+      send_startScan(tinfo, credentials, extent, range, columns, batchSize, ssiList, ssio, authorizations, waitForWrites, isolated, readaheadThreshold, cacheBlocks, executionHints);
       return recv_startScan();
     }
 
-    public void send_startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold) throws org.apache.thrift.TException
+    public void send_startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, boolean cacheBlocks, Map<String,String> executionHints) throws org.apache.thrift.TException
     {
       startScan_args args = new startScan_args();
       args.setTinfo(tinfo);
@@ -217,6 +221,8 @@ import org.slf4j.LoggerFactory;
       args.setWaitForWrites(waitForWrites);
       args.setIsolated(isolated);
       args.setReadaheadThreshold(readaheadThreshold);
+      args.setCacheBlocks(cacheBlocks);
+      args.setExecutionHints(executionHints);
       sendBase("startScan", args);
     }
 
@@ -239,17 +245,18 @@ import org.slf4j.LoggerFactory;
       throw new org.apache.thrift.TApplicationException(org.apache.thrift.TApplicationException.MISSING_RESULT, "startScan failed: unknown result");
     }
 
-    public org.apache.accumulo.core.data.thrift.ScanResult continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID) throws NoSuchScanIDException, NotServingTabletException, TooManyFilesException, org.apache.thrift.TException
+    public org.apache.accumulo.core.data.thrift.ScanResult continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, int batchSize) throws NoSuchScanIDException, NotServingTabletException, TooManyFilesException, org.apache.thrift.TException
     {
-      send_continueScan(tinfo, scanID);
+      send_continueScan(tinfo, scanID, batchSize);
       return recv_continueScan();
     }
 
-    public void send_continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID) throws org.apache.thrift.TException
+    public void send_continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, int batchSize) throws org.apache.thrift.TException
     {
       continueScan_args args = new continueScan_args();
       args.setTinfo(tinfo);
       args.setScanID(scanID);
+      args.setBatchSize(batchSize);
       sendBase("continueScan", args);
     }
 
@@ -285,13 +292,13 @@ import org.slf4j.LoggerFactory;
       sendBase("closeScan", args);
     }
 
-    public org.apache.accumulo.core.data.thrift.InitialMultiScan startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, org.apache.thrift.TException
+    public org.apache.accumulo.core.data.thrift.InitialMultiScan startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean cacheBlocks, Map<String,String> executionHints) throws org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException, org.apache.thrift.TException
     {
-      send_startMultiScan(tinfo, credentials, batch, columns, ssiList, ssio, authorizations, waitForWrites);
+      send_startMultiScan(tinfo, credentials, batch, columns, ssiList, ssio, authorizations, waitForWrites, cacheBlocks, executionHints);
       return recv_startMultiScan();
     }
 
-    public void send_startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites) throws org.apache.thrift.TException
+    public void send_startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean cacheBlocks, Map<String,String> executionHints) throws org.apache.thrift.TException
     {
       startMultiScan_args args = new startMultiScan_args();
       args.setTinfo(tinfo);
@@ -302,6 +309,8 @@ import org.slf4j.LoggerFactory;
       args.setSsio(ssio);
       args.setAuthorizations(authorizations);
       args.setWaitForWrites(waitForWrites);
+      args.setCacheBlocks(cacheBlocks);
+      args.setExecutionHints(executionHints);
       sendBase("startMultiScan", args);
     }
 
@@ -411,6 +420,21 @@ import org.slf4j.LoggerFactory;
       sendBase("applyUpdates", args);
     }
 
+    public void applyUpdateBatches(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, List<ByteBuffer> batches) throws org.apache.thrift.TException
+    {
+      send_applyUpdateBatches(tinfo, updateID, keyExtent, batches);
+    }
+
+    public void send_applyUpdateBatches(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, List<ByteBuffer> batches) throws org.apache.thrift.TException
+    {
+      applyUpdateBatches_args args = new applyUpdateBatches_args();
+      args.setTinfo(tinfo);
+      args.setUpdateID(updateID);
+      args.setKeyExtent(keyExtent);
+      args.setBatches(batches);
+      sendBase("applyUpdateBatches", args);
+    }
+
     public org.apache.accumulo.core.data.thrift.UpdateErrors closeUpdate(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID) throws NoSuchScanIDException, org.apache.thrift.TException
     {
       send_closeUpdate(tinfo, updateID);
@@ -923,9 +947,9 @@ import org.slf4j.LoggerFactory;
       super(protocolFactory, clientManager, transport);
     }
 
-    public void startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, org.apache.thrift.async.AsyncMethodCallback<startScan_call> resultHandler) throws org.apache.thrift.TException {
+    public void startScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, boolean cacheBlocks, Map<String,String> executionHints, org.apache.thrift.async.AsyncMethodCallback<startScan_call> resultHandler) throws org.apache.thrift.TException {
       checkReady();
-      startScan_call method_call = new startScan_call(tinfo, credentials, extent, range, columns, batchSize, ssiList, ssio, authorizations, waitForWrites, isolated, readaheadThreshold, resultHandler, this, ___protocolFactory, ___transport);
+      startScan_call method_call = new startScan_call(tinfo, credentials, extent, range, columns, batchSize, ssiList, ssio, authorizations, waitForWrites, isolated, readaheadThreshold, cacheBlocks, executionHints, resultHandler, this, ___protocolFactory, ___transport);
       this.___currentMethod = method_call;
       ___manager.call(method_call);
     }
@@ -943,7 +967,9 @@ import org.slf4j.LoggerFactory;
       private boolean waitForWrites;
       private boolean isolated;
       private long readaheadThreshold;
-      public startScan_call(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, org.apache.thrift.async.AsyncMethodCallback<startScan_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
+      private boolean cacheBlocks;
+      private Map<String,String> executionHints;
+      public startScan_call(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, org.apache.accumulo.core.data.thrift.TKeyExtent extent, org.apache.accumulo.core.data.thrift.TRange range, List<org.apache.accumulo.core.data.thrift.TColumn> columns, int batchSize, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold, boolean cacheBlocks, Map<String,String> executionHints, org.apache.thrift.async.AsyncMethodCallback<startScan_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
         super(client, protocolFactory, transport, resultHandler, false);
         this.tinfo = tinfo;
         this.credentials = credentials;
@@ -957,6 +983,8 @@ import org.slf4j.LoggerFactory;
         this.waitForWrites = waitForWrites;
         this.isolated = isolated;
         this.readaheadThreshold = readaheadThreshold;
+        this.cacheBlocks = cacheBlocks;
+        this.executionHints = executionHints;
       }
 
       public void write_args(org.apache.thrift.protocol.TProtocol prot) throws org.apache.thrift.TException {
@@ -974,6 +1002,8 @@ import org.slf4j.LoggerFactory;
         args.setWaitForWrites(waitForWrites);
         args.setIsolated(isolated);
         args.setReadaheadThreshold(readaheadThreshold);
+        args.setCacheBlocks(cacheBlocks);
+        args.setExecutionHints(executionHints);
         args.write(prot);
         prot.writeMessageEnd();
       }
@@ -988,9 +1018,9 @@ import org.slf4j.LoggerFactory;
       }
     }
 
-    public void continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, org.apache.thrift.async.AsyncMethodCallback<continueScan_call> resultHandler) throws org.apache.thrift.TException {
+    public void continueScan(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, int batchSize, org.apache.thrift.async.AsyncMethodCallback<continueScan_call> resultHandler) throws org.apache.thrift.TException {
       checkReady();
-      continueScan_call method_call = new continueScan_call(tinfo, scanID, resultHandler, this, ___protocolFactory, ___transport);
+      continueScan_call method_call = new continueScan_call(tinfo, scanID, batchSize, resultHandler, this, ___protocolFactory, ___transport);
       this.___currentMethod = method_call;
       ___manager.call(method_call);
     }
@@ -998,10 +1028,12 @@ import org.slf4j.LoggerFactory;
     public static class continueScan_call extends org.apache.thrift.async.TAsyncMethodCall {
       private org.apache.accumulo.trace.thrift.TInfo tinfo;
       private long scanID;
-      public continueScan_call(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, org.apache.thrift.async.AsyncMethodCallback<continueScan_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
+      private int batchSize;
+      public continueScan_call(org.apache.accumulo.trace.thrift.TInfo tinfo, long scanID, int batchSize, org.apache.thrift.async.AsyncMethodCallback<continueScan_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
         super(client, protocolFactory, transport, resultHandler, false);
         this.tinfo = tinfo;
         this.scanID = scanID;
+        this.batchSize = batchSize;
       }
 
       public void write_args(org.apache.thrift.protocol.TProtocol prot) throws org.apache.thrift.TException {
@@ -1009,6 +1041,7 @@ import org.slf4j.LoggerFactory;
         continueScan_args args = new continueScan_args();
         args.setTinfo(tinfo);
         args.setScanID(scanID);
+        args.setBatchSize(batchSize);
         args.write(prot);
         prot.writeMessageEnd();
       }
@@ -1057,9 +1090,9 @@ import org.slf4j.LoggerFactory;
       }
     }
 
-    public void startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, org.apache.thrift.async.AsyncMethodCallback<startMultiScan_call> resultHandler) throws org.apache.thrift.TException {
+    public void startMultiScan(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean cacheBlocks, Map<String,String> executionHints, org.apache.thrift.async.AsyncMethodCallback<startMultiScan_call> resultHandler) throws org.apache.thrift.TException {
       checkReady();
-      startMultiScan_call method_call = new startMultiScan_call(tinfo, credentials, batch, columns, ssiList, ssio, authorizations, waitForWrites, resultHandler, this, ___protocolFactory, ___transport);
+      startMultiScan_call method_call = new startMultiScan_call(tinfo, credentials, batch, columns, ssiList, ssio, authorizations, waitForWrites, cacheBlocks, executionHints, resultHandler, this, ___protocolFactory, ___transport);
       this.___currentMethod = method_call;
       ___manager.call(method_call);
     }
@@ -1073,7 +1106,9 @@ import org.slf4j.LoggerFactory;
       private Map<String,Map<String,String>> ssio;
       private List<ByteBuffer> authorizations;
       private boolean waitForWrites;
-      public startMultiScan_call(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, org.apache.thrift.async.AsyncMethodCallback<startMultiScan_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
+      private boolean cacheBlocks;
+      private Map<String,String> executionHints;
+      public startMultiScan_call(org.apache.accumulo.trace.thrift.TInfo tinfo, org.apache.accumulo.core.security.thrift.TCredentials credentials, Map<org.apache.accumulo.core.data.thrift.TKeyExtent,List<org.apache.accumulo.core.data.thrift.TRange>> batch, List<org.apache.accumulo.core.data.thrift.TColumn> columns, List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean cacheBlocks, Map<String,String> executionHints, org.apache.thrift.async.AsyncMethodCallback<startMultiScan_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
         super(client, protocolFactory, transport, resultHandler, false);
         this.tinfo = tinfo;
         this.credentials = credentials;
@@ -1083,6 +1118,8 @@ import org.slf4j.LoggerFactory;
         this.ssio = ssio;
         this.authorizations = authorizations;
         this.waitForWrites = waitForWrites;
+        this.cacheBlocks = cacheBlocks;
+        this.executionHints = executionHints;
       }
 
       public void write_args(org.apache.thrift.protocol.TProtocol prot) throws org.apache.thrift.TException {
@@ -1096,6 +1133,8 @@ import org.slf4j.LoggerFactory;
         args.setSsio(ssio);
         args.setAuthorizations(authorizations);
         args.setWaitForWrites(waitForWrites);
+        args.setCacheBlocks(cacheBlocks);
+        args.setExecutionHints(executionHints);
         args.write(prot);
         prot.writeMessageEnd();
       }
@@ -1255,6 +1294,46 @@ import org.slf4j.LoggerFactory;
       }
     }
 
+    public void applyUpdateBatches(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, List<ByteBuffer> batches, org.apache.thrift.async.AsyncMethodCallback<applyUpdateBatches_call> resultHandler) throws org.apache.thrift.TException {
+      checkReady();
+      applyUpdateBatches_call method_call = new applyUpdateBatches_call(tinfo, updateID, keyExtent, batches, resultHandler, this, ___protocolFactory, ___transport);
+      this.___currentMethod = method_call;
+      ___manager.call(method_call);
+    }
+
+    public static class applyUpdateBatches_call extends org.apache.thrift.async.TAsyncMethodCall {
+      private org.apache.accumulo.trace.thrift.TInfo tinfo;
+      private long updateID;
+      private org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent;
+      private List<ByteBuffer> batches;
+      public applyUpdateBatches_call(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent, List<ByteBuffer> batches, org.apache.thrift.async.AsyncMethodCallback<applyUpdateBatches_call> resultHandler, org.apache.thrift.async.TAsyncClient client, org.apache.thrift.protocol.TProtocolFactory protocolFactory, org.apache.thrift.transport.TNonblockingTransport transport) throws org.apache.thrift.TException {
+        super(client, protocolFactory, transport, resultHandler, true);
+        this.tinfo = tinfo;
+        this.updateID = updateID;
+        this.keyExtent = keyExtent;
+        this.batches = batches;
+      }
+
+      public void write_args(org.apache.thrift.protocol.TProtocol prot) throws org.apache.thrift.TException {
+        prot.writeMessageBegin(new org.apache.thrift.protocol.TMessage("applyUpdateBatches", org.apache.thrift.protocol.TMessageType.CALL, 0));
+        applyUpdateBatches_args args = new applyUpdateBatches_args();
+        args.setTinfo(tinfo);
+        args.setUpdateID(updateID);
+        args.setKeyExtent(keyExtent);
+        args.setBatches(batches);
+        args.write(prot);
+        prot.writeMessageEnd();
+      }
+
+      public void getResult() throws org.apache.thrift.TException {
+        if (getState() != org.apache.thrift.async.TAsyncMethodCall.State.RESPONSE_READ) {
+          throw new IllegalStateException("Method call not finished!");
+        }
+        org.apache.thrift.transport.TMemoryInputTransport memoryTransport = new org.apache.thrift.transport.TMemoryInputTransport(getFrameBuffer().array());
+        org.apache.thrift.protocol.TProtocol prot = client.getProtocolFactory().getProtocol(memoryTransport);
+      }
+    }
+
     public void closeUpdate(org.apache.accumulo.trace.thrift.TInfo tinfo, long updateID, org.apache.thrift.async.AsyncMethodCallback<closeUpdate_call> resultHandler) throws org.apache.thrift.TException {
       checkReady();
       closeUpdate_call method_call = new closeUpdate_call(tinfo, updateID, resultHandler, this, ___protocolFactory, ___transport);
@@ -2133,6 +2212,7 @@ import org.slf4j.LoggerFactory;
       processMap.put("closeMultiScan", new closeMultiScan());
       processMap.put("startUpdate", new startUpdate());
       processMap.put("applyUpdates", new applyUpdates());
+      processMap.put("applyUpdateBatches", new applyUpdateBatches());
       processMap.put("closeUpdate", new closeUpdate());
       processMap.put("update", new update());
       processMap.put("startConditionalUpdate", new startConditionalUpdate());
@@ -2174,7 +2254,7 @@ import org.slf4j.LoggerFactory;
       public startScan_result getResult(I iface, startScan_args args) throws org.apache.thrift.TException {
         startScan_result result = new startScan_result();
         try {
-          result.success = iface.startScan(args.tinfo, args.credentials, args.extent, args.range, args.columns, args.batchSize, args.ssiList, args.ssio, args.authorizations, args.waitForWrites, args.isolated, args.readaheadThreshold);
+          result.success = iface.startScan(args.tinfo, args.credentials, args.extent, args.range, args.columns, args.batchSize, args.ssiList, args.ssio, args.authorizations, args.waitForWrites, args.isolated, args.readaheadThreshold, args.cacheBlocks, args.executionHints);
         } catch (org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException sec) {
           result.sec = sec;
         } catch (NotServingTabletException nste) {
@@ -2202,7 +2282,7 @@ import org.slf4j.LoggerFactory;
       public continueScan_result getResult(I iface, continueScan_args args) throws org.apache.thrift.TException {
         continueScan_result result = new continueScan_result();
         try {
-          result.success = iface.continueScan(args.tinfo, args.scanID);
+          result.success = iface.continueScan(args.tinfo, args.scanID, args.batchSize);
         } catch (NoSuchScanIDException nssi) {
           result.nssi = nssi;
         } catch (NotServingTabletException nste) {
@@ -2249,7 +2329,7 @@ import org.slf4j.LoggerFactory;
       public startMultiScan_result getResult(I iface, startMultiScan_args args) throws org.apache.thrift.TException {
         startMultiScan_result result = new startMultiScan_result();
         try {
-          result.success = iface.startMultiScan(args.tinfo, args.credentials, args.batch, args.columns, args.ssiList, args.ssio, args.authorizations, args.waitForWrites);
+          result.success = iface.startMultiScan(args.tinfo, args.credentials, args.batch, args.columns, args.ssiList, args.ssio, args.authorizations, args.waitForWrites, args.cacheBlocks, args.executionHints);
         } catch (org.apache.accumulo.core.client.impl.thrift.ThriftSecurityException sec) {
           result.sec = sec;
         }
@@ -2349,6 +2429,25 @@ import org.slf4j.LoggerFactory;
       }
     }
 
+    public static class applyUpdateBatches<I extends Iface> extends org.apache.thrift.ProcessFunction<I, applyUpdateBatches_args> {
+      public applyUpdateBatches() {
+        super("applyUpdateBatches");
+      }
+
+      public applyUpdateBatches_args getEmptyArgsInstance() {
+        return new applyUpdateBatches_args();
+      }
+
+      protected boolean isOneway() {
+        return true;
+      }
+
+      public org.apache.thrift.TBase getResult(I iface, applyUpdateBatches_args args) throws org.apache.thrift.TException {
+        iface.applyUpdateBatches(args.tinfo, args.updateID, args.keyExtent, args.batches);
+        return null;
+      }
+    }
+
     public static class closeUpdate<I extends Iface> extends org.apache.thrift.ProcessFunction<I, closeUpdate_args> {
       public closeUpdate() {
         super("closeUpdate");
@@ -2851,6 +2950,8 @@ import org.slf4j.LoggerFactory;
     private static final org.apache.thrift.protocol.TField WAIT_FOR_WRITES_FIELD_DESC = new org.apache.thrift.protocol.TField("waitForWrites", org.apache.thrift.protocol.TType.BOOL, (short)9);
     private static final org.apache.thrift.protocol.TField ISOLATED_FIELD_DESC = new org.apache.thrift.protocol.TField("isolated", org.apache.thrift.protocol.TType.BOOL, (short)10);
     private static final org.apache.thrift.protocol.TField READAHEAD_THRESHOLD_FIELD_DESC = new org.apache.thrift.protocol.TField("readaheadThreshold", org.apache.thrift.protocol.TType.I64, (short)12);
+    private static final org.apache.thrift.protocol.TField CACHE_BLOCKS_FIELD_DESC = new org.apache.thrift.protocol.TField("cacheBlocks", org.apache.thrift.protocol.TType.BOOL, (short)13);
+    private static final org.apache.thrift.protocol.TField EXECUTION_HINTS_FIELD_DESC = new org.apache.thrift.protocol.TField("executionHints", org.apache.thrift.protocol.TType.MAP, (short)14);
 
     private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
     static {
@@ -2870,6 +2971,8 @@ import org.slf4j.LoggerFactory;
     public boolean waitForWrites; // required
     public boolean isolated; // required
     public long readaheadThreshold; // required
+    public boolean cacheBlocks; // required
+    public Map<String,String> executionHints; // required
 
     /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
     @SuppressWarnings("all") public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -2884,7 +2987,9 @@ import org.slf4j.LoggerFactory;
       AUTHORIZATIONS((short)8, "authorizations"),
       WAIT_FOR_WRITES((short)9, "waitForWrites"),
       ISOLATED((short)10, "isolated"),
-      READAHEAD_THRESHOLD((short)12, "readaheadThreshold");
+      READAHEAD_THRESHOLD((short)12, "readaheadThreshold"),
+      CACHE_BLOCKS((short)13, "cacheBlocks"),
+      EXECUTION_HINTS((short)14, "executionHints");
 
       private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -2923,6 +3028,10 @@ import org.slf4j.LoggerFactory;
             return ISOLATED;
           case 12: // READAHEAD_THRESHOLD
             return READAHEAD_THRESHOLD;
+          case 13: // CACHE_BLOCKS
+            return CACHE_BLOCKS;
+          case 14: // EXECUTION_HINTS
+            return EXECUTION_HINTS;
           default:
             return null;
         }
@@ -2967,6 +3076,7 @@ import org.slf4j.LoggerFactory;
     private static final int __WAITFORWRITES_ISSET_ID = 1;
     private static final int __ISOLATED_ISSET_ID = 2;
     private static final int __READAHEADTHRESHOLD_ISSET_ID = 3;
+    private static final int __CACHEBLOCKS_ISSET_ID = 4;
     private byte __isset_bitfield = 0;
     public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
     static {
@@ -3002,11 +3112,19 @@ import org.slf4j.LoggerFactory;
           new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.BOOL)));
       tmpMap.put(_Fields.READAHEAD_THRESHOLD, new org.apache.thrift.meta_data.FieldMetaData("readaheadThreshold", org.apache.thrift.TFieldRequirementType.DEFAULT, 
           new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+      tmpMap.put(_Fields.CACHE_BLOCKS, new org.apache.thrift.meta_data.FieldMetaData("cacheBlocks", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.BOOL)));
+      tmpMap.put(_Fields.EXECUTION_HINTS, new org.apache.thrift.meta_data.FieldMetaData("executionHints", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.MapMetaData(org.apache.thrift.protocol.TType.MAP, 
+              new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING), 
+              new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING))));
       metaDataMap = Collections.unmodifiableMap(tmpMap);
       org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(startScan_args.class, metaDataMap);
     }
 
     public startScan_args() {
+      this.cacheBlocks = true;
+
     }
 
     public startScan_args(
@@ -3021,7 +3139,9 @@ import org.slf4j.LoggerFactory;
       List<ByteBuffer> authorizations,
       boolean waitForWrites,
       boolean isolated,
-      long readaheadThreshold)
+      long readaheadThreshold,
+      boolean cacheBlocks,
+      Map<String,String> executionHints)
     {
       this();
       this.tinfo = tinfo;
@@ -3040,6 +3160,9 @@ import org.slf4j.LoggerFactory;
       setIsolatedIsSet(true);
       this.readaheadThreshold = readaheadThreshold;
       setReadaheadThresholdIsSet(true);
+      this.cacheBlocks = cacheBlocks;
+      setCacheBlocksIsSet(true);
+      this.executionHints = executionHints;
     }
 
     /**
@@ -3112,6 +3235,22 @@ import org.slf4j.LoggerFactory;
       this.waitForWrites = other.waitForWrites;
       this.isolated = other.isolated;
       this.readaheadThreshold = other.readaheadThreshold;
+      this.cacheBlocks = other.cacheBlocks;
+      if (other.isSetExecutionHints()) {
+        Map<String,String> __this__executionHints = new HashMap<String,String>();
+        for (Map.Entry<String, String> other_element : other.executionHints.entrySet()) {
+
+          String other_element_key = other_element.getKey();
+          String other_element_value = other_element.getValue();
+
+          String __this__executionHints_copy_key = other_element_key;
+
+          String __this__executionHints_copy_value = other_element_value;
+
+          __this__executionHints.put(__this__executionHints_copy_key, __this__executionHints_copy_value);
+        }
+        this.executionHints = __this__executionHints;
+      }
     }
 
     public startScan_args deepCopy() {
@@ -3136,6 +3275,9 @@ import org.slf4j.LoggerFactory;
       this.isolated = false;
       setReadaheadThresholdIsSet(false);
       this.readaheadThreshold = 0;
+      this.cacheBlocks = true;
+
+      this.executionHints = null;
     }
 
     public org.apache.accumulo.trace.thrift.TInfo getTinfo() {
@@ -3478,6 +3620,64 @@ import org.slf4j.LoggerFactory;
       __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __READAHEADTHRESHOLD_ISSET_ID, value);
     }
 
+    public boolean isCacheBlocks() {
+      return this.cacheBlocks;
+    }
+
+    public startScan_args setCacheBlocks(boolean cacheBlocks) {
+      this.cacheBlocks = cacheBlocks;
+      setCacheBlocksIsSet(true);
+      return this;
+    }
+
+    public void unsetCacheBlocks() {
+      __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __CACHEBLOCKS_ISSET_ID);
+    }
+
+    /** Returns true if field cacheBlocks is set (has been assigned a value) and false otherwise */
+    public boolean isSetCacheBlocks() {
+      return EncodingUtils.testBit(__isset_bitfield, __CACHEBLOCKS_ISSET_ID);
+    }
+
+    public void setCacheBlocksIsSet(boolean value) {
+      __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __CACHEBLOCKS_ISSET_ID, value);
+    }
+
+    public int getExecutionHintsSize() {
+      return (this.executionHints == null) ? 0 : this.executionHints.size();
+    }
+
+    public void putToExecutionHints(String key, String val) {
+      if (this.executionHints == null) {
+        this.executionHints = new HashMap<String,String>();
+      }
+      this.executionHints.put(key, val);
+    }
+
+    public Map<String,String> getExecutionHints() {
+      return this.executionHints;
+    }
+
+    public startScan_args setExecutionHints(Map<String,String> executionHints) {
+      this.executionHints = executionHints;
+      return this;
+    }
+
+    public void unsetExecutionHints() {
+      this.executionHints = null;
+    }
+
+    /** Returns true if field executionHints is set (has been assigned a value) and false otherwise */
+    public boolean isSetExecutionHints() {
+      return this.executionHints != null;
+    }
+
+    public void setExecutionHintsIsSet(boolean value) {
+      if (!value) {
+        this.executionHints = null;
+      }
+    }
+
     public void setFieldValue(_Fields field, Object value) {
       switch (field) {
       case TINFO:
@@ -3576,6 +3776,22 @@ import org.slf4j.LoggerFactory;
         }
         break;
 
+      case CACHE_BLOCKS:
+        if (value == null) {
+          unsetCacheBlocks();
+        } else {
+          setCacheBlocks((Boolean)value);
+        }
+        break;
+
+      case EXECUTION_HINTS:
+        if (value == null) {
+          unsetExecutionHints();
+        } else {
+          setExecutionHints((Map<String,String>)value);
+        }
+        break;
+
       }
     }
 
@@ -3617,6 +3833,12 @@ import org.slf4j.LoggerFactory;
       case READAHEAD_THRESHOLD:
         return Long.valueOf(getReadaheadThreshold());
 
+      case CACHE_BLOCKS:
+        return Boolean.valueOf(isCacheBlocks());
+
+      case EXECUTION_HINTS:
+        return getExecutionHints();
+
       }
       throw new IllegalStateException();
     }
@@ -3652,6 +3874,10 @@ import org.slf4j.LoggerFactory;
         return isSetIsolated();
       case READAHEAD_THRESHOLD:
         return isSetReadaheadThreshold();
+      case CACHE_BLOCKS:
+        return isSetCacheBlocks();
+      case EXECUTION_HINTS:
+        return isSetExecutionHints();
       }
       throw new IllegalStateException();
     }
@@ -3777,6 +4003,24 @@ import org.slf4j.LoggerFactory;
           return false;
       }
 
+      boolean this_present_cacheBlocks = true;
+      boolean that_present_cacheBlocks = true;
+      if (this_present_cacheBlocks || that_present_cacheBlocks) {
+        if (!(this_present_cacheBlocks && that_present_cacheBlocks))
+          return false;
+        if (this.cacheBlocks != that.cacheBlocks)
+          return false;
+      }
+
+      boolean this_present_executionHints = true && this.isSetExecutionHints();
+      boolean that_present_executionHints = true && that.isSetExecutionHints();
+      if (this_present_executionHints || that_present_executionHints) {
+        if (!(this_present_executionHints && that_present_executionHints))
+          return false;
+        if (!this.executionHints.equals(that.executionHints))
+          return false;
+      }
+
       return true;
     }
 
@@ -3913,6 +4157,26 @@ import org.slf4j.LoggerFactory;
           return lastComparison;
         }
       }
+      lastComparison = Boolean.valueOf(isSetCacheBlocks()).compareTo(typedOther.isSetCacheBlocks());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetCacheBlocks()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.cacheBlocks, typedOther.cacheBlocks);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetExecutionHints()).compareTo(typedOther.isSetExecutionHints());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetExecutionHints()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.executionHints, typedOther.executionHints);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
       return 0;
     }
 
@@ -4012,6 +4276,18 @@ import org.slf4j.LoggerFactory;
       sb.append("readaheadThreshold:");
       sb.append(this.readaheadThreshold);
       first = false;
+      if (!first) sb.append(", ");
+      sb.append("cacheBlocks:");
+      sb.append(this.cacheBlocks);
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("executionHints:");
+      if (this.executionHints == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.executionHints);
+      }
+      first = false;
       sb.append(")");
       return sb.toString();
     }
@@ -4225,6 +4501,34 @@ import org.slf4j.LoggerFactory;
                 org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
               }
               break;
+            case 13: // CACHE_BLOCKS
+              if (schemeField.type == org.apache.thrift.protocol.TType.BOOL) {
+                struct.cacheBlocks = iprot.readBool();
+                struct.setCacheBlocksIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
+            case 14: // EXECUTION_HINTS
+              if (schemeField.type == org.apache.thrift.protocol.TType.MAP) {
+                {
+                  org.apache.thrift.protocol.TMap _map332 = iprot.readMapBegin();
+                  struct.executionHints = new HashMap<String,String>(2*_map332.size);
+                  for (int _i333 = 0; _i333 < _map332.size; ++_i333)
+                  {
+                    String _key334; // required
+                    String _val335; // required
+                    _key334 = iprot.readString();
+                    _val335 = iprot.readString();
+                    struct.executionHints.put(_key334, _val335);
+                  }
+                  iprot.readMapEnd();
+                }
+                struct.setExecutionHintsIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
             default:
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
           }
@@ -4329,6 +4633,22 @@ import org.slf4j.LoggerFactory;
         oprot.writeFieldBegin(READAHEAD_THRESHOLD_FIELD_DESC);
         oprot.writeI64(struct.readaheadThreshold);
         oprot.writeFieldEnd();
+        oprot.writeFieldBegin(CACHE_BLOCKS_FIELD_DESC);
+        oprot.writeBool(struct.cacheBlocks);
+        oprot.writeFieldEnd();
+        if (struct.executionHints != null) {
+          oprot.writeFieldBegin(EXECUTION_HINTS_FIELD_DESC);
+          {
+            oprot.writeMapBegin(new org.apache.thrift.protocol.TMap(org.apache.thrift.protocol.TType.STRING, org.apache.thrift.protocol.TType.STRING, struct.executionHints.size()));
+            for (Map.Entry<String, String> _iter336 : struct.executionHints.entrySet())
+            {
+              oprot.writeString(_iter336.getKey());
+              oprot.writeString(_iter336.getValue());
+            }
+            oprot.writeMapEnd();
+          }
+          oprot.writeFieldEnd();
+        }
         oprot.writeFieldStop();
         oprot.writeStructEnd();
       }
@@ -4383,7 +4703,13 @@ import org.slf4j.LoggerFactory;
         if (struct.isSetReadaheadThreshold()) {
           optionals.set(11);
         }
-        oprot.writeBitSet(optionals, 12);
+        if (struct.isSetCacheBlocks()) {
+          optionals.set(12);
+        }
+        if (struct.isSetExecutionHints()) {
+          optionals.set(13);
+        }
+        oprot.writeBitSet(optionals, 14);
         if (struct.isSetTinfo()) {
           struct.tinfo.write(oprot);
         }
@@ -4452,12 +4778,25 @@ import org.slf4j.LoggerFactory;
         if (struct.isSetReadaheadThreshold()) {
           oprot.writeI64(struct.readaheadThreshold);
         }
+        if (struct.isSetCacheBlocks()) {
+          oprot.writeBool(struct.cacheBlocks);
+        }
+        if (struct.isSetExecutionHints()) {
+          {
+            oprot.writeI32(struct.executionHints.size());
+            for (Map.Entry<String, String> _iter337 : struct.executionHints.entrySet())
+            {
+              oprot.writeString(_iter337.getKey());
+              oprot.writeString(_iter337.getValue());
+            }
+          }
+        }
       }
 
       @Override
       public void read(org.apache.thrift.protocol.TProtocol prot, startScan_args struct) throws org.apache.thrift.TException {
         TTupleProtocol iprot = (TTupleProtocol) prot;
-        BitSet incoming = iprot.readBitSet(12);
+        BitSet incoming = iprot.readBitSet(14);
         if (incoming.get(0)) {
           struct.tinfo = new org.apache.accumulo.trace.thrift.TInfo();
           struct.tinfo.read(iprot);
@@ -4561,6 +4900,25 @@ import org.slf4j.LoggerFactory;
           struct.readaheadThreshold = iprot.readI64();
           struct.setReadaheadThresholdIsSet(true);
         }
+        if (incoming.get(12)) {
+          struct.cacheBlocks = iprot.readBool();
+          struct.setCacheBlocksIsSet(true);
+        }
+        if (incoming.get(13)) {
+          {
+            org.apache.thrift.protocol.TMap _map338 = new org.apache.thrift.protocol.TMap(org.apache.thrift.protocol.TType.STRING, org.apache.thrift.protocol.TType.STRING, iprot.readI32());
+            struct.executionHints = new HashMap<String,String>(2*_map338.size);
+            for (int _i339 = 0; _i339 < _map338.size; ++_i339)
+            {
+              String _key340; // required
+              String _val341; // required
+              _key340 = iprot.readString();
+              _val341 = iprot.readString();
+              struct.executionHints.put(_key340, _val341);
+            }
+          }
+          struct.setExecutionHintsIsSet(true);
+        }
       }
     }
 
@@ -5236,6 +5594,7 @@ import org.slf4j.LoggerFactory;
 
     private static final org.apache.thrift.protocol.TField TINFO_FIELD_DESC = new org.apache.thrift.protocol.TField("tinfo", org.apache.thrift.protocol.TType.STRUCT, (short)2);
     private static final org.apache.thrift.protocol.TField SCAN_ID_FIELD_DESC = new org.apache.thrift.protocol.TField("scanID", org.apache.thrift.protocol.TType.I64, (short)1);
+    private static final org.apache.thrift.protocol.TField BATCH_SIZE_FIELD_DESC = new org.apache.thrift.protocol.TField("batchSize", org.apache.thrift.protocol.TType.I32, (short)3);
 
     private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
     static {
@@ -5245,11 +5604,13 @@ import org.slf4j.LoggerFactory;
 
     public org.apache.accumulo.trace.thrift.TInfo tinfo; // required
     public long scanID; // required
+    public int batchSize; // required
 
     /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
     @SuppressWarnings("all") public enum _Fields implements org.apache.thrift.TFieldIdEnum {
       TINFO((short)2, "tinfo"),
-      SCAN_ID((short)1, "scanID");
+      SCAN_ID((short)1, "scanID"),
+      BATCH_SIZE((short)3, "batchSize");
 
       private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -5268,6 +5629,8 @@ import org.slf4j.LoggerFactory;
             return TINFO;
           case 1: // SCAN_ID
             return SCAN_ID;
+          case 3: // BATCH_SIZE
+            return BATCH_SIZE;
           default:
             return null;
         }
@@ -5309,6 +5672,7 @@ import org.slf4j.LoggerFactory;
 
     // isset id assignments
     private static final int __SCANID_ISSET_ID = 0;
+    private static final int __BATCHSIZE_ISSET_ID = 1;
     private byte __isset_bitfield = 0;
     public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
     static {
@@ -5317,6 +5681,8 @@ import org.slf4j.LoggerFactory;
           new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, org.apache.accumulo.trace.thrift.TInfo.class)));
       tmpMap.put(_Fields.SCAN_ID, new org.apache.thrift.meta_data.FieldMetaData("scanID", org.apache.thrift.TFieldRequirementType.DEFAULT, 
           new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64          , "ScanID")));
+      tmpMap.put(_Fields.BATCH_SIZE, new org.apache.thrift.meta_data.FieldMetaData("batchSize", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
       metaDataMap = Collections.unmodifiableMap(tmpMap);
       org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(continueScan_args.class, metaDataMap);
     }
@@ -5326,12 +5692,15 @@ import org.slf4j.LoggerFactory;
 
     public continueScan_args(
       org.apache.accumulo.trace.thrift.TInfo tinfo,
-      long scanID)
+      long scanID,
+      int batchSize)
     {
       this();
       this.tinfo = tinfo;
       this.scanID = scanID;
       setScanIDIsSet(true);
+      this.batchSize = batchSize;
+      setBatchSizeIsSet(true);
     }
 
     /**
@@ -5343,6 +5712,7 @@ import org.slf4j.LoggerFactory;
         this.tinfo = new org.apache.accumulo.trace.thrift.TInfo(other.tinfo);
       }
       this.scanID = other.scanID;
+      this.batchSize = other.batchSize;
     }
 
     public continueScan_args deepCopy() {
@@ -5354,6 +5724,8 @@ import org.slf4j.LoggerFactory;
       this.tinfo = null;
       setScanIDIsSet(false);
       this.scanID = 0;
+      setBatchSizeIsSet(false);
+      this.batchSize = 0;
     }
 
     public org.apache.accumulo.trace.thrift.TInfo getTinfo() {
@@ -5403,6 +5775,29 @@ import org.slf4j.LoggerFactory;
       __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __SCANID_ISSET_ID, value);
     }
 
+    public int getBatchSize() {
+      return this.batchSize;
+    }
+
+    public continueScan_args setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+      setBatchSizeIsSet(true);
+      return this;
+    }
+
+    public void unsetBatchSize() {
+      __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __BATCHSIZE_ISSET_ID);
+    }
+
+    /** Returns true if field batchSize is set (has been assigned a value) and false otherwise */
+    public boolean isSetBatchSize() {
+      return EncodingUtils.testBit(__isset_bitfield, __BATCHSIZE_ISSET_ID);
+    }
+
+    public void setBatchSizeIsSet(boolean value) {
+      __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __BATCHSIZE_ISSET_ID, value);
+    }
+
     public void setFieldValue(_Fields field, Object value) {
       switch (field) {
       case TINFO:
@@ -5421,6 +5816,14 @@ import org.slf4j.LoggerFactory;
         }
         break;
 
+      case BATCH_SIZE:
+        if (value == null) {
+          unsetBatchSize();
+        } else {
+          setBatchSize((Integer)value);
+        }
+        break;
+
       }
     }
 
@@ -5432,6 +5835,9 @@ import org.slf4j.LoggerFactory;
       case SCAN_ID:
         return Long.valueOf(getScanID());
 
+      case BATCH_SIZE:
+        return Integer.valueOf(getBatchSize());
+
       }
       throw new IllegalStateException();
     }
@@ -5447,6 +5853,8 @@ import org.slf4j.LoggerFactory;
         return isSetTinfo();
       case SCAN_ID:
         return isSetScanID();
+      case BATCH_SIZE:
+        return isSetBatchSize();
       }
       throw new IllegalStateException();
     }
@@ -5482,6 +5890,15 @@ import org.slf4j.LoggerFactory;
           return false;
       }
 
+      boolean this_present_batchSize = true;
+      boolean that_present_batchSize = true;
+      if (this_present_batchSize || that_present_batchSize) {
+        if (!(this_present_batchSize && that_present_batchSize))
+          return false;
+        if (this.batchSize != that.batchSize)
+          return false;
+      }
+
       return true;
     }
 
@@ -5518,6 +5935,16 @@ import org.slf4j.LoggerFactory;
           return lastComparison;
         }
       }
+      lastComparison = Boolean.valueOf(isSetBatchSize()).compareTo(typedOther.isSetBatchSize());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetBatchSize()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.batchSize, typedOther.batchSize);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
       return 0;
     }
 
@@ -5549,6 +5976,10 @@ import org.slf4j.LoggerFactory;
       sb.append("scanID:");
       sb.append(this.scanID);
       first = false;
+      if (!first) sb.append(", ");
+      sb.append("batchSize:");
+      sb.append(this.batchSize);
+      first = false;
       sb.append(")");
       return sb.toString();
     }
@@ -5614,6 +6045,14 @@ import org.slf4j.LoggerFactory;
                 org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
               }
               break;
+            case 3: // BATCH_SIZE
+              if (schemeField.type == org.apache.thrift.protocol.TType.I32) {
+                struct.batchSize = iprot.readI32();
+                struct.setBatchSizeIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
             default:
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
           }
@@ -5637,8 +6076,11 @@ import org.slf4j.LoggerFactory;
           struct.tinfo.write(oprot);
           oprot.writeFieldEnd();
         }
-        oprot.writeFieldStop();
-        oprot.writeStructEnd();
+        oprot.writeFieldBegin(BATCH_SIZE_FIELD_DESC);
+        oprot.writeI32(struct.batchSize);
+        oprot.writeFieldEnd();
+        oprot.writeFieldStop();
+        oprot.writeStructEnd();
       }
 
     }
@@ -5661,19 +6103,25 @@ import org.slf4j.LoggerFactory;
         if (struct.isSetScanID()) {
           optionals.set(1);
         }
-        oprot.writeBitSet(optionals, 2);
+        if (struct.isSetBatchSize()) {
+          optionals.set(2);
+        }
+        oprot.writeBitSet(optionals, 3);
         if (struct.isSetTinfo()) {
           struct.tinfo.write(oprot);
         }
         if (struct.isSetScanID()) {
           oprot.writeI64(struct.scanID);
         }
+        if (struct.isSetBatchSize()) {
+          oprot.writeI32(struct.batchSize);
+        }
       }
 
       @Override
       public void read(org.apache.thrift.protocol.TProtocol prot, continueScan_args struct) throws org.apache.thrift.TException {
         TTupleProtocol iprot = (TTupleProtocol) prot;
-        BitSet incoming = iprot.readBitSet(2);
+        BitSet incoming = iprot.readBitSet(3);
         if (incoming.get(0)) {
           struct.tinfo = new org.apache.accumulo.trace.thrift.TInfo();
           struct.tinfo.read(iprot);
@@ -5683,6 +6131,10 @@ import org.slf4j.LoggerFactory;
           struct.scanID = iprot.readI64();
           struct.setScanIDIsSet(true);
         }
+        if (incoming.get(2)) {
+          struct.batchSize = iprot.readI32();
+          struct.setBatchSizeIsSet(true);
+        }
       }
     }
 
@@ -6821,6 +7273,8 @@ import org.slf4j.LoggerFactory;
     private static final org.apache.thrift.protocol.TField SSIO_FIELD_DESC = new org.apache.thrift.protocol.TField("ssio", org.apache.thrift.protocol.TType.MAP, (short)5);
     private static final org.apache.thrift.protocol.TField AUTHORIZATIONS_FIELD_DESC = new org.apache.thrift.protocol.TField("authorizations", org.apache.thrift.protocol.TType.LIST, (short)6);
     private static final org.apache.thrift.protocol.TField WAIT_FOR_WRITES_FIELD_DESC = new org.apache.thrift.protocol.TField("waitForWrites", org.apache.thrift.protocol.TType.BOOL, (short)7);
+    private static final org.apache.thrift.protocol.TField CACHE_BLOCKS_FIELD_DESC = new org.apache.thrift.protocol.TField("cacheBlocks", org.apache.thrift.protocol.TType.BOOL, (short)9);
+    private static final org.apache.thrift.protocol.TField EXECUTION_HINTS_FIELD_DESC = new org.apache.thrift.protocol.TField("executionHints", org.apache.thrift.protocol.TType.MAP, (short)10);
 
     private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
     static {
@@ -6836,6 +7290,8 @@ import org.slf4j.LoggerFactory;
     public Map<String,Map<String,String>> ssio; // required
     public List<ByteBuffer> authorizations; // required
     public boolean waitForWrites; // required
+    public boolean cacheBlocks; // required
+    public Map<String,String> executionHints; // required
 
     /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
     @SuppressWarnings("all") public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -6846,7 +7302,9 @@ import org.slf4j.LoggerFactory;
       SSI_LIST((short)4, "ssiList"),
       SSIO((short)5, "ssio"),
       AUTHORIZATIONS((short)6, "authorizations"),
-      WAIT_FOR_WRITES((short)7, "waitForWrites");
+      WAIT_FOR_WRITES((short)7, "waitForWrites"),
+      CACHE_BLOCKS((short)9, "cacheBlocks"),
+      EXECUTION_HINTS((short)10, "executionHints");
 
       private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -6877,6 +7335,10 @@ import org.slf4j.LoggerFactory;
             return AUTHORIZATIONS;
           case 7: // WAIT_FOR_WRITES
             return WAIT_FOR_WRITES;
+          case 9: // CACHE_BLOCKS
+            return CACHE_BLOCKS;
+          case 10: // EXECUTION_HINTS
+            return EXECUTION_HINTS;
           default:
             return null;
         }
@@ -6918,6 +7380,7 @@ import org.slf4j.LoggerFactory;
 
     // isset id assignments
     private static final int __WAITFORWRITES_ISSET_ID = 0;
+    private static final int __CACHEBLOCKS_ISSET_ID = 1;
     private byte __isset_bitfield = 0;
     public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
     static {
@@ -6945,11 +7408,19 @@ import org.slf4j.LoggerFactory;
               new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING              , true))));
       tmpMap.put(_Fields.WAIT_FOR_WRITES, new org.apache.thrift.meta_data.FieldMetaData("waitForWrites", org.apache.thrift.TFieldRequirementType.DEFAULT, 
           new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.BOOL)));
+      tmpMap.put(_Fields.CACHE_BLOCKS, new org.apache.thrift.meta_data.FieldMetaData("cacheBlocks", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.BOOL)));
+      tmpMap.put(_Fields.EXECUTION_HINTS, new org.apache.thrift.meta_data.FieldMetaData("executionHints", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.MapMetaData(org.apache.thrift.protocol.TType.MAP, 
+              new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING), 
+              new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING))));
       metaDataMap = Collections.unmodifiableMap(tmpMap);
       org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(startMultiScan_args.class, metaDataMap);
     }
 
     public startMultiScan_args() {
+      this.cacheBlocks = true;
+
     }
 
     public startMultiScan_args(
@@ -6960,7 +7431,9 @@ import org.slf4j.LoggerFactory;
       List<org.apache.accumulo.core.data.thrift.IterInfo> ssiList,
       Map<String,Map<String,String>> ssio,
       List<ByteBuffer> authorizations,
-      boolean waitForWrites)
+      boolean waitForWrites,
+      boolean cacheBlocks,
+      Map<String,String> executionHints)
     {
       this();
       this.tinfo = tinfo;
@@ -6972,6 +7445,9 @@ import org.slf4j.LoggerFactory;
       this.authorizations = authorizations;
       this.waitForWrites = waitForWrites;
       setWaitForWritesIsSet(true);
+      this.cacheBlocks = cacheBlocks;
+      setCacheBlocksIsSet(true);
+      this.executionHints = executionHints;
     }
 
     /**
@@ -7038,6 +7514,22 @@ import org.slf4j.LoggerFactory;
         this.authorizations = __this__authorizations;
       }
       this.waitForWrites = other.waitForWrites;
+      this.cacheBlocks = other.cacheBlocks;
+      if (other.isSetExecutionHints()) {
+        Map<String,String> __this__executionHints = new HashMap<String,String>();
+        for (Map.Entry<String, String> other_element : other.executionHints.entrySet()) {
+
+          String other_element_key = other_element.getKey();
+          String other_element_value = other_element.getValue();
+
+          String __this__executionHints_copy_key = other_element_key;
+
+          String __this__executionHints_copy_value = other_element_value;
+
+          __this__executionHints.put(__this__executionHints_copy_key, __this__executionHints_copy_value);
+        }
+        this.executionHints = __this__executionHints;
+      }
     }
 
     public startMultiScan_args deepCopy() {
@@ -7055,6 +7547,9 @@ import org.slf4j.LoggerFactory;
       this.authorizations = null;
       setWaitForWritesIsSet(false);
       this.waitForWrites = false;
+      this.cacheBlocks = true;
+
+      this.executionHints = null;
     }
 
     public org.apache.accumulo.trace.thrift.TInfo getTinfo() {
@@ -7315,6 +7810,64 @@ import org.slf4j.LoggerFactory;
       __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __WAITFORWRITES_ISSET_ID, value);
     }
 
+    public boolean isCacheBlocks() {
+      return this.cacheBlocks;
+    }
+
+    public startMultiScan_args setCacheBlocks(boolean cacheBlocks) {
+      this.cacheBlocks = cacheBlocks;
+      setCacheBlocksIsSet(true);
+      return this;
+    }
+
+    public void unsetCacheBlocks() {
+      __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __CACHEBLOCKS_ISSET_ID);
+    }
+
+    /** Returns true if field cacheBlocks is set (has been assigned a value) and false otherwise */
+    public boolean isSetCacheBlocks() {
+      return EncodingUtils.testBit(__isset_bitfield, __CACHEBLOCKS_ISSET_ID);
+    }
+
+    public void setCacheBlocksIsSet(boolean value) {
+      __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __CACHEBLOCKS_ISSET_ID, value);
+    }
+
+    public int getExecutionHintsSize() {
+      return (this.executionHints == null) ? 0 : this.executionHints.size();
+    }
+
+    public void putToExecutionHints(String key, String val) {
+      if (this.executionHints == null) {
+        this.executionHints = new HashMap<String,String>();
+      }
+      this.executionHints.put(key, val);
+    }
+
+    public Map<String,String> getExecutionHints() {
+      return this.executionHints;
+    }
+
+    public startMultiScan_args setExecutionHints(Map<String,String> executionHints) {
+      this.executionHints = executionHints;
+      return this;
+    }
+
+    public void unsetExecutionHints() {
+      this.executionHints = null;
+    }
+
+    /** Returns true if field executionHints is set (has been assigned a value) and false otherwise */
+    public boolean isSetExecutionHints() {
+      return this.executionHints != null;
+    }
+
+    public void setExecutionHintsIsSet(boolean value) {
+      if (!value) {
+        this.executionHints = null;
+      }
+    }
+
     public void setFieldValue(_Fields field, Object value) {
       switch (field) {
       case TINFO:
@@ -7381,6 +7934,22 @@ import org.slf4j.LoggerFactory;
         }
         break;
 
+      case CACHE_BLOCKS:
+        if (value == null) {
+          unsetCacheBlocks();
+        } else {
+          setCacheBlocks((Boolean)value);
+        }
+        break;
+
+      case EXECUTION_HINTS:
+        if (value == null) {
+          unsetExecutionHints();
+        } else {
+          setExecutionHints((Map<String,String>)value);
+        }
+        break;
+
       }
     }
 
@@ -7410,6 +7979,12 @@ import org.slf4j.LoggerFactory;
       case WAIT_FOR_WRITES:
         return Boolean.valueOf(isWaitForWrites());
 
+      case CACHE_BLOCKS:
+        return Boolean.valueOf(isCacheBlocks());
+
+      case EXECUTION_HINTS:
+        return getExecutionHints();
+
       }
       throw new IllegalStateException();
     }
@@ -7437,6 +8012,10 @@ import org.slf4j.LoggerFactory;
         return isSetAuthorizations();
       case WAIT_FOR_WRITES:
         return isSetWaitForWrites();
+      case CACHE_BLOCKS:
+        return isSetCacheBlocks();
+      case EXECUTION_HINTS:
+        return isSetExecutionHints();
       }
       throw new IllegalStateException();
     }
@@ -7526,6 +8105,24 @@ import org.slf4j.LoggerFactory;
           return false;
       }
 
+      boolean this_present_cacheBlocks = true;
+      boolean that_present_cacheBlocks = true;
+      if (this_present_cacheBlocks || that_present_cacheBlocks) {
+        if (!(this_present_cacheBlocks && that_present_cacheBlocks))
+          return false;
+        if (this.cacheBlocks != that.cacheBlocks)
+          return false;
+      }
+
+      boolean this_present_executionHints = true && this.isSetExecutionHints();
+      boolean that_present_executionHints = true && that.isSetExecutionHints();
+      if (this_present_executionHints || that_present_executionHints) {
+        if (!(this_present_executionHints && that_present_executionHints))
+          return false;
+        if (!this.executionHints.equals(that.executionHints))
+          return false;
+      }
+
       return true;
     }
 
@@ -7622,6 +8219,26 @@ import org.slf4j.LoggerFactory;
           return lastComparison;
         }
       }
+      lastComparison = Boolean.valueOf(isSetCacheBlocks()).compareTo(typedOther.isSetCacheBlocks());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetCacheBlocks()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.cacheBlocks, typedOther.cacheBlocks);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetExecutionHints()).compareTo(typedOther.isSetExecutionHints());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetExecutionHints()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.executionHints, typedOther.executionHints);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
       return 0;
     }
 
@@ -7701,6 +8318,18 @@ import org.slf4j.LoggerFactory;
       sb.append("waitForWrites:");
       sb.append(this.waitForWrites);
       first = false;
+      if (!first) sb.append(", ");
+      sb.append("cacheBlocks:");
+      sb.append(this.cacheBlocks);
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("executionHints:");
+      if (this.executionHints == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.executionHints);
+      }
+      first = false;
       sb.append(")");
       return sb.toString();
     }
@@ -7898,6 +8527,34 @@ import org.slf4j.LoggerFactory;
                 org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
               }
               break;
+            case 9: // CACHE_BLOCKS
+              if (schemeField.type == org.apache.thrift.protocol.TType.BOOL) {
+                struct.cacheBlocks = iprot.readBool();
+                struct.setCacheBlocksIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
+            case 10: // EXECUTION_HINTS
+              if (schemeField.type == org.apache.thrift.protocol.TType.MAP) {
+                {
+                  org.apache.thrift.protocol.TMap _map343 = iprot.readMapBegin();
+                  struct.executionHints = new HashMap<String,String>(2*_map343.size);
+                  for (int _i344 = 0; _i344 < _map343.size; ++_i344)
+                  {
+                    String _key345; // required
+                    String _val346; // required
+                    _key345 = iprot.readString();
+                    _val346 = iprot.readString();
+                    struct.executionHints.put(_key345, _val346);
+                  }
+                  iprot.readMapEnd();
+                }
+                struct.setExecutionHintsIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
             default:
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
           }
@@ -8003,6 +8660,22 @@ import org.slf4j.LoggerFactory;
           struct.tinfo.write(oprot);
           oprot.writeFieldEnd();
         }
+        oprot.writeFieldBegin(CACHE_BLOCKS_FIELD_DESC);
+        oprot.writeBool(struct.cacheBlocks);
+        oprot.writeFieldEnd();
+        if (struct.executionHints != null) {
+          oprot.writeFieldBegin(EXECUTION_HINTS_FIELD_DESC);
+          {
+            oprot.writeMapBegin(new org.apache.thrift.protocol.TMap(org.apache.thrift.protocol.TType.STRING, org.apache.thrift.protocol.TType.STRING, struct.executionHints.size()));
+            for (Map.Entry<String, String> _iter347 : struct.executionHints.entrySet())
+            {
+              oprot.writeString(_iter347.getKey());
+              oprot.writeString(_iter347.getValue());
+            }
+            oprot.writeMapEnd();
+          }
+          oprot.writeFieldEnd();
+        }
         oprot.writeFieldStop();
         oprot.writeStructEnd();
       }
@@ -8045,7 +8718,13 @@ import org.slf4j.LoggerFactory;
         if (struct.isSetWaitForWrites()) {
           optionals.set(7);
         }
-        oprot.writeBitSet(optionals, 8);
+        if (struct.isSetCacheBlocks()) {
+          optionals.set(8);
+        }
+        if (struct.isSetExecutionHints()) {
+          optionals.set(9);
+        }
+        oprot.writeBitSet(optionals, 10);
         if (struct.isSetTinfo()) {
           struct.tinfo.write(oprot);
         }
@@ -8115,12 +8794,25 @@ import org.slf4j.LoggerFactory;
         if (struct.isSetWaitForWrites()) {
           oprot.writeBool(struct.waitForWrites);
         }
+        if (struct.isSetCacheBlocks()) {
+          oprot.writeBool(struct.cacheBlocks);
+        }
+        if (struct.isSetExecutionHints()) {
+          {
+            oprot.writeI32(struct.executionHints.size());
+            for (Map.Entry<String, String> _iter348 : struct.executionHints.entrySet())
+            {
+              oprot.writeString(_iter348.getKey());
+              oprot.writeString(_iter348.getValue());
+            }
+          }
+        }
       }
 
       @Override
       public void read(org.apache.thrift.protocol.TProtocol prot, startMultiScan_args struct) throws org.apache.thrift.TException {
         TTupleProtocol iprot = (TTupleProtocol) prot;
-        BitSet incoming = iprot.readBitSet(8);
+        BitSet incoming = iprot.readBitSet(10);
         if (incoming.get(0)) {
           struct.tinfo = new org.apache.accumulo.trace.thrift.TInfo();
           struct.tinfo.read(iprot);
@@ -8228,6 +8920,25 @@ import org.slf4j.LoggerFactory;
           struct.waitForWrites = iprot.readBool();
           struct.setWaitForWritesIsSet(true);
         }
+        if (incoming.get(8)) {
+          struct.cacheBlocks = iprot.readBool();
+          struct.setCacheBlocksIsSet(true);
+        }
+        if (incoming.get(9)) {
+          {
+            org.apache.thrift.protocol.TMap _map349 = new org.apache.thrift.protocol.TMap(org.apache.thrift.protocol.TType.STRING, org.apache.thrift.protocol.TType.STRING, iprot.readI32());
+            struct.executionHints = new HashMap<String,String>(2*_map349.size);
+            for (int _i350 = 0; _i350 < _map349.size; ++_i350)
+            {
+              String _key351; // required
+              String _val352; // required
+              _key351 = iprot.readString();
+              _val352 = iprot.readString();
+              struct.executionHints.put(_key351, _val352);
+            }
+          }
+          struct.setExecutionHintsIsSet(true);
+        }
       }
     }
 
@@ -12061,6 +12772,722 @@ import org.slf4j.LoggerFactory;
 
   }
 
+  public static class applyUpdateBatches_args implements org.apache.thrift.TBase<applyUpdateBatches_args, applyUpdateBatches_args._Fields>, java.io.Serializable, Cloneable   {
+    private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("applyUpdateBatches_args");
+
+    private static final org.apache.thrift.protocol.TField TINFO_FIELD_DESC = new org.apache.thrift.protocol.TField("tinfo", org.apache.thrift.protocol.TType.STRUCT, (short)1);
+    private static final org.apache.thrift.protocol.TField UPDATE_ID_FIELD_DESC = new org.apache.thrift.protocol.TField("updateID", org.apache.thrift.protocol.TType.I64, (short)2);
+    private static final org.apache.thrift.protocol.TField KEY_EXTENT_FIELD_DESC = new org.apache.thrift.protocol.TField("keyExtent", org.apache.thrift.protocol.TType.STRUCT, (short)3);
+    private static final org.apache.thrift.protocol.TField BATCHES_FIELD_DESC = new org.apache.thrift.protocol.TField("batches", org.apache.thrift.protocol.TType.LIST, (short)4);
+
+    private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
+    static {
+      schemes.put(StandardScheme.class, new applyUpdateBatches_argsStandardSchemeFactory());
+      schemes.put(TupleScheme.class, new applyUpdateBatches_argsTupleSchemeFactory());
+    }
+
+    public org.apache.accumulo.trace.thrift.TInfo tinfo; // required
+    public long updateID; // required
+    public org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent; // required
+    public List<ByteBuffer> batches; // required
+
+    /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
+    @SuppressWarnings("all") public enum _Fields implements org.apache.thrift.TFieldIdEnum {
+      TINFO((short)1, "tinfo"),
+      UPDATE_ID((short)2, "updateID"),
+      KEY_EXTENT((short)3, "keyExtent"),
+      BATCHES((short)4, "batches");
+
+      private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
+
+      static {
+        for (_Fields field : EnumSet.allOf(_Fields.class)) {
+          byName.put(field.getFieldName(), field);
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, or null if its not found.
+       */
+      public static _Fields findByThriftId(int fieldId) {
+        switch(fieldId) {
+          case 1: // TINFO
+            return TINFO;
+          case 2: // UPDATE_ID
+            return UPDATE_ID;
+          case 3: // KEY_EXTENT
+            return KEY_EXTENT;
+          case 4: // BATCHES
+            return BATCHES;
+          default:
+            return null;
+        }
+      }
+
+      /**
+       * Find the _Fields constant that matches fieldId, throwing an exception
+       * if it is not found.
+       */
+      public static _Fields findByThriftIdOrThrow(int fieldId) {
+        _Fields fields = findByThriftId(fieldId);
+        if (fields == null) throw new IllegalArgumentException("Field " + fieldId + " doesn't exist!");
+        return fields;
+      }
+
+      /**
+       * Find the _Fields constant that matches name, or null if its not found.
+       */
+      public static _Fields findByName(String name) {
+        return byName.get(name);
+      }
+
+      private final short _thriftId;
+      private final String _fieldName;
+
+      _Fields(short thriftId, String fieldName) {
+        _thriftId = thriftId;
+        _fieldName = fieldName;
+      }
+
+      public short getThriftFieldId() {
+        return _thriftId;
+      }
+
+      public String getFieldName() {
+        return _fieldName;
+      }
+    }
+
+    // isset id assignments
+    private static final int __UPDATEID_ISSET_ID = 0;
+    private byte __isset_bitfield = 0;
+    public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
+    static {
+      Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
+      tmpMap.put(_Fields.TINFO, new org.apache.thrift.meta_data.FieldMetaData("tinfo", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, org.apache.accumulo.trace.thrift.TInfo.class)));
+      tmpMap.put(_Fields.UPDATE_ID, new org.apache.thrift.meta_data.FieldMetaData("updateID", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64          , "UpdateID")));
+      tmpMap.put(_Fields.KEY_EXTENT, new org.apache.thrift.meta_data.FieldMetaData("keyExtent", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, org.apache.accumulo.core.data.thrift.TKeyExtent.class)));
+      tmpMap.put(_Fields.BATCHES, new org.apache.thrift.meta_data.FieldMetaData("batches", org.apache.thrift.TFieldRequirementType.DEFAULT, 
+          new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
+              new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING              , true))));
+      metaDataMap = Collections.unmodifiableMap(tmpMap);
+      org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(applyUpdateBatches_args.class, metaDataMap);
+    }
+
+    public applyUpdateBatches_args() {
+    }
+
+    public applyUpdateBatches_args(
+      org.apache.accumulo.trace.thrift.TInfo tinfo,
+      long updateID,
+      org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent,
+      List<ByteBuffer> batches)
+    {
+      this();
+      this.tinfo = tinfo;
+      this.updateID = updateID;
+      setUpdateIDIsSet(true);
+      this.keyExtent = keyExtent;
+      this.batches = batches;
+    }
+
+    /**
+     * Performs a deep copy on <i>other</i>.
+     */
+    public applyUpdateBatches_args(applyUpdateBatches_args other) {
+      __isset_bitfield = other.__isset_bitfield;
+      if (other.isSetTinfo()) {
+        this.tinfo = new org.apache.accumulo.trace.thrift.TInfo(other.tinfo);
+      }
+      this.updateID = other.updateID;
+      if (other.isSetKeyExtent()) {
+        this.keyExtent = new org.apache.accumulo.core.data.thrift.TKeyExtent(other.keyExtent);
+      }
+      if (other.isSetBatches()) {
+        List<ByteBuffer> __this__batches = new ArrayList<ByteBuffer>();
+        for (ByteBuffer other_element : other.batches) {
+          ByteBuffer temp_binary_element = org.apache.thrift.TBaseHelper.copyBinary(other_element);
+;
+          __this__batches.add(temp_binary_element);
+        }
+        this.batches = __this__batches;
+      }
+    }
+
+    public applyUpdateBatches_args deepCopy() {
+      return new applyUpdateBatches_args(this);
+    }
+
+    @Override
+    public void clear() {
+      this.tinfo = null;
+      setUpdateIDIsSet(false);
+      this.updateID = 0;
+      this.keyExtent = null;
+      this.batches = null;
+    }
+
+    public org.apache.accumulo.trace.thrift.TInfo getTinfo() {
+      return this.tinfo;
+    }
+
+    public applyUpdateBatches_args setTinfo(org.apache.accumulo.trace.thrift.TInfo tinfo) {
+      this.tinfo = tinfo;
+      return this;
+    }
+
+    public void unsetTinfo() {
+      this.tinfo = null;
+    }
+
+    /** Returns true if field tinfo is set (has been assigned a value) and false otherwise */
+    public boolean isSetTinfo() {
+      return this.tinfo != null;
+    }
+
+    public void setTinfoIsSet(boolean value) {
+      if (!value) {
+        this.tinfo = null;
+      }
+    }
+
+    public long getUpdateID() {
+      return this.updateID;
+    }
+
+    public applyUpdateBatches_args setUpdateID(long updateID) {
+      this.updateID = updateID;
+      setUpdateIDIsSet(true);
+      return this;
+    }
+
+    public void unsetUpdateID() {
+      __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __UPDATEID_ISSET_ID);
+    }
+
+    /** Returns true if field updateID is set (has been assigned a value) and false otherwise */
+    public boolean isSetUpdateID() {
+      return EncodingUtils.testBit(__isset_bitfield, __UPDATEID_ISSET_ID);
+    }
+
+    public void setUpdateIDIsSet(boolean value) {
+      __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __UPDATEID_ISSET_ID, value);
+    }
+
+    public org.apache.accumulo.core.data.thrift.TKeyExtent getKeyExtent() {
+      return this.keyExtent;
+    }
+
+    public applyUpdateBatches_args setKeyExtent(org.apache.accumulo.core.data.thrift.TKeyExtent keyExtent) {
+      this.keyExtent = keyExtent;
+      return this;
+    }
+
+    public void unsetKeyExtent() {
+      this.keyExtent = null;
+    }
+
+    /** Returns true if field keyExtent is set (has been assigned a value) and false otherwise */
+    public boolean isSetKeyExtent() {
+      return this.keyExtent != null;
+    }
+
+    public void setKeyExtentIsSet(boolean value) {
+      if (!value) {
+        this.keyExtent = null;
+      }
+    }
+
+    public int getBatchesSize() {
+      return (this.batches == null) ? 0 : this.batches.size();
+    }
+
+    public java.util.Iterator<ByteBuffer> getBatchesIterator() {
+      return (this.batches == null) ? null : this.batches.iterator();
+    }
+
+    public void addToBatches(ByteBuffer elem) {
+      if (this.batches == null) {
+        this.batches = new ArrayList<ByteBuffer>();
+      }
+      this.batches.add(elem);
+    }
+
+    public List<ByteBuffer> getBatches() {
+      return this.batches;
+    }
+
+    public applyUpdateBatches_args setBatches(List<ByteBuffer> batches) {
+      this.batches = batches;
+      return this;
+    }
+
+    public void unsetBatches() {
+      this.batches = null;
+    }
+
+    /** Returns true if field batches is set (has been assigned a value) and false otherwise */
+    public boolean isSetBatches() {
+      return this.batches != null;
+    }
+
+    public void setBatchesIsSet(boolean value) {
+      if (!value) {
+        this.batches = null;
+      }
+    }
+
+    public void setFieldValue(_Fields field, Object value) {
+      switch (field) {
+      case TINFO:
+        if (value == null) {
+          unsetTinfo();
+        } else {
+          setTinfo((org.apache.accumulo.trace.thrift.TInfo)value);
+        }
+        break;
+
+      case UPDATE_ID:
+        if (value == null) {
+          unsetUpdateID();
+        } else {
+          setUpdateID((Long)value);
+        }
+        break;
+
+      case KEY_EXTENT:
+        if (value == null) {
+          unsetKeyExtent();
+        } else {
+          setKeyExtent((org.apache.accumulo.core.data.thrift.TKeyExtent)value);
+        }
+        break;
+
+      case BATCHES:
+        if (value == null) {
+          unsetBatches();
+        } else {
+          setBatches((List<ByteBuffer>)value);
+        }
+        break;
+
+      }
+    }
+
+    public Object getFieldValue(_Fields field) {
+      switch (field) {
+      case TINFO:
+        return getTinfo();
+
+      case UPDATE_ID:
+        return Long.valueOf(getUpdateID());
+
+      case KEY_EXTENT:
+        return getKeyExtent();
+
+      case BATCHES:
+        return getBatches();
+
+      }
+      throw new IllegalStateException();
+    }
+
+    /** Returns true if field corresponding to fieldID is set (has been assigned a value) and false otherwise */
+    public boolean isSet(_Fields field) {
+      if (field == null) {
+        throw new IllegalArgumentException();
+      }
+
+      switch (field) {
+      case TINFO:
+        return isSetTinfo();
+      case UPDATE_ID:
+        return isSetUpdateID();
+      case KEY_EXTENT:
+        return isSetKeyExtent();
+      case BATCHES:
+        return isSetBatches();
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      if (that == null)
+        return false;
+      if (that instanceof applyUpdateBatches_args)
+        return this.equals((applyUpdateBatches_args)that);
+      return false;
+    }
+
+    public boolean equals(applyUpdateBatches_args that) {
+      if (that == null)
+        return false;
+
+      boolean this_present_tinfo = true && this.isSetTinfo();
+      boolean that_present_tinfo = true && that.isSetTinfo();
+      if (this_present_tinfo || that_present_tinfo) {
+        if (!(this_present_tinfo && that_present_tinfo))
+          return false;
+        if (!this.tinfo.equals(that.tinfo))
+          return false;
+      }
+
+      boolean this_present_updateID = true;
+      boolean that_present_updateID = true;
+      if (this_present_updateID || that_present_updateID) {
+        if (!(this_present_updateID && that_present_updateID))
+          return false;
+        if (this.updateID != that.updateID)
+          return false;
+      }
+
+      boolean this_present_keyExtent = true && this.isSetKeyExtent();
+      boolean that_present_keyExtent = true && that.isSetKeyExtent();
+      if (this_present_keyExtent || that_present_keyExtent) {
+        if (!(this_present_keyExtent && that_present_keyExtent))
+          return false;
+        if (!this.keyExtent.equals(that.keyExtent))
+          return false;
+      }
+
+      boolean this_present_batches = true && this.isSetBatches();
+      boolean that_present_batches = true && that.isSetBatches();
+      if (this_present_batches || that_present_batches) {
+        if (!(this_present_batches && that_present_batches))
+          return false;
+        if (!this.batches.equals(that.batches))
+          return false;
+      }
+
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    public int compareTo(applyUpdateBatches_args other) {
+      if (!getClass().equals(other.getClass())) {
+        return getClass().getName().compareTo(other.getClass().getName());
+      }
+
+      int lastComparison = 0;
+      applyUpdateBatches_args typedOther = (applyUpdateBatches_args)other;
+
+      lastComparison = Boolean.valueOf(isSetTinfo()).compareTo(typedOther.isSetTinfo());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetTinfo()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.tinfo, typedOther.tinfo);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetUpdateID()).compareTo(typedOther.isSetUpdateID());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetUpdateID()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.updateID, typedOther.updateID);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetKeyExtent()).compareTo(typedOther.isSetKeyExtent());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetKeyExtent()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.keyExtent, typedOther.keyExtent);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      lastComparison = Boolean.valueOf(isSetBatches()).compareTo(typedOther.isSetBatches());
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+      if (isSetBatches()) {
+        lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.batches, typedOther.batches);
+        if (lastComparison != 0) {
+          return lastComparison;
+        }
+      }
+      return 0;
+    }
+
+    public _Fields fieldForId(int fieldId) {
+      return _Fields.findByThriftId(fieldId);
+    }
+
+    public void read(org.apache.thrift.protocol.TProtocol iprot) throws org.apache.thrift.TException {
+      schemes.get(iprot.getScheme()).getScheme().read(iprot, this);
+    }
+
+    public void write(org.apache.thrift.protocol.TProtocol oprot) throws org.apache.thrift.TException {
+      schemes.get(oprot.getScheme()).getScheme().write(oprot, this);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("applyUpdateBatches_args(");
+      boolean first = true;
+
+      sb.append("tinfo:");
+      if (this.tinfo == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.tinfo);
+      }
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("updateID:");
+      sb.append(this.updateID);
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("keyExtent:");
+      if (this.keyExtent == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.keyExtent);
+      }
+      first = false;
+      if (!first) sb.append(", ");
+      sb.append("batches:");
+      if (this.batches == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.batches);
+      }
+      first = false;
+      sb.append(")");
+      return sb.toString();
+    }
+
+    public void validate() throws org.apache.thrift.TException {
+      // check for required fields
+      // check for sub-struct validity
+      if (tinfo != null) {
+        tinfo.validate();
+      }
+      if (keyExtent != null) {
+        keyExtent.validate();
+      }
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+      try {
+        write(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(out)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+      try {
+        // it doesn't seem like you should have to do this, but java serialization is wacky, and doesn't call the default constructor.
+        __isset_bitfield = 0;
+        read(new org.apache.thrift.protocol.TCompactProtocol(new org.apache.thrift.transport.TIOStreamTransport(in)));
+      } catch (org.apache.thrift.TException te) {
+        throw new java.io.IOException(te);
+      }
+    }
+
+    private static class applyUpdateBatches_argsStandardSchemeFactory implements SchemeFactory {
+      public applyUpdateBatches_argsStandardScheme getScheme() {
+        return new applyUpdateBatches_argsStandardScheme();
+      }
+    }
+
+    private static class applyUpdateBatches_argsStandardScheme extends StandardScheme<applyUpdateBatches_args> {
+
+      public void read(org.apache.thrift.protocol.TProtocol iprot, applyUpdateBatches_args struct) throws org.apache.thrift.TException {
+        org.apache.thrift.protocol.TField schemeField;
+        iprot.readStructBegin();
+        while (true)
+        {
+          schemeField = iprot.readFieldBegin();
+          if (schemeField.type == org.apache.thrift.protocol.TType.STOP) { 
+            break;
+          }
+          switch (schemeField.id) {
+            case 1: // TINFO
+              if (schemeField.type == org.apache.thrift.protocol.TType.STRUCT) {
+                struct.tinfo = new org.apache.accumulo.trace.thrift.TInfo();
+                struct.tinfo.read(iprot);
+                struct.setTinfoIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
+            case 2: // UPDATE_ID
+              if (schemeField.type == org.apache.thrift.protocol.TType.I64) {
+                struct.updateID = iprot.readI64();
+                struct.setUpdateIDIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
+            case 3: // KEY_EXTENT
+              if (schemeField.type == org.apache.thrift.protocol.TType.STRUCT) {
+                struct.keyExtent = new org.apache.accumulo.core.data.thrift.TKeyExtent();
+                struct.keyExtent.read(iprot);
+                struct.setKeyExtentIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
+            case 4: // BATCHES
+              if (schemeField.type == org.apache.thrift.protocol.TType.LIST) {
+                {
+                  org.apache.thrift.protocol.TList _list323 = iprot.readListBegin();
+                  struct.batches = new ArrayList<ByteBuffer>(_list323.size);
+                  for (int _i324 = 0; _i324 < _list323.size; ++_i324)
+                  {
+                    ByteBuffer _elem325; // required
+                    _elem325 = iprot.readBinary();
+                    struct.batches.add(_elem325);
+                  }
+                  iprot.readListEnd();
+                }
+                struct.setBatchesIsSet(true);
+              } else { 
+                org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+              }
+              break;
+            default:
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+          }
+          iprot.readFieldEnd();
+        }
+        iprot.readStructEnd();
+
+        // check for required fields of primitive type, which can't be checked in the validate method
+        struct.validate();
+      }
+
+      public void write(org.apache.thrift.protocol.TProtocol oprot, applyUpdateBatches_args struct) throws org.apache.thrift.TException {
+        struct.validate();
+
+        oprot.writeStructBegin(STRUCT_DESC);
+        if (struct.tinfo != null) {
+          oprot.writeFieldBegin(TINFO_FIELD_DESC);
+          struct.tinfo.write(oprot);
+          oprot.writeFieldEnd();
+        }
+        oprot.writeFieldBegin(UPDATE_ID_FIELD_DESC);
+        oprot.writeI64(struct.updateID);
+        oprot.writeFieldEnd();
+        if (struct.keyExtent != null) {
+          oprot.writeFieldBegin(KEY_EXTENT_FIELD_DESC);
+          struct.keyExtent.write(oprot);
+          oprot.writeFieldEnd();
+        }
+        if (struct.batches != null) {
+          oprot.writeFieldBegin(BATCHES_FIELD_DESC);
+          {
+            oprot.writeListBegin(new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRING, struct.batches.size()));
+            for (ByteBuffer _iter326 : struct.batches)
+            {
+              oprot.writeBinary(_iter326);
+            }
+            oprot.writeListEnd();
+          }
+          oprot.writeFieldEnd();
+        }
+        oprot.writeFieldStop();
+        oprot.writeStructEnd();
+      }
+
+    }
+
+    private static class applyUpdateBatches_argsTupleSchemeFactory implements SchemeFactory {
+      public applyUpdateBatches_argsTupleScheme getScheme() {
+        return new applyUpdateBatches_argsTupleScheme();
+      }
+    }
+
+    private static class applyUpdateBatches_argsTupleScheme extends TupleScheme<applyUpdateBatches_args> {
+
+      @Override
+      public void write(org.apache.thrift.protocol.TProtocol prot, applyUpdateBatches_args struct) throws org.apache.thrift.TException {
+        TTupleProtocol oprot = (TTupleProtocol) prot;
+        BitSet optionals = new BitSet();
+        if (struct.isSetTinfo()) {
+          optionals.set(0);
+        }
+        if (struct.isSetUpdateID()) {
+          optionals.set(1);
+        }
+        if (struct.isSetKeyExtent()) {
+          optionals.set(2);
+        }
+        if (struct.isSetBatches()) {
+          optionals.set(3);
+        }
+        oprot.writeBitSet(optionals, 4);
+        if (struct.isSetTinfo()) {
+          struct.tinfo.write(oprot);
+        }
+        if (struct.isSetUpdateID()) {
+          oprot.writeI64(struct.updateID);
+        }
+        if (struct.isSetKeyExtent()) {
+          struct.keyExtent.write(oprot);
+        }
+        if (struct.isSetBatches()) {
+          {
+            oprot.writeI32(struct.batches.size());
+            for (ByteBuffer _iter327 : struct.batches)
+            {
+              oprot.writeBinary(_iter327);
+            }
+          }
+        }
+      }
+
+      @Override
+      public void read(org.apache.thrift.protocol.TProtocol prot, applyUpdateBatches_args struct) throws org.apache.thrift.TException {
+        TTupleProtocol iprot = (TTupleProtocol) prot;
+        BitSet incoming = iprot.readBitSet(4);
+        if (incoming.get(0)) {
+          struct.tinfo = new org.apache.accumulo.trace.thrift.TInfo();
+          struct.tinfo.read(iprot);
+          struct.setTinfoIsSet(true);
+        }
+        if (incoming.get(1)) {
+          struct.updateID = iprot.readI64();
+          struct.setUpdateIDIsSet(true);
+        }
+        if (incoming.get(2)) {
+          struct.keyExtent = new org.apache.accumulo.core.data.thrift.TKeyExtent();
+          struct.keyExtent.read(iprot);
+          struct.setKeyExtentIsSet(true);
+        }
+        if (incoming.get(3)) {
+          {
+            org.apache.thrift.protocol.TList _list328 = new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRING, iprot.readI32());
+            struct.batches = new ArrayList<ByteBuffer>(_list328.size);
+            for (int _i329 = 0; _i329 < _list328.size; ++_i329)
+            {
+              ByteBuffer _elem330; // required
+              _elem330 = iprot.readBinary();
+              struct.batches.add(_elem330);
+            }
+          }
+          struct.setBatchesIsSet(true);
+        }
+      }
+    }
+
+  }
+
   public static class closeUpdate_args implements org.apache.thrift.TBase<closeUpdate_args, closeUpdate_args._Fields>, java.io.Serializable, Cloneable   {
     private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("closeUpdate_args");
 
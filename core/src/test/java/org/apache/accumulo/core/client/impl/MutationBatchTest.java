@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.junit.Test;
+
+public class MutationBatchTest {
+
+  private static List<Mutation> mutations() {
+    List<Mutation> mutations = new ArrayList<Mutation>();
+    for (int i = 0; i < 100; i++) {
+      Mutation m = new Mutation(String.format("row%04d", i));
+      m.put("cf", "cq" + i, new Value(("value" + i).getBytes()));
+      m.put("cf", "cq", new ColumnVisibility("A&B"), 42L, new Value(new byte[i * 100]));
+      if (i % 10 == 0)
+        m.putDelete("cf", "deleted");
+      mutations.add(m);
+    }
+    return mutations;
+  }
+
+  private static List<Mutation> decode(ByteBuffer batch) throws Exception {
+    List<Mutation> result = new ArrayList<Mutation>();
+    MutationBatch.Reader reader = new MutationBatch.Reader(batch);
+    while (reader.hasNext()) {
+      Mutation m = new Mutation();
+      m.readFields(reader.next());
+      result.add(m);
+    }
+    reader.close();
+    return result;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    List<Mutation> mutations = mutations();
+    ByteBuffer plain = MutationBatch.encode(mutations, false);
+    ByteBuffer compressed = MutationBatch.encode(mutations, true);
+    assertTrue(compressed.remaining() < plain.remaining());
+    assertEquals(mutations, decode(plain));
+    assertEquals(mutations, decode(compressed));
+  }
+
+  @Test
+  public void testOffsetBuffer() throws Exception {
+    // thrift may hand the server a buffer that is a slice of a larger one
+    List<Mutation> mutations = mutations().subList(0, 3);
+    ByteBuffer batch = MutationBatch.encode(mutations, true);
+    int length = batch.remaining();
+    ByteBuffer larger = ByteBuffer.allocate(length + 20);
+    larger.position(7);
+    larger.put(batch);
+    larger.position(7);
+    larger.limit(7 + length);
+    assertEquals(mutations, decode(larger.slice()));
+    assertEquals(mutations, decode(larger));
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    MutationBatch.Reader reader = new MutationBatch.Reader(MutationBatch.encode(Collections.<Mutation> emptyList(), false));
+    assertFalse(reader.hasNext());
+    reader.close();
+  }
+}
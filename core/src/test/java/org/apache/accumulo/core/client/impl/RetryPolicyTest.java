@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.impl.RetryPolicy.Cause;
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+  @Test
+  public void testBackoff() {
+    RetryPolicy.Retry retry = new RetryPolicy().newRetry();
+    long backoff = RetryPolicy.INITIAL_WAIT;
+    for (int i = 0; i < 20; i++) {
+      long wait = retry.startRetry(Cause.LOCATE_FAILED);
+      assertTrue(wait + " " + backoff, wait >= backoff / 2 && wait <= backoff);
+      backoff = Math.min(backoff * 2, RetryPolicy.MAX_WAIT);
+    }
+    assertEquals(20, retry.getAttempts());
+
+    retry.reset();
+    assertTrue(retry.nextWait() <= RetryPolicy.INITIAL_WAIT);
+  }
+
+  @Test
+  public void testCountedByCause() {
+    RetryPolicy policy = new RetryPolicy();
+    RetryPolicy.Retry retry = policy.newRetry();
+    retry.startRetry(Cause.LOCATE_FAILED);
+    retry.startRetry(Cause.LOCATE_FAILED);
+    policy.newRetry("1").startRetry(Cause.SERVER_ERROR);
+    assertEquals(2, policy.getRetries(Cause.LOCATE_FAILED));
+    assertEquals(1, policy.getRetries(Cause.SERVER_ERROR));
+    assertEquals(0, policy.getRetries(Cause.NOT_SERVING_TABLET));
+    assertEquals(0, policy.getRetries(Cause.TOO_MANY_FILES));
+  }
+
+  @Test
+  public void testInterrupted() {
+    RetryPolicy.Retry retry = new RetryPolicy().newRetry();
+    Thread.currentThread().interrupt();
+    try {
+      retry.waitForRetry(Cause.SERVER_ERROR);
+      fail();
+    } catch (RuntimeException e) {
+      assertTrue(e.getCause() instanceof InterruptedException);
+    } finally {
+      // clear the interrupt for the tests after this one
+      assertTrue(Thread.interrupted());
+    }
+  }
+
+  @Test(timeout = 20000)
+  public void testWokenByLocation() throws Exception {
+    RetryPolicy policy = new RetryPolicy();
+    RetryPolicy.TableLocations locations = policy.getLocations("1");
+    long learned = locations.getLearned();
+    long start = System.currentTimeMillis();
+    assertTrue(waitForLocation(policy, "1", "1"));
+    assertTrue(System.currentTimeMillis() - start < RetryPolicy.MAX_WAIT / 2);
+    assertEquals(learned + 1, locations.getLearned());
+  }
+
+  @Test(timeout = 20000)
+  public void testNotWokenByOtherTable() throws Exception {
+    RetryPolicy policy = new RetryPolicy();
+    RetryPolicy.TableLocations locations = policy.getLocations("1");
+    assertFalse(waitForLocation(policy, "1", "2"));
+    assertEquals(0, locations.getLearned());
+  }
+
+  @Test
+  public void testUnboundRetry() {
+    RetryPolicy policy = new RetryPolicy();
+    RetryPolicy.Retry retry = policy.newRetry();
+    long start = System.currentTimeMillis();
+    retry.waitForRetry(Cause.SERVER_ERROR);
+    assertTrue(System.currentTimeMillis() - start >= RetryPolicy.INITIAL_WAIT / 2);
+    assertEquals(1, retry.getAttempts());
+  }
+
+  /**
+   * @return true if a retry on one table ended before its backoff when a location of the other table was learned
+   */
+  private static boolean waitForLocation(RetryPolicy policy, String waitingTable, String learnedTable) throws Exception {
+    final RetryPolicy.Retry retry = policy.newRetry(waitingTable);
+    // back off long enough that only a location being learned ends the wait in time
+    for (int i = 0; i < 20; i++)
+      retry.startRetry(Cause.LOCATE_FAILED);
+
+    final CountDownLatch waited = new CountDownLatch(1);
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        retry.waitForRetry(Cause.LOCATE_FAILED);
+        waited.countDown();
+      }
+    };
+    waiter.start();
+    Thread.sleep(100);
+    policy.locationLearned(learnedTable);
+    boolean woken = waited.await(RetryPolicy.MAX_WAIT / 4, TimeUnit.MILLISECONDS);
+    waiter.join();
+    return woken;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ScanBatchSizerTest {
+
+  private static final long MS = 1000000;
+
+  @Test
+  public void testGrowsForWaitingConsumer() {
+    ScanBatchSizer sizer = new ScanBatchSizer(1000, 1 << 30, true);
+    for (int i = 0; i < 3; i++) {
+      sizer.fetched(sizer.getBatchSize(), sizer.getBatchSize() * 100L, 10 * MS);
+      sizer.consumed(MS);
+      assertTrue(sizer.isConsumerWaiting());
+    }
+    assertEquals(8000, sizer.getBatchSize());
+
+    for (int i = 0; i < 10; i++) {
+      sizer.fetched(sizer.getBatchSize(), sizer.getBatchSize() * 100L, 10 * MS);
+      sizer.consumed(MS);
+    }
+    assertEquals(1000 * ScanBatchSizer.MAX_MULTIPLIER, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testLimitedByBytes() {
+    // entries of 1000 bytes, so no more than 2000 fit
+    ScanBatchSizer sizer = new ScanBatchSizer(1000, 2000 * 1000, true);
+    for (int i = 0; i < 5; i++) {
+      sizer.fetched(sizer.getBatchSize(), sizer.getBatchSize() * 1000L, 10 * MS);
+      sizer.consumed(MS);
+    }
+    assertEquals(2000, sizer.getBatchSize());
+    assertEquals(1000, sizer.getAverageEntrySize());
+  }
+
+  @Test
+  public void testShrinksForSlowConsumer() {
+    ScanBatchSizer sizer = new ScanBatchSizer(1000, 1 << 30, true);
+    sizer.fetched(1000, 100000, MS);
+    sizer.consumed(100 * MS);
+    assertFalse(sizer.isConsumerWaiting());
+    assertEquals(500, sizer.getBatchSize());
+
+    // somewhat slower than fetching is left alone
+    sizer.fetched(500, 50000, MS);
+    sizer.consumed(2 * MS);
+    assertEquals(500, sizer.getBatchSize());
+
+    for (int i = 0; i < 10; i++) {
+      sizer.fetched(sizer.getBatchSize(), 100, MS);
+      sizer.consumed(100 * MS);
+    }
+    assertEquals(1000 / ScanBatchSizer.MIN_DIVISOR, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testFixed() {
+    ScanBatchSizer sizer = new ScanBatchSizer(1000, 1 << 30, false);
+    sizer.fetched(1000, 100000, 10 * MS);
+    sizer.consumed(MS);
+    assertTrue(sizer.isConsumerWaiting());
+    assertEquals(1000, sizer.getBatchSize());
+    sizer.fetched(1000, 100000, MS);
+    sizer.consumed(100 * MS);
+    assertEquals(1000, sizer.getBatchSize());
+
+    assertEquals(2, sizer.getBatches());
+    assertEquals(2000, sizer.getEntries());
+    assertEquals(200000, sizer.getBytes());
+    assertEquals(11 * MS, sizer.getFetchNanos());
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.thrift.TKeyValue;
+import org.junit.Test;
+
+public class ScanResultBufferTest {
+
+  private static List<TKeyValue> batch(int entries, int valueSize) {
+    List<TKeyValue> batch = new ArrayList<TKeyValue>();
+    for (int i = 0; i < entries; i++)
+      batch.add(new TKeyValue(new Key("row" + i, "cf", "cq").toThrift(), ByteBuffer.wrap(new byte[valueSize])));
+    return batch;
+  }
+
+  @Test
+  public void testSize() {
+    // 4 bytes of row, 2 of family, 2 of qualifier
+    assertEquals(2 * (ScanResultBuffer.ENTRY_OVERHEAD + 8 + 100), ScanResultBuffer.size(batch(2, 100)));
+  }
+
+  @Test
+  public void testTakeInOrder() throws Exception {
+    ScanResultBuffer buffer = new ScanResultBuffer(1 << 20);
+    List<TKeyValue> batch1 = batch(1, 10);
+    List<TKeyValue> batch2 = batch(2, 10);
+    buffer.put(batch1);
+    buffer.put(batch2);
+    assertSame(batch1, buffer.take(1, TimeUnit.SECONDS));
+    assertSame(batch2, buffer.take(1, TimeUnit.SECONDS));
+    assertNull(buffer.take(10, TimeUnit.MILLISECONDS));
+    assertFalse(buffer.isDone());
+
+    buffer.finish();
+    assertNull(buffer.take(1, TimeUnit.SECONDS));
+    assertTrue(buffer.isDone());
+  }
+
+  @Test
+  public void testFinishKeepsBuffered() throws Exception {
+    ScanResultBuffer buffer = new ScanResultBuffer(1 << 20);
+    List<TKeyValue> batch1 = batch(1, 10);
+    buffer.put(batch1);
+    buffer.finish();
+    assertFalse(buffer.isDone());
+    assertSame(batch1, buffer.take(1, TimeUnit.SECONDS));
+    assertTrue(buffer.isDone());
+
+    // dropped
+    buffer.put(batch(1, 10));
+    assertNull(buffer.take(1, TimeUnit.SECONDS));
+  }
+
+  @Test(timeout = 20000)
+  public void testBackpressure() throws Exception {
+    final List<TKeyValue> large = batch(10, 1000);
+    final ScanResultBuffer buffer = new ScanResultBuffer(ScanResultBuffer.size(large) + 1);
+
+    // a batch larger than the buffer is still accepted when the buffer is empty
+    buffer.put(batch(20, 1000));
+
+    final CountDownLatch added = new CountDownLatch(1);
+    final AtomicReference<Exception> error = new AtomicReference<Exception>();
+    Thread producer = new Thread() {
+      @Override
+      public void run() {
+        try {
+          buffer.put(large);
+          added.countDown();
+        } catch (Exception e) {
+          error.set(e);
+        }
+      }
+    };
+    producer.start();
+
+    assertFalse(added.await(200, TimeUnit.MILLISECONDS));
+
+    // taking the first batch does not make room, it is counted until the next take
+    assertEquals(20, buffer.take(1, TimeUnit.SECONDS).size());
+    assertFalse(added.await(200, TimeUnit.MILLISECONDS));
+
+    assertSame(large, buffer.take(5, TimeUnit.SECONDS));
+    assertTrue(added.await(5, TimeUnit.SECONDS));
+    producer.join();
+    assertNull(error.get());
+  }
+
+  @Test(timeout = 20000)
+  public void testFinishReleasesProducers() throws Exception {
+    final ScanResultBuffer buffer = new ScanResultBuffer(1);
+    buffer.put(batch(1, 10));
+
+    Thread producer = new Thread() {
+      @Override
+      public void run() {
+        try {
+          buffer.put(batch(1, 10));
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    producer.start();
+    Thread.sleep(100);
+    assertTrue(producer.isAlive());
+    buffer.finish();
+    producer.join();
+    assertTrue(buffer.isFinished());
+    assertFalse(buffer.put(batch(1, 10)));
+  }
+}
@@ -19,6 +19,10 @@ package org.apache.accumulo.core.client.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.iterators.DebugIterator;
 import org.apache.accumulo.core.iterators.user.WholeRowIterator;
@@ -54,4 +58,24 @@ public class ScannerOptionsTest {
       fail();
     } catch (IllegalArgumentException e) {}
   }
+  
+  @Test
+  public void testExecutionHints() {
+    ScannerOptions options = new ScannerOptions();
+    assertEquals(Collections.emptyMap(), options.getExecutionHints());
+    
+    Map<String,String> hints = new HashMap<String,String>();
+    hints.put("executor", "interactive");
+    options.setExecutionHints(hints);
+    hints.put("cache", "false");
+    assertEquals(Collections.singletonMap("executor", "interactive"), options.getExecutionHints());
+    
+    ScannerOptions copy = new ScannerOptions(options);
+    assertEquals(Collections.singletonMap("executor", "interactive"), copy.getExecutionHints());
+    
+    try {
+      options.getExecutionHints().put("cache", "false");
+      fail();
+    } catch (UnsupportedOperationException e) {}
+  }
 }
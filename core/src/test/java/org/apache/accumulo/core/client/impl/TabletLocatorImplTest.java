@@ -28,6 +28,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import junit.framework.TestCase;
 
@@ -1435,4 +1436,109 @@ public class TabletLocatorImplTest extends TestCase {
     runTest(null, ranges, metaCache, expected);
   }
 
+
+  public void testCacheCounters() throws Exception {
+    KeyExtent ke1 = nke("foo", "n", null);
+    KeyExtent ke2 = nke("foo", null, "n");
+    TServers tservers = new TServers();
+    TabletLocatorImpl metaCache = createLocators(tservers, "tserver1", "tserver2", "foo", ke1, "l1", ke2, "l2");
+
+    // a location read from the metadata table is a miss, and not also a hit
+    assertNotNull(metaCache.locateTablet(credentials, new Text("a"), false, false));
+    assertEquals(0, metaCache.getCacheHits());
+    assertEquals(1, metaCache.getCacheMisses());
+    assertNotNull(metaCache.locateTablet(credentials, new Text("b"), false, false));
+    assertEquals(1, metaCache.getCacheHits());
+    assertEquals(1, metaCache.getCacheMisses());
+
+    List<Mutation> ml = nml(nm("a", "cf1:cq1=v1"), nm("m", "cf1:cq1=v2"), nm("z", "cf1:cq1=v3"));
+    Map<String,Map<KeyExtent,List<String>>> emb = cemb(nol("a", "l1", ke1), nol("m", "l1", ke1), nol("z", "l2", ke2));
+    runTest(metaCache, ml, emb);
+
+    long lookups = metaCache.getMetadataLookups();
+    assertTrue(lookups > 0);
+    assertTrue(metaCache.getCacheMisses() > 0);
+
+    // every location is cached now
+    long hits = metaCache.getCacheHits();
+    runTest(metaCache, ml, emb);
+    assertEquals(hits + 3, metaCache.getCacheHits());
+    assertEquals(lookups, metaCache.getMetadataLookups());
+
+    metaCache.invalidateCache(ke2);
+    runTest(metaCache, ml, emb);
+    assertTrue(metaCache.getMetadataLookups() > lookups);
+  }
+
+  public void testInterruptedLocate() throws Exception {
+    // no tablets of the table are in the metadata table, so the locator retries until it is interrupted
+    TServers tservers = new TServers();
+    TestTabletLocationObtainer ttlo = new TestTabletLocationObtainer(tservers);
+    TabletLocatorImpl rootTabletCache = new TabletLocatorImpl(new Text(MetadataTable.ID), new TestRootTabletLocator(new TestInstance("instance1", "tserver1")),
+        ttlo, new YesLockChecker());
+    RetryPolicy retryPolicy = new RetryPolicy();
+    final TabletLocatorImpl metaCache = new TabletLocatorImpl(new Text("foo"), rootTabletCache, ttlo, new YesLockChecker(), retryPolicy);
+    setLocation(tservers, "tserver1", RTE, MTE, "tserver2");
+
+    final AtomicReference<Throwable> thrown = new AtomicReference<Throwable>();
+    Thread locator = new Thread() {
+      @Override
+      public void run() {
+        try {
+          metaCache.locateTablet(credentials, new Text("a"), false, true);
+        } catch (Throwable t) {
+          thrown.set(t);
+        }
+      }
+    };
+    locator.start();
+    while (retryPolicy.getRetries(RetryPolicy.Cause.LOCATE_FAILED) == 0)
+      Thread.sleep(10);
+
+    locator.interrupt();
+    locator.join(10000);
+    assertFalse(locator.isAlive());
+    assertTrue(thrown.get() instanceof RuntimeException);
+    assertTrue(thrown.get().getCause() instanceof InterruptedException);
+    // it stopped retrying instead of spinning without waiting
+    assertTrue(retryPolicy.getRetries(RetryPolicy.Cause.LOCATE_FAILED) < 10);
+  }
+
+  public void testConcurrentBinning() throws Exception {
+    final KeyExtent ke1 = nke("foo", "g", null);
+    final KeyExtent ke2 = nke("foo", "r", "g");
+    final KeyExtent ke3 = nke("foo", null, "r");
+    TServers tservers = new TServers();
+    final TabletLocatorImpl metaCache = createLocators(tservers, "tserver1", "tserver2", "foo", ke1, "l1", ke2, "l2", ke3, "l3");
+
+    final List<Mutation> ml = nml(nm("a", "cf1:cq1=v1"), nm("h", "cf1:cq1=v2"), nm("s", "cf1:cq1=v3"), nm("z", "cf1:cq1=v4"));
+    final Map<String,Map<KeyExtent,List<String>>> emb = cemb(nol("a", "l1", ke1), nol("h", "l2", ke2), nol("s", "l3", ke3), nol("z", "l3", ke3));
+
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < 8; t++) {
+      final boolean invalidate = t == 0;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < 200; i++) {
+              if (invalidate)
+                metaCache.invalidateCache(i % 2 == 0 ? ke2 : ke3);
+              runTest(metaCache, ml, emb);
+            }
+          } catch (Throwable e) {
+            errors.add(e);
+          }
+        }
+      });
+    }
+    for (Thread thread : threads)
+      thread.start();
+    for (Thread thread : threads)
+      thread.join();
+
+    assertEquals(errors.toString(), 0, errors.size());
+  }
+
 }
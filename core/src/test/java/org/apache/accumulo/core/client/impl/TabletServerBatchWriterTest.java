@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Instance;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.TimedOutException;
+import org.apache.accumulo.core.client.mock.MockInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.thrift.TConstraintViolationSummary;
+import org.apache.accumulo.core.data.thrift.TKeyExtent;
+import org.apache.accumulo.core.data.thrift.TMutation;
+import org.apache.accumulo.core.data.thrift.UpdateErrors;
+import org.apache.accumulo.core.security.Credentials;
+import org.apache.accumulo.core.tabletserver.thrift.TabletClientService;
+import org.apache.accumulo.core.util.ThriftUtil;
+import org.apache.accumulo.core.util.UtilWaitThread;
+import org.apache.hadoop.io.Text;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.server.TThreadPoolServer;
+import org.apache.thrift.transport.TServerSocket;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs a batch writer against a tablet server that only records what it is sent, to check the writer when several threads send to one server at once.
+ */
+public class TabletServerBatchWriterTest {
+  
+  private static final int TABLETS = 10;
+  
+  /**
+   * Records the rows of the mutations it is sent, by update session.
+   */
+  private static class RecordingTabletServer implements InvocationHandler {
+    final AtomicLong sessionIds = new AtomicLong();
+    final Map<Long,List<String>> sessions = new ConcurrentHashMap<Long,List<String>>();
+    final List<String> written = Collections.synchronizedList(new ArrayList<String>());
+    final AtomicInteger activeSessions = new AtomicInteger();
+    final AtomicInteger maxActiveSessions = new AtomicInteger();
+    // held until two sessions are active, so the first send is still running when the second starts
+    final CountDownLatch overlap = new CountDownLatch(2);
+    volatile boolean violateConstraints = false;
+    volatile long startDelay = 0;
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if (name.equals("startUpdate")) {
+        UtilWaitThread.sleep(startDelay);
+        long id = sessionIds.incrementAndGet();
+        sessions.put(id, Collections.synchronizedList(new ArrayList<String>()));
+        int active = activeSessions.incrementAndGet();
+        synchronized (maxActiveSessions) {
+          maxActiveSessions.set(Math.max(maxActiveSessions.get(), active));
+        }
+        overlap.countDown();
+        overlap.await(10, TimeUnit.SECONDS);
+        return id;
+      } else if (name.equals("applyUpdateBatches")) {
+        @SuppressWarnings("unchecked")
+        List<ByteBuffer> batches = (List<ByteBuffer>) args[3];
+        for (ByteBuffer batch : batches) {
+          MutationBatch.Reader reader = new MutationBatch.Reader(batch);
+          while (reader.hasNext()) {
+            Mutation m = new Mutation();
+            m.readFields(reader.next());
+            sessions.get(args[1]).add(new String(m.getRow()));
+          }
+          reader.close();
+        }
+        return null;
+      } else if (name.equals("applyUpdates")) {
+        @SuppressWarnings("unchecked")
+        List<TMutation> mutations = (List<TMutation>) args[3];
+        for (TMutation m : mutations)
+          sessions.get(args[1]).add(new String(new Mutation(m).getRow()));
+        return null;
+      } else if (name.equals("update")) {
+        written.add(new String(new Mutation((TMutation) args[3]).getRow()));
+        return null;
+      } else if (name.equals("closeUpdate")) {
+        activeSessions.decrementAndGet();
+        written.addAll(sessions.remove(args[1]));
+        List<TConstraintViolationSummary> violations = new ArrayList<TConstraintViolationSummary>();
+        if (violateConstraints)
+          violations.add(new TConstraintViolationSummary("TestConstraint", (short) 1, "always violated", 1));
+        return new UpdateErrors(new HashMap<TKeyExtent,Long>(), violations, new HashMap<TKeyExtent,org.apache.accumulo.core.client.impl.thrift.SecurityErrorCode>());
+      }
+      throw new UnsupportedOperationException(name);
+    }
+  }
+  
+  /**
+   * Puts the row "t3/7" in the third tablet, all on one tablet server.
+   */
+  private static class TestTabletLocator extends TabletLocator {
+    private final String tableId;
+    private final String location;
+    
+    TestTabletLocator(String tableId, String location) {
+      this.tableId = tableId;
+      this.location = location;
+    }
+    
+    KeyExtent extent(int tablet) {
+      return new KeyExtent(new Text(tableId), new Text("t" + tablet), tablet == 0 ? null : new Text("t" + (tablet - 1)));
+    }
+    
+    @Override
+    public <T extends Mutation> void binMutations(Credentials credentials, List<T> mutations, Map<String,TabletServerMutations<T>> binnedMutations,
+        List<T> failures) {
+      TabletServerMutations<T> tsm = binnedMutations.get(location);
+      if (tsm == null) {
+        tsm = new TabletServerMutations<T>("1");
+        binnedMutations.put(location, tsm);
+      }
+      for (T m : mutations) {
+        String row = new String(m.getRow());
+        tsm.addMutation(extent(Integer.parseInt(row.substring(1, row.indexOf('/')))), m);
+      }
+    }
+    
+    @Override
+    public TabletLocation locateTablet(Credentials credentials, Text row, boolean skipRow, boolean retry) {
+      throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public List<Range> binRanges(Credentials credentials, List<Range> ranges, Map<String,Map<KeyExtent,List<Range>>> binnedRanges) {
+      throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public void invalidateCache(KeyExtent failedExtent) {}
+    
+    @Override
+    public void invalidateCache(Collection<KeyExtent> keySet) {}
+    
+    @Override
+    public void invalidateCache() {}
+    
+    @Override
+    public void invalidateCache(String server) {}
+  }
+  
+  private Instance instance = new MockInstance(getClass().getSimpleName());
+  private Credentials credentials = new Credentials("root", new PasswordToken(""));
+  private RecordingTabletServer tserver;
+  private TServer server;
+  private String location;
+  
+  @Before
+  public void startTabletServer() throws Exception {
+    tserver = new RecordingTabletServer();
+    TabletClientService.Iface iface = (TabletClientService.Iface) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {TabletClientService.Iface.class}, tserver);
+    
+    TServerSocket serverTransport = new TServerSocket(0);
+    serverTransport.listen();
+    location = "localhost:" + serverTransport.getServerSocket().getLocalPort();
+    TThreadPoolServer.Args args = new TThreadPoolServer.Args(serverTransport);
+    args.stopTimeoutVal = 10;
+    args.stopTimeoutUnit = TimeUnit.MILLISECONDS;
+    args.processor(new TabletClientService.Processor<TabletClientService.Iface>(iface));
+    args.transportFactory(ThriftUtil.transportFactory());
+    args.protocolFactory(ThriftUtil.protocolFactory());
+    server = new TThreadPoolServer(args);
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        server.serve();
+      }
+    };
+    thread.setDaemon(true);
+    thread.start();
+    while (!server.isServing()) {
+      UtilWaitThread.sleep(10);
+    }
+  }
+  
+  @After
+  public void stopTabletServer() {
+    server.stop();
+  }
+  
+  private TabletServerBatchWriter createWriter(String tableId, BatchWriterConfig config) {
+    TabletLocator.setLocator(instance, new Text(tableId), new TestTabletLocator(tableId, location));
+    return new TabletServerBatchWriter(instance, credentials, config.setMaxMemory(10 * 1024 * 1024).setMaxLatency(20, TimeUnit.MILLISECONDS));
+  }
+  
+  private static List<String> addMutations(TabletServerBatchWriter writer, String tableId, int firstTablet, int lastTablet) throws Exception {
+    List<String> rows = new ArrayList<String>();
+    for (int tablet = firstTablet; tablet <= lastTablet; tablet++) {
+      for (int i = 0; i < 100; i++) {
+        Mutation m = new Mutation("t" + tablet + "/" + i);
+        m.put("cf", "cq", "v");
+        writer.addMutation(tableId, m);
+        rows.add("t" + tablet + "/" + i);
+      }
+    }
+    return rows;
+  }
+  
+  private void waitForSessions(int count) {
+    while (tserver.sessionIds.get() < count)
+      UtilWaitThread.sleep(5);
+  }
+  
+  @Test
+  public void testConcurrentSends() throws Exception {
+    TabletServerBatchWriter writer = createWriter("bw1", new BatchWriterConfig());
+    
+    List<String> expected = addMutations(writer, "bw1", 0, TABLETS / 2 - 1);
+    // while the first thread is sending, mutations for other tablets go to a second thread
+    waitForSessions(1);
+    expected.addAll(addMutations(writer, "bw1", TABLETS / 2, TABLETS - 1));
+    writer.close();
+    
+    assertTrue("sends did not overlap", tserver.maxActiveSessions.get() >= 2);
+    
+    // every mutation was written once
+    List<String> written = new ArrayList<String>(tserver.written);
+    Collections.sort(written);
+    Collections.sort(expected);
+    assertEquals(expected, written);
+    assertEquals(new HashSet<String>(expected).size(), written.size());
+  }
+  
+  @Test
+  public void testConcurrentSendsFail() throws Exception {
+    tserver.violateConstraints = true;
+    TabletServerBatchWriter writer = createWriter("bw2", new BatchWriterConfig());
+    
+    addMutations(writer, "bw2", 0, TABLETS / 2 - 1);
+    waitForSessions(1);
+    addMutations(writer, "bw2", TABLETS / 2, TABLETS - 1);
+    try {
+      writer.close();
+      fail("constraint violations were not reported");
+    } catch (MutationsRejectedException e) {
+      // close reports the first failure it sees, the other send may not have finished yet
+      assertEquals(1, e.getConstraintViolationSummaries().size());
+      assertTrue(e.getConstraintViolationSummaries().get(0).getNumberOfViolatingMutations() >= 1);
+    }
+  }
+  
+  @Test
+  public void testConcurrentSendsTimeOut() throws Exception {
+    // longer than the writer waits for a response
+    tserver.startDelay = 2000;
+    TabletServerBatchWriter writer = createWriter("bw3", new BatchWriterConfig().setTimeout(500, TimeUnit.MILLISECONDS));
+    
+    addMutations(writer, "bw3", 0, TABLETS / 2 - 1);
+    UtilWaitThread.sleep(100);
+    addMutations(writer, "bw3", TABLETS / 2, TABLETS - 1);
+    try {
+      writer.close();
+      fail("sends did not time out");
+    } catch (MutationsRejectedException e) {
+      assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof TimedOutException);
+    }
+  }
+}
@@ -16,6 +16,9 @@
  */
 package org.apache.accumulo.core.file;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -33,7 +36,9 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.cache.LruBlockCache;
 import org.apache.accumulo.core.file.keyfunctor.ColumnFamilyFunctor;
+import org.apache.accumulo.core.file.keyfunctor.RowFunctor;
 import org.apache.accumulo.core.file.rfile.RFile;
 import org.apache.accumulo.core.util.CachedConfiguration;
 import org.apache.hadoop.conf.Configuration;
@@ -135,6 +140,73 @@ public class BloomFilterLayerLookupTest {
     assertTrue(rate1 > rate2);
   }
 
+  @Test
+  public void testStats() throws IOException {
+    ConfigurationCopy acuconf = new ConfigurationCopy(AccumuloConfiguration.getDefaultConfiguration());
+    acuconf.set(Property.TABLE_BLOOM_ENABLED, "true");
+    acuconf.set(Property.TABLE_BLOOM_KEY_FUNCTOR, RowFunctor.class.getName());
+    acuconf.set(Property.TABLE_BLOOM_SIZE, "1000");
+    acuconf.set(Property.TABLE_FILE_TYPE, RFile.EXTENSION);
+    // would delay loading the filter of any file but an rfile
+    acuconf.set(Property.TABLE_BLOOM_LOAD_THRESHOLD, "100");
+    acuconf.set(Property.TSERV_BLOOM_LOAD_MAXCONCURRENT, "1");
+
+    Configuration conf = CachedConfiguration.getInstance();
+    FileSystem fs = FileSystem.get(conf);
+
+    String fname = new File(tempDir.getRoot(), testName.getMethodName() + "." + FileOperations.getNewFileExtension(acuconf)).getAbsolutePath();
+    FileSKVWriter bmfw = FileOperations.getInstance().openWriter(fname, fs, conf, acuconf);
+    bmfw.startDefaultLocalityGroup();
+    for (int i = 0; i < 1000; i += 2) {
+      String fi = String.format("%010d", i);
+      bmfw.append(new Key(new Text("r" + fi), new Text("cf1")), new Value(("v" + fi).getBytes()));
+    }
+    bmfw.close();
+
+    LruBlockCache indexCache = new LruBlockCache(1 << 20, 1 << 10, false);
+    BloomFilterLayer.Reader bmfr = (BloomFilterLayer.Reader) FileOperations.getInstance().openReader(fname, false, fs, conf, acuconf, null, indexCache);
+    BloomFilterStats stats = new BloomFilterStats();
+    bmfr.setStats(stats);
+
+    // the filter is loaded with the file, so the first seeks already use it
+    for (int i = 0; i < 1000; i++) {
+      bmfr.seek(new Range(new Text(String.format("r%010d", i))), new ArrayList<ByteSequence>(), false);
+      assertEquals(i % 2 == 0, bmfr.hasTop());
+    }
+    assertEquals(1000, stats.getCheckCount());
+    assertTrue(stats.getNegativeCount() > 400);
+    assertEquals(500, stats.getNegativeCount() + stats.getFalsePositiveCount());
+    assertEquals(stats.getFalsePositiveCount() / 500.0, stats.getFalsePositiveRate(), 0.0);
+
+    // a range within one row is checked against the filter, but finding nothing in it is not a false positive
+    long falsePositives = stats.getFalsePositiveCount();
+    for (int i = 0; i < 1000; i += 2) {
+      Key k = new Key(new Text(String.format("r%010d", i)), new Text("cf2"));
+      bmfr.seek(new Range(k, true, k.followingKey(PartialKey.ROW_COLFAM), false), new ArrayList<ByteSequence>(), false);
+      assertFalse(bmfr.hasTop());
+    }
+    assertEquals(1500, stats.getCheckCount());
+    assertEquals(falsePositives, stats.getFalsePositiveCount());
+
+    // ranges that span more than one row can not use the filter
+    bmfr.seek(new Range(new Text(String.format("r%010d", 0)), new Text(String.format("r%010d", 10))), new ArrayList<ByteSequence>(), false);
+    assertTrue(bmfr.hasTop());
+    assertEquals(1500, stats.getCheckCount());
+
+    // a file opened later finds the filter in the index cache
+    long hits = indexCache.getStats().getHitCount();
+    BloomFilterLayer.Reader bmfr2 = (BloomFilterLayer.Reader) FileOperations.getInstance().openReader(fname, false, fs, conf, acuconf, null, indexCache);
+    assertTrue(indexCache.getStats().getHitCount() > hits);
+    bmfr2.setStats(stats);
+    bmfr2.seek(new Range(new Text(String.format("r%010d", 1))), new ArrayList<ByteSequence>(), false);
+    assertFalse(bmfr2.hasTop());
+    assertEquals(1501, stats.getCheckCount());
+    assertSame(stats, bmfr2.getStats());
+
+    bmfr.close();
+    bmfr2.close();
+  }
+
   private void seek(FileSKVIterator bmfr, int row) throws IOException {
     String fi = String.format("%010d", row);
     // bmfr.seek(new Range(new Text("r"+fi)));
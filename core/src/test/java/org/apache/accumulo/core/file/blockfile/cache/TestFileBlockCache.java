@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the FileBlockCache and its use as a victim cache.
+ */
+public class TestFileBlockCache {
+
+  private static final int PAGE_SIZE = 1024;
+  private static final long MAX_SIZE = 256 * 1024;
+  private static final String INSTANCE = "instance";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  private FileBlockCache open(File dir, long maxSize) throws Exception {
+    return open(dir, INSTANCE, maxSize);
+  }
+
+  private FileBlockCache open(File dir, String instanceId, long maxSize) throws Exception {
+    return new FileBlockCache(dir, instanceId, maxSize, 8 * 1024, false, PAGE_SIZE);
+  }
+
+  @Test
+  public void testCacheSimple() throws Exception {
+    FileBlockCache cache = open(tempFolder.newFolder(), MAX_SIZE);
+
+    byte[][] blocks = new byte[10][];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = randomBytes(1000 * (i + 1));
+      assertNull(cache.getBlock("b" + i));
+      cache.cacheBlock("b" + i, blocks[i]);
+    }
+
+    for (int i = 0; i < blocks.length; i++)
+      assertArrayEquals(blocks[i], cache.getBlock("b" + i).getBuffer());
+
+    cache.shutdown();
+  }
+
+  @Test
+  public void testRestart() throws Exception {
+    File dir = tempFolder.newFolder();
+    FileBlockCache cache = open(dir, MAX_SIZE);
+
+    byte[][] blocks = new byte[10][];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = randomBytes(3000 + i);
+      cache.cacheBlock("b" + i, blocks[i], i == 0);
+    }
+    cache.shutdown();
+
+    cache = open(dir, MAX_SIZE);
+    assertEquals(blocks.length, cache.size());
+    for (int i = 0; i < blocks.length; i++)
+      assertArrayEquals(blocks[i], cache.getBlock("b" + i).getBuffer());
+
+    // the restored blocks own their pages, so new blocks do not overwrite them
+    byte[] other = randomBytes(5000);
+    cache.cacheBlock("other", other);
+    for (int i = 0; i < blocks.length; i++)
+      assertArrayEquals(blocks[i], cache.getBlock("b" + i).getBuffer());
+    assertArrayEquals(other, cache.getBlock("other").getBuffer());
+    cache.shutdown();
+  }
+
+  @Test
+  public void testOverwrittenBlockDropped() throws Exception {
+    File dir = tempFolder.newFolder();
+    FileBlockCache cache = open(dir, MAX_SIZE);
+    byte[] first = randomBytes(2000);
+    byte[] second = randomBytes(2001);
+    cache.cacheBlock("first", first);
+    cache.cacheBlock("second", second);
+    cache.shutdown();
+
+    // the first block was stored in the lowest pages
+    RandomAccessFile raf = new RandomAccessFile(new File(dir, FileBlockCache.DATA_FILE), "rw");
+    raf.write(new byte[100]);
+    raf.close();
+
+    cache = open(dir, MAX_SIZE);
+    assertEquals(2, cache.size());
+    assertNull(cache.getBlock("first"));
+    assertEquals(1, cache.getCorruptCount());
+    assertEquals(1, cache.size());
+    assertArrayEquals(second, cache.getBlock("second").getBuffer());
+    cache.shutdown();
+  }
+
+  @Test
+  public void testCorruptIndexDiscarded() throws Exception {
+    File dir = tempFolder.newFolder();
+    FileBlockCache cache = open(dir, MAX_SIZE);
+    cache.cacheBlock("b", randomBytes(2000));
+    cache.shutdown();
+
+    // the priority of the only block, after the header and the block's name
+    File index = new File(dir, FileBlockCache.INDEX_FILE);
+    RandomAccessFile raf = new RandomAccessFile(index, "rw");
+    raf.seek(4 + 4 + 2 + INSTANCE.length() + 8 + 4 + 4 + 2 + 1);
+    raf.write(0x7f);
+    raf.close();
+
+    cache = open(dir, MAX_SIZE);
+    assertEquals(0, cache.size());
+    assertFalse(index.exists());
+    byte[] block = randomBytes(2000);
+    cache.cacheBlock("b", block);
+    assertArrayEquals(block, cache.getBlock("b").getBuffer());
+    cache.shutdown();
+  }
+
+  @Test
+  public void testIndexIgnoredWhenSizeChanges() throws Exception {
+    File dir = tempFolder.newFolder();
+    FileBlockCache cache = open(dir, MAX_SIZE);
+    cache.cacheBlock("b", randomBytes(2000));
+    cache.shutdown();
+
+    cache = open(dir, 2 * MAX_SIZE);
+    assertEquals(0, cache.size());
+    assertNull(cache.getBlock("b"));
+    cache.shutdown();
+  }
+
+  @Test
+  public void testIndexIgnoredForOtherInstance() throws Exception {
+    // after a re-init the same block names may refer to different files
+    File dir = tempFolder.newFolder();
+    FileBlockCache cache = open(dir, MAX_SIZE);
+    cache.cacheBlock("b", randomBytes(2000));
+    cache.shutdown();
+
+    cache = open(dir, "other", MAX_SIZE);
+    assertEquals(0, cache.size());
+    assertNull(cache.getBlock("b"));
+    cache.shutdown();
+  }
+
+  @Test
+  public void testVictimCache() throws Exception {
+    FileBlockCache l2 = open(tempFolder.newFolder(), 4 * MAX_SIZE);
+    LruBlockCache l1 = new LruBlockCache(MAX_SIZE, 8 * 1024, false);
+    l1.setVictimCache(l2);
+
+    byte[][] blocks = new byte[64][];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = randomBytes(8 * 1024 + i);
+      l1.cacheBlock("b" + i, blocks[i]);
+    }
+
+    assertTrue(l1.getEvictedCount() > 0);
+    assertEquals(l1.getEvictedCount(), l2.size());
+
+    // every block is still available, the evicted ones from the victim cache
+    for (int i = 0; i < blocks.length; i++) {
+      CacheEntry ce = l1.getBlock("b" + i);
+      assertNotNull(ce);
+      assertArrayEquals(blocks[i], ce.getBuffer());
+    }
+    assertTrue(l1.getStats().getVictimHitCount() > 0);
+    assertEquals(l1.getStats().getMissCount(), l1.getStats().getVictimHitCount());
+
+    l1.shutdown();
+    l2.shutdown();
+  }
+
+  private static byte[] randomBytes(int len) {
+    byte[] data = new byte[len];
+    new Random(len).nextBytes(data);
+    return data;
+  }
+}
@@ -378,6 +378,38 @@ public class TestLruBlockCache extends TestCase {
     
   }
   
+  public void testIndexSize() throws Exception {
+    
+    long maxSize = 100000;
+    long blockSize = calculateBlockSizeDefault(maxSize, 10);
+    
+    LruBlockCache cache = new LruBlockCache(maxSize, blockSize, false);
+    
+    Block[] blocks = generateFixedBlocks(5, blockSize, "block");
+    
+    long emptySize = cache.heapSize();
+    long expectedCacheSize = emptySize;
+    for (Block block : blocks) {
+      cache.cacheBlock(block.blockName, block.buf);
+      expectedCacheSize += block.heapSize();
+    }
+    assertEquals(expectedCacheSize, cache.heapSize());
+    
+    // the memory held by the index of a block is counted in the size of the cache
+    CacheEntry ce = cache.getBlock(blocks[0].blockName);
+    ce.setIndexSize(blockSize);
+    assertEquals(expectedCacheSize + blockSize, cache.heapSize());
+    ce.setIndexSize(blockSize / 2);
+    assertEquals(expectedCacheSize + blockSize / 2, cache.heapSize());
+    
+    // and no longer once the block is evicted
+    cache.setMaxSize(1);
+    assertEquals(0, cache.size());
+    assertEquals(emptySize, cache.heapSize());
+    ce.setIndexSize(blockSize);
+    assertEquals(emptySize, cache.heapSize());
+  }
+  
   // test setMaxSize
   public void testResizeBlockCache() throws Exception {
     
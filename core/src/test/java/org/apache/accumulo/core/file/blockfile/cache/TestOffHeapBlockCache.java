@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the OffHeapBlockCache and the arena backing it.
+ */
+public class TestOffHeapBlockCache extends TestCase {
+
+  private static final int PAGE_SIZE = 1024;
+
+  public void testArenaRoundTrip() throws Exception {
+    OffHeapArena arena = new OffHeapArena(16 * PAGE_SIZE, PAGE_SIZE);
+
+    byte[] data = randomBytes(3 * PAGE_SIZE + 17);
+    int[] pages = arena.store(data);
+    assertEquals(4, pages.length);
+    assertEquals(12 * PAGE_SIZE, arena.getFreeBytes());
+    assertTrue(Arrays.equals(data, arena.load(pages, data.length)));
+
+    // not enough room left
+    assertNull(arena.store(new byte[13 * PAGE_SIZE]));
+
+    arena.free(pages);
+    assertEquals(16 * PAGE_SIZE, arena.getFreeBytes());
+  }
+
+  public void testCacheSimple() throws Exception {
+    OffHeapBlockCache cache = new OffHeapBlockCache(1024 * 1024, 10 * 1024, false, PAGE_SIZE);
+
+    byte[][] blocks = new byte[10][];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = randomBytes(1000 * (i + 1));
+      assertNull(cache.getBlock("b" + i));
+      CacheEntry ce = cache.cacheBlock("b" + i, blocks[i]);
+      assertTrue(Arrays.equals(blocks[i], ce.getBuffer()));
+    }
+
+    for (int i = 0; i < blocks.length; i++) {
+      CacheEntry ce = cache.getBlock("b" + i);
+      assertNotNull(ce);
+      assertTrue(Arrays.equals(blocks[i], ce.getBuffer()));
+    }
+
+    assertEquals(10, cache.size());
+    assertEquals(10, cache.getStats().getHitCount());
+    assertEquals(10, cache.getStats().getMissCount());
+  }
+
+  public void testIndexIsShared() throws Exception {
+    OffHeapBlockCache cache = new OffHeapBlockCache(1024 * 1024, 10 * 1024, false, PAGE_SIZE);
+
+    cache.cacheBlock("b", randomBytes(100));
+    Object index = new Object();
+    cache.getBlock("b").setIndex(index);
+    assertSame(index, cache.getBlock("b").getIndex());
+  }
+
+  public void testEvictionFreesDirectMemory() throws Exception {
+    long maxSize = 256 * 1024;
+    OffHeapBlockCache cache = new OffHeapBlockCache(maxSize, 8 * 1024, false, PAGE_SIZE);
+
+    for (int i = 0; i < 64; i++) {
+      cache.cacheBlock("b" + i, randomBytes(8 * 1024));
+    }
+
+    // eviction ran inline, so the cache is below its acceptable size and the evicted pages were returned to the arena
+    assertTrue(cache.getEvictedCount() > 0);
+    assertTrue(cache.heapSize() <= maxSize * LruBlockCache.DEFAULT_ACCEPTABLE_FACTOR);
+    assertTrue(cache.getFreeOffHeapSize() > 0);
+    assertNull(cache.getBlock("b0"));
+    assertNotNull(cache.getBlock("b63"));
+  }
+
+  public void testInMemoryPriority() throws Exception {
+    long maxSize = 256 * 1024;
+    OffHeapBlockCache cache = new OffHeapBlockCache(maxSize, 8 * 1024, false, PAGE_SIZE);
+
+    byte[] memBlock = randomBytes(8 * 1024);
+    cache.cacheBlock("mem", memBlock, true);
+    for (int i = 0; i < 64; i++) {
+      cache.cacheBlock("b" + i, randomBytes(8 * 1024));
+    }
+
+    CacheEntry ce = cache.getBlock("mem");
+    assertNotNull(ce);
+    assertTrue(Arrays.equals(memBlock, ce.getBuffer()));
+  }
+
+  private static byte[] randomBytes(int len) {
+    byte[] data = new byte[len];
+    new Random(len).nextBytes(data);
+    return data;
+  }
+}
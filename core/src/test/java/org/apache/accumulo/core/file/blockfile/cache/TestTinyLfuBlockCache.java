@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the TinyLfuBlockCache and the frequency sketch behind it.
+ */
+public class TestTinyLfuBlockCache extends TestCase {
+
+  public void testSketchCounts() throws Exception {
+    FrequencySketch sketch = new FrequencySketch(1024);
+
+    assertEquals(0, sketch.frequency("a"));
+    for (int i = 0; i < 5; i++)
+      sketch.increment("a");
+    sketch.increment("b");
+
+    assertEquals(5, sketch.frequency("a"));
+    assertEquals(1, sketch.frequency("b"));
+
+    for (int i = 0; i < 100; i++)
+      sketch.increment("a");
+    assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency("a"));
+  }
+
+  public void testSketchAging() throws Exception {
+    FrequencySketch sketch = new FrequencySketch(16);
+
+    for (int i = 0; i < 8; i++)
+      sketch.increment("hot");
+    assertEquals(8, sketch.frequency("hot"));
+
+    // enough distinct items to trigger at least one halving of the counters
+    for (int i = 0; i < 1000; i++)
+      sketch.increment("item" + i);
+
+    assertTrue(sketch.getResetCount() > 0);
+    assertTrue(sketch.frequency("hot") < 8);
+  }
+
+  public void testAdmitsWhileNotFull() throws Exception {
+    TinyLfuBlockCache cache = new TinyLfuBlockCache(1024 * 1024, 10 * 1024, false);
+
+    for (int i = 0; i < 10; i++) {
+      assertNull(cache.getBlock("b" + i));
+      assertNotNull(cache.cacheBlock("b" + i, new byte[1000]));
+    }
+
+    for (int i = 0; i < 10; i++)
+      assertNotNull(cache.getBlock("b" + i));
+    assertEquals(0, cache.getRejectedCount());
+  }
+
+  public void testScanResistance() throws Exception {
+    long maxSize = 200 * 1024;
+    int blockSize = 1024;
+    TinyLfuBlockCache cache = new TinyLfuBlockCache(maxSize, blockSize, false);
+
+    // a working set that is read repeatedly
+    for (int pass = 0; pass < 4; pass++) {
+      for (int i = 0; i < 50; i++) {
+        if (cache.getBlock("hot" + i) == null)
+          cache.cacheBlock("hot" + i, new byte[blockSize]);
+      }
+    }
+
+    // fill the rest of the cache so new blocks have to compete for space
+    for (int i = 0; i < 150; i++) {
+      if (cache.getBlock("warm" + i) == null)
+        cache.cacheBlock("warm" + i, new byte[blockSize]);
+    }
+    assertTrue(cache.getEvictedCount() > 0);
+
+    // a large scan that reads every block once
+    for (int i = 0; i < 2000; i++) {
+      if (cache.getBlock("scan" + i) == null)
+        cache.cacheBlock("scan" + i, new byte[blockSize]);
+    }
+
+    assertTrue(cache.getRejectedCount() > 0);
+
+    int hotCached = 0;
+    for (int i = 0; i < 50; i++) {
+      if (cache.getBlock("hot" + i) != null)
+        hotCached++;
+    }
+    assertTrue("only " + hotCached + " hot blocks survived the scan", hotCached == 50);
+  }
+
+  public void testInMemoryAlwaysAdmitted() throws Exception {
+    long maxSize = 100 * 1024;
+    TinyLfuBlockCache cache = new TinyLfuBlockCache(maxSize, 1024, false);
+
+    for (int pass = 0; pass < 4; pass++) {
+      for (int i = 0; i < 200; i++) {
+        if (cache.getBlock("b" + i) == null)
+          cache.cacheBlock("b" + i, new byte[1024]);
+      }
+    }
+
+    assertNotNull(cache.cacheBlock("mem", new byte[1024], true));
+    assertNotNull(cache.getBlock("mem"));
+  }
+}
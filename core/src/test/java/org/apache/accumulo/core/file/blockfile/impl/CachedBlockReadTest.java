@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachedBlockRead;
+import org.apache.hadoop.io.WritableUtils;
+import org.junit.Test;
+
+public class CachedBlockReadTest {
+
+  private static byte[] sample() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    out.writeBoolean(true);
+    out.writeByte(-7);
+    out.writeShort(-300);
+    out.writeChar('x');
+    out.writeInt(123456789);
+    out.writeLong(-98765432123L);
+    out.writeFloat(1.5f);
+    out.writeDouble(-2.25);
+    out.writeUTF("hello");
+    WritableUtils.writeVInt(out, 300);
+    WritableUtils.writeVLong(out, -5000000000L);
+    out.write(new byte[] {1, 2, 3});
+    out.close();
+    return baos.toByteArray();
+  }
+
+  @Test
+  public void testMatchesDataInputStream() throws IOException {
+    byte[] data = sample();
+    CachedBlockRead cbr = new CachedBlockRead(null, data);
+    DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data));
+
+    assertEquals(dis.readBoolean(), cbr.readBoolean());
+    assertEquals(dis.readByte(), cbr.readByte());
+    assertEquals(dis.readShort(), cbr.readShort());
+    assertEquals(dis.readChar(), cbr.readChar());
+    assertEquals(dis.readInt(), cbr.readInt());
+    assertEquals(dis.readLong(), cbr.readLong());
+    assertEquals(dis.readFloat(), cbr.readFloat(), 0);
+    assertEquals(dis.readDouble(), cbr.readDouble(), 0);
+    assertEquals(dis.readUTF(), cbr.readUTF());
+    assertEquals(WritableUtils.readVInt(dis), WritableUtils.readVInt(cbr));
+    assertEquals(WritableUtils.readVLong(dis), WritableUtils.readVLong(cbr));
+
+    byte[] rest = new byte[3];
+    cbr.readFully(rest);
+    assertArrayEquals(new byte[] {1, 2, 3}, rest);
+    assertEquals(data.length, cbr.getPosition());
+
+    try {
+      cbr.readByte();
+      fail("read past the end of the block");
+    } catch (EOFException e) {}
+  }
+
+  @Test
+  public void testSeekAndStream() throws IOException {
+    byte[] data = sample();
+    CachedBlockRead cbr = new CachedBlockRead(null, data);
+
+    cbr.seek(6);
+    assertEquals(6, cbr.getPosition());
+    assertEquals(123456789, cbr.readInt());
+
+    cbr.seek(0);
+    DataInputStream stream = cbr.getStream();
+    assertTrue(stream.readBoolean());
+    assertEquals(-7, stream.readByte());
+    // reads through the stream advance the block position
+    assertEquals(2, cbr.getPosition());
+
+    assertEquals(4, cbr.skipBytes(4));
+    assertEquals(123456789, cbr.readInt());
+    assertEquals(data.length - cbr.getPosition(), cbr.skipBytes(data.length));
+  }
+}
@@ -53,6 +53,9 @@ public class BlockIndexTest {
       return idx;
     }
     
+    @Override
+    public void setIndexSize(long indexSize) {}
+    
     @Override
     public byte[] getBuffer() {
       return data;
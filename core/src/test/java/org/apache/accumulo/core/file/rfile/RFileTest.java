@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
@@ -49,6 +50,8 @@ import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.blockfile.cache.BlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.FileBlockCache;
 import org.apache.accumulo.core.file.blockfile.cache.LruBlockCache;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
 import org.apache.accumulo.core.file.rfile.RFile.Reader;
@@ -178,6 +181,8 @@ public class RFileTest {
     private AccumuloConfiguration accumuloConfiguration;
     public Reader reader;
     public SortedKeyValueIterator<Key,Value> iter;
+    public LruBlockCache indexCache;
+    public LruBlockCache dataCache;
     
     public TestRFile(AccumuloConfiguration accumuloConfiguration) {
       this.accumuloConfiguration = accumuloConfiguration;
@@ -186,11 +191,15 @@ public class RFileTest {
     }
 
     public void openWriter(boolean startDLG) throws IOException {
+      openWriter(startDLG, 1000);
+    }
+
+    public void openWriter(boolean startDLG, int blockSize) throws IOException {
 
       baos = new ByteArrayOutputStream();
       dos = new FSDataOutputStream(baos, new FileSystem.Statistics("a"));
       CachableBlockFile.Writer _cbw = new CachableBlockFile.Writer(dos, "gz", conf, accumuloConfiguration);
-      writer = new RFile.Writer(_cbw, 1000, 1000);
+      writer = new RFile.Writer(_cbw, blockSize, 1000);
 
       if (startDLG)
         writer.startDefaultLocalityGroup();
@@ -219,8 +228,8 @@ public class RFileTest {
       in = new FSDataInputStream(bais);
       fileLength = data.length;
 
-      LruBlockCache indexCache = new LruBlockCache(100000000, 100000);
-      LruBlockCache dataCache = new LruBlockCache(100000000, 100000);
+      indexCache = new LruBlockCache(100000000, 100000);
+      dataCache = new LruBlockCache(100000000, 100000);
 
       CachableBlockFile.Reader _cbr = new CachableBlockFile.Reader(in, fileLength, conf, dataCache, indexCache, AccumuloConfiguration.getDefaultConfiguration());
       reader = new RFile.Reader(_cbr);
@@ -1536,6 +1545,231 @@ public class RFileTest {
     trf.closeReader();
   }
 
+  @Test
+  public void testCacheBlocks() throws Exception {
+    TestRFile trf = new TestRFile(conf);
+
+    trf.openWriter();
+    for (int i = 0; i < 2500; i++) {
+      trf.writer.append(nk(nf("r_", i), "cf1", "cq1", "L1", 42), nv("foo" + i));
+    }
+    trf.closeWriter();
+    trf.openReader();
+
+    // read everything without caching data blocks
+    trf.reader.setCacheBlocks(false);
+    trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+    int count = 0;
+    while (trf.iter.hasTop()) {
+      assertEquals(nk(nf("r_", count), "cf1", "cq1", "L1", 42), trf.iter.getTopKey());
+      count++;
+      trf.iter.next();
+    }
+    assertEquals(2500, count);
+    assertEquals(0, trf.dataCache.size());
+    assertTrue(trf.indexCache.size() > 0);
+
+    // a scan that caches blocks populates the cache
+    trf.reader.setCacheBlocks(true);
+    trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+    while (trf.iter.hasTop())
+      trf.iter.next();
+    long cached = trf.dataCache.size();
+    assertTrue(cached > 1);
+
+    // a scan that does not cache blocks still uses cached blocks
+    trf.reader.setCacheBlocks(false);
+    long hits = trf.dataCache.getStats().getHitCount();
+    trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+    while (trf.iter.hasTop())
+      trf.iter.next();
+    assertEquals(cached, trf.dataCache.size());
+    assertTrue(trf.dataCache.getStats().getHitCount() >= hits + cached);
+
+    trf.closeReader();
+  }
+
+  @Test
+  public void testRestartPoints() throws Exception {
+    // large blocks, so each block has many restart points
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter(true, 100000);
+    for (int i = 0; i < 20000; i++) {
+      trf.writer.append(nk(nf("r_", i / 4), "cf1", nf("cq_", i % 4), "L1", 42), nv("v" + i));
+    }
+    trf.closeWriter();
+    trf.openReader();
+
+    // random point lookups, the first seek into a block caches it and later seeks use its restart points
+    Random rand = new Random(42);
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < 2000; i++) {
+        int entry = rand.nextInt(20000);
+        Key key = nk(nf("r_", entry / 4), "cf1", nf("cq_", entry % 4), "L1", 42);
+        trf.iter.seek(new Range(key, null), EMPTY_COL_FAMS, false);
+        assertTrue(trf.iter.hasTop());
+        assertEquals(key, trf.iter.getTopKey());
+        assertEquals(nv("v" + entry), trf.iter.getTopValue());
+      }
+    }
+
+    // seeks between keys and forward through the current block
+    int entry = 0;
+    while (entry < 20000) {
+      Key key = nk(nf("r_", entry / 4), "cf1", nf("cq_", entry % 4), "L1", 42);
+      trf.iter.seek(new Range(key.followingKey(PartialKey.ROW_COLFAM_COLQUAL_COLVIS_TIME), null), EMPTY_COL_FAMS, false);
+      if (entry == 19999) {
+        assertFalse(trf.iter.hasTop());
+      } else {
+        assertEquals(nk(nf("r_", (entry + 1) / 4), "cf1", nf("cq_", (entry + 1) % 4), "L1", 42), trf.iter.getTopKey());
+        assertEquals(nv("v" + (entry + 1)), trf.iter.getTopValue());
+      }
+      entry += 1 + rand.nextInt(100);
+    }
+
+    trf.closeReader();
+  }
+
+  private File writeTestFile(String name, int rows) throws IOException {
+    return writeTestFile(name, rows, "foo");
+  }
+
+  private File writeTestFile(String name, int rows, String valuePrefix) throws IOException {
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter();
+    for (int i = 0; i < rows; i++) {
+      trf.writer.append(nk(nf("r_", i), "cf1", "cq1", "L1", 42), nv(valuePrefix + i));
+    }
+    trf.closeWriter();
+
+    File file = new File(tempFolder.getRoot(), name);
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(trf.baos.toByteArray());
+    out.close();
+    return file;
+  }
+
+  private int readAll(String file, FileSystem fs, BlockCache dataCache, BlockCache indexCache) throws IOException {
+    return readAll(file, fs, dataCache, indexCache, AccumuloConfiguration.getDefaultConfiguration());
+  }
+
+  private int readAll(String file, FileSystem fs, BlockCache dataCache, BlockCache indexCache, AccumuloConfiguration acuconf) throws IOException {
+    FileSKVIterator reader = new RFileOperations().openReader(file, true, fs, CachedConfiguration.getInstance(), acuconf, dataCache, indexCache);
+    int count = 0;
+    while (reader.hasTop()) {
+      count++;
+      reader.next();
+    }
+    reader.close();
+    return count;
+  }
+
+  @Test
+  public void testCacheKeyedByFileIdentity() throws Exception {
+    FileSystem fs = FileSystem.getLocal(CachedConfiguration.getInstance());
+    LruBlockCache dataCache = new LruBlockCache(100000000, 100000);
+    LruBlockCache indexCache = new LruBlockCache(100000000, 100000);
+
+    File file = writeTestFile("identity.rf", 2500);
+    assertEquals(2500, readAll(file.getAbsolutePath(), fs, dataCache, indexCache));
+    long cached = dataCache.size();
+    assertTrue(cached > 1);
+
+    // a reader given another name for the same file is served entirely from the cache, without opening the file
+    long reused = CachableBlockFile.getReusedBlockCount();
+    long misses = dataCache.getStats().getMissCount() + indexCache.getStats().getMissCount();
+    assertEquals(2500, readAll(file.toURI().toString(), fs, dataCache, indexCache));
+    assertEquals(cached, dataCache.size());
+    assertEquals(misses, dataCache.getStats().getMissCount() + indexCache.getStats().getMissCount());
+    assertTrue(CachableBlockFile.getReusedBlockCount() >= reused + cached);
+
+    // a different file does not see the first file's blocks
+    File other = writeTestFile("other.rf", 1000);
+    assertEquals(1000, readAll(other.getAbsolutePath(), fs, dataCache, indexCache));
+    assertTrue(dataCache.size() > cached);
+
+    // a different file at the same path, as after a re-init, does not see the old file's blocks
+    cached = dataCache.size();
+    assertTrue(file.delete());
+    file = writeTestFile("identity.rf", 1500);
+    assertTrue(file.setLastModified(file.lastModified() + 60 * 1000));
+    assertEquals(1500, readAll(file.getAbsolutePath(), fs, dataCache, indexCache));
+    assertTrue(dataCache.size() > cached);
+  }
+
+  @Test
+  public void testReplacedFileAcrossCacheRestart() throws Exception {
+    FileSystem fs = FileSystem.getLocal(CachedConfiguration.getInstance());
+    File dir = tempFolder.newFolder();
+    FileBlockCache cache = new FileBlockCache(dir, "instance", 8 * 1024 * 1024, 100000);
+
+    File file = writeTestFile("replaced.rf", 2500, "foo");
+    assertEquals(2500, readAll(file.getAbsolutePath(), fs, cache, cache));
+    cache.shutdown();
+
+    // the same path now holds a file of the same length with other values, as after a re-init or a restore from backup
+    assertTrue(file.delete());
+    file = writeTestFile("replaced.rf", 2500, "bar");
+    assertTrue(file.setLastModified(file.lastModified() + 60 * 1000));
+
+    cache = new FileBlockCache(dir, "instance", 8 * 1024 * 1024, 100000);
+    assertTrue(cache.size() > 0);
+    FileSKVIterator reader = new RFileOperations().openReader(file.getAbsolutePath(), true, fs, CachedConfiguration.getInstance(),
+        AccumuloConfiguration.getDefaultConfiguration(), cache, cache);
+    for (int i = 0; i < 2500; i++) {
+      assertTrue(reader.hasTop());
+      assertEquals(nv("bar" + i), reader.getTopValue());
+      reader.next();
+    }
+    assertFalse(reader.hasTop());
+    reader.close();
+    cache.shutdown();
+  }
+
+  @Test
+  public void testLocalReadPaths() throws Exception {
+    FileSystem fs = FileSystem.getLocal(CachedConfiguration.getInstance());
+    File file = writeTestFile("local.rf", 2500);
+
+    ConfigurationCopy positional = new ConfigurationCopy(AccumuloConfiguration.getDefaultConfiguration());
+    positional.set(Property.TSERV_FILE_READ_POSITIONAL, "true");
+    assertEquals(2500, readAll(file.getAbsolutePath(), fs, null, null, positional));
+
+    ConfigurationCopy mapped = new ConfigurationCopy(AccumuloConfiguration.getDefaultConfiguration());
+    mapped.set(Property.TSERV_FILE_READ_MMAP_LOCAL, "true");
+    assertEquals(2500, readAll(file.getAbsolutePath(), fs, null, null, mapped));
+    assertEquals(2500, readAll(file.toURI().toString(), fs, null, null, mapped));
+
+    // concurrent seeks in one mapped file
+    final FileSKVIterator reader = new RFileOperations().openReader(file.getAbsolutePath(), false, fs, CachedConfiguration.getInstance(), mapped);
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final SortedKeyValueIterator<Key,Value> copy = reader.deepCopy(null);
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            Random rand = new Random();
+            for (int i = 0; i < 200; i++) {
+              int row = rand.nextInt(2500);
+              copy.seek(new Range(nf("r_", row)), EMPTY_COL_FAMS, false);
+              assertTrue(copy.hasTop());
+              assertEquals(nv("foo" + row), copy.getTopValue());
+            }
+          } catch (Throwable e) {
+            errors.add(e);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads)
+      thread.join();
+    reader.close();
+    assertEquals(Collections.emptyList(), errors);
+  }
+
   @Test(expected = NullPointerException.class)
   public void testMissingUnreleasedVersions() throws Exception {
     runVersionTest(5);
@@ -17,6 +17,7 @@
 package org.apache.accumulo.core.file.rfile;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -30,6 +31,7 @@ import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachedBlockRead;
 import org.apache.accumulo.core.util.MutableByteSequence;
 import org.apache.accumulo.core.util.UnsynchronizedBuffer;
 import org.junit.Before;
@@ -109,6 +111,27 @@ public class RelativeKeyTest {
     assertEquals(expected.getKey(), actual.getKey());
   }
   
+  @Test
+  public void testReadSharesSameFields() throws IOException {
+    Key prevKey = new Key("row1", "columnfamily1", "columnqualifier1", "columnvisibility1", 1000);
+    Key newKey = new Key("row1", "columnfamily1", "columnqualifier2", "columnvisibility1", 1000);
+    RelativeKey expected = new RelativeKey(prevKey, newKey);
+    
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    expected.write(out);
+    
+    RelativeKey actual = new RelativeKey();
+    actual.setPrevKey(prevKey);
+    actual.readFields(new CachedBlockRead(null, baos.toByteArray()));
+    
+    assertEquals(newKey, actual.getKey());
+    // unchanged fields are not copied
+    assertSame(prevKey.getRowData().getBackingArray(), actual.getKey().getRowData().getBackingArray());
+    assertSame(prevKey.getColumnFamilyData().getBackingArray(), actual.getKey().getColumnFamilyData().getBackingArray());
+    assertSame(prevKey.getColumnVisibilityData().getBackingArray(), actual.getKey().getColumnVisibilityData().getBackingArray());
+  }
+  
   private static ArrayList<Key> expectedKeys;
   private static ArrayList<Value> expectedValues;
   private static ArrayList<Integer> expectedPositions;
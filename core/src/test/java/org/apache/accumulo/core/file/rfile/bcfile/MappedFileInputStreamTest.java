@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedFileInputStreamTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  private byte[] data;
+
+  private File writeFile(int length) throws IOException {
+    data = new byte[length];
+    new Random(length).nextBytes(data);
+    File file = tempFolder.newFile();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(data);
+    out.close();
+    return file;
+  }
+
+  @Test
+  public void testPositionalReadsAcrossChunks() throws Exception {
+    MappedFileInputStream in = new MappedFileInputStream(writeFile(100), 16);
+
+    for (int pos = 0; pos < 100; pos += 7) {
+      for (int len = 0; len < 40; len += 5) {
+        int expected = Math.min(len, 100 - pos);
+        byte[] b = new byte[len + 2];
+        assertEquals(expected, in.read(pos, b, 1, len));
+        assertArrayEquals(Arrays.copyOfRange(data, pos, pos + expected), Arrays.copyOfRange(b, 1, 1 + expected));
+      }
+    }
+
+    assertEquals(-1, in.read(100, new byte[1], 0, 1));
+    // positional reads leave the stream position alone
+    assertEquals(0, in.getPos());
+  }
+
+  @Test
+  public void testStreamReads() throws Exception {
+    FSDataInputStream in = new FSDataInputStream(new MappedFileInputStream(writeFile(100), 16));
+
+    byte[] b = new byte[100];
+    in.readFully(b);
+    assertArrayEquals(data, b);
+    assertEquals(-1, in.read());
+
+    in.seek(30);
+    assertEquals(data[30] & 0xff, in.read());
+    assertEquals(31, in.getPos());
+
+    DataInputStream dis = new DataInputStream(in);
+    byte[] rest = new byte[69];
+    dis.readFully(rest);
+    assertArrayEquals(Arrays.copyOfRange(data, 31, 100), rest);
+  }
+
+  @Test(expected = EOFException.class)
+  public void testReadFullyPastEnd() throws Exception {
+    MappedFileInputStream in = new MappedFileInputStream(writeFile(50), 16);
+    in.readFully(40, new byte[20]);
+  }
+
+  @Test
+  public void testEmptyFile() throws Exception {
+    MappedFileInputStream in = new MappedFileInputStream(writeFile(0));
+    assertEquals(-1, in.read());
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testBoundedPositionalStream() throws Exception {
+    FSDataInputStream in = new FSDataInputStream(new MappedFileInputStream(writeFile(100), 16));
+
+    BoundedRangeFileInputStream bounded = new BoundedRangeFileInputStream(in, 10, 50, true);
+    byte[] b = new byte[60];
+    assertEquals(50, bounded.read(b, 0, 60));
+    assertArrayEquals(Arrays.copyOfRange(data, 10, 60), Arrays.copyOf(b, 50));
+    assertEquals(-1, bounded.read());
+    bounded.close();
+  }
+}
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 import java.util.TreeMap;
 
 import junit.framework.TestCase;
@@ -399,4 +400,50 @@ public class MultiIteratorTest extends TestCase {
     mi.seek(r7, EMPTY_COL_FAMS, false);
     assertFalse(mi.hasTop());
   }
+  
+  public void testManySources() throws IOException {
+    // sources that take turns on top a few keys at a time, and sources that stay on top for long runs
+    Random random = new Random(7);
+    for (int numSources : new int[] {1, 2, 3, 5, 8, 17, 30}) {
+      for (int runLength : new int[] {1, 4, 100}) {
+        List<TreeMap<Key,Value>> maps = new ArrayList<TreeMap<Key,Value>>();
+        for (int i = 0; i < numSources; i++)
+          maps.add(new TreeMap<Key,Value>());
+        
+        TreeMap<Key,Value> expected = new TreeMap<Key,Value>();
+        int source = 0;
+        for (int row = 0; row < 1000; row++) {
+          if (row % runLength == 0)
+            source = random.nextInt(numSources);
+          // some keys are in every source, the merge returns each of them once per source
+          if (random.nextInt(50) == 0) {
+            for (int i = 0; i < numSources; i++)
+              nkv(maps.get(i), row, i, false, "v" + row);
+          } else {
+            nkv(maps.get(source), row, 0, false, "v" + row);
+          }
+        }
+        for (TreeMap<Key,Value> map : maps)
+          expected.putAll(map);
+        
+        List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<SortedKeyValueIterator<Key,Value>>();
+        for (TreeMap<Key,Value> map : maps)
+          iters.add(new SortedMapIterator(map));
+        MultiIterator mi = new MultiIterator(iters, true);
+        
+        for (Range range : new Range[] {new Range(), new Range(nr(333), nr(777)), new Range(nr(999), null)}) {
+          mi.seek(range, EMPTY_COL_FAMS, false);
+          for (Key key : expected.keySet()) {
+            if (!range.contains(key))
+              continue;
+            assertTrue(mi.hasTop());
+            assertEquals(key, mi.getTopKey());
+            assertEquals(expected.get(key), mi.getTopValue());
+            mi.next();
+          }
+          assertFalse(mi.hasTop());
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.security;
+
+import static org.apache.accumulo.core.security.ColumnVisibility.quote;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.util.ByteArraySet;
+import org.junit.Test;
+
+public class CompiledVisibilityTest {
+
+  private static boolean evaluate(Authorizations auths, String expression) throws VisibilityParseException {
+    ColumnVisibility cv = new ColumnVisibility(expression);
+    boolean visible = new CompiledVisibility(cv).evaluate(new CompiledVisibility.AuthorizationBits(auths));
+    assertEquals(expression, new VisibilityEvaluator(auths).evaluate(cv), visible);
+    return visible;
+  }
+
+  @Test
+  public void testEvaluate() throws VisibilityParseException {
+    Authorizations auths = new Authorizations(ByteArraySet.fromStrings("one", "two", "three", "four"));
+
+    assertTrue(evaluate(auths, ""));
+    for (String marking : new String[] {"one", "one&two", "foor|four", "(one&two)|(foo&bar)", "one|five", "five|one", "(one)", "(one|foo)&three",
+        "one|foo|bar", "(one|foo)|bar", "((one|foo)|bar)&two", "one&two&three&four"}) {
+      assertTrue(marking, evaluate(auths, marking));
+    }
+    for (String marking : new String[] {"five", "one&five", "five&one", "((one|foo)|bar)&goober", "(one|two)&(five|six)", "one&two&three&five"}) {
+      assertFalse(marking, evaluate(auths, marking));
+    }
+  }
+
+  @Test
+  public void testQuoted() throws VisibilityParseException {
+    Authorizations auths = new Authorizations("A#C", "A\"C", "A\\C", "AC", "五");
+
+    assertTrue(evaluate(auths, quote("A#C") + "|" + quote("A?C")));
+    assertTrue(evaluate(auths, quote("A\"C") + "&" + quote("A\\C")));
+    assertTrue(evaluate(auths, "(" + quote("A\"C") + "|B)&(" + quote("A#C") + "|D)"));
+    assertTrue(evaluate(auths, quote("五") + "|" + quote("四")));
+    assertFalse(evaluate(auths, quote("A#C") + "&B"));
+    assertFalse(evaluate(auths, quote("五") + "&" + quote("四")));
+  }
+
+  @Test
+  public void testManyTerms() throws VisibilityParseException {
+    // enough terms that the masks of an expression span many words
+    List<String> terms = new ArrayList<String>();
+    for (int i = 0; i < 300; i++)
+      terms.add("t" + i);
+
+    List<byte[]> authList = new ArrayList<byte[]>();
+    for (int i = 0; i < terms.size(); i += 3)
+      authList.add(terms.get(i).getBytes(StandardCharsets.UTF_8));
+    Authorizations auths = new Authorizations(authList);
+
+    Random random = new Random(42);
+    for (int i = 0; i < 200; i++) {
+      StringBuilder expression = new StringBuilder();
+      int groups = 1 + random.nextInt(4);
+      for (int g = 0; g < groups; g++) {
+        if (g > 0)
+          expression.append('|');
+        expression.append('(');
+        int size = 2 + random.nextInt(3);
+        for (int t = 0; t < size; t++) {
+          if (t > 0)
+            expression.append('&');
+          expression.append(terms.get(3 * random.nextInt(terms.size() / 3) + (random.nextInt(4) == 0 ? 1 : 0)));
+        }
+        expression.append(')');
+      }
+      evaluate(auths, expression.toString());
+    }
+  }
+
+  @Test
+  public void testLaterAuthorization() throws VisibilityParseException {
+    // compiled before any authorization has the term, so the term is compiled as never satisfied
+    CompiledVisibility cv = new CompiledVisibility(new ColumnVisibility("later&(one|later2)"));
+    assertFalse(cv.evaluate(new CompiledVisibility.AuthorizationBits(new Authorizations("one"))));
+    assertTrue(cv.evaluate(new CompiledVisibility.AuthorizationBits(new Authorizations("later", "later2"))));
+    assertFalse(cv.evaluate(new CompiledVisibility.AuthorizationBits(new Authorizations("later"))));
+  }
+
+  @Test
+  public void testTermsExhausted() throws VisibilityParseException {
+    int maxTerms = CompiledVisibility.maxTerms;
+    CompiledVisibility.maxTerms = 0;
+    try {
+      // no authorization that has no bit yet gets one, so these are evaluated as parse trees
+      Authorizations auths = new Authorizations("exhausted1", "exhausted2");
+      assertEquals(-1, CompiledVisibility.intern(new ArrayByteSequence("exhausted1")));
+      assertTrue(evaluate(auths, "exhausted1&exhausted2"));
+      assertTrue(evaluate(auths, "exhausted3|(exhausted1&exhausted2)"));
+      assertFalse(evaluate(auths, "exhausted1&exhausted3"));
+      assertFalse(evaluate(new Authorizations("one"), "exhausted1|exhausted2"));
+    } finally {
+      CompiledVisibility.maxTerms = maxTerms;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.core.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.util.BadArgumentException;
+import org.junit.Test;
+
+public class VisibilityCacheTest {
+
+  @Test
+  public void testShared() {
+    VisibilityCache cache = VisibilityCache.forAuthorizations(new Authorizations("a", "b"));
+    assertSame(cache, VisibilityCache.forAuthorizations(new Authorizations("a", "b")));
+    assertTrue(cache != VisibilityCache.forAuthorizations(new Authorizations("a")));
+  }
+
+  @Test
+  public void testEvaluate() throws VisibilityParseException {
+    VisibilityCache cache = new VisibilityCache(new Authorizations("a", "b"));
+    assertTrue(cache.evaluate(new ArrayByteSequence("a&b")));
+    assertFalse(cache.evaluate(new ArrayByteSequence("a&c")));
+    assertTrue(cache.evaluate(new ArrayByteSequence("c|(a&b)")));
+    assertEquals(0, cache.getStats().hitCount());
+    assertEquals(3, cache.getStats().missCount());
+
+    assertTrue(cache.evaluate(new ArrayByteSequence("a&b")));
+    assertFalse(cache.evaluate(new ArrayByteSequence("a&c")));
+    assertEquals(2, cache.getStats().hitCount());
+  }
+
+  @Test
+  public void testKeyBytesNotKept() throws VisibilityParseException {
+    VisibilityCache cache = new VisibilityCache(new Authorizations("a"));
+    byte[] key = "rowa|bcq".getBytes(StandardCharsets.UTF_8);
+    assertTrue(cache.evaluate(new ArrayByteSequence(key, 3, 3)));
+
+    // the caller reuses its bytes, the cached result must not change with them
+    key[3] = 'x';
+    assertFalse(cache.evaluate(new ArrayByteSequence(key, 3, 3)));
+    assertTrue(cache.evaluate(new ArrayByteSequence("a|b")));
+    assertEquals(1, cache.getStats().hitCount());
+  }
+
+  @Test
+  public void testBadVisibility() throws VisibilityParseException {
+    VisibilityCache cache = new VisibilityCache(new Authorizations("a"));
+    BadArgumentException first = null;
+    for (int i = 0; i < 2; i++) {
+      try {
+        cache.evaluate(new ArrayByteSequence("a&"));
+        fail();
+      } catch (BadArgumentException e) {
+        // the second evaluation throws the cached failure instead of parsing again
+        if (first == null)
+          first = e;
+        else
+          assertSame(first, e);
+      }
+    }
+  }
+}
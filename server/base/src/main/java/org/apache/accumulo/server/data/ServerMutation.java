@@ -47,6 +47,19 @@ public class ServerMutation extends Mutation {
     this.systemTime = ts;
   }
 
+  /**
+   * Read a mutation as {@link Mutation#write(DataOutput)} wrote it, without a system time.
+   */
+  public static ServerMutation readClientMutation(DataInput in) throws IOException {
+    ServerMutation mutation = new ServerMutation();
+    mutation.readMutationFields(in);
+    return mutation;
+  }
+
+  private void readMutationFields(DataInput in) throws IOException {
+    super.readFields(in);
+  }
+
   @Override
   public void readFields(DataInput in) throws IOException {
     super.readFields(in);
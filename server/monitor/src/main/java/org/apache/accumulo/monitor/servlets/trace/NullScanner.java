@@ -16,7 +16,9 @@
  */
 package org.apache.accumulo.monitor.servlets.trace;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
@@ -101,6 +103,22 @@ public class NullScanner implements Scanner {
     return 0;
   }
   
+  @Override
+  public void setCacheBlocks(boolean cacheBlocks) {}
+  
+  @Override
+  public boolean getCacheBlocks() {
+    return true;
+  }
+  
+  @Override
+  public void setExecutionHints(Map<String,String> hints) {}
+  
+  @Override
+  public Map<String,String> getExecutionHints() {
+    return Collections.emptyMap();
+  }
+  
   @Override
   public void close() {}
 
@@ -0,0 +1,499 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IterationInterruptedException;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.system.InterruptibleIterator;
+import org.apache.hadoop.io.WritableComparator;
+
+/**
+ * A sorted map of {@link MemKey}s to values held in a few large arrays instead of in several objects per entry, for when the native map is not available.
+ * <p>
+ *
+ * Each entry is packed into a byte array slab: the lengths of its fields, the timestamp, the delete flag and kvCount, followed by the bytes of the row, column
+ * family, qualifier, visibility and value. The entries are linked into a skip list whose nodes are runs of longs in chunks of an {@link AtomicLongArray}: the
+ * address of the entry in the slabs, then the next node on each level. The heap used is close to the size of the data, the memory reported is exactly what
+ * the slabs and chunks take, and there are only a handful of objects for the garbage collector to trace no matter how many entries there are.
+ * <p>
+ *
+ * Writers take a lock to insert, readers do not. A node is filled in before it is linked into the list, and the links are volatile writes, so a reader that
+ * follows a link sees the whole entry. Keys and values are copied out of the slabs as they are read.
+ */
+public class ArenaMap {
+
+  private static final int MAX_LEVEL = 12;
+
+  private static final int MIN_SLAB_SIZE = 4 * 1024;
+  private static final int MAX_SLAB_SIZE = 1 << 20;
+
+  private static final int CHUNK_SHIFT = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  // entry layout: row, cf, cq, cv and value lengths, timestamp, delete flag, kvCount, then the bytes of each field
+  private static final int TS_OFFSET = 20;
+  private static final int DEL_OFFSET = 28;
+  private static final int KV_OFFSET = 29;
+  private static final int HEADER_SIZE = 33;
+
+  /** the head of the skip list, node 0 is null */
+  private static final int HEAD = 1;
+
+  private volatile byte[][] slabs = new byte[16][];
+  private int slabCount = 0;
+  private int slabPos = 0;
+
+  private volatile AtomicLongArray[] chunks = new AtomicLongArray[16];
+  private int chunkCount = 0;
+  private int nextCell = 0;
+
+  private final AtomicLong memoryUsed = new AtomicLong(0);
+  private final AtomicInteger size = new AtomicInteger(0);
+  private volatile boolean deleted = false;
+
+  public ArenaMap() {
+    // cell 0 is the null node
+    nextCell = 1;
+    if (allocateNode(MAX_LEVEL, 0) != HEAD)
+      throw new IllegalStateException();
+  }
+
+  // ---- storage
+
+  private static long address(int slab, int offset) {
+    return ((long) slab << 32) | offset;
+  }
+
+  private static int slabOf(long address) {
+    return (int) (address >>> 32);
+  }
+
+  private static int offsetOf(long address) {
+    return (int) address;
+  }
+
+  private long allocate(int length) {
+    byte[][] slabs = this.slabs;
+    if (slabCount == 0 || slabs[slabCount - 1].length - slabPos < length) {
+      int slabSize = slabCount == 0 ? MIN_SLAB_SIZE : Math.min(MAX_SLAB_SIZE, slabs[slabCount - 1].length * 2);
+      if (slabCount == slabs.length)
+        slabs = Arrays.copyOf(slabs, slabs.length * 2);
+      slabs[slabCount++] = new byte[Math.max(slabSize, length)];
+      memoryUsed.addAndGet(Math.max(slabSize, length));
+      slabPos = 0;
+      this.slabs = slabs;
+    }
+
+    long address = address(slabCount - 1, slabPos);
+    slabPos += length;
+    return address;
+  }
+
+  private int allocateNode(int levels, long entry) {
+    AtomicLongArray[] chunks = this.chunks;
+    // a node never spans chunks
+    if ((nextCell & CHUNK_MASK) + levels + 1 > CHUNK_SIZE)
+      nextCell = ((nextCell >>> CHUNK_SHIFT) + 1) << CHUNK_SHIFT;
+    if ((nextCell >>> CHUNK_SHIFT) >= chunkCount) {
+      if (chunkCount == chunks.length)
+        chunks = Arrays.copyOf(chunks, chunks.length * 2);
+      chunks[chunkCount++] = new AtomicLongArray(CHUNK_SIZE);
+      memoryUsed.addAndGet(CHUNK_SIZE * 8);
+      this.chunks = chunks;
+    }
+
+    int node = nextCell;
+    nextCell += levels + 1;
+    chunks[node >>> CHUNK_SHIFT].set(node & CHUNK_MASK, entry);
+    return node;
+  }
+
+  private long entryOf(int node) {
+    return chunks[node >>> CHUNK_SHIFT].get(node & CHUNK_MASK);
+  }
+
+  private int next(int node, int level) {
+    return (int) chunks[node >>> CHUNK_SHIFT].get((node & CHUNK_MASK) + 1 + level);
+  }
+
+  private void setNext(int node, int level, int next) {
+    chunks[node >>> CHUNK_SHIFT].set((node & CHUNK_MASK) + 1 + level, next);
+  }
+
+  private static int getInt(byte[] b, int off) {
+    return ((b[off] & 0xff) << 24) | ((b[off + 1] & 0xff) << 16) | ((b[off + 2] & 0xff) << 8) | (b[off + 3] & 0xff);
+  }
+
+  private static void putInt(byte[] b, int off, int v) {
+    b[off] = (byte) (v >>> 24);
+    b[off + 1] = (byte) (v >>> 16);
+    b[off + 2] = (byte) (v >>> 8);
+    b[off + 3] = (byte) v;
+  }
+
+  private static long getLong(byte[] b, int off) {
+    return ((long) getInt(b, off) << 32) | (getInt(b, off + 4) & 0xffffffffL);
+  }
+
+  private static void putLong(byte[] b, int off, long v) {
+    putInt(b, off, (int) (v >>> 32));
+    putInt(b, off + 4, (int) v);
+  }
+
+  private long store(byte[] row, byte[] cf, byte[] cq, byte[] cv, long ts, boolean del, int kvCount, byte[] value) {
+    long address = allocate(HEADER_SIZE + row.length + cf.length + cq.length + cv.length + value.length);
+    byte[] b = slabs[slabOf(address)];
+    int off = offsetOf(address);
+
+    putInt(b, off, row.length);
+    putInt(b, off + 4, cf.length);
+    putInt(b, off + 8, cq.length);
+    putInt(b, off + 12, cv.length);
+    putInt(b, off + 16, value.length);
+    putLong(b, off + TS_OFFSET, ts);
+    b[off + DEL_OFFSET] = (byte) (del ? 1 : 0);
+    putInt(b, off + KV_OFFSET, kvCount);
+
+    int pos = off + HEADER_SIZE;
+    for (byte[] field : new byte[][] {row, cf, cq, cv, value}) {
+      System.arraycopy(field, 0, b, pos, field.length);
+      pos += field.length;
+    }
+    return address;
+  }
+
+  // ---- ordering, the same as MemKeyComparator
+
+  private static int compareField(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    return WritableComparator.compareBytes(b1, s1, l1, b2, s2, l2);
+  }
+
+  private static int compareRest(long ts1, boolean del1, long ts2, boolean del2) {
+    if (ts1 != ts2)
+      return ts1 < ts2 ? 1 : -1;
+    if (del1 != del2)
+      return del1 ? -1 : 1;
+    return 0;
+  }
+
+  /**
+   * Compare a stored entry with a key. The kvCount is only compared when the key is a {@link MemKey}.
+   */
+  private int compare(long entry, Key key) {
+    byte[] b = slabs[slabOf(entry)];
+    int off = offsetOf(entry);
+    int pos = off + HEADER_SIZE;
+
+    ByteSequence[] fields = {key.getRowData(), key.getColumnFamilyData(), key.getColumnQualifierData(), key.getColumnVisibilityData()};
+    for (int i = 0; i < fields.length; i++) {
+      int len = getInt(b, off + 4 * i);
+      ByteSequence field = fields[i];
+      int cmp = compareField(b, pos, len, field.getBackingArray(), field.offset(), field.length());
+      if (cmp != 0)
+        return cmp;
+      pos += len;
+    }
+
+    int cmp = compareRest(getLong(b, off + TS_OFFSET), b[off + DEL_OFFSET] != 0, key.getTimestamp(), key.isDeleted());
+    if (cmp == 0 && key instanceof MemKey)
+      cmp = ((MemKey) key).kvCount - getInt(b, off + KV_OFFSET);
+    return cmp;
+  }
+
+  private int compare(long entry1, long entry2) {
+    byte[][] slabs = this.slabs;
+    byte[] b1 = slabs[slabOf(entry1)];
+    int off1 = offsetOf(entry1);
+    byte[] b2 = slabs[slabOf(entry2)];
+    int off2 = offsetOf(entry2);
+
+    int pos1 = off1 + HEADER_SIZE;
+    int pos2 = off2 + HEADER_SIZE;
+    for (int i = 0; i < 4; i++) {
+      int len1 = getInt(b1, off1 + 4 * i);
+      int len2 = getInt(b2, off2 + 4 * i);
+      int cmp = compareField(b1, pos1, len1, b2, pos2, len2);
+      if (cmp != 0)
+        return cmp;
+      pos1 += len1;
+      pos2 += len2;
+    }
+
+    int cmp = compareRest(getLong(b1, off1 + TS_OFFSET), b1[off1 + DEL_OFFSET] != 0, getLong(b2, off2 + TS_OFFSET), b2[off2 + DEL_OFFSET] != 0);
+    if (cmp == 0)
+      cmp = getInt(b2, off2 + KV_OFFSET) - getInt(b1, off1 + KV_OFFSET);
+    return cmp;
+  }
+
+  // ---- skip list
+
+  /**
+   * @return the first node not less than key, or 0
+   */
+  private int ceiling(Key key) {
+    int x = HEAD;
+    for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+      int next = next(x, level);
+      while (next != 0 && compare(entryOf(next), key) < 0) {
+        x = next;
+        next = next(x, level);
+      }
+    }
+    return next(x, 0);
+  }
+
+  private static int randomLevels() {
+    int levels = 1;
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (levels < MAX_LEVEL && random.nextInt(4) == 0)
+      levels++;
+    return levels;
+  }
+
+  private void insert(long entry) {
+    int[] preds = new int[MAX_LEVEL];
+    int x = HEAD;
+    for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+      int next = next(x, level);
+      while (next != 0 && compare(entryOf(next), entry) < 0) {
+        x = next;
+        next = next(x, level);
+      }
+      preds[level] = x;
+    }
+
+    int levels = randomLevels();
+    int node = allocateNode(levels, entry);
+    for (int level = 0; level < levels; level++)
+      setNext(node, level, next(preds[level], level));
+    // linking from the bottom up, a reader that finds the node on any level finds it on level 0
+    for (int level = 0; level < levels; level++)
+      setNext(preds[level], level, node);
+  }
+
+  private MemKey getKey(long entry) {
+    byte[] b = slabs[slabOf(entry)];
+    int off = offsetOf(entry);
+    int pos = off + HEADER_SIZE;
+
+    byte[][] fields = new byte[4][];
+    for (int i = 0; i < fields.length; i++) {
+      int len = getInt(b, off + 4 * i);
+      fields[i] = Arrays.copyOfRange(b, pos, pos + len);
+      pos += len;
+    }
+    return new MemKey(fields[0], fields[1], fields[2], fields[3], getLong(b, off + TS_OFFSET), b[off + DEL_OFFSET] != 0, false, getInt(b, off + KV_OFFSET));
+  }
+
+  private Value getValue(long entry) {
+    byte[] b = slabs[slabOf(entry)];
+    int off = offsetOf(entry);
+    int pos = off + HEADER_SIZE + getInt(b, off) + getInt(b, off + 4) + getInt(b, off + 8) + getInt(b, off + 12);
+    return new Value(Arrays.copyOfRange(b, pos, pos + getInt(b, off + 16)), false);
+  }
+
+  // ---- map operations
+
+  /**
+   * Add the updates of each mutation. Each update gets the next kvCount, starting at kvCount.
+   */
+  public void mutate(List<Mutation> mutations, int kvCount) {
+    if (deleted)
+      throw new IllegalStateException("Arena map deleted");
+
+    synchronized (this) {
+      for (Mutation m : mutations) {
+        byte[] row = m.getRow();
+        for (ColumnUpdate cu : m.getUpdates()) {
+          long entry = store(row, cu.getColumnFamily(), cu.getColumnQualifier(), cu.getColumnVisibility(), cu.getTimestamp(), cu.isDeleted(), kvCount++,
+              cu.getValue());
+          insert(entry);
+          size.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  public Value get(Key key) {
+    int node = ceiling(key);
+    if (node != 0 && compare(entryOf(node), key) == 0)
+      return getValue(entryOf(node));
+    return null;
+  }
+
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * @return the bytes taken by the slabs and skip list chunks
+   */
+  public long getMemoryUsed() {
+    return memoryUsed.get();
+  }
+
+  /**
+   * Stop accepting writes and new iterators. Iterators already created keep working until they are discarded, the memory is released with them.
+   */
+  public void delete() {
+    deleted = true;
+  }
+
+  public Iterator<Entry<Key,Value>> iterator(final Key startKey) {
+    if (deleted)
+      throw new IllegalStateException("Arena map deleted");
+
+    return new Iterator<Entry<Key,Value>>() {
+      int node = ceiling(new Key(startKey));
+
+      @Override
+      public boolean hasNext() {
+        return node != 0;
+      }
+
+      @Override
+      public Entry<Key,Value> next() {
+        if (node == 0)
+          throw new NoSuchElementException();
+        long entry = entryOf(node);
+        node = ArenaMap.this.next(node, 0);
+        return new SimpleImmutableEntry<Key,Value>(getKey(entry), getValue(entry));
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  public InterruptibleIterator skvIterator() {
+    if (deleted)
+      throw new IllegalStateException("Arena map deleted");
+    return new ArenaSKVIterator(null);
+  }
+
+  private class ArenaSKVIterator implements InterruptibleIterator {
+
+    private int node = 0;
+    private Key topKey;
+    private Value topValue;
+    private Range range = new Range();
+    private AtomicBoolean interruptFlag;
+    private int interruptCheckCount = 0;
+
+    ArenaSKVIterator(AtomicBoolean interruptFlag) {
+      this.interruptFlag = interruptFlag;
+      position(ArenaMap.this.next(HEAD, 0));
+    }
+
+    private void position(int node) {
+      this.node = node;
+      this.topValue = null;
+      this.topKey = node == 0 ? null : getKey(entryOf(node));
+      if (topKey != null && range.afterEndKey(topKey)) {
+        this.node = 0;
+        this.topKey = null;
+      }
+    }
+
+    @Override
+    public Key getTopKey() {
+      return topKey;
+    }
+
+    @Override
+    public Value getTopValue() {
+      if (topValue == null)
+        topValue = getValue(entryOf(node));
+      return topValue;
+    }
+
+    @Override
+    public boolean hasTop() {
+      return node != 0;
+    }
+
+    @Override
+    public void next() throws IOException {
+      if (node == 0)
+        throw new IllegalStateException();
+
+      // checking the interrupt flag for every call to next had bad a bad performance impact
+      // so check it every 100th time
+      if (interruptFlag != null && interruptCheckCount++ % 100 == 0 && interruptFlag.get())
+        throw new IterationInterruptedException();
+
+      position(ArenaMap.this.next(node, 0));
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+      if (interruptFlag != null && interruptFlag.get())
+        throw new IterationInterruptedException();
+
+      this.range = range;
+
+      Key key = range.getStartKey();
+      if (key == null)
+        key = new MemKey();
+
+      position(ceiling(key));
+
+      while (hasTop() && range.beforeStartKey(getTopKey()))
+        next();
+    }
+
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+      return new ArenaSKVIterator(interruptFlag);
+    }
+
+    @Override
+    public void setInterruptFlag(AtomicBoolean flag) {
+      this.interruptFlag = flag;
+    }
+  }
+}
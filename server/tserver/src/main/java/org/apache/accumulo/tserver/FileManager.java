@@ -26,12 +26,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 
+import org.apache.accumulo.core.client.impl.Tables;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.KeyExtent;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.BloomFilterLayer;
+import org.apache.accumulo.core.file.BloomFilterStats;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.blockfile.cache.BlockCache;
@@ -111,6 +115,9 @@ public class FileManager {
   private BlockCache dataCache = null;
   private BlockCache indexCache = null;
   
+  // bloom filter stats of the files opened for each table, by table id
+  private final ConcurrentHashMap<String,BloomFilterStats> bloomFilterStats = new ConcurrentHashMap<String,BloomFilterStats>();
+  
   private long maxIdleTime;
   
   private final ServerConfiguration conf;
@@ -150,6 +157,8 @@ public class FileManager {
       
       closeReaders(filesToClose);
       
+      // forget the bloom filter stats of tables that were deleted
+      bloomFilterStats.keySet().retainAll(Tables.getIdToNameMap(conf.getInstance()).keySet());
     }
     
   }
@@ -181,6 +190,23 @@ public class FileManager {
     
   }
   
+  private BloomFilterStats getBloomFilterStats(String tableId) {
+    BloomFilterStats stats = bloomFilterStats.get(tableId);
+    if (stats == null) {
+      BloomFilterStats existing = bloomFilterStats.putIfAbsent(tableId, stats = new BloomFilterStats());
+      if (existing != null)
+        stats = existing;
+    }
+    return stats;
+  }
+  
+  /**
+   * Get the bloom filter stats of the files opened for scans, by table id. A file shared by several tables is counted for the table that opened it.
+   */
+  Map<String,BloomFilterStats> getBloomFilterStats() {
+    return Collections.unmodifiableMap(bloomFilterStats);
+  }
+  
   private static int countReaders(Map<String,List<OpenReader>> files) {
     int count = 0;
     
@@ -313,6 +339,8 @@ public class FileManager {
         //log.debug("Opening "+file + " path " + path);
         FileSKVIterator reader = FileOperations.getInstance().openReader(path.toString(), false, ns, ns.getConf(), conf.getTableConfiguration(table.toString()),
             dataCache, indexCache);
+        if (reader instanceof BloomFilterLayer.Reader)
+          ((BloomFilterLayer.Reader) reader).setStats(getBloomFilterStats(table.toString()));
         reservedFiles.add(reader);
         readersReserved.put(reader, file);
       } catch (Exception e) {
@@ -357,6 +385,8 @@ public class FileManager {
       for (FileSKVIterator reader : readers) {
         try {
           reader.closeDeepCopies();
+          // readers are pooled, do not let one scan's cache setting leak into the next
+          reader.setCacheBlocks(true);
         } catch (IOException e) {
           log.warn(e, e);
           sawIOException = true;
@@ -446,6 +476,7 @@ public class FileManager {
     private ArrayList<FileSKVIterator> tabletReservedReaders;
     private KeyExtent tablet;
     private boolean continueOnFailure;
+    private boolean cacheBlocks = true;
     
     ScanFileManager(KeyExtent tablet) {
       tabletReservedReaders = new ArrayList<FileSKVIterator>();
@@ -477,6 +508,9 @@ public class FileManager {
       
       List<FileSKVIterator> newlyReservedReaders = reserveReaders(tablet.getTableId(), files, continueOnFailure);
       
+      for (FileSKVIterator reader : newlyReservedReaders)
+        reader.setCacheBlocks(cacheBlocks);
+      
       tabletReservedReaders.addAll(newlyReservedReaders);
       return newlyReservedReaders;
     }
@@ -554,6 +588,13 @@ public class FileManager {
     synchronized int getNumOpenFiles() {
       return tabletReservedReaders.size();
     }
+    
+    /**
+     * Sets whether data blocks read through the files opened by this manager are added to the data block cache.
+     */
+    synchronized void setCacheBlocks(boolean cacheBlocks) {
+      this.cacheBlocks = cacheBlocks;
+    }
   }
   
   public ScanFileManager newScanFileManager(KeyExtent tablet) {
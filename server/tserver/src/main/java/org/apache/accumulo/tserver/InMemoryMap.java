@@ -199,20 +199,25 @@ public class InMemoryMap {
   }
 
   public InMemoryMap(Map<String,Set<ByteSequence>> lggroups, boolean useNativeMap, String memDumpDir) {
+    this(lggroups, useNativeMap, false, memDumpDir);
+  }
+
+  public InMemoryMap(Map<String,Set<ByteSequence>> lggroups, boolean useNativeMap, boolean useArenaMap, String memDumpDir) {
     this.memDumpDir = memDumpDir;
     this.lggroups = lggroups;
     
     if (lggroups.size() == 0)
-      map = newMap(useNativeMap);
+      map = newMap(useNativeMap, useArenaMap);
     else
-      map = new LocalityGroupMap(lggroups, useNativeMap);
+      map = new LocalityGroupMap(lggroups, useNativeMap, useArenaMap);
   }
   
   public InMemoryMap(AccumuloConfiguration config) throws LocalityGroupConfigurationError {
-    this(LocalityGroupUtil.getLocalityGroups(config), config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED), config.get(Property.TSERV_MEMDUMP_DIR));
+    this(LocalityGroupUtil.getLocalityGroups(config), config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED),
+        config.getBoolean(Property.TSERV_ARENAMAP_ENABLED), config.get(Property.TSERV_MEMDUMP_DIR));
   }
   
-  private static SimpleMap newMap(boolean useNativeMap) {
+  private static SimpleMap newMap(boolean useNativeMap, boolean useArenaMap) {
     if (useNativeMap && NativeMap.isLoaded()) {
       try {
         return new NativeMapWrapper();
@@ -221,6 +226,9 @@ public class InMemoryMap {
       }
     }
     
+    if (useArenaMap)
+      return new ArenaMapWrapper();
+    
     return new DefaultMap();
   }
   
@@ -247,18 +255,16 @@ public class InMemoryMap {
     // the last map in the array is the default locality group
     private SimpleMap maps[];
     private Partitioner partitioner;
-    private List<Mutation>[] partitioned;
     private Set<ByteSequence> nonDefaultColumnFamilies;
     
     @SuppressWarnings("unchecked")
-    LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap) {
+    LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap, boolean useArenaMap) {
       this.groupFams = new Map[groups.size()];
       this.maps = new SimpleMap[groups.size() + 1];
-      this.partitioned = new List[groups.size() + 1];
       this.nonDefaultColumnFamilies = new HashSet<ByteSequence>();
       
       for (int i = 0; i < maps.length; i++) {
-        maps[i] = newMap(useNativeMap);
+        maps[i] = newMap(useNativeMap, useArenaMap);
       }
 
       int count = 0;
@@ -271,10 +277,6 @@ public class InMemoryMap {
       }
       
       partitioner = new LocalityGroupUtil.Partitioner(this.groupFams);
-      
-      for (int i = 0; i < partitioned.length; i++) {
-        partitioned[i] = new ArrayList<Mutation>();
-      }
     }
 
     @Override
@@ -324,25 +326,21 @@ public class InMemoryMap {
     }
     
     @Override
-    public synchronized void mutate(List<Mutation> mutations, int kvCount) {
-      // this method is synchronized because it reuses objects to avoid allocation,
-      // currently, the method that calls this is synchronized so there is no
-      // loss in parallelism.... synchronization was added here for future proofing
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      // the lists are not reused, so writers can partition their mutations at the same time
+      @SuppressWarnings("unchecked")
+      List<Mutation>[] partitioned = new List[maps.length];
+      for (int i = 0; i < partitioned.length; i++) {
+        partitioned[i] = new ArrayList<Mutation>();
+      }
       
-      try{
-        partitioner.partition(mutations, partitioned);
-        
-        for (int i = 0; i < partitioned.length; i++) {
-          if (partitioned[i].size() > 0) {
-            maps[i].mutate(partitioned[i], kvCount);
-            for (Mutation m : partitioned[i])
-              kvCount += m.getUpdates().size();
-          }
-        }
-      } finally {
-        // clear immediately so mutations can be garbage collected
-        for (List<Mutation> list : partitioned) {
-          list.clear();
+      partitioner.partition(mutations, partitioned);
+      
+      for (int i = 0; i < partitioned.length; i++) {
+        if (partitioned[i].size() > 0) {
+          maps[i].mutate(partitioned[i], kvCount);
+          for (Mutation m : partitioned[i])
+            kvCount += m.getUpdates().size();
         }
       }
     }
@@ -452,13 +450,47 @@ public class InMemoryMap {
     }
   }
   
+  private static class ArenaMapWrapper implements SimpleMap {
+    private ArenaMap arenaMap = new ArenaMap();
+    
+    public Value get(Key key) {
+      return arenaMap.get(key);
+    }
+    
+    public Iterator<Entry<Key,Value>> iterator(Key startKey) {
+      return arenaMap.iterator(startKey);
+    }
+    
+    public int size() {
+      return arenaMap.size();
+    }
+    
+    public InterruptibleIterator skvIterator() {
+      return arenaMap.skvIterator();
+    }
+    
+    public void delete() {
+      arenaMap.delete();
+    }
+    
+    public long getMemoryUsed() {
+      return arenaMap.getMemoryUsed();
+    }
+    
+    @Override
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      arenaMap.mutate(mutations, kvCount);
+    }
+  }
+  
   private AtomicInteger nextKVCount = new AtomicInteger(1);
   private AtomicInteger kvCount = new AtomicInteger(0);
 
-  private Object writeSerializer = new Object();
+  // guards publishing kvCount, writers wait on it for the writers that started before them
+  private Object publishLock = new Object();
   
   /**
-   * Applies changes to a row in the InMemoryMap
+   * Applies changes to a row in the InMemoryMap. Any number of threads may call this at once.
    * 
    */
   public void mutate(List<Mutation> mutations) {
@@ -466,6 +498,21 @@ public class InMemoryMap {
     for (int i = 0; i < mutations.size(); i++)
       numKVs += mutations.get(i).size();
     
+    // Each write reserves its own range of kvCounts, so the maps can apply
+    // writes in parallel. The skip list takes concurrent puts and the native
+    // and arena maps take their own locks.
+    int kv = nextKVCount.getAndAdd(numKVs);
+    try {
+      map.mutate(mutations, kv);
+    } finally {
+      publish(kv, numKVs);
+    }
+  }
+  
+  /**
+   * Make the key values written with kvCounts starting at kv visible to readers.
+   */
+  private void publish(int kv, int numKVs) {
     // Can not update mutationCount while writes that started before
     // are in progress, this would cause partial mutations to be seen.
     // Also, can not continue until mutation count is updated, because
@@ -473,14 +520,20 @@ public class InMemoryMap {
     // wait for writes that started before to finish.
     //
     // using separate lock from this map, to allow read/write in parallel
-    synchronized (writeSerializer ) {
-      int kv = nextKVCount.getAndAdd(numKVs);
-      try {
-        map.mutate(mutations, kv);
-      } finally {
-        kvCount.set(kv + numKVs - 1);
+    boolean interrupted = false;
+    synchronized (publishLock) {
+      while (kvCount.get() != kv - 1) {
+        try {
+          publishLock.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
       }
+      kvCount.set(kv + numKVs - 1);
+      publishLock.notifyAll();
     }
+    if (interrupted)
+      Thread.currentThread().interrupt();
   }
   
   /**
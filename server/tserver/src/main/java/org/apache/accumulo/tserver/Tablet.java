@@ -1577,7 +1577,7 @@ public class Tablet {
   }
 
   public LookupResult lookup(List<Range> ranges, HashSet<Column> columns, Authorizations authorizations, ArrayList<KVEntry> results, long maxResultSize,
-      List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, AtomicBoolean interruptFlag) throws IOException {
+      List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, AtomicBoolean interruptFlag, boolean cacheBlocks) throws IOException {
 
     if (ranges.size() == 0) {
       return new LookupResult();
@@ -1594,6 +1594,7 @@ public class Tablet {
     }
 
     ScanDataSource dataSource = new ScanDataSource(authorizations, this.defaultSecurityLabel, columns, ssiList, ssio, interruptFlag);
+    dataSource.options.cacheBlocks = cacheBlocks;
 
     LookupResult result = null;
 
@@ -1706,12 +1707,13 @@ public class Tablet {
   }
 
   Scanner createScanner(Range range, int num, Set<Column> columns, Authorizations authorizations, List<IterInfo> ssiList, Map<String,Map<String,String>> ssio,
-      boolean isolated, AtomicBoolean interruptFlag) {
+      boolean isolated, AtomicBoolean interruptFlag, boolean cacheBlocks) {
     // do a test to see if this range falls within the tablet, if it does not
     // then clip will throw an exception
     extent.toDataRange().clip(range);
 
     ScanOptions opts = new ScanOptions(num, authorizations, this.defaultSecurityLabel, columns, ssiList, ssio, interruptFlag, isolated);
+    opts.cacheBlocks = cacheBlocks;
     return new Scanner(range, opts);
   }
 
@@ -1821,6 +1823,13 @@ public class Tablet {
       }
     }
 
+    /**
+     * Set the number of entries to read for the following batches.
+     */
+    void setBatchSize(int num) {
+      options.num = num;
+    }
+
     // close and read are synchronized because can not call close on the data source while it is in use
     // this cloud lead to the case where file iterators that are in use by a thread are returned
     // to the pool... this would be bad
@@ -1843,8 +1852,10 @@ public class Tablet {
     List<IterInfo> ssiList;
     Map<String,Map<String,String>> ssio;
     AtomicBoolean interruptFlag;
-    int num;
+    // changed by continued scans while a batch may be read
+    volatile int num;
     boolean isolated;
+    boolean cacheBlocks = true;
 
     ScanOptions(int num, Authorizations authorizations, byte[] defaultLabels, Set<Column> columnSet, List<IterInfo> ssiList,
         Map<String,Map<String,String>> ssio, AtomicBoolean interruptFlag, boolean isolated) {
@@ -1938,6 +1949,7 @@ public class Tablet {
         // only acquire the file manager when we know the tablet is open
         if (fileManager == null) {
           fileManager = tabletResources.newScanFileManager();
+          fileManager.setCacheBlocks(options.cacheBlocks);
           activeScans.add(this);
         }
 
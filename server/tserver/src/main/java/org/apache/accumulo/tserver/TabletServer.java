@@ -67,6 +67,7 @@ import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.client.impl.CompressedIterators;
 import org.apache.accumulo.core.client.impl.CompressedIterators.IterConfig;
+import org.apache.accumulo.core.client.impl.MutationBatch;
 import org.apache.accumulo.core.client.impl.ScannerImpl;
 import org.apache.accumulo.core.client.impl.Tables;
 import org.apache.accumulo.core.client.impl.TabletType;
@@ -106,6 +107,8 @@ import org.apache.accumulo.core.data.thrift.TKeyValue;
 import org.apache.accumulo.core.data.thrift.TMutation;
 import org.apache.accumulo.core.data.thrift.TRange;
 import org.apache.accumulo.core.data.thrift.UpdateErrors;
+import org.apache.accumulo.core.file.BloomFilterStats;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
 import org.apache.accumulo.core.master.thrift.Compacting;
 import org.apache.accumulo.core.master.thrift.MasterClientService;
@@ -211,9 +214,11 @@ import org.apache.accumulo.tserver.TabletStatsKeeper.Operation;
 import org.apache.accumulo.tserver.compaction.MajorCompactionReason;
 import org.apache.accumulo.tserver.data.ServerConditionalMutation;
 import org.apache.accumulo.tserver.log.DfsLogger;
+import org.apache.accumulo.tserver.log.LatencyHistogram;
 import org.apache.accumulo.tserver.log.LogSorter;
 import org.apache.accumulo.tserver.log.MutationReceiver;
 import org.apache.accumulo.tserver.log.TabletServerLogger;
+import org.apache.accumulo.tserver.log.WriteAheadLogStats;
 import org.apache.accumulo.tserver.mastermessage.MasterMessage;
 import org.apache.accumulo.tserver.mastermessage.SplitReportMessage;
 import org.apache.accumulo.tserver.mastermessage.TabletStatusMessage;
@@ -221,6 +226,7 @@ import org.apache.accumulo.tserver.metrics.TabletServerMBean;
 import org.apache.accumulo.tserver.metrics.TabletServerMinCMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerScanMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerUpdateMetrics;
+import org.apache.accumulo.tserver.scan.ScanInfo;
 import org.apache.commons.collections.map.LRUMap;
 import org.apache.hadoop.fs.FSError;
 import org.apache.hadoop.fs.FileSystem;
@@ -824,6 +830,11 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     public AtomicBoolean interruptFlag;
     public Scanner scanner;
     public long readaheadThreshold = Constants.SCANNER_DEFAULT_READAHEAD_THRESHOLD;
+    public Map<String,String> executionHints;
+
+    ScanInfo scanInfo() {
+      return new ScanInfo(ScanInfo.Type.SINGLE, extent.getTableId().toString(), user, startTime, batchCount, executionHints);
+    }
 
     @Override
     public void cleanup() {
@@ -844,6 +855,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     public List<IterInfo> ssiList;
     public Map<String,Map<String,String>> ssio;
     public Authorizations auths;
+    public boolean cacheBlocks = true;
 
     // stats
     int numRanges;
@@ -853,6 +865,12 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
 
     public volatile ScanTask<MultiScanResult> lookupTask;
     public KeyExtent threadPoolExtent;
+    public long batchCount = 0;
+    public Map<String,String> executionHints;
+
+    ScanInfo scanInfo() {
+      return new ScanInfo(ScanInfo.Type.MULTI, threadPoolExtent.getTableId().toString(), user, startTime, batchCount, executionHints);
+    }
 
     @Override
     public void cleanup() {
@@ -1121,7 +1139,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
                 interruptFlag.set(true);
 
               lookupResult = tablet.lookup(entry.getValue(), session.columnSet, session.auths, results, maxResultsSize - bytesAdded, session.ssiList,
-                  session.ssio, interruptFlag);
+                  session.ssio, interruptFlag, session.cacheBlocks);
 
               // if the tablet was closed it it possible that the
               // interrupt flag was set.... do not want it set for
@@ -1186,7 +1204,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     @Override
     public InitialScan startScan(TInfo tinfo, TCredentials credentials, TKeyExtent textent, TRange range, List<TColumn> columns, int batchSize,
         List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated,
-        long readaheadThreshold) throws NotServingTabletException, ThriftSecurityException, org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException {
+        long readaheadThreshold, boolean cacheBlocks, Map<String,String> executionHints) throws NotServingTabletException, ThriftSecurityException, org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException {
 
       String tableId = new String(textent.getTable(), StandardCharsets.UTF_8);
       if (!security.canScan(credentials, tableId, Tables.getNamespaceId(instance, tableId), range, columns, ssiList, ssio, authorizations))
@@ -1223,13 +1241,14 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       scanSession.auths = new Authorizations(authorizations);
       scanSession.interruptFlag = new AtomicBoolean();
       scanSession.readaheadThreshold = readaheadThreshold;
+      scanSession.executionHints = ScanInfo.hints(executionHints);
 
       for (TColumn tcolumn : columns) {
         scanSession.columnSet.add(new Column(tcolumn));
       }
 
       scanSession.scanner = tablet.createScanner(new Range(range), batchSize, scanSession.columnSet, scanSession.auths, ssiList, ssio, isolated,
-          scanSession.interruptFlag);
+          scanSession.interruptFlag, ScanInfo.cacheBlocks(scanSession.executionHints, cacheBlocks));
 
       long sid = sessionManager.createSession(scanSession, true);
 
@@ -1247,13 +1266,17 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     }
 
     @Override
-    public ScanResult continueScan(TInfo tinfo, long scanID) throws NoSuchScanIDException, NotServingTabletException,
+    public ScanResult continueScan(TInfo tinfo, long scanID, int batchSize) throws NoSuchScanIDException, NotServingTabletException,
         org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException {
       ScanSession scanSession = (ScanSession) sessionManager.reserveSession(scanID);
       if (scanSession == null) {
         throw new NoSuchScanIDException();
       }
 
+      // clients that adapt their batch size send the size for the following batches, the batch being read ahead has the size it started with
+      if (batchSize > 0)
+        scanSession.scanner.setBatchSize(batchSize);
+
       try {
         return continueScan(tinfo, scanID, scanSession);
       } finally {
@@ -1266,7 +1289,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
 
       if (scanSession.nextBatchTask == null) {
         scanSession.nextBatchTask = new NextBatchTask(scanID, scanSession.interruptFlag);
-        resourceManager.executeReadAhead(scanSession.extent, scanSession.nextBatchTask);
+        resourceManager.executeReadAhead(scanSession.extent, scanSession.scanInfo(), scanSession.nextBatchTask);
       }
 
       ScanBatch bresult;
@@ -1309,7 +1332,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
         // start reading next batch while current batch is transmitted
         // to client
         scanSession.nextBatchTask = new NextBatchTask(scanID, scanSession.interruptFlag);
-        resourceManager.executeReadAhead(scanSession.extent, scanSession.nextBatchTask);
+        resourceManager.executeReadAhead(scanSession.extent, scanSession.scanInfo(), scanSession.nextBatchTask);
       }
 
       if (!scanResult.more)
@@ -1335,7 +1358,8 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
 
     @Override
     public InitialMultiScan startMultiScan(TInfo tinfo, TCredentials credentials, Map<TKeyExtent,List<TRange>> tbatch, List<TColumn> tcolumns,
-        List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites) throws ThriftSecurityException {
+        List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites,
+        boolean cacheBlocks, Map<String,String> executionHints) throws ThriftSecurityException {
       // find all of the tables that need to be scanned
       HashSet<String> tables = new HashSet<String>();
       for (TKeyExtent keyExtent : tbatch.keySet()) {
@@ -1373,6 +1397,8 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       mss.ssiList = ssiList;
       mss.ssio = ssio;
       mss.auths = new Authorizations(authorizations);
+      mss.executionHints = ScanInfo.hints(executionHints);
+      mss.cacheBlocks = ScanInfo.cacheBlocks(mss.executionHints, cacheBlocks);
 
       mss.numTablets = batch.size();
       for (List<Range> ranges : batch.values()) {
@@ -1419,12 +1445,13 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
 
       if (session.lookupTask == null) {
         session.lookupTask = new LookupTask(scanID);
-        resourceManager.executeReadAhead(session.threadPoolExtent, session.lookupTask);
+        resourceManager.executeReadAhead(session.threadPoolExtent, session.scanInfo(), session.lookupTask);
       }
 
       try {
         MultiScanResult scanResult = session.lookupTask.get(MAX_TIME_TO_WAIT_FOR_SCAN_RESULT_MILLIS, TimeUnit.MILLISECONDS);
         session.lookupTask = null;
+        session.batchCount++;
         return scanResult;
       } catch (TimeoutException e1) {
         long timeout = acuConf.getTimeInMillis(Property.TSERV_CLIENT_TIMEOUT);
@@ -1545,6 +1572,44 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
       }
     }
 
+    @Override
+    public void applyUpdateBatches(TInfo tinfo, long updateID, TKeyExtent tkeyExtent, List<ByteBuffer> batches) {
+      UpdateSession us = (UpdateSession) sessionManager.reserveSession(updateID);
+      if (us == null) {
+        throw new RuntimeException("No Such SessionID");
+      }
+
+      try {
+        KeyExtent keyExtent = new KeyExtent(tkeyExtent);
+        setUpdateTablet(us, keyExtent);
+
+        if (us.currentTablet != null) {
+          List<Mutation> mutations = us.queuedMutations.get(us.currentTablet);
+          try {
+            for (ByteBuffer batch : batches) {
+              // read the mutations straight from the batch, without a TMutation for each
+              MutationBatch.Reader reader = new MutationBatch.Reader(batch);
+              try {
+                while (reader.hasNext()) {
+                  Mutation mutation = ServerMutation.readClientMutation(reader.next());
+                  mutations.add(mutation);
+                  us.queuedMutationSize += mutation.numBytes();
+                }
+              } finally {
+                reader.close();
+              }
+            }
+          } catch (IOException e) {
+            throw new RuntimeException("Unable to read batch of mutations for " + keyExtent, e);
+          }
+          if (us.queuedMutationSize > getSystemConfiguration().getMemoryInBytes(Property.TSERV_MUTATION_QUEUE_MAX))
+            flush(us);
+        }
+      } finally {
+        sessionManager.unreserveSession(us);
+      }
+    }
+
     private void flush(UpdateSession us) {
 
       int mutationCount = 0;
@@ -1848,7 +1913,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
 
         IterConfig ic = compressedIters.decompress(tc.iterators);
 
-        Scanner scanner = tablet.createScanner(range, 1, emptyCols, cs.auths, ic.ssiList, ic.ssio, false, cs.interruptFlag);
+        Scanner scanner = tablet.createScanner(range, 1, emptyCols, cs.auths, ic.ssiList, ic.ssio, false, cs.interruptFlag, true);
 
         try {
           ScanBatch batch = scanner.read();
@@ -3474,7 +3539,7 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     if (minBlockSize != 0 && minBlockSize > walogMaxSize)
       throw new RuntimeException("Unable to start TabletServer. Logger is set to use blocksize " + walogMaxSize + " but hdfs minimum block size is "
           + minBlockSize + ". Either increase the " + Property.TSERV_WALOG_MAX_SIZE + " or decrease dfs.namenode.fs-limits.min-block-size in hdfs-site.xml.");
-    logger = new TabletServerLogger(this, walogMaxSize);
+    logger = new TabletServerLogger(this, walogMaxSize, getSystemConfiguration().getCount(Property.TSERV_WAL_COUNT));
 
     try {
       AccumuloVFSClassLoader.getContextManager().setContextConfig(new ContextManager.DefaultContextsConfig(new Iterable<Entry<String,String>>() {
@@ -3879,6 +3944,45 @@ public class TabletServer extends AbstractMetricsImpl implements org.apache.accu
     return 0;
   }
 
+  @Override
+  public long getReusedCacheBlocks() {
+    if (this.isEnabled())
+      return CachableBlockFile.getReusedBlockCount();
+    return 0;
+  }
+
+  @Override
+  public Map<String,Long> getBloomFilterNegatives() {
+    Map<String,Long> negatives = new TreeMap<String,Long>();
+    for (Entry<String,BloomFilterStats> entry : resourceManager.getBloomFilterStats().entrySet())
+      negatives.put(entry.getKey(), entry.getValue().getNegativeCount());
+    return negatives;
+  }
+
+  @Override
+  public Map<String,Double> getBloomFilterFalsePositiveRates() {
+    Map<String,Double> rates = new TreeMap<String,Double>();
+    for (Entry<String,BloomFilterStats> entry : resourceManager.getBloomFilterStats().entrySet())
+      rates.put(entry.getKey(), entry.getValue().getFalsePositiveRate());
+    return rates;
+  }
+
+  @Override
+  public Map<String,Long> getWALogLatencyPercentiles() {
+    Map<String,Long> percentiles = new TreeMap<String,Long>();
+    WriteAheadLogStats stats = logger.getStats();
+    Map<String,LatencyHistogram> stages = new TreeMap<String,LatencyHistogram>();
+    stages.put("queue", stats.getQueued());
+    stages.put("write", stats.getWritten());
+    stages.put("sync", stats.getSynced());
+    for (Entry<String,LatencyHistogram> entry : stages.entrySet()) {
+      percentiles.put(entry.getKey() + ".p50", entry.getValue().getPercentile(50));
+      percentiles.put(entry.getKey() + ".p99", entry.getValue().getPercentile(99));
+      percentiles.put(entry.getKey() + ".p999", entry.getValue().getPercentile(99.9));
+    }
+    return percentiles;
+  }
+
   @Override
   protected ObjectName getObjectName() {
     return OBJECT_NAME;
@@ -18,18 +18,22 @@ package org.apache.accumulo.tserver;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -38,8 +42,13 @@ import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.core.file.BloomFilterStats;
+import org.apache.accumulo.core.file.blockfile.cache.FileBlockCache;
 import org.apache.accumulo.core.file.blockfile.cache.LruBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.OffHeapBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.TinyLfuBlockCache;
 import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.accumulo.core.security.VisibilityCache;
 import org.apache.accumulo.core.util.Daemon;
 import org.apache.accumulo.core.util.LoggingRunnable;
 import org.apache.accumulo.core.util.NamingThreadFactory;
@@ -52,6 +61,7 @@ import org.apache.accumulo.server.tabletserver.MemoryManagementActions;
 import org.apache.accumulo.server.tabletserver.MemoryManager;
 import org.apache.accumulo.server.tabletserver.TabletState;
 import org.apache.accumulo.server.util.time.SimpleTimer;
+import org.apache.accumulo.start.classloader.vfs.AccumuloVFSClassLoader;
 import org.apache.accumulo.trace.instrument.TraceExecutorService;
 import org.apache.accumulo.tserver.FileManager.ScanFileManager;
 import org.apache.accumulo.tserver.Tablet.MinorCompactionReason;
@@ -59,6 +69,10 @@ import org.apache.accumulo.tserver.compaction.CompactionStrategy;
 import org.apache.accumulo.tserver.compaction.DefaultCompactionStrategy;
 import org.apache.accumulo.tserver.compaction.MajorCompactionReason;
 import org.apache.accumulo.tserver.compaction.MajorCompactionRequest;
+import org.apache.accumulo.tserver.scan.FifoScanPrioritizer;
+import org.apache.accumulo.tserver.scan.PrioritizedScanTask;
+import org.apache.accumulo.tserver.scan.ScanInfo;
+import org.apache.accumulo.tserver.scan.ScanPrioritizer;
 import org.apache.log4j.Logger;
 
 /**
@@ -83,6 +97,10 @@ public class TabletServerResourceManager {
   private ExecutorService defaultReadAheadThreadPool;
   private Map<String,ExecutorService> threadPools = new TreeMap<String,ExecutorService>();
 
+  static final String DEFAULT_SCAN_EXECUTOR = "default";
+  private Map<String,ExecutorService> scanExecutors = new HashMap<String,ExecutorService>();
+  private Map<String,ScanPrioritizer> scanPrioritizers = new HashMap<String,ScanPrioritizer>();
+
   private final VolumeManager fs;
 
   private FileManager fileManager;
@@ -93,6 +111,7 @@ public class TabletServerResourceManager {
 
   private final LruBlockCache _dCache;
   private final LruBlockCache _iCache;
+  private final FileBlockCache _l2Cache;
   private final ServerConfiguration conf;
 
   private static final Logger log = Logger.getLogger(TabletServerResourceManager.class);
@@ -141,10 +160,81 @@ public class TabletServerResourceManager {
     return addEs(max, name, tp);
   }
 
+  private ExecutorService createEs(int max, String name, BlockingQueue<Runnable> queue) {
+    return addEs(name, new ThreadPoolExecutor(max, max, 0L, TimeUnit.MILLISECONDS, queue, new NamingThreadFactory(name)));
+  }
+
   private ExecutorService createEs(int min, int max, int timeout, String name) {
     return addEs(name, new ThreadPoolExecutor(min, max, timeout, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new NamingThreadFactory(name)));
   }
 
+  /**
+   * Create the scan executors defined under tserver.scan.executors. The default executor uses the tablet read ahead threads.
+   */
+  private void createScanExecutors(AccumuloConfiguration acuConf) {
+    String prefix = Property.TSERV_SCAN_EXECUTORS_PREFIX.getKey();
+    Map<String,String> props = acuConf.getAllPropertiesWithPrefix(Property.TSERV_SCAN_EXECUTORS_PREFIX);
+
+    Set<String> names = new TreeSet<String>();
+    names.add(DEFAULT_SCAN_EXECUTOR);
+    for (String key : props.keySet()) {
+      String suffix = key.substring(prefix.length());
+      int dot = suffix.indexOf('.');
+      if (dot > 0)
+        names.add(suffix.substring(0, dot));
+    }
+
+    for (String name : names) {
+      String executorPrefix = prefix + name + ".";
+      ExecutorService executor;
+      if (name.equals(DEFAULT_SCAN_EXECUTOR)) {
+        executor = readAheadThreadPool;
+      } else {
+        String threads = props.get(executorPrefix + "threads");
+        if (threads == null) {
+          log.warn("Scan executor " + name + " does not set " + executorPrefix + "threads, its scans will run in the default executor");
+          continue;
+        }
+        int numThreads;
+        try {
+          numThreads = Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+          numThreads = 0;
+        }
+        if (numThreads <= 0) {
+          log.warn("Scan executor " + name + " sets " + executorPrefix + "threads to " + threads
+              + ", which is not a positive number, its scans will run in the default executor");
+          continue;
+        }
+        executor = createEs(numThreads, "scan executor " + name, new PriorityBlockingQueue<Runnable>());
+      }
+
+      String optsPrefix = executorPrefix + "prioritizer.opts.";
+      Map<String,String> options = new HashMap<String,String>();
+      for (Entry<String,String> entry : props.entrySet()) {
+        if (entry.getKey().startsWith(optsPrefix))
+          options.put(entry.getKey().substring(optsPrefix.length()), entry.getValue());
+      }
+
+      scanExecutors.put(name, executor);
+      scanPrioritizers.put(name, createScanPrioritizer(name, props.get(executorPrefix + "prioritizer"), options));
+    }
+  }
+
+  private static ScanPrioritizer createScanPrioritizer(String executor, String className, Map<String,String> options) {
+    ScanPrioritizer prioritizer = new FifoScanPrioritizer();
+    if (className != null) {
+      try {
+        prioritizer = AccumuloVFSClassLoader.loadClass(className, ScanPrioritizer.class).newInstance();
+        prioritizer.init(options);
+      } catch (Exception e) {
+        log.error("Failed to create prioritizer " + className + " for scan executor " + executor + ", scans will run in the order they are queued", e);
+        prioritizer = new FifoScanPrioritizer();
+      }
+    }
+    return prioritizer;
+  }
+
   public TabletServerResourceManager(Instance instance, VolumeManager fs) {
     this.conf = new ServerConfiguration(instance);
     this.fs = fs;
@@ -157,13 +247,35 @@ public class TabletServerResourceManager {
     long dCacheSize = acuConf.getMemoryInBytes(Property.TSERV_DATACACHE_SIZE);
     long iCacheSize = acuConf.getMemoryInBytes(Property.TSERV_INDEXCACHE_SIZE);
 
-    _iCache = new LruBlockCache(iCacheSize, blockSize);
-    _dCache = new LruBlockCache(dCacheSize, blockSize);
+    _iCache = createCache(acuConf, Property.TSERV_INDEXCACHE_TYPE, iCacheSize, blockSize);
+    _dCache = createCache(acuConf, Property.TSERV_DATACACHE_TYPE, dCacheSize, blockSize);
+
+    _l2Cache = createL2Cache(acuConf, instance.getInstanceID(), blockSize);
+    if (_l2Cache != null) {
+      _iCache.setVictimCache(_l2Cache);
+      _dCache.setVictimCache(_l2Cache);
+    }
+
+    // scans with the same authorizations share the results of evaluating visibilities, log how often they are reused
+    VisibilityCache.configure(acuConf);
+    SimpleTimer.getInstance(acuConf).schedule(new Runnable() {
+      @Override
+      public void run() {
+        VisibilityCache.logStats();
+      }
+    }, 60 * 1000, 60 * 1000);
+
+    // only caches that keep blocks on the java heap compete with the in-memory map for heap space
+    long heapCacheSize = 0;
+    if (!(_iCache instanceof OffHeapBlockCache))
+      heapCacheSize += iCacheSize;
+    if (!(_dCache instanceof OffHeapBlockCache))
+      heapCacheSize += dCacheSize;
 
     Runtime runtime = Runtime.getRuntime();
-    if (!usingNativeMap && maxMemory + dCacheSize + iCacheSize > runtime.maxMemory()) {
+    if (!usingNativeMap && maxMemory + heapCacheSize > runtime.maxMemory()) {
       throw new IllegalArgumentException(String.format(
-          "Maximum tablet server map memory %,d and block cache sizes %,d is too large for this JVM configuration %,d", maxMemory, dCacheSize + iCacheSize,
+          "Maximum tablet server map memory %,d and block cache sizes %,d is too large for this JVM configuration %,d", maxMemory, heapCacheSize,
           runtime.maxMemory()));
     }
     runtime.gc();
@@ -195,8 +307,10 @@ public class TabletServerResourceManager {
 
     assignMetaDataPool = createEs(0, 1, 60, "metadata tablet assignment");
 
-    readAheadThreadPool = createEs(Property.TSERV_READ_AHEAD_MAXCONCURRENT, "tablet read ahead");
+    // scans wait for a read ahead thread in the order the prioritizer of their executor chooses
+    readAheadThreadPool = createEs(Property.TSERV_READ_AHEAD_MAXCONCURRENT, "tablet read ahead", new PriorityBlockingQueue<Runnable>());
     defaultReadAheadThreadPool = createEs(Property.TSERV_METADATA_READ_AHEAD_MAXCONCURRENT, "metadata tablets read ahead");
+    createScanExecutors(acuConf);
 
     int maxOpenFiles = acuConf.getCount(Property.TSERV_SCAN_MAX_OPENFILES);
 
@@ -208,6 +322,48 @@ public class TabletServerResourceManager {
     memMgmt.startThreads();
   }
 
+  private static LruBlockCache createCache(AccumuloConfiguration acuConf, Property type, long size, long blockSize) {
+    String impl = acuConf.get(type).trim();
+    if (impl.equals("lru")) {
+      return new LruBlockCache(size, blockSize);
+    } else if (impl.equals("offheap")) {
+      log.info("Using " + size + " bytes of direct memory for " + type.getKey());
+      return new OffHeapBlockCache(size, blockSize);
+    } else if (impl.equals("tinylfu")) {
+      return new TinyLfuBlockCache(size, blockSize);
+    }
+    throw new IllegalArgumentException("Unknown block cache type " + impl + " for " + type.getKey());
+  }
+
+  private static FileBlockCache createL2Cache(AccumuloConfiguration acuConf, String instanceId, long blockSize) {
+    String dir = acuConf.get(Property.TSERV_CACHE_L2_DIR).trim();
+    if (dir.isEmpty())
+      return null;
+
+    long size = acuConf.getMemoryInBytes(Property.TSERV_CACHE_L2_SIZE);
+    final FileBlockCache cache;
+    try {
+      cache = new FileBlockCache(new File(dir), instanceId, size, blockSize);
+    } catch (IOException e) {
+      log.error("Unable to use " + dir + " for the local block cache, continuing without it", e);
+      return null;
+    }
+    log.info("Using " + size + " bytes of local disk in " + dir + " for evicted cache blocks");
+
+    long interval = acuConf.getTimeInMillis(Property.TSERV_CACHE_L2_CHECKPOINT_INTERVAL);
+    SimpleTimer.getInstance(acuConf).schedule(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          cache.checkpoint();
+        } catch (IOException e) {
+          log.warn("Failed to checkpoint local block cache", e);
+        }
+      }
+    }, interval, interval);
+    return cache;
+  }
+
   private static class TabletStateImpl implements TabletState, Cloneable {
 
     private long lct;
@@ -440,6 +596,9 @@ public class TabletServerResourceManager {
   }
 
   public void close() {
+    if (_l2Cache != null)
+      _l2Cache.shutdown();
+
     for (ExecutorService executorService : threadPools.values()) {
       executorService.shutdown();
     }
@@ -638,13 +797,25 @@ public class TabletServerResourceManager {
     }
   }
 
-  public void executeReadAhead(KeyExtent tablet, Runnable task) {
+  /**
+   * Run a scan of a tablet. Scans of user tables run in the scan executor named by the scan's executor hint, or else by the table's table.scan.executor, in
+   * the order of its prioritizer.
+   */
+  public void executeReadAhead(KeyExtent tablet, ScanInfo info, Runnable task) {
     if (tablet.isRootTablet()) {
       task.run();
     } else if (tablet.isMeta()) {
       defaultReadAheadThreadPool.execute(task);
     } else {
-      readAheadThreadPool.execute(task);
+      String name = info.getExecutionHints().get(ScanInfo.EXECUTOR_HINT);
+      if (name == null)
+        name = conf.getTableConfiguration(tablet).get(Property.TABLE_SCAN_EXECUTOR);
+      ExecutorService executor = scanExecutors.get(name);
+      if (executor == null) {
+        name = DEFAULT_SCAN_EXECUTOR;
+        executor = scanExecutors.get(name);
+      }
+      executor.execute(new PrioritizedScanTask(task, info, scanPrioritizers.get(name)));
     }
   }
 
@@ -720,4 +891,11 @@ public class TabletServerResourceManager {
     return _dCache;
   }
 
+  /**
+   * Get the bloom filter stats of the files opened for scans, by table id.
+   */
+  public Map<String,BloomFilterStats> getBloomFilterStats() {
+    return fileManager.getBloomFilterStats();
+  }
+
 }
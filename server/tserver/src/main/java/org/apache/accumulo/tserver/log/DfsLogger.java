@@ -22,6 +22,7 @@ import static org.apache.accumulo.tserver.logger.LogEvents.DEFINE_TABLET;
 import static org.apache.accumulo.tserver.logger.LogEvents.MANY_MUTATIONS;
 import static org.apache.accumulo.tserver.logger.LogEvents.OPEN;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -40,6 +41,8 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
@@ -123,12 +126,30 @@ public class DfsLogger {
 
   private final Object closeLock = new Object();
 
-  private static final DfsLogger.LogWork CLOSED_MARKER = new DfsLogger.LogWork(null);
+  private static final DfsLogger.LogWork CLOSED_MARKER = new DfsLogger.LogWork(null, null, Durability.NONE);
 
   private static final LogFileValue EMPTY = new LogFileValue();
 
   private boolean closed = false;
 
+  // set by the log thread once it has written everything queued before the closed marker
+  private boolean drained = false;
+
+  // bytes that may be queued but not yet written, so writers cannot get arbitrarily far ahead of the log thread
+  private Semaphore queuedBytes;
+  private int maxQueuedBytes;
+
+  // once a write fails the state of the file is unknown, so everything after it fails too; writes that nothing waits on
+  // see this failure on the next write or when the log is closed
+  private volatile Exception failure = null;
+
+  // bytes queued to this log, used to decide when to roll it
+  private final AtomicLong size = new AtomicLong();
+
+  /**
+   * Writes everything queued to the log file in batches. Callers serialize their entries before queueing them, so this thread only has to encrypt, write and
+   * then flush or sync once for the whole batch, as far as the most durable write in it requires.
+   */
   private class LogSyncingTask implements Runnable {
 
     @Override
@@ -144,32 +165,68 @@ public class DfsLogger {
         }
         workQueue.drainTo(work);
 
-        synchronized (closeLock) {
-          if (!closed) {
-            try {
-              sync.invoke(logFile);
-            } catch (Exception ex) {
-              log.warn("Exception syncing " + ex);
-              for (DfsLogger.LogWork logWork : work) {
-                logWork.exception = ex;
-              }
-            }
+        long start = System.nanoTime();
+        Durability durability = Durability.NONE;
+        boolean sawClosedMarker = false;
+        for (DfsLogger.LogWork logWork : work) {
+          if (logWork == CLOSED_MARKER) {
+            sawClosedMarker = true;
           } else {
-            for (DfsLogger.LogWork logWork : work) {
-              logWork.exception = new LogClosedException();
+            stats.getQueued().add(start - logWork.queued);
+            durability = durability.max(logWork.durability);
+          }
+        }
+
+        if (failure == null) {
+          Exception batchFailure = null;
+          try {
+            for (DfsLogger.LogWork logWork : work)
+              if (logWork != CLOSED_MARKER)
+                encryptingLogFile.write(logWork.data);
+            encryptingLogFile.flush();
+            long written = System.nanoTime();
+            stats.getWritten().add(written - start);
+
+            switch (durability) {
+              case NONE:
+                break;
+              case FLUSH:
+                logFile.flush();
+                break;
+              case HFLUSH:
+                flush.invoke(logFile);
+                break;
+              case HSYNC:
+                sync.invoke(logFile);
+                break;
             }
+            if (durability != Durability.NONE)
+              stats.getSynced().add(System.nanoTime() - written);
+          } catch (InvocationTargetException ex) {
+            batchFailure = ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+          } catch (Exception ex) {
+            batchFailure = ex;
+          }
+          if (batchFailure instanceof ClosedChannelException)
+            batchFailure = new LogClosedException();
+          if (batchFailure != null) {
+            log.warn("Exception writing to " + DfsLogger.this + " " + batchFailure);
+            failure = batchFailure;
           }
         }
 
-        boolean sawClosedMarker = false;
-        for (DfsLogger.LogWork logWork : work)
-          if (logWork == CLOSED_MARKER)
-            sawClosedMarker = true;
-          else
+        // this batch failed if it or any batch before it failed
+        for (DfsLogger.LogWork logWork : work) {
+          if (logWork != CLOSED_MARKER) {
+            logWork.exception = failure;
+            queuedBytes.release(permits(logWork.data.length));
             logWork.latch.countDown();
+          }
+        }
 
         if (sawClosedMarker) {
           synchronized (closeLock) {
+            drained = true;
             closeLock.notifyAll();
           }
           break;
@@ -179,22 +236,35 @@ public class DfsLogger {
   }
 
   static class LogWork {
-    CountDownLatch latch;
+    final CountDownLatch latch;
+    final byte[] data;
+    final Durability durability;
+    final long queued = System.nanoTime();
     volatile Exception exception;
 
-    public LogWork(CountDownLatch latch) {
+    public LogWork(CountDownLatch latch, byte[] data, Durability durability) {
       this.latch = latch;
+      this.data = data;
+      this.durability = durability;
     }
   }
 
   public static class LoggerOperation {
+    private final DfsLogger logger;
     private final LogWork work;
 
-    public LoggerOperation(LogWork work) {
+    public LoggerOperation(DfsLogger logger, LogWork work) {
+      this.logger = logger;
       this.work = work;
     }
 
     public void await() throws IOException {
+      // nothing waits for writes that do not need to be durable, but report any write to this log that has failed so far
+      if (work.durability == Durability.NONE) {
+        logger.checkForFailure();
+        return;
+      }
+
       try {
         work.latch.await();
       } catch (InterruptedException e) {
@@ -229,17 +299,25 @@ public class DfsLogger {
   }
 
   private final ServerResources conf;
+  private final WriteAheadLogStats stats;
   private FSDataOutputStream logFile;
   private DataOutputStream encryptingLogFile = null;
   private Method sync;
+  private Method flush;
   private String logPath;
 
   public DfsLogger(ServerResources conf) throws IOException {
+    this(conf, new WriteAheadLogStats());
+  }
+
+  public DfsLogger(ServerResources conf, WriteAheadLogStats stats) throws IOException {
     this.conf = conf;
+    this.stats = stats;
   }
 
   public DfsLogger(ServerResources conf, String filename) throws IOException {
     this.conf = conf;
+    this.stats = new WriteAheadLogStats();
     this.logPath = filename;
   }
 
@@ -329,6 +407,8 @@ public class DfsLogger {
     VolumeManager fs = conf.getFileSystem();
 
     logPath = fs.choose(ServerConstants.getWalDirs()) + "/" + logger + "/" + filename;
+    maxQueuedBytes = (int) Math.min(Math.max(conf.getConfiguration().getMemoryInBytes(Property.TSERV_WAL_QUEUE_MAX), 1), Integer.MAX_VALUE);
+    queuedBytes = new Semaphore(maxQueuedBytes);
     try {
       short replication = (short) conf.getConfiguration().getCount(Property.TSERV_WAL_REPLICATION);
       if (replication == 0)
@@ -356,6 +436,13 @@ public class DfsLogger {
         } catch (NoSuchMethodException ex) {}
         if (e != null)
           throw new RuntimeException(e);
+        try {
+          // hflush: send data to datanodes
+          flush = logFile.getClass().getMethod("hflush");
+        } catch (NoSuchMethodException ex) {
+          // sync does the same on versions of hadoop without hflush
+          flush = logFile.getClass().getMethod("sync");
+        }
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
@@ -418,10 +505,30 @@ public class DfsLogger {
     return fileName;
   }
 
+  /**
+   * @return the number of bytes written or queued to this log
+   */
+  public long getSize() {
+    return size.get();
+  }
+
   public String getFileName() {
     return logPath.toString();
   }
 
+  private int permits(int length) {
+    return Math.min(length, maxQueuedBytes);
+  }
+
+  private void checkForFailure() throws IOException {
+    Exception ex = failure;
+    if (ex == null)
+      return;
+    if (ex instanceof LogClosedException)
+      throw new LogClosedException();
+    throw new IOException("An earlier write to " + this + " failed", ex);
+  }
+
   public void close() throws IOException {
 
     synchronized (closeLock) {
@@ -434,7 +541,7 @@ public class DfsLogger {
       // thread to do work
       closed = true;
       workQueue.add(CLOSED_MARKER);
-      while (!workQueue.isEmpty())
+      while (!drained)
         try {
           closeLock.wait();
         } catch (InterruptedException e) {
@@ -449,37 +556,18 @@ public class DfsLogger {
         log.error(ex);
         throw new LogClosedException();
       }
+
+    checkForFailure();
   }
 
-  public synchronized void defineTablet(int seq, int tid, KeyExtent tablet) throws IOException {
+  public void defineTablet(int seq, int tid, KeyExtent tablet) throws IOException {
     // write this log to the METADATA table
     final LogFileKey key = new LogFileKey();
     key.event = DEFINE_TABLET;
     key.seq = seq;
     key.tid = tid;
     key.tablet = tablet;
-    try {
-      write(key, EMPTY);
-      sync.invoke(logFile);
-    } catch (IllegalArgumentException e) {
-      log.error("Signature of sync method changed. Accumulo is likely incompatible with this version of Hadoop.");
-      throw new RuntimeException(e);
-    } catch (IllegalAccessException e) {
-      log.error("Could not invoke sync method due to permission error.");
-      throw new RuntimeException(e);
-    } catch (InvocationTargetException e) {
-      Throwable cause = e.getCause();
-      if (cause instanceof IOException) {
-        throw (IOException) cause;
-      } else if (cause instanceof RuntimeException) {
-        throw (RuntimeException) cause;
-      } else if (cause instanceof Error) {
-        throw (Error) cause;
-      } else {
-        // Cause is null, or some other checked exception that was added later.
-        throw new RuntimeException(e);
-      }
-    }
+    logFileData(Collections.singletonList(new Pair<LogFileKey,LogFileValue>(key, EMPTY)), Durability.HSYNC).await();
   }
 
   private synchronized void write(LogFileKey key, LogFileValue value) throws IOException {
@@ -488,38 +576,41 @@ public class DfsLogger {
     encryptingLogFile.flush();
   }
 
-  public LoggerOperation log(int seq, int tid, Mutation mutation) throws IOException {
-    return logManyTablets(Collections.singletonList(new TabletMutations(tid, seq, Collections.singletonList(mutation))));
+  public LoggerOperation log(int seq, int tid, Mutation mutation, Durability durability) throws IOException {
+    return logManyTablets(Collections.singletonList(new TabletMutations(tid, seq, Collections.singletonList(mutation))), durability);
   }
 
-  private LoggerOperation logFileData(List<Pair<LogFileKey,LogFileValue>> keys) throws IOException {
-    DfsLogger.LogWork work = new DfsLogger.LogWork(new CountDownLatch(1));
-    synchronized (DfsLogger.this) {
-      try {
-        for (Pair<LogFileKey,LogFileValue> pair : keys) {
-          write(pair.getFirst(), pair.getSecond());
-        }
-      } catch (ClosedChannelException ex) {
-        throw new LogClosedException();
-      } catch (Exception e) {
-        log.error(e, e);
-        work.exception = e;
-      }
+  private LoggerOperation logFileData(List<Pair<LogFileKey,LogFileValue>> keys, Durability durability) throws IOException {
+    // serialize in the calling thread, so that many writers can prepare their entries at once
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    for (Pair<LogFileKey,LogFileValue> pair : keys) {
+      pair.getFirst().write(out);
+      pair.getSecond().write(out);
     }
+    out.close();
+
+    DfsLogger.LogWork work = new DfsLogger.LogWork(new CountDownLatch(1), bytes.toByteArray(), durability);
+
+    checkForFailure();
+    queuedBytes.acquireUninterruptibly(permits(work.data.length));
 
     synchronized (closeLock) {
       // use a different lock for close check so that adding to work queue does not need
       // to wait on walog I/O operations
 
-      if (closed)
+      if (closed) {
+        queuedBytes.release(permits(work.data.length));
         throw new LogClosedException();
+      }
       workQueue.add(work);
     }
+    size.addAndGet(work.data.length);
 
-    return new LoggerOperation(work);
+    return new LoggerOperation(this, work);
   }
 
-  public LoggerOperation logManyTablets(List<TabletMutations> mutations) throws IOException {
+  public LoggerOperation logManyTablets(List<TabletMutations> mutations, Durability durability) throws IOException {
     List<Pair<LogFileKey,LogFileValue>> data = new ArrayList<Pair<LogFileKey,LogFileValue>>();
     for (TabletMutations tabletMutations : mutations) {
       LogFileKey key = new LogFileKey();
@@ -530,7 +621,7 @@ public class DfsLogger {
       value.mutations = tabletMutations.getMutations();
       data.add(new Pair<LogFileKey,LogFileValue>(key, value));
     }
-    return logFileData(data);
+    return logFileData(data, durability);
   }
 
   public LoggerOperation minorCompactionFinished(int seq, int tid, String fqfn) throws IOException {
@@ -538,7 +629,7 @@ public class DfsLogger {
     key.event = COMPACTION_FINISH;
     key.seq = seq;
     key.tid = tid;
-    return logFileData(Collections.singletonList(new Pair<LogFileKey,LogFileValue>(key, EMPTY)));
+    return logFileData(Collections.singletonList(new Pair<LogFileKey,LogFileValue>(key, EMPTY)), Durability.HSYNC);
   }
 
   public LoggerOperation minorCompactionStarted(int seq, int tid, String fqfn) throws IOException {
@@ -547,7 +638,7 @@ public class DfsLogger {
     key.seq = seq;
     key.tid = tid;
     key.filename = fqfn;
-    return logFileData(Collections.singletonList(new Pair<LogFileKey,LogFileValue>(key, EMPTY)));
+    return logFileData(Collections.singletonList(new Pair<LogFileKey,LogFileValue>(key, EMPTY)), Durability.HSYNC);
   }
 
   public String getLogger() {
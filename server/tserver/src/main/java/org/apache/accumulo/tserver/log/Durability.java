@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import org.apache.log4j.Logger;
+
+/**
+ * How far a write to a write-ahead log must get before the writer is told it succeeded. Each level includes the ones before it.
+ */
+public enum Durability {
+  /**
+   * Queued for the log, the writer does not wait for it at all.
+   */
+  NONE,
+  /**
+   * Written to the output stream of the log file.
+   */
+  FLUSH,
+  /**
+   * Sent to the datanodes holding the log, they may not have written it to disk yet.
+   */
+  HFLUSH,
+  /**
+   * Written to disk on the datanodes holding the log.
+   */
+  HSYNC;
+
+  private static final Logger log = Logger.getLogger(Durability.class);
+
+  /**
+   * Parse a durability as given in the table configuration, falling back to {@link #HSYNC} for anything unknown.
+   */
+  public static Durability fromString(String durability) {
+    try {
+      return valueOf(durability.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      log.warn("Unknown durability " + durability + ", using " + HSYNC);
+      return HSYNC;
+    }
+  }
+
+  /**
+   * @return the stronger of this and other
+   */
+  public Durability max(Durability other) {
+    return compareTo(other) >= 0 ? this : other;
+  }
+}
@@ -26,6 +26,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.accumulo.core.Constants;
@@ -45,7 +50,6 @@ import org.apache.accumulo.tserver.logger.LogFileValue;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.io.MapFile;
 import org.apache.log4j.Logger;
 import org.apache.zookeeper.KeeperException;
 
@@ -97,7 +101,7 @@ public class LogSorter {
 
     }
 
-    public void sort(String name, Path srcPath, String destPath) {
+    public void sort(String name, Path srcPath, final String destPath) {
 
       synchronized (this) {
         sortStart = System.currentTimeMillis();
@@ -114,26 +118,62 @@ public class LogSorter {
         this.input = inputStreams.getOriginalInput();
         this.decryptingInput = inputStreams.getDecryptingInputStream();
 
-        final long bufferSize = conf.getMemoryInBytes(Property.TSERV_SORT_BUFFER_SIZE);
-        Thread.currentThread().setName("Sorting " + name + " for recovery");
-        while (true) {
-          final ArrayList<Pair<LogFileKey,LogFileValue>> buffer = new ArrayList<Pair<LogFileKey,LogFileValue>>();
-          try {
-            long start = input.getPos();
-            while (input.getPos() - start < bufferSize) {
-              LogFileKey key = new LogFileKey();
-              LogFileValue value = new LogFileValue();
-              key.readFields(decryptingInput);
-              value.readFields(decryptingInput);
-              buffer.add(new Pair<LogFileKey,LogFileValue>(key, value));
+        // this thread reads the log while the sorters sort and write the parts it has read, the buffer is shared by all of them
+        int threads = Math.max(1, conf.getCount(Property.TSERV_SORT_THREADS));
+        final long bufferSize = Math.max(1, conf.getMemoryInBytes(Property.TSERV_SORT_BUFFER_SIZE) / (threads + 1));
+        final Semaphore sorting = new Semaphore(threads);
+        SortedLogIndex index = new SortedLogIndex();
+        ExecutorService sorters = new SimpleThreadPool(threads, "Sorting " + name + " for recovery");
+        List<Future<Void>> parts = new ArrayList<Future<Void>>();
+        Thread.currentThread().setName("Reading " + name + " for recovery");
+        try {
+          boolean eof = false;
+          while (!eof) {
+            final ArrayList<Pair<LogFileKey,LogFileValue>> buffer = new ArrayList<Pair<LogFileKey,LogFileValue>>();
+            try {
+              long start = input.getPos();
+              while (input.getPos() - start < bufferSize) {
+                LogFileKey key = new LogFileKey();
+                LogFileValue value = new LogFileValue();
+                key.readFields(decryptingInput);
+                value.readFields(decryptingInput);
+                index.add(key, part);
+                buffer.add(new Pair<LogFileKey,LogFileValue>(key, value));
+              }
+            } catch (EOFException ex) {
+              eof = true;
+            }
+
+            // always write at least one part, recovery expects one
+            if (buffer.isEmpty() && part > 0)
+              continue;
+
+            sorting.acquire();
+            final int thisPart = part++;
+            parts.add(sorters.submit(new Callable<Void>() {
+              @Override
+              public Void call() throws Exception {
+                try {
+                  writeBuffer(destPath, buffer, thisPart);
+                } finally {
+                  sorting.release();
+                }
+                return null;
+              }
+            }));
+          }
+
+          for (Future<Void> future : parts) {
+            try {
+              future.get();
+            } catch (ExecutionException e) {
+              throw e.getCause();
             }
-            writeBuffer(destPath, buffer, part++);
-            buffer.clear();
-          } catch (EOFException ex) {
-            writeBuffer(destPath, buffer, part++);
-            break;
           }
+        } finally {
+          sorters.shutdownNow();
         }
+        index.write(fs, new Path(destPath));
         fs.create(new Path(destPath, "finished")).close();
         log.info("Finished log sort " + name + " " + getBytesCopied() + " bytes " + part + " parts in " + getSortTime() + "ms");
       } catch (Throwable t) {
@@ -159,24 +199,16 @@ public class LogSorter {
     }
 
     private void writeBuffer(String destPath, ArrayList<Pair<LogFileKey,LogFileValue>> buffer, int part) throws IOException {
-      Path path = new Path(destPath, String.format("part-r-%05d", part++));
+      Path path = new Path(destPath, SortedLogFile.partName(part));
       FileSystem ns = fs.getVolumeByPath(path).getFileSystem();
-      
-      @SuppressWarnings("deprecation")
-      MapFile.Writer output = new MapFile.Writer(ns.getConf(), ns, path.toString(), LogFileKey.class, LogFileValue.class);
-      try {
-        Collections.sort(buffer, new Comparator<Pair<LogFileKey,LogFileValue>>() {
-          @Override
-          public int compare(Pair<LogFileKey,LogFileValue> o1, Pair<LogFileKey,LogFileValue> o2) {
-            return o1.getFirst().compareTo(o2.getFirst());
-          }
-        });
-        for (Pair<LogFileKey,LogFileValue> entry : buffer) {
-          output.append(entry.getFirst(), entry.getSecond());
+
+      Collections.sort(buffer, new Comparator<Pair<LogFileKey,LogFileValue>>() {
+        @Override
+        public int compare(Pair<LogFileKey,LogFileValue> o1, Pair<LogFileKey,LogFileValue> o2) {
+          return o1.getFirst().compareTo(o2.getFirst());
         }
-      } finally {
-        output.close();
-      }
+      });
+      SortedLogFile.write(ns, path, buffer);
     }
 
     synchronized void close() throws IOException {
@@ -18,8 +18,11 @@ package org.apache.accumulo.tserver.log;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.util.Set;
 
 import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.tserver.logger.LogFileKey;
+import org.apache.accumulo.tserver.logger.LogFileValue;
 import org.apache.commons.collections.buffer.PriorityBuffer;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -33,18 +36,110 @@ import org.apache.hadoop.io.WritableComparable;
 /**
  * Provide simple Map.Reader methods over multiple Maps.
  * 
- * Presently only supports next() and seek() and works on all the Map directories within a directory. The primary purpose of this class is to merge the results
- * of multiple Reduce jobs that result in Map output files.
+ * Presently only supports next() and seek() and works on all the Map directories and {@link SortedLogFile}s within a directory. The primary purpose of this
+ * class is to merge the results of multiple Reduce jobs that result in Map output files.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class MultiReader {
   
+  /**
+   * The operations needed from the reader of one sorted part.
+   */
+  private interface PartReader {
+    Class<?> getKeyClass();
+    
+    Class<?> getValueClass();
+    
+    boolean next(WritableComparable key, Writable value) throws IOException;
+    
+    /**
+     * Position the reader as MapFile.Reader.getClosest(key, value, true) does.
+     * 
+     * @return true if an entry equal to key was found
+     */
+    boolean seek(WritableComparable key, Writable value) throws IOException;
+    
+    void close() throws IOException;
+  }
+  
+  private static class MapFilePartReader implements PartReader {
+    private final Reader reader;
+    
+    MapFilePartReader(Reader reader) {
+      this.reader = reader;
+    }
+    
+    @Override
+    public Class<?> getKeyClass() {
+      return reader.getKeyClass();
+    }
+    
+    @Override
+    public Class<?> getValueClass() {
+      return reader.getValueClass();
+    }
+    
+    @Override
+    public boolean next(WritableComparable key, Writable value) throws IOException {
+      return reader.next(key, value);
+    }
+    
+    @Override
+    public boolean seek(WritableComparable key, Writable value) throws IOException {
+      try {
+        WritableComparable found = reader.getClosest(key, value, true);
+        return found != null && found.equals(key);
+      } catch (EOFException ex) {
+        // thrown if key is beyond all data in the map
+        return false;
+      }
+    }
+    
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+  
+  private static class SortedLogPartReader implements PartReader {
+    private final SortedLogFile.Reader reader;
+    
+    SortedLogPartReader(SortedLogFile.Reader reader) {
+      this.reader = reader;
+    }
+    
+    @Override
+    public Class<?> getKeyClass() {
+      return LogFileKey.class;
+    }
+    
+    @Override
+    public Class<?> getValueClass() {
+      return LogFileValue.class;
+    }
+    
+    @Override
+    public boolean next(WritableComparable key, Writable value) throws IOException {
+      return reader.next((LogFileKey) key, (LogFileValue) value);
+    }
+    
+    @Override
+    public boolean seek(WritableComparable key, Writable value) throws IOException {
+      return reader.seek((LogFileKey) key);
+    }
+    
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+  
   /**
    * Group together the next key/value from a Reader with the Reader
    * 
    */
   private static class Index implements Comparable<Index> {
-    Reader reader;
+    PartReader reader;
     WritableComparable key;
     Writable value;
     boolean cached = false;
@@ -57,7 +152,7 @@ public class MultiReader {
       }
     }
     
-    public Index(Reader reader) {
+    public Index(PartReader reader) {
       this.reader = reader;
       key = (WritableComparable) create(reader.getKeyClass());
       value = (Writable) create(reader.getValueClass());
@@ -87,8 +182,16 @@ public class MultiReader {
   
   private PriorityBuffer heap = new PriorityBuffer();
   
-  @SuppressWarnings("deprecation")
   public MultiReader(VolumeManager fs, Path directory) throws IOException {
+    this(fs, directory, null);
+  }
+  
+  /**
+   * @param parts
+   *          the names of the parts to read, or null to read them all
+   */
+  @SuppressWarnings("deprecation")
+  public MultiReader(VolumeManager fs, Path directory, Set<String> parts) throws IOException {
     boolean foundFinish = false;
     for (FileStatus child : fs.listStatus(directory)) {
       if (child.getPath().getName().startsWith("_"))
@@ -97,8 +200,13 @@ public class MultiReader {
         foundFinish = true;
         continue;
       }
+      if (parts != null && !parts.contains(child.getPath().getName()))
+        continue;
       FileSystem ns = fs.getVolumeByPath(child.getPath()).getFileSystem();
-      heap.add(new Index(new Reader(ns, child.getPath().toString(), ns.getConf())));
+      if (child.getPath().getName().endsWith("." + SortedLogFile.EXTENSION))
+        heap.add(new Index(new SortedLogPartReader(new SortedLogFile.Reader(ns, child.getPath()))));
+      else
+        heap.add(new Index(new MapFilePartReader(new Reader(ns, child.getPath().toString(), ns.getConf()))));
     }
     if (!foundFinish)
       throw new IOException("Sort \"finished\" flag not found in " + directory);
@@ -114,6 +222,8 @@ public class MultiReader {
   }
   
   public synchronized boolean next(WritableComparable key, Writable val) throws IOException {
+    if (heap.isEmpty())
+      return false;
     Index elt = (Index) heap.remove();
     try {
       elt.cache();
@@ -135,14 +245,8 @@ public class MultiReader {
     boolean result = false;
     for (Object obj : heap) {
       Index index = (Index) obj;
-      try {
-        WritableComparable found = index.reader.getClosest(key, index.value, true);
-        if (found != null && found.equals(key)) {
-          result = true;
-        }
-      } catch (EOFException ex) {
-        // thrown if key is beyond all data in the map
-      }
+      if (index.reader.seek(key, index.value))
+        result = true;
       index.cached = false;
       reheap.add(index);
     }
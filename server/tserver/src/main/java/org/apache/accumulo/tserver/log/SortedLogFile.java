@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.tserver.logger.LogFileKey;
+import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+
+/**
+ * A sorted run of write-ahead log entries, written by {@link LogSorter} for recovery. It is a single file holding the entries one after the other, then an
+ * index with every {@value #INDEX_INTERVAL}th key and its offset, then a trailer with the offset of the index, the number of entries and a magic number. There
+ * are none of the per-file headers, sync markers and separate index file of a MapFile.
+ */
+public class SortedLogFile {
+
+  public static final String EXTENSION = "slog";
+
+  static final int INDEX_INTERVAL = 128;
+
+  private static final int MAGIC = 0x534c4f47;
+  private static final int TRAILER_SIZE = 8 + 8 + 4;
+
+  /**
+   * @return the name of the numbered part of a sorted log
+   */
+  public static String partName(int part) {
+    return String.format("part-r-%05d.%s", part, EXTENSION);
+  }
+
+  /**
+   * Write entries, which must already be sorted, to path.
+   */
+  public static void write(FileSystem ns, Path path, List<Pair<LogFileKey,LogFileValue>> sorted) throws IOException {
+    FSDataOutputStream out = ns.create(path, false);
+    try {
+      DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+      List<Pair<LogFileKey,Long>> index = new ArrayList<Pair<LogFileKey,Long>>();
+      for (int i = 0; i < sorted.size(); i++) {
+        Pair<LogFileKey,LogFileValue> entry = sorted.get(i);
+        if (i % INDEX_INTERVAL == 0) {
+          data.flush();
+          index.add(new Pair<LogFileKey,Long>(entry.getFirst(), out.getPos()));
+        }
+        entry.getFirst().write(data);
+        entry.getSecond().write(data);
+      }
+      data.flush();
+
+      long indexOffset = out.getPos();
+      data.writeInt(index.size());
+      for (Pair<LogFileKey,Long> entry : index) {
+        entry.getFirst().write(data);
+        data.writeLong(entry.getSecond());
+      }
+      data.writeLong(indexOffset);
+      data.writeLong(sorted.size());
+      data.writeInt(MAGIC);
+      data.flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Reads a sorted log file with the seek semantics of a MapFile reader, see {@link #seek(LogFileKey)}.
+   */
+  public static class Reader {
+
+    private final FSDataInputStream in;
+    private final long entries;
+    private final LogFileKey[] indexKeys;
+    private final long[] indexOffsets;
+
+    private DataInputStream data;
+    private long ordinal;
+
+    // an entry read while seeking that next() must return
+    private LogFileKey peekedKey = null;
+    private LogFileValue peekedValue = null;
+
+    public Reader(FileSystem ns, Path path) throws IOException {
+      long length = ns.getFileStatus(path).getLen();
+      in = ns.open(path);
+      try {
+        if (length < TRAILER_SIZE)
+          throw new IOException("Sorted log " + path + " is too short");
+        in.seek(length - TRAILER_SIZE);
+        long indexOffset = in.readLong();
+        entries = in.readLong();
+        if (in.readInt() != MAGIC)
+          throw new IOException("Sorted log " + path + " has a bad trailer");
+
+        in.seek(indexOffset);
+        DataInputStream index = new DataInputStream(new BufferedInputStream(in));
+        int size = index.readInt();
+        indexKeys = new LogFileKey[size];
+        indexOffsets = new long[size];
+        for (int i = 0; i < size; i++) {
+          indexKeys[i] = new LogFileKey();
+          indexKeys[i].readFields(index);
+          indexOffsets[i] = index.readLong();
+        }
+      } catch (IOException e) {
+        in.close();
+        throw e;
+      }
+      position(0);
+    }
+
+    private void position(int indexEntry) throws IOException {
+      in.seek(indexOffsets.length == 0 ? 0 : indexOffsets[indexEntry]);
+      data = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+      ordinal = (long) indexEntry * INDEX_INTERVAL;
+      peekedKey = null;
+      peekedValue = null;
+    }
+
+    private static void copy(LogFileKey srcKey, LogFileValue srcValue, LogFileKey key, LogFileValue value) throws IOException {
+      DataOutputBuffer output = new DataOutputBuffer();
+      srcKey.write(output);
+      srcValue.write(output);
+      DataInputBuffer input = new DataInputBuffer();
+      input.reset(output.getData(), output.getLength());
+      key.readFields(input);
+      value.readFields(input);
+    }
+
+    public boolean next(LogFileKey key, LogFileValue value) throws IOException {
+      if (peekedKey != null) {
+        copy(peekedKey, peekedValue, key, value);
+        peekedKey = null;
+        peekedValue = null;
+        return true;
+      }
+      if (ordinal >= entries)
+        return false;
+      key.readFields(data);
+      value.readFields(data);
+      ordinal++;
+      return true;
+    }
+
+    /**
+     * Position the reader the way MapFile.Reader.getClosest(key, value, true) does: just after the first entry equal to key, or if there is none, just after
+     * the last entry before key.
+     *
+     * @return true if an entry equal to key was found
+     */
+    public boolean seek(LogFileKey key) throws IOException {
+      // start at the last indexed key before the one sought, duplicates of it may span index entries
+      int low = 0, high = indexKeys.length - 1, start = 0;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (indexKeys[mid].compareTo(key) < 0) {
+          start = mid;
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      position(start);
+
+      while (true) {
+        LogFileKey k = new LogFileKey();
+        LogFileValue v = new LogFileValue();
+        if (!next(k, v))
+          return false;
+        int cmp = k.compareTo(key);
+        if (cmp == 0)
+          return true;
+        if (cmp > 0) {
+          peekedKey = k;
+          peekedValue = v;
+          return false;
+        }
+      }
+    }
+
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
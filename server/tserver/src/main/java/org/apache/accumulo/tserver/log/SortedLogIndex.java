@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import static org.apache.accumulo.tserver.logger.LogEvents.DEFINE_TABLET;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.tserver.logger.LogFileKey;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Which parts of a sorted log hold the entries of each tablet. {@link LogSorter} builds it while reading a log and writes it next to the parts, so recovery can
+ * find the id a tablet had in the log without scanning every tablet definition, and open only the parts that hold entries for that id.
+ */
+public class SortedLogIndex {
+
+  // starts with an underscore so MultiReader does not take it for a part
+  public static final String NAME = "_index";
+
+  private String session = null;
+  // for each tablet, the definition recovery uses: the highest id, with the lowest sequence number for that id
+  private final Map<KeyExtent,LogFileKey> defines = new HashMap<KeyExtent,LogFileKey>();
+  private final Map<Integer,BitSet> parts = new HashMap<Integer,BitSet>();
+
+  /**
+   * Choose between two definitions of a tablet the way recovery does, either may be null.
+   */
+  static LogFileKey latest(LogFileKey define1, LogFileKey define2) {
+    if (define1 == null)
+      return define2;
+    if (define2 == null)
+      return define1;
+    if (define1.tid != define2.tid)
+      return define1.tid > define2.tid ? define1 : define2;
+    return define1.seq <= define2.seq ? define1 : define2;
+  }
+
+  /**
+   * Note an entry of the log that was read into the given part.
+   */
+  void add(LogFileKey key, int part) {
+    switch (key.event) {
+      case OPEN:
+        if (session == null)
+          session = key.tserverSession;
+        return;
+      case DEFINE_TABLET:
+        defines.put(key.tablet, latest(defines.get(key.tablet), key));
+        break;
+      default:
+        break;
+    }
+    BitSet tidParts = parts.get(key.tid);
+    if (tidParts == null) {
+      tidParts = new BitSet();
+      parts.put(key.tid, tidParts);
+    }
+    tidParts.set(part);
+  }
+
+  /**
+   * @return the tablet server session that wrote the log, null if the log was empty
+   */
+  public String getSession() {
+    return session;
+  }
+
+  /**
+   * @return the definition of the tablet recovery should use, null if the tablet was not defined in the log
+   */
+  public LogFileKey getDefine(KeyExtent extent) {
+    return defines.get(extent);
+  }
+
+  /**
+   * @return the names of the parts holding entries for the tablet id
+   */
+  public Set<String> getParts(int tid) {
+    Set<String> names = new HashSet<String>();
+    BitSet tidParts = parts.get(tid);
+    if (tidParts != null)
+      for (int part = tidParts.nextSetBit(0); part >= 0; part = tidParts.nextSetBit(part + 1))
+        names.add(SortedLogFile.partName(part));
+    return names;
+  }
+
+  public void write(VolumeManager fs, Path directory) throws IOException {
+    DataOutputStream out = fs.create(new Path(directory, NAME));
+    try {
+      out.writeBoolean(session != null);
+      if (session != null)
+        out.writeUTF(session);
+      out.writeInt(defines.size());
+      for (LogFileKey define : defines.values()) {
+        define.tablet.write(out);
+        out.writeInt(define.tid);
+        out.writeLong(define.seq);
+      }
+      out.writeInt(parts.size());
+      for (Entry<Integer,BitSet> entry : parts.entrySet()) {
+        out.writeInt(entry.getKey());
+        BitSet tidParts = entry.getValue();
+        out.writeInt(tidParts.cardinality());
+        for (int part = tidParts.nextSetBit(0); part >= 0; part = tidParts.nextSetBit(part + 1))
+          out.writeInt(part);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @return the index of a sorted log, null if it was sorted without one
+   */
+  public static SortedLogIndex read(VolumeManager fs, Path directory) throws IOException {
+    Path path = new Path(directory, NAME);
+    if (!fs.exists(path))
+      return null;
+    SortedLogIndex index = new SortedLogIndex();
+    DataInputStream in = fs.open(path);
+    try {
+      if (in.readBoolean())
+        index.session = in.readUTF();
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        LogFileKey define = new LogFileKey();
+        define.event = DEFINE_TABLET;
+        define.tablet = new KeyExtent();
+        define.tablet.readFields(in);
+        define.tid = in.readInt();
+        define.seq = in.readLong();
+        index.defines.put(define.tablet, define);
+      }
+      count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        int tid = in.readInt();
+        BitSet tidParts = new BitSet();
+        int size = in.readInt();
+        for (int j = 0; j < size; j++)
+          tidParts.set(in.readInt());
+        index.parts.put(tid, tidParts);
+      }
+    } finally {
+      in.close();
+    }
+    return index;
+  }
+}
@@ -24,6 +24,7 @@ import static org.apache.accumulo.tserver.logger.LogEvents.MUTATION;
 import static org.apache.accumulo.tserver.logger.LogEvents.OPEN;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -93,14 +94,27 @@ public class SortedLogRecovery {
   
   public void recover(KeyExtent extent, List<Path> recoveryLogs, Set<String> tabletFiles, MutationReceiver mr) throws IOException {
     int[] tids = new int[recoveryLogs.size()];
+    // the parts of each sorted log to read, null for all of them
+    List<Set<String>> parts = new ArrayList<Set<String>>();
     LastStartToFinish lastStartToFinish = new LastStartToFinish();
     for (int i = 0; i < recoveryLogs.size(); i++) {
       Path logfile = recoveryLogs.get(i);
       log.info("Looking at mutations from " + logfile + " for " + extent);
-      MultiReader reader = new MultiReader(fs, logfile);
+      SortedLogIndex index = SortedLogIndex.read(fs, logfile);
+      LogFileKey defineKey = null;
+      if (index != null) {
+        defineKey = findDefine(index, extent);
+        parts.add(index.getParts(defineKey == null ? -1 : defineKey.tid));
+      } else {
+        parts.add(null);
+      }
+      MultiReader reader = new MultiReader(fs, logfile, parts.get(i));
       try {
         try {
-          tids[i] = findLastStartToFinish(reader, i, extent, tabletFiles, lastStartToFinish);
+          if (index == null)
+            tids[i] = findLastStartToFinish(reader, i, extent, tabletFiles, lastStartToFinish);
+          else
+            tids[i] = findLastStartToFinish(reader, i, index.getSession(), defineKey, tabletFiles, lastStartToFinish);
         } catch (EmptyMapFileException ex) {
           log.info("Ignoring empty map file " + logfile);
           tids[i] = -1;
@@ -123,7 +137,9 @@ public class SortedLogRecovery {
     
     for (int i = 0; i < recoveryLogs.size(); i++) {
       Path logfile = recoveryLogs.get(i);
-      MultiReader reader = new MultiReader(fs, logfile);
+      if (tids[i] < 0)
+        continue;
+      MultiReader reader = new MultiReader(fs, logfile, parts.get(i));
       try {
         playbackMutations(reader, tids[i], lastStartToFinish, mr);
       } finally {
@@ -144,11 +160,20 @@ public class SortedLogRecovery {
     return path.getParent().getName() + "/" + path.getName();
   }
 
-  int findLastStartToFinish(MultiReader reader, int fileno, KeyExtent extent, Set<String> tabletFiles, LastStartToFinish lastStartToFinish) throws IOException, EmptyMapFileException, UnusedException {
+  private static KeyExtent alternative(KeyExtent extent) {
+    if (extent.isRootTablet())
+      return RootTable.OLD_EXTENT;
+    return extent;
+  }
 
-    HashSet<String> suffixes = new HashSet<String>();
-    for (String path : tabletFiles)
-      suffixes.add(getPathSuffix(path));
+  /**
+   * Find the definition of a tablet in the index of a sorted log, instead of scanning all the definitions in the log.
+   */
+  private LogFileKey findDefine(SortedLogIndex index, KeyExtent extent) {
+    return SortedLogIndex.latest(index.getDefine(extent), index.getDefine(alternative(extent)));
+  }
+
+  int findLastStartToFinish(MultiReader reader, int fileno, KeyExtent extent, Set<String> tabletFiles, LastStartToFinish lastStartToFinish) throws IOException, EmptyMapFileException, UnusedException {
 
     // Scan for tableId for this extent (should always be in the log)
     LogFileKey key = new LogFileKey();
@@ -158,16 +183,8 @@ public class SortedLogRecovery {
       throw new EmptyMapFileException();
     if (key.event != OPEN)
       throw new RuntimeException("First log entry value is not OPEN");
-    
-    if (key.tserverSession.compareTo(lastStartToFinish.tserverSession) != 0) {
-      if (lastStartToFinish.compactionStatus == Status.LOOKING_FOR_FINISH)
-        throw new RuntimeException("COMPACTION_FINISH (without preceding COMPACTION_START) is not followed by a successful minor compaction.");
-      lastStartToFinish.update(key.tserverSession);
-    }
-    KeyExtent alternative = extent;
-    if (extent.isRootTablet()) {
-      alternative = RootTable.OLD_EXTENT;
-    }
+    String session = key.tserverSession;
+    KeyExtent alternative = alternative(extent);
     
     LogFileKey defineKey = null;
     
@@ -185,15 +202,38 @@ public class SortedLogRecovery {
         }
       }
     }
-    if (tid < 0) {
+    return findLastStartToFinish(reader, fileno, session, tid < 0 ? null : defineKey, tabletFiles, lastStartToFinish);
+  }
+
+  /**
+   * Scan the start and stop events of a tablet whose definition has already been found.
+   */
+  int findLastStartToFinish(MultiReader reader, int fileno, String session, LogFileKey defineKey, Set<String> tabletFiles, LastStartToFinish lastStartToFinish)
+      throws IOException, EmptyMapFileException, UnusedException {
+    if (session == null)
+      throw new EmptyMapFileException();
+    if (session.compareTo(lastStartToFinish.tserverSession) != 0) {
+      if (lastStartToFinish.compactionStatus == Status.LOOKING_FOR_FINISH)
+        throw new RuntimeException("COMPACTION_FINISH (without preceding COMPACTION_START) is not followed by a successful minor compaction.");
+      lastStartToFinish.update(session);
+    }
+    if (defineKey == null) {
       throw new UnusedException();
     }
+    int tid = defineKey.tid;
     
     log.debug("Found tid, seq " + tid + " " + defineKey.seq);
     
+    HashSet<String> suffixes = new HashSet<String>();
+    for (String path : tabletFiles)
+      suffixes.add(getPathSuffix(path));
+
     // Scan start/stop events for this tablet
-    key = defineKey;
+    LogFileKey key = new LogFileKey();
+    LogFileValue value = new LogFileValue();
     key.event = COMPACTION_START;
+    key.tid = tid;
+    key.seq = defineKey.seq;
     reader.seek(key);
     while (reader.next(key, value)) {
       // LogFileEntry.printEntry(entry);
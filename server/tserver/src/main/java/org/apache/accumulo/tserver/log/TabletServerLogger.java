@@ -21,12 +21,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -46,16 +46,17 @@ import org.apache.log4j.Logger;
 /**
  * Central logging facility for the TServerInfo.
  *
- * Forwards in-memory updates to remote logs, carefully writing the same data to every log, while maintaining the maximum thread parallelism for greater
- * performance. As new logs are used and minor compactions are performed, the metadata table is kept up-to-date.
+ * Forwards in-memory updates to remote logs, while maintaining the maximum thread parallelism for greater performance. The tablets are striped across a set
+ * of logs that are written to at once, each tablet always writing to the same log of the set. As new logs are used and minor compactions are performed, the
+ * metadata table is kept up-to-date.
  *
  */
 public class TabletServerLogger {
 
   private static final Logger log = Logger.getLogger(TabletServerLogger.class);
 
-  private final AtomicLong logSizeEstimate = new AtomicLong();
   private final long maxSize;
+  private final int logCount;
 
   private final TabletServer tserver;
 
@@ -76,6 +77,8 @@ public class TabletServerLogger {
 
   private final AtomicInteger seqGen = new AtomicInteger();
 
+  private final WriteAheadLogStats stats = new WriteAheadLogStats();
+
   private static boolean enabled(TableConfiguration tconf) {
     return tconf.getBoolean(Property.TABLE_WALOG_ENABLED);
   }
@@ -84,6 +87,10 @@ public class TabletServerLogger {
     return enabled(commitSession.getTablet().getTableConfiguration());
   }
 
+  private static Durability durability(CommitSession commitSession) {
+    return Durability.fromString(commitSession.getTablet().getTableConfiguration().get(Property.TABLE_DURABILITY));
+  }
+
   static private abstract class TestCallWithWriteLock {
     abstract boolean test();
 
@@ -128,9 +135,10 @@ public class TabletServerLogger {
     }
   }
 
-  public TabletServerLogger(TabletServer tserver, long maxSize) {
+  public TabletServerLogger(TabletServer tserver, long maxSize, int logCount) {
     this.tserver = tserver;
     this.maxSize = maxSize;
+    this.logCount = Math.max(1, logCount);
   }
 
   private int initializeLoggers(final List<DfsLogger> copy) throws IOException {
@@ -163,6 +171,10 @@ public class TabletServerLogger {
     return result[0];
   }
 
+  public WriteAheadLogStats getStats() {
+    return stats;
+  }
+
   public void getLogFiles(Set<String> loggersOut) {
     logSetLock.readLock().lock();
     try {
@@ -184,12 +196,22 @@ public class TabletServerLogger {
     }
 
     try {
-      DfsLogger alog = new DfsLogger(tserver.getServerConfig());
-      alog.open(tserver.getClientAddressString());
-      loggers.add(alog);
+      for (int i = 0; i < logCount; i++) {
+        DfsLogger alog = new DfsLogger(tserver.getServerConfig(), stats);
+        alog.open(tserver.getClientAddressString());
+        loggers.add(alog);
+      }
       logSetId.incrementAndGet();
       return;
     } catch (Exception t) {
+      for (DfsLogger alog : loggers) {
+        try {
+          alog.close();
+        } catch (Exception ex) {
+          log.warn("Unable to close log " + alog + " after failing to open its set: " + ex);
+        }
+      }
+      loggers.clear();
       throw new RuntimeException(t);
     }
   }
@@ -218,14 +240,23 @@ public class TabletServerLogger {
         }
       }
       loggers.clear();
-      logSizeEstimate.set(0);
     } catch (Throwable t) {
       throw new IOException(t);
     }
   }
 
   interface Writer {
-    LoggerOperation write(DfsLogger logger, int seq) throws Exception;
+    /**
+     * Write for the sessions that are striped to logger.
+     */
+    LoggerOperation write(DfsLogger logger, Collection<CommitSession> sessions) throws Exception;
+  }
+
+  /**
+   * @return the log of the set that a tablet writes to, which does not change while the set is in use
+   */
+  private static DfsLogger stripe(List<DfsLogger> loggers, CommitSession commitSession) {
+    return loggers.get((commitSession.getLogId() & Integer.MAX_VALUE) % loggers.size());
   }
 
   private int write(CommitSession commitSession, boolean mincFinish, Writer writer) throws IOException {
@@ -251,12 +282,13 @@ public class TabletServerLogger {
 
         if (currentLogSet == logSetId.get()) {
           for (CommitSession commitSession : sessions) {
-            if (commitSession.beginUpdatingLogsUsed(copy, mincFinish)) {
+            ArrayList<DfsLogger> used = new ArrayList<DfsLogger>(Collections.singletonList(stripe(copy, commitSession)));
+            if (commitSession.beginUpdatingLogsUsed(used, mincFinish)) {
               try {
                 // Scribble out a tablet definition and then write to the metadata table
                 defineTablet(commitSession);
                 if (currentLogSet == logSetId.get())
-                  tserver.addLoggersToMetadata(copy, commitSession.getExtent(), commitSession.getLogId());
+                  tserver.addLoggersToMetadata(used, commitSession.getExtent(), commitSession.getLogId());
               } finally {
                 commitSession.finishUpdatingLogsUsed();
               }
@@ -271,9 +303,19 @@ public class TabletServerLogger {
           seq = seqGen.incrementAndGet();
           if (seq < 0)
             throw new RuntimeException("Logger sequence generator wrapped!  Onos!!!11!eleven");
-          ArrayList<LoggerOperation> queuedOperations = new ArrayList<LoggerOperation>(copy.size());
-          for (DfsLogger wal : copy) {
-            LoggerOperation lop = writer.write(wal, seq);
+          Map<DfsLogger,List<CommitSession>> stripes = new LinkedHashMap<DfsLogger,List<CommitSession>>();
+          for (CommitSession commitSession : sessions) {
+            DfsLogger wal = stripe(copy, commitSession);
+            List<CommitSession> striped = stripes.get(wal);
+            if (striped == null)
+              stripes.put(wal, striped = new ArrayList<CommitSession>());
+            striped.add(commitSession);
+          }
+
+          // queue the writes to every log before waiting on any of them
+          ArrayList<LoggerOperation> queuedOperations = new ArrayList<LoggerOperation>(stripes.size());
+          for (Entry<DfsLogger,List<CommitSession>> entry : stripes.entrySet()) {
+            LoggerOperation lop = writer.write(entry.getKey(), entry.getValue());
             if (lop != null)
               queuedOperations.add(lop);
           }
@@ -314,12 +356,15 @@ public class TabletServerLogger {
         });
       }
     }
-    // if the log gets too big, reset it .. grab the write lock first
-    logSizeEstimate.addAndGet(4 * 3); // event, tid, seq overhead
+    // if a log gets too big, reset the set .. grab the write lock first
     testLockAndRun(logSetLock, new TestCallWithWriteLock() {
       @Override
       boolean test() {
-        return logSizeEstimate.get() > maxSize;
+        // tablets are not spread evenly over the logs of the set, so check each one
+        for (DfsLogger logger : loggers)
+          if (logger.getSize() > maxSize)
+            return true;
+        return false;
       }
 
       @Override
@@ -336,7 +381,7 @@ public class TabletServerLogger {
       return -1;
     return write(commitSession, false, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
+      public LoggerOperation write(DfsLogger logger, Collection<CommitSession> sessions) throws Exception {
         logger.defineTablet(commitSession.getWALogSeq(), commitSession.getLogId(), commitSession.getExtent());
         return null;
       }
@@ -346,13 +391,13 @@ public class TabletServerLogger {
   public int log(final CommitSession commitSession, final int tabletSeq, final Mutation m) throws IOException {
     if (!enabled(commitSession))
       return -1;
+    final Durability durability = durability(commitSession);
     int seq = write(commitSession, false, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
-        return logger.log(tabletSeq, commitSession.getLogId(), m);
+      public LoggerOperation write(DfsLogger logger, Collection<CommitSession> sessions) throws Exception {
+        return logger.log(tabletSeq, commitSession.getLogId(), m, durability);
       }
     });
-    logSizeEstimate.addAndGet(m.numBytes());
     return seq;
   }
 
@@ -368,21 +413,19 @@ public class TabletServerLogger {
 
     int seq = write(loggables.keySet(), false, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
-        List<TabletMutations> copy = new ArrayList<TabletMutations>(loggables.size());
-        for (Entry<CommitSession,List<Mutation>> entry : loggables.entrySet()) {
-          CommitSession cs = entry.getKey();
-          copy.add(new TabletMutations(cs.getLogId(), cs.getWALogSeq(), entry.getValue()));
+      public LoggerOperation write(DfsLogger logger, Collection<CommitSession> sessions) throws Exception {
+        List<TabletMutations> copy = new ArrayList<TabletMutations>(sessions.size());
+        Durability durability = Durability.NONE;
+        for (CommitSession cs : sessions) {
+          copy.add(new TabletMutations(cs.getLogId(), cs.getWALogSeq(), loggables.get(cs)));
+          durability = durability.max(durability(cs));
         }
-        return logger.logManyTablets(copy);
+        return logger.logManyTablets(copy, durability);
       }
     });
     for (List<Mutation> entry : loggables.values()) {
       if (entry.size() < 1)
         throw new IllegalArgumentException("logManyTablets: logging empty mutation list");
-      for (Mutation m : entry) {
-        logSizeEstimate.addAndGet(m.numBytes());
-      }
     }
     return seq;
   }
@@ -396,7 +439,7 @@ public class TabletServerLogger {
 
     int seq = write(commitSession, true, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
+      public LoggerOperation write(DfsLogger logger, Collection<CommitSession> sessions) throws Exception {
         logger.minorCompactionFinished(walogSeq, commitSession.getLogId(), fullyQualifiedFileName).await();
         return null;
       }
@@ -412,7 +455,7 @@ public class TabletServerLogger {
       return -1;
     write(commitSession, false, new Writer() {
       @Override
-      public LoggerOperation write(DfsLogger logger, int ignored) throws Exception {
+      public LoggerOperation write(DfsLogger logger, Collection<CommitSession> sessions) throws Exception {
         logger.minorCompactionStarted(seq, commitSession.getLogId(), fullyQualifiedFileName).await();
         return null;
       }
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+/**
+ * Latencies of the stages a write to the write-ahead logs goes through, shared by all the logs of a tablet server.
+ */
+public class WriteAheadLogStats {
+
+  private final LatencyHistogram queued = new LatencyHistogram();
+  private final LatencyHistogram written = new LatencyHistogram();
+  private final LatencyHistogram synced = new LatencyHistogram();
+
+  /**
+   * Time from a write being queued until the log thread picks it up.
+   */
+  public LatencyHistogram getQueued() {
+    return queued;
+  }
+
+  /**
+   * Time to encrypt and write a batch of writes to the log file.
+   */
+  public LatencyHistogram getWritten() {
+    return written;
+  }
+
+  /**
+   * Time to flush or sync a batch of writes, as required by the most durable write in the batch.
+   */
+  public LatencyHistogram getSynced() {
+    return synced;
+  }
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.accumulo.tserver.metrics;
 
+import java.util.Map;
+
 public interface TabletServerMBean {
   
   int getOnlineCount();
@@ -47,4 +49,21 @@ public interface TabletServerMBean {
   String getName();
   
   double getAverageFilesPerTablet();
+  
+  long getReusedCacheBlocks();
+  
+  /**
+   * @return the number of seeks each table's bloom filters ruled out, by table id
+   */
+  Map<String,Long> getBloomFilterNegatives();
+  
+  /**
+   * @return the fraction of seeks for absent keys each table's bloom filters did not rule out, by table id
+   */
+  Map<String,Double> getBloomFilterFalsePositiveRates();
+  
+  /**
+   * @return percentiles in microseconds of the time writes to the write-ahead log spend queued, being written and being synced, keyed like "sync.p99"
+   */
+  Map<String,Long> getWALogLatencyPercentiles();
 }
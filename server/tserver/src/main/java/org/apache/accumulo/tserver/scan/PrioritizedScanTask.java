@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A scan waiting in the priority queue of a scan executor. Scans are ordered by the prioritizer of the executor, and in the order they were queued when it
+ * does not prefer one.
+ */
+public class PrioritizedScanTask implements Runnable, Comparable<PrioritizedScanTask> {
+
+  private static final AtomicLong nextSequence = new AtomicLong(0);
+
+  private final Runnable task;
+  private final ScanInfo info;
+  private final Comparator<ScanInfo> prioritizer;
+  private final long sequence;
+
+  public PrioritizedScanTask(Runnable task, ScanInfo info, Comparator<ScanInfo> prioritizer) {
+    this.task = task;
+    this.info = info;
+    this.prioritizer = prioritizer;
+    this.sequence = nextSequence.getAndIncrement();
+  }
+
+  public ScanInfo getScanInfo() {
+    return info;
+  }
+
+  @Override
+  public void run() {
+    task.run();
+  }
+
+  @Override
+  public int compareTo(PrioritizedScanTask o) {
+    int cmp = prioritizer.compare(info, o.info);
+    if (cmp != 0)
+      return cmp;
+    return Long.compare(sequence, o.sequence);
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * What a {@link ScanPrioritizer} knows about a scan waiting for a thread. It is taken when the scan is queued and does not change while it waits.
+ */
+public class ScanInfo {
+
+  public static enum Type {
+    /** a scan of one tablet, from a scanner */
+    SINGLE,
+    /** a lookup of many ranges over many tablets, from a batch scanner */
+    MULTI
+  }
+
+  /** the execution hint naming the scan executor to run the scan in */
+  public static final String EXECUTOR_HINT = "executor";
+  /** the execution hint that keeps blocks read by the scan out of the cache when false */
+  public static final String CACHE_HINT = "cache";
+
+  /**
+   * @return the execution hints a client sent, empty if it sent none
+   */
+  public static Map<String,String> hints(Map<String,String> executionHints) {
+    if (executionHints == null)
+      return Collections.emptyMap();
+    return executionHints;
+  }
+
+  /**
+   * @return false if the client asked for blocks not to be cached, either with the cache hint or directly
+   */
+  public static boolean cacheBlocks(Map<String,String> executionHints, boolean cacheBlocks) {
+    return cacheBlocks && !"false".equalsIgnoreCase(executionHints.get(CACHE_HINT));
+  }
+
+  private final Type type;
+  private final String tableId;
+  private final String user;
+  private final long creationTime;
+  private final long batchCount;
+  private final Map<String,String> executionHints;
+
+  public ScanInfo(Type type, String tableId, String user, long creationTime, long batchCount, Map<String,String> executionHints) {
+    this.type = type;
+    this.tableId = tableId;
+    this.user = user;
+    this.creationTime = creationTime;
+    this.batchCount = batchCount;
+    this.executionHints = executionHints;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getTableId() {
+    return tableId;
+  }
+
+  public String getUser() {
+    return user;
+  }
+
+  /**
+   * @return the time in millis the scan session was created
+   */
+  public long getCreationTime() {
+    return creationTime;
+  }
+
+  /**
+   * @return the number of batches the scan has already returned to the client
+   */
+  public long getBatchCount() {
+    return batchCount;
+  }
+
+  /**
+   * @return the hints the client sent for the scan, see ScannerBase.setExecutionHints()
+   */
+  public Map<String,String> getExecutionHints() {
+    return executionHints;
+  }
+}
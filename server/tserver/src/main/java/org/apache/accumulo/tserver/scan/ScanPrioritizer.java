@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * The interface for ordering the scans that wait for a thread of a scan executor. Scans that compare lower run first, scans that compare equal run in the
+ * order they were queued. A scan is compared on what it was when it was queued, so compare must not look at anything that changes.
+ * <p>
+ * Each scan executor creates its own prioritizer, see <tt>tserver.scan.executors.</tt>
+ */
+public abstract class ScanPrioritizer implements Comparator<ScanInfo> {
+
+  /**
+   * The settings for the prioritizer. The <tt>tserver.scan.executors.&lt;name&gt;.prioritizer.opts.</tt> part of the setting will be removed.
+   */
+  public void init(Map<String,String> options) {}
+
+}
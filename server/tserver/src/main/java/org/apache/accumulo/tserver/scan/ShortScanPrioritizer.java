@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import java.util.Map;
+
+/**
+ * Runs short scans before long ones, so lookups are not stuck behind scans reading a lot of data. A scan that has returned fewer batches is assumed to be
+ * shorter, and batches are counted in groups of <tt>batch.group</tt> (default 1) so that long scans take turns in the order they started. Scans of one tablet
+ * come before batch scans over many tablets that have returned as many batches, and older scans come before newer ones.
+ */
+public class ShortScanPrioritizer extends ScanPrioritizer {
+
+  public static final String BATCH_GROUP_OPT = "batch.group";
+
+  private long batchGroup = 1;
+
+  @Override
+  public void init(Map<String,String> options) {
+    String group = options.get(BATCH_GROUP_OPT);
+    if (group != null) {
+      batchGroup = Long.parseLong(group);
+      if (batchGroup < 1)
+        throw new IllegalArgumentException(BATCH_GROUP_OPT + " must be at least 1 : " + group);
+    }
+  }
+
+  @Override
+  public int compare(ScanInfo a, ScanInfo b) {
+    int cmp = Long.compare(a.getBatchCount() / batchGroup, b.getBatchCount() / batchGroup);
+    if (cmp != 0)
+      return cmp;
+    cmp = a.getType().compareTo(b.getType());
+    if (cmp != 0)
+      return cmp;
+    return Long.compare(a.getCreationTime(), b.getCreationTime());
+  }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IterationInterruptedException;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.system.InterruptibleIterator;
+import org.apache.accumulo.core.util.LocalityGroupUtil;
+import org.junit.Test;
+
+public class ArenaMapTest {
+
+  private static String fmt(int i) {
+    return String.format("%06d", i);
+  }
+
+  private static Mutation randomMutation(Random rand, int row) {
+    Mutation m = new Mutation(fmt(row));
+    for (int i = rand.nextInt(4); i >= 0; i--) {
+      String cf = "cf" + rand.nextInt(3);
+      String cq = "cq" + rand.nextInt(3);
+      long ts = rand.nextInt(3);
+      if (rand.nextInt(10) == 0)
+        m.putDelete(cf, cq, ts);
+      else
+        m.put(cf, cq, ts, new Value(new byte[rand.nextInt(50)]));
+    }
+    return m;
+  }
+
+  private static void put(TreeMap<Key,Value> expected, Mutation m, int kvCount) {
+    for (ColumnUpdate cu : m.getUpdates()) {
+      Key key = new MemKey(m.getRow(), cu.getColumnFamily(), cu.getColumnQualifier(), cu.getColumnVisibility(), cu.getTimestamp(), cu.isDeleted(), false,
+          kvCount++);
+      expected.put(key, new Value(cu.getValue()));
+    }
+  }
+
+  private static void assertSame(TreeMap<Key,Value> expected, SortedKeyValueIterator<Key,Value> iter, Range range) throws Exception {
+    iter.seek(range, LocalityGroupUtil.EMPTY_CF_SET, false);
+    for (Entry<Key,Value> entry : expected.entrySet()) {
+      if (!range.contains(entry.getKey()))
+        continue;
+      assertTrue(iter.hasTop());
+      assertEquals(entry.getKey(), iter.getTopKey());
+      assertEquals(((MemKey) entry.getKey()).kvCount, ((MemKey) iter.getTopKey()).kvCount);
+      assertEquals(entry.getValue(), iter.getTopValue());
+      iter.next();
+    }
+    assertFalse(iter.hasTop());
+  }
+
+  @Test
+  public void testRandom() throws Exception {
+    Random rand = new Random(42);
+    ArenaMap map = new ArenaMap();
+    TreeMap<Key,Value> expected = new TreeMap<Key,Value>(new MemKeyComparator());
+
+    int kvCount = 0;
+    for (int i = 0; i < 2000; i++) {
+      List<Mutation> mutations = new ArrayList<Mutation>();
+      for (int j = rand.nextInt(3); j >= 0; j--)
+        mutations.add(randomMutation(rand, rand.nextInt(500)));
+      map.mutate(mutations, kvCount);
+      for (Mutation m : mutations) {
+        put(expected, m, kvCount);
+        kvCount += m.size();
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+
+    Iterator<Entry<Key,Value>> iter = map.iterator(new MemKey());
+    for (Entry<Key,Value> entry : expected.entrySet()) {
+      assertTrue(iter.hasNext());
+      Entry<Key,Value> actual = iter.next();
+      assertEquals(entry.getKey(), actual.getKey());
+      assertEquals(entry.getValue(), actual.getValue());
+      assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+    assertFalse(iter.hasNext());
+
+    InterruptibleIterator skvi = map.skvIterator();
+    assertSame(expected, skvi, new Range());
+    for (int i = 0; i < 100; i++) {
+      int r1 = rand.nextInt(510);
+      int r2 = r1 + 1 + rand.nextInt(20);
+      Range range = new Range(fmt(r1), rand.nextBoolean(), fmt(r2), rand.nextBoolean());
+      assertSame(expected, skvi, range);
+      assertSame(expected, skvi.deepCopy(null), range);
+    }
+  }
+
+  @Test
+  public void testOrdering() throws Exception {
+    ArenaMap map = new ArenaMap();
+
+    Mutation m1 = new Mutation("r1");
+    m1.put("cf", "cq", 5, new Value("v1".getBytes()));
+    m1.putDelete("cf", "cq", 5);
+    m1.put("cf", "cq", 9, new Value("v2".getBytes()));
+    map.mutate(Collections.singletonList(m1), 0);
+
+    Mutation m2 = new Mutation("r1");
+    m2.put("cf", "cq", 5, new Value("v3".getBytes()));
+    map.mutate(Collections.singletonList(m2), 3);
+
+    // newest timestamp first, deletes before puts and later writes before earlier ones
+    Iterator<Entry<Key,Value>> iter = map.iterator(new Key());
+    Key k = iter.next().getKey();
+    assertEquals(9, k.getTimestamp());
+    k = iter.next().getKey();
+    assertTrue(k.isDeleted());
+    Entry<Key,Value> e = iter.next();
+    assertEquals(3, ((MemKey) e.getKey()).kvCount);
+    assertEquals("v3", e.getValue().toString());
+    e = iter.next();
+    assertEquals(0, ((MemKey) e.getKey()).kvCount);
+    assertEquals("v1", e.getValue().toString());
+    assertFalse(iter.hasNext());
+
+    assertEquals("v1", map.get(new MemKey(new Key("r1", "cf", "cq", 5), 0)).toString());
+    assertNull(map.get(new MemKey(new Key("r1", "cf", "cq", 5), 1)));
+    assertNull(map.get(new Key("r0")));
+  }
+
+  @Test
+  public void testMemoryUsed() throws Exception {
+    ArenaMap map = new ArenaMap();
+    long empty = map.getMemoryUsed();
+    assertTrue(empty > 0);
+
+    long bytes = 0;
+    for (int i = 0; i < 10000; i++) {
+      Mutation m = new Mutation(fmt(i));
+      m.put("cf", "cq", new Value(new byte[100]));
+      map.mutate(Collections.singletonList(m), i);
+      bytes += 6 + 2 + 2 + 100;
+    }
+
+    // within a few slabs and chunks of the data itself
+    assertTrue(map.getMemoryUsed() > bytes);
+    assertTrue(map.getMemoryUsed() < bytes * 2 + 10000 * 60);
+
+    // an entry larger than a slab gets its own
+    Mutation m = new Mutation("big");
+    m.put("cf", "cq", new Value(new byte[3 << 20]));
+    map.mutate(Collections.singletonList(m), 10000);
+    assertEquals(3 << 20, map.iterator(new Key("big")).next().getValue().getSize());
+  }
+
+  @Test
+  public void testDelete() throws Exception {
+    ArenaMap map = new ArenaMap();
+    Mutation m = new Mutation("r1");
+    m.put("cf", "cq", new Value("v".getBytes()));
+    map.mutate(Collections.singletonList(m), 0);
+
+    InterruptibleIterator iter = map.skvIterator();
+    map.delete();
+
+    // existing iterators keep working
+    iter.seek(new Range(), LocalityGroupUtil.EMPTY_CF_SET, false);
+    assertTrue(iter.hasTop());
+
+    try {
+      map.skvIterator();
+      fail();
+    } catch (IllegalStateException e) {}
+  }
+
+  @Test(expected = IterationInterruptedException.class)
+  public void testInterrupt() throws Exception {
+    ArenaMap map = new ArenaMap();
+    Mutation m = new Mutation("r1");
+    m.put("cf", "cq", new Value("v".getBytes()));
+    map.mutate(Collections.singletonList(m), 0);
+
+    InterruptibleIterator iter = map.skvIterator();
+    iter.setInterruptFlag(new AtomicBoolean(true));
+    iter.seek(new Range(), LocalityGroupUtil.EMPTY_CF_SET, false);
+  }
+
+  @Test
+  public void testConcurrentReader() throws Exception {
+    final ArenaMap map = new ArenaMap();
+    final int rows = 20000;
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        Random rand = new Random(7);
+        for (int i = 0; i < rows; i++) {
+          Mutation m = new Mutation(fmt(rand.nextInt(rows * 10)));
+          m.put("cf", "cq", new Value(new byte[rand.nextInt(20)]));
+          map.mutate(Collections.singletonList(m), i);
+        }
+      }
+    };
+
+    Thread reader = new Thread() {
+      @Override
+      public void run() {
+        try {
+          while (map.size() < rows) {
+            // every scan must see a sorted list of complete entries
+            SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+            iter.seek(new Range(), LocalityGroupUtil.EMPTY_CF_SET, false);
+            Key prev = null;
+            while (iter.hasTop()) {
+              Key k = iter.getTopKey();
+              if (prev != null && new MemKeyComparator().compare(prev, k) >= 0)
+                throw new AssertionError(prev + " >= " + k);
+              if (!k.getColumnFamily().toString().equals("cf") || iter.getTopValue().getSize() >= 20)
+                throw new AssertionError("bad entry " + k);
+              prev = k;
+              iter.next();
+            }
+          }
+        } catch (Throwable t) {
+          errors.add(t);
+        }
+      }
+    };
+
+    reader.start();
+    writer.start();
+    writer.join();
+    reader.join();
+
+    assertEquals(Collections.emptyList(), errors);
+    assertEquals(rows, map.size());
+  }
+}
@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.ByteSequence;
@@ -378,14 +379,100 @@ public class InMemoryMapTest {
     }
   }
 
+  @Test
+  public void testConcurrentWriters() throws Exception {
+    Map<String,Set<ByteSequence>> lggroups = new HashMap<String,Set<ByteSequence>>();
+    lggroups.put("lg1", newCFSet("cf1"));
+    final InMemoryMap imm = new InMemoryMap(lggroups, false, tempFolder.newFolder().getAbsolutePath());
+
+    final int writers = 4;
+    final int mutationsPerWriter = 500;
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    final AtomicBoolean writing = new AtomicBoolean(true);
+
+    // readers must see all of a mutation or none of it, while the writers apply mutations in parallel
+    Thread reader = new Thread() {
+      @Override
+      public void run() {
+        try {
+          while (writing.get()) {
+            MemoryIterator iter = imm.skvIterator();
+            iter.seek(new Range(), new HashSet<ByteSequence>(), false);
+            String row = null;
+            int count = 0;
+            while (iter.hasTop()) {
+              String r = iter.getTopKey().getRow().toString();
+              if (!r.equals(row)) {
+                assertTrue(row == null || count == 3);
+                row = r;
+                count = 0;
+              }
+              count++;
+              iter.next();
+            }
+            assertTrue(row == null || count == 3);
+            iter.close();
+          }
+        } catch (Throwable t) {
+          errors.add(t);
+        }
+      }
+    };
+    reader.start();
+
+    ExecutorService e = Executors.newFixedThreadPool(writers);
+    for (int j = 0; j < writers; j++) {
+      final int writerId = j;
+      e.execute(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < mutationsPerWriter; i++) {
+            Mutation m = new Mutation(String.format("r%d_%04d", writerId, i));
+            m.put("cf1", "x", 1, "a");
+            m.put("cf2", "y", 1, "b");
+            m.put("cf3", "z", 1, "c");
+            imm.mutate(Collections.singletonList(m));
+          }
+        }
+      });
+    }
+    e.shutdown();
+    assertTrue(e.awaitTermination(60, TimeUnit.SECONDS));
+    writing.set(false);
+    reader.join();
+
+    assertEquals(Collections.emptyList(), errors);
+    assertEquals(writers * mutationsPerWriter * 3, imm.getNumEntries());
+
+    MemoryIterator iter = imm.skvIterator();
+    iter.seek(new Range(), new HashSet<ByteSequence>(), false);
+    int count = 0;
+    while (iter.hasTop()) {
+      count++;
+      iter.next();
+    }
+    iter.close();
+    assertEquals(writers * mutationsPerWriter * 3, count);
+    imm.delete(0);
+  }
+
   @Test
   public void testLocalityGroups() throws Exception {
+    testLocalityGroups(false);
+  }
+
+  @Test
+  public void testArenaMapLocalityGroups() throws Exception {
+    testLocalityGroups(true);
+  }
+
+  private void testLocalityGroups(boolean useArenaMap) throws Exception {
 
     Map<String,Set<ByteSequence>> lggroups1 = new HashMap<String,Set<ByteSequence>>();
     lggroups1.put("lg1", newCFSet("cf1", "cf2"));
     lggroups1.put("lg2", newCFSet("cf3", "cf4"));
 
-    InMemoryMap imm = new InMemoryMap(lggroups1, false, tempFolder.newFolder().getAbsolutePath());
+    InMemoryMap imm = new InMemoryMap(lggroups1, false, useArenaMap, tempFolder.newFolder().getAbsolutePath());
 
     Mutation m1 = new Mutation("r1");
     m1.put("cf1", "x", 2, "1");
@@ -130,6 +130,9 @@ public class DefaultCompactionStrategyTest {
     @Override
     public void closeDeepCopies() throws IOException {}
 
+    @Override
+    public void setCacheBlocks(boolean cacheBlocks) {}
+
     @Override
     public void close() throws IOException {}
 
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getPercentile(50));
+
+    // 90 fast writes of 3us and 10 slow ones of 5ms
+    for (int i = 0; i < 90; i++)
+      histogram.add(3000);
+    for (int i = 0; i < 10; i++)
+      histogram.add(5000000);
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(4, histogram.getPercentile(50));
+    assertEquals(4, histogram.getPercentile(90));
+    long p99 = histogram.getPercentile(99);
+    assertTrue(p99 >= 5000 && p99 < 10000);
+    assertEquals(4, histogram.getPercentile(0));
+  }
+
+  @Test
+  public void testExtremes() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.add(-5);
+    histogram.add(Long.MAX_VALUE);
+    assertEquals(2, histogram.getCount());
+    assertEquals(1, histogram.getPercentile(50));
+    assertTrue(histogram.getPercentile(100) > 1000L * 1000 * 1000);
+  }
+
+  @Test
+  public void testDurability() {
+    assertEquals(Durability.HSYNC, Durability.fromString("hsync"));
+    assertEquals(Durability.NONE, Durability.fromString(" None "));
+    assertEquals(Durability.HSYNC, Durability.fromString("bogus"));
+    assertEquals(Durability.HFLUSH, Durability.FLUSH.max(Durability.HFLUSH));
+    assertEquals(Durability.HFLUSH, Durability.HFLUSH.max(Durability.NONE));
+  }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import static org.apache.accumulo.tserver.logger.LogEvents.COMPACTION_START;
+import static org.apache.accumulo.tserver.logger.LogEvents.DEFINE_TABLET;
+import static org.apache.accumulo.tserver.logger.LogEvents.MUTATION;
+import static org.apache.accumulo.tserver.logger.LogEvents.OPEN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.KeyExtent;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.server.data.ServerMutation;
+import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.server.fs.VolumeManagerImpl;
+import org.apache.accumulo.tserver.logger.LogEvents;
+import org.apache.accumulo.tserver.logger.LogFileKey;
+import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.Text;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogSorterTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  private VolumeManager fs;
+  private FileSystem ns;
+  private String root;
+
+  @Before
+  public void setUp() throws Exception {
+    root = tempFolder.getRoot().getAbsolutePath();
+    fs = VolumeManagerImpl.getLocal(root);
+    ns = fs.getVolumeByPath(new Path("file://" + root)).getFileSystem();
+  }
+
+  private static LogFileKey key(LogEvents event, int tid, long seq) {
+    LogFileKey key = new LogFileKey();
+    key.event = event;
+    key.tid = tid;
+    key.seq = seq;
+    if (event == OPEN)
+      key.tserverSession = "session";
+    if (event == COMPACTION_START)
+      key.filename = "/t1/f" + seq;
+    if (event == DEFINE_TABLET)
+      key.tablet = new KeyExtent(new Text("t" + tid), null, null);
+    return key;
+  }
+
+  private static LogFileValue value(int i) {
+    LogFileValue value = new LogFileValue();
+    Mutation m = new ServerMutation(new Text(String.format("row%06d", i)));
+    m.put("cf", "cq", "v" + i);
+    value.mutations = Collections.singletonList(m);
+    return value;
+  }
+
+  /**
+   * Entries as a tablet server would log them, in the order they were written. Many mutations share an odd sequence number, like those written to one
+   * memory map do, and compactions start at the even number after it.
+   */
+  private static List<Pair<LogFileKey,LogFileValue>> logEntries(Random rand, int count) {
+    List<Pair<LogFileKey,LogFileValue>> entries = new ArrayList<Pair<LogFileKey,LogFileValue>>();
+    entries.add(new Pair<LogFileKey,LogFileValue>(key(OPEN, -1, -1), new LogFileValue()));
+    for (int tid = 1; tid <= 5; tid++)
+      entries.add(new Pair<LogFileKey,LogFileValue>(key(DEFINE_TABLET, tid, 0), new LogFileValue()));
+    for (int i = 0; i < count; i++) {
+      entries.add(new Pair<LogFileKey,LogFileValue>(key(MUTATION, 1 + rand.nextInt(5), 2 * (i / 100) + 1), value(i)));
+      // a minor compaction of one of the tablets, after its memory map
+      if (i % 100 == 99)
+        entries.add(new Pair<LogFileKey,LogFileValue>(key(COMPACTION_START, 1 + (i / 100) % 5, 2 * (i / 100) + 2), new LogFileValue()));
+    }
+    return entries;
+  }
+
+  private static void sort(List<Pair<LogFileKey,LogFileValue>> entries) {
+    // a stable sort, as each part is
+    Collections.sort(entries, new Comparator<Pair<LogFileKey,LogFileValue>>() {
+      @Override
+      public int compare(Pair<LogFileKey,LogFileValue> o1, Pair<LogFileKey,LogFileValue> o2) {
+        return o1.getFirst().compareTo(o2.getFirst());
+      }
+    });
+  }
+
+  private static String read(SortedLogFile.Reader reader) throws Exception {
+    StringBuilder sb = new StringBuilder();
+    LogFileKey key = new LogFileKey();
+    LogFileValue value = new LogFileValue();
+    while (reader.next(key, value))
+      sb.append(key).append(value).append('\n');
+    return sb.toString();
+  }
+
+  @SuppressWarnings("deprecation")
+  private static String read(MapFile.Reader reader) throws Exception {
+    StringBuilder sb = new StringBuilder();
+    LogFileKey key = new LogFileKey();
+    LogFileValue value = new LogFileValue();
+    while (reader.next(key, value))
+      sb.append(key).append(value).append('\n');
+    return sb.toString();
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testSeekLikeMapFile() throws Exception {
+    Random rand = new Random(5);
+    List<Pair<LogFileKey,LogFileValue>> entries = logEntries(rand, 2000);
+    sort(entries);
+
+    Path slog = new Path(root, "part." + SortedLogFile.EXTENSION);
+    SortedLogFile.write(ns, slog, entries);
+    String map = new Path(root, "map").toString();
+    MapFile.Writer writer = new MapFile.Writer(ns.getConf(), ns, map, LogFileKey.class, LogFileValue.class);
+    for (Pair<LogFileKey,LogFileValue> entry : entries)
+      writer.append(entry.getFirst(), entry.getSecond());
+    writer.close();
+
+    SortedLogFile.Reader reader = new SortedLogFile.Reader(ns, slog);
+    MapFile.Reader mapReader = new MapFile.Reader(ns, map, ns.getConf());
+    assertEquals(read(mapReader), read(reader));
+
+    List<LogFileKey> seeks = new ArrayList<LogFileKey>();
+    seeks.add(key(OPEN, -1, -1));
+    seeks.add(key(DEFINE_TABLET, 3, 0));
+    // recovery seeks to even sequence numbers, between those of the mutations
+    for (int i = 0; i < 50; i++)
+      seeks.add(key(rand.nextBoolean() ? MUTATION : COMPACTION_START, rand.nextInt(7), 2 * rand.nextInt(50)));
+
+    for (LogFileKey seek : seeks) {
+      boolean found = reader.seek(seek);
+      boolean mapFound;
+      try {
+        LogFileKey closest = (LogFileKey) mapReader.getClosest(seek, new LogFileValue(), true);
+        mapFound = closest != null && closest.equals(seek);
+      } catch (java.io.EOFException e) {
+        mapFound = false;
+      }
+      assertEquals("seeking " + seek, mapFound, found);
+      assertEquals("seeking " + seek, read(mapReader), read(reader));
+    }
+    reader.close();
+    mapReader.close();
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    Path slog = new Path(root, "empty." + SortedLogFile.EXTENSION);
+    SortedLogFile.write(ns, slog, new ArrayList<Pair<LogFileKey,LogFileValue>>());
+    SortedLogFile.Reader reader = new SortedLogFile.Reader(ns, slog);
+    assertFalse(reader.next(new LogFileKey(), new LogFileValue()));
+    assertFalse(reader.seek(key(MUTATION, 1, 1)));
+    assertFalse(reader.next(new LogFileKey(), new LogFileValue()));
+    reader.close();
+  }
+
+  @Test
+  public void testSortInParallel() throws Exception {
+    Random rand = new Random(7);
+    List<Pair<LogFileKey,LogFileValue>> entries = logEntries(rand, 5000);
+
+    Path log = new Path(root, "wal");
+    DataOutputStream out = ns.create(log);
+    for (Pair<LogFileKey,LogFileValue> entry : entries) {
+      entry.getFirst().write(out);
+      entry.getSecond().write(out);
+    }
+    out.close();
+
+    ConfigurationCopy conf = new ConfigurationCopy(new DefaultConfiguration());
+    // small enough for many parts
+    conf.set(Property.TSERV_SORT_BUFFER_SIZE, "40K");
+    conf.set(Property.TSERV_SORT_THREADS, "3");
+    String dest = new Path(root, "sorted").toString();
+    new LogSorter(null, fs, conf).new LogProcessor().sort("wal", log, dest);
+
+    assertTrue(ns.exists(new Path(dest, "finished")));
+    assertTrue(ns.listStatus(new Path(dest)).length > 5);
+
+    sort(entries);
+    MultiReader reader = new MultiReader(fs, new Path(dest));
+    LogFileKey key = new LogFileKey();
+    LogFileValue value = new LogFileValue();
+    LogFileKey prev = null;
+    int count = 0;
+    while (reader.next(key, value)) {
+      assertEquals(entries.get(count).getFirst(), key);
+      if (prev != null)
+        assertTrue(prev.compareTo(key) <= 0);
+      prev = key;
+      key = new LogFileKey();
+      count++;
+    }
+    assertEquals(entries.size(), count);
+    reader.close();
+  }
+
+  private static class CaptureMutations implements MutationReceiver {
+    List<Mutation> result = new ArrayList<Mutation>();
+
+    @Override
+    public void receive(Mutation m) {
+      result.add(m);
+    }
+  }
+
+  private List<Mutation> recover(Path dir, int tid) throws Exception {
+    CaptureMutations capture = new CaptureMutations();
+    new SortedLogRecovery(fs).recover(key(DEFINE_TABLET, tid, 0).tablet, Collections.singletonList(dir), new HashSet<String>(), capture);
+    return capture.result;
+  }
+
+  @Test
+  public void testRecoverWithIndex() throws Exception {
+    Random rand = new Random(11);
+    List<Pair<LogFileKey,LogFileValue>> entries = logEntries(rand, 5000);
+    // a tablet that only wrote at the start of the log
+    entries.add(6, new Pair<LogFileKey,LogFileValue>(key(DEFINE_TABLET, 6, 0), new LogFileValue()));
+    for (int i = 0; i < 3; i++)
+      entries.add(7, new Pair<LogFileKey,LogFileValue>(key(MUTATION, 6, 1), value(i)));
+
+    Path log = new Path(root, "wal");
+    DataOutputStream out = ns.create(log);
+    for (Pair<LogFileKey,LogFileValue> entry : entries) {
+      entry.getFirst().write(out);
+      entry.getSecond().write(out);
+    }
+    out.close();
+
+    ConfigurationCopy conf = new ConfigurationCopy(new DefaultConfiguration());
+    conf.set(Property.TSERV_SORT_BUFFER_SIZE, "40K");
+    Path dest = new Path(root, "sorted");
+    new LogSorter(null, fs, conf).new LogProcessor().sort("wal", log, dest.toString());
+
+    SortedLogIndex index = SortedLogIndex.read(fs, dest);
+    assertEquals("session", index.getSession());
+    assertEquals(6, index.getDefine(key(DEFINE_TABLET, 6, 0).tablet).tid);
+    assertEquals(Collections.singleton(SortedLogFile.partName(0)), index.getParts(6));
+    assertTrue(index.getParts(7).isEmpty());
+
+    List<List<Mutation>> indexed = new ArrayList<List<Mutation>>();
+    for (int tid = 1; tid <= 7; tid++)
+      indexed.add(recover(dest, tid));
+    assertEquals(3, indexed.get(5).size());
+    assertTrue(indexed.get(6).isEmpty());
+
+    // recovery reads all the parts of logs sorted without an index, and must find the same mutations
+    fs.delete(new Path(dest, SortedLogIndex.NAME));
+    for (int tid = 1; tid <= 7; tid++)
+      assertEquals(indexed.get(tid - 1), recover(dest, tid));
+  }
+}
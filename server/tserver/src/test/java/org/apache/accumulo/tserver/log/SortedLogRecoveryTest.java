@@ -537,6 +537,52 @@ public class SortedLogRecoveryTest {
     Assert.assertEquals(m5, mutations.get(4));
   }
 
+  @Test
+  public void testStripedLogSets() throws Exception {
+    // a tablet server writing to two logs at once, each tablet writes to one of them
+    KeyExtent other = new KeyExtent(new Text("other"), null, null);
+
+    Mutation ignored = new ServerMutation(new Text("ignored"));
+    ignored.put(cf, cq, value);
+    Mutation m = new ServerMutation(new Text("row1"));
+    m.put(cf, cq, value);
+    Mutation m2 = new ServerMutation(new Text("row2"));
+    m2.put(cf, cq, value);
+    Mutation m3 = new ServerMutation(new Text("row3"));
+    m3.put(cf, cq, value);
+
+    // first set: the tablet is on the first log, the other tablet on the second
+    KeyValue entries1[] = new KeyValue[] {createKeyValue(OPEN, 0, -1, "1"), createKeyValue(DEFINE_TABLET, 1, 1, extent),
+        createKeyValue(MUTATION, 2, 1, ignored), createKeyValue(COMPACTION_START, 3, 1, "/t1/f1"), createKeyValue(MUTATION, 4, 1, m),
+        createKeyValue(COMPACTION_FINISH, 5, 1, null),};
+    KeyValue entries2[] = new KeyValue[] {createKeyValue(OPEN, 0, -1, "2"), createKeyValue(DEFINE_TABLET, 1, 2, other),
+        createKeyValue(MUTATION, 2, 2, ignored),};
+    // second set, after the first rolled
+    KeyValue entries3[] = new KeyValue[] {createKeyValue(OPEN, 0, -1, "3"), createKeyValue(DEFINE_TABLET, 1, 2, other),
+        createKeyValue(MUTATION, 2, 2, ignored),};
+    KeyValue entries4[] = new KeyValue[] {createKeyValue(OPEN, 0, -1, "4"), createKeyValue(DEFINE_TABLET, 1, 1, extent),
+        createKeyValue(MUTATION, 6, 1, m2), createKeyValue(MUTATION, 8, 1, m3),};
+
+    for (KeyValue[] entries : Arrays.asList(entries1, entries2, entries3, entries4))
+      Arrays.sort(entries);
+
+    Map<String,KeyValue[]> logs = new TreeMap<String,KeyValue[]>();
+    logs.put("entries1", entries1);
+    logs.put("entries2", entries2);
+    logs.put("entries3", entries3);
+    logs.put("entries4", entries4);
+
+    List<Mutation> mutations = recover(logs, extent);
+
+    Assert.assertEquals(3, mutations.size());
+    Assert.assertEquals(m, mutations.get(0));
+    Assert.assertEquals(m2, mutations.get(1));
+    Assert.assertEquals(m3, mutations.get(2));
+
+    mutations = recover(logs, other);
+    Assert.assertEquals(2, mutations.size());
+  }
+
   @Test
   public void testMultipleTabletDefinition() throws Exception {
     // test for a tablet defined multiple times in a log file
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.apache.accumulo.trace.instrument.TraceRunnable;
+import org.junit.Test;
+
+public class ScanPrioritizerTest {
+
+  private final List<String> ran = new ArrayList<String>();
+
+  private void add(PriorityBlockingQueue<Runnable> queue, final String name, ScanInfo info, ScanPrioritizer prioritizer) {
+    // the executor wraps each scan in a TraceRunnable, which compares the scans it wraps
+    queue.add(new TraceRunnable(new PrioritizedScanTask(new Runnable() {
+      @Override
+      public void run() {
+        ran.add(name);
+      }
+    }, info, prioritizer)));
+  }
+
+  private List<String> runAll(PriorityBlockingQueue<Runnable> queue) {
+    Runnable r;
+    while ((r = queue.poll()) != null)
+      r.run();
+    return ran;
+  }
+
+  private static ScanInfo info(String name, ScanInfo.Type type, long created, long batches) {
+    return new ScanInfo(type, name, "user", created, batches, Collections.<String,String> emptyMap());
+  }
+
+  @Test
+  public void testFifo() {
+    PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<Runnable>();
+    ScanPrioritizer fifo = new FifoScanPrioritizer();
+    add(queue, "a", info("a", ScanInfo.Type.MULTI, 5, 100), fifo);
+    add(queue, "b", info("b", ScanInfo.Type.SINGLE, 1, 0), fifo);
+    add(queue, "c", info("c", ScanInfo.Type.SINGLE, 3, 7), fifo);
+    assertEquals(Arrays.asList("a", "b", "c"), runAll(queue));
+  }
+
+  @Test
+  public void testShortScansFirst() {
+    PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<Runnable>();
+    ScanPrioritizer prioritizer = new ShortScanPrioritizer();
+    prioritizer.init(Collections.<String,String> emptyMap());
+    add(queue, "long", info("long", ScanInfo.Type.SINGLE, 1, 50), prioritizer);
+    add(queue, "batch", info("batch", ScanInfo.Type.MULTI, 2, 0), prioritizer);
+    add(queue, "newer", info("newer", ScanInfo.Type.SINGLE, 4, 0), prioritizer);
+    add(queue, "older", info("older", ScanInfo.Type.SINGLE, 3, 0), prioritizer);
+    add(queue, "tie", info("tie", ScanInfo.Type.SINGLE, 3, 0), prioritizer);
+    assertEquals(Arrays.asList("older", "tie", "newer", "batch", "long"), runAll(queue));
+  }
+
+  @Test
+  public void testBatchGroup() {
+    ScanPrioritizer prioritizer = new ShortScanPrioritizer();
+    prioritizer.init(Collections.singletonMap(ShortScanPrioritizer.BATCH_GROUP_OPT, "10"));
+    // both have returned less than 10 batches, so the older one runs first
+    assertTrue(prioritizer.compare(info("a", ScanInfo.Type.SINGLE, 1, 9), info("b", ScanInfo.Type.SINGLE, 2, 0)) < 0);
+    assertTrue(prioritizer.compare(info("a", ScanInfo.Type.SINGLE, 1, 10), info("b", ScanInfo.Type.SINGLE, 2, 9)) > 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadBatchGroup() {
+    new ShortScanPrioritizer().init(Collections.singletonMap(ShortScanPrioritizer.BATCH_GROUP_OPT, "0"));
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.accumulo.test.performance.scan;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.cli.Help;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iterators.system.MultiIterator;
+import org.apache.hadoop.io.Text;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * Compares the loser tree that merges sources in MultiIterator, LocalityGroupIterator and RFile.Reader with the binary heap merge they used before, which
+ * removed the source on top and added it back for every key. Sources hold interleaved runs of keys, the merge of long runs stays on one source.
+ */
+public class HeapIteratorBenchmark {
+  
+  static class Opts extends Help {
+    @Parameter(names = "--sources", description = "number of sources to merge")
+    int sources = 24;
+    @Parameter(names = "--entries", description = "number of keys in all the sources")
+    int entries = 1000000;
+    @Parameter(names = "--runs", description = "comma separated lengths of the runs of keys that come from one source")
+    String runs = "1,16,1024";
+    @Parameter(names = "--iterations", description = "times to merge each set of sources, the first one warms up")
+    int iterations = 6;
+  }
+  
+  /**
+   * The merge HeapIterator did with a binary heap.
+   */
+  private static class BinaryHeapMerge {
+    private final PriorityQueue<SortedKeyValueIterator<Key,Value>> heap;
+    
+    BinaryHeapMerge(List<SortedKeyValueIterator<Key,Value>> sources) {
+      heap = new PriorityQueue<SortedKeyValueIterator<Key,Value>>(sources.size(), new Comparator<SortedKeyValueIterator<Key,Value>>() {
+        @Override
+        public int compare(SortedKeyValueIterator<Key,Value> a, SortedKeyValueIterator<Key,Value> b) {
+          return a.getTopKey().compareTo(b.getTopKey());
+        }
+      });
+      for (SortedKeyValueIterator<Key,Value> source : sources)
+        if (source.hasTop())
+          heap.add(source);
+    }
+    
+    boolean hasTop() {
+      return !heap.isEmpty();
+    }
+    
+    Key getTopKey() {
+      return heap.peek().getTopKey();
+    }
+    
+    void next() throws IOException {
+      SortedKeyValueIterator<Key,Value> source = heap.remove();
+      source.next();
+      if (source.hasTop())
+        heap.add(source);
+    }
+  }
+  
+  private static List<TreeMap<Key,Value>> createSources(int numSources, int entries, int runLength, Random random) {
+    List<TreeMap<Key,Value>> sources = new ArrayList<TreeMap<Key,Value>>();
+    for (int i = 0; i < numSources; i++)
+      sources.add(new TreeMap<Key,Value>());
+    
+    Value value = new Value(new byte[8]);
+    Text cf = new Text("cf");
+    Text cq = new Text("cq");
+    int source = 0;
+    for (int i = 0; i < entries; i++) {
+      if (i % runLength == 0)
+        source = random.nextInt(numSources);
+      sources.get(source).put(new Key(new Text(String.format("row_%010d", i)), cf, cq), value);
+    }
+    return sources;
+  }
+  
+  private static List<SortedKeyValueIterator<Key,Value>> seek(List<TreeMap<Key,Value>> maps) throws IOException {
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<SortedKeyValueIterator<Key,Value>>();
+    for (TreeMap<Key,Value> map : maps) {
+      SortedMapIterator iter = new SortedMapIterator(map);
+      iter.seek(new Range(), Collections.<ByteSequence> emptySet(), false);
+      iters.add(iter);
+    }
+    return iters;
+  }
+  
+  private static long timeLoserTree(List<TreeMap<Key,Value>> maps) throws IOException {
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<SortedKeyValueIterator<Key,Value>>();
+    for (TreeMap<Key,Value> map : maps)
+      iters.add(new SortedMapIterator(map));
+    long t1 = System.nanoTime();
+    MultiIterator mi = new MultiIterator(iters, true);
+    mi.seek(new Range(), Collections.<ByteSequence> emptySet(), false);
+    long count = 0;
+    while (mi.hasTop()) {
+      mi.getTopKey();
+      mi.next();
+      count++;
+    }
+    long t2 = System.nanoTime();
+    check(maps, count);
+    return t2 - t1;
+  }
+  
+  private static long timeBinaryHeap(List<TreeMap<Key,Value>> maps) throws IOException {
+    long t1 = System.nanoTime();
+    BinaryHeapMerge merge = new BinaryHeapMerge(seek(maps));
+    long count = 0;
+    while (merge.hasTop()) {
+      merge.getTopKey();
+      merge.next();
+      count++;
+    }
+    long t2 = System.nanoTime();
+    check(maps, count);
+    return t2 - t1;
+  }
+  
+  private static void check(List<TreeMap<Key,Value>> maps, long count) {
+    long expected = 0;
+    for (TreeMap<Key,Value> map : maps)
+      expected += map.size();
+    if (count != expected)
+      throw new IllegalStateException("Merged " + count + " keys, expected " + expected);
+  }
+  
+  public static void main(String[] args) throws Exception {
+    Opts opts = new Opts();
+    opts.parseArgs(HeapIteratorBenchmark.class.getName(), args);
+    
+    Random random = new Random(42);
+    System.out.printf("%8s %8s %10s %16s %16s%n", "sources", "run", "entries", "binary heap ms", "loser tree ms");
+    for (String run : opts.runs.split(",")) {
+      int runLength = Integer.parseInt(run.trim());
+      List<TreeMap<Key,Value>> maps = createSources(opts.sources, opts.entries, runLength, random);
+      
+      long heapTime = 0;
+      long treeTime = 0;
+      for (int i = 0; i < opts.iterations; i++) {
+        // alternate which merge goes first so neither always runs on a warmer heap
+        long heap, tree;
+        if (i % 2 == 0) {
+          heap = timeBinaryHeap(maps);
+          tree = timeLoserTree(maps);
+        } else {
+          tree = timeLoserTree(maps);
+          heap = timeBinaryHeap(maps);
+        }
+        if (i > 0) {
+          heapTime += heap;
+          treeTime += tree;
+        }
+      }
+      int timed = Math.max(1, opts.iterations - 1);
+      System.out.printf("%8d %8d %10d %16.2f %16.2f%n", opts.sources, runLength, opts.entries, heapTime / timed / 1000000.0, treeTime / timed / 1000000.0);
+    }
+  }
+}
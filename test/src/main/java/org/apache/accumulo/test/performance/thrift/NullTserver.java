@@ -100,6 +100,9 @@ public class NullTserver {
     @Override
     public void applyUpdates(TInfo tinfo, long updateID, TKeyExtent keyExtent, List<TMutation> mutation) {}
     
+    @Override
+    public void applyUpdateBatches(TInfo tinfo, long updateID, TKeyExtent keyExtent, List<ByteBuffer> batches) {}
+    
     @Override
     public UpdateErrors closeUpdate(TInfo tinfo, long updateID) {
       return new UpdateErrors(new HashMap<TKeyExtent,Long>(), new ArrayList<TConstraintViolationSummary>(), new HashMap<TKeyExtent,SecurityErrorCode>());
@@ -122,7 +125,7 @@ public class NullTserver {
     }
     
     @Override
-    public ScanResult continueScan(TInfo tinfo, long scanID) {
+    public ScanResult continueScan(TInfo tinfo, long scanID, int batchSize) {
       return null;
     }
     
@@ -133,13 +136,15 @@ public class NullTserver {
     
     @Override
     public InitialMultiScan startMultiScan(TInfo tinfo, TCredentials credentials, Map<TKeyExtent,List<TRange>> batch, List<TColumn> columns,
-        List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites) {
+        List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites,
+        boolean cacheBlocks, Map<String,String> executionHints) {
       return null;
     }
     
     @Override
     public InitialScan startScan(TInfo tinfo, TCredentials credentials, TKeyExtent extent, TRange range, List<TColumn> columns, int batchSize,
-        List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold) {
+        List<IterInfo> ssiList, Map<String,Map<String,String>> ssio, List<ByteBuffer> authorizations, boolean waitForWrites, boolean isolated, long readaheadThreshold,
+        boolean cacheBlocks, Map<String,String> executionHints) {
       return null;
     }
     